@@ -0,0 +1,101 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.OrderItem;
+import com.sara.ecom.entity.User;
+import com.sara.ecom.entity.WhatsAppTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders one order-status WhatsApp message using all sixteen placeholders, the way a status
+ * broadcast does per customer: through the old String.replace chain, from template text (compiled
+ * template cached by content) and from a stored template (cached by ID and version).
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=MessageTemplate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class MessageTemplateBenchmark {
+
+    private static final String TEMPLATE = """
+            Hi {{name}}, your order {{order_id}} placed on {{order_date}} is now {{status}} ({{custom_status}}).
+            Items: {{items_count}}
+            Subtotal: {{subtotal}}  GST: {{gst}}  Shipping: {{shipping}}
+            Coupon {{coupon_code}}: -{{coupon_discount}}
+            Total: {{amount}}  Payment: {{payment_status}}
+            {{custom_message}}
+            Questions? Reply to this message. {{unknown}}
+            """;
+
+    private WhatsAppService whatsApp;
+    private WhatsAppTemplate storedTemplate;
+    private Order order;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        whatsApp = new WhatsAppService();
+        ReflectionTestUtils.setField(whatsApp, "templateEngine", new MessageTemplateEngine());
+
+        storedTemplate = new WhatsAppTemplate();
+        storedTemplate.setId(1L);
+        storedTemplate.setMessageTemplate(TEMPLATE);
+        storedTemplate.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        order = new Order();
+        order.setOrderNumber("ORD-20260309-0042");
+        order.setUserName("Ravi Kumar");
+        order.setStatus(Order.OrderStatus.values()[0]);
+        order.setCustomStatus("Dyeing");
+        order.setPaymentStatus(Order.PaymentStatus.PAID);
+        order.setSubtotal(new BigDecimal("2400.00"));
+        order.setGst(new BigDecimal("120.00"));
+        order.setShipping(new BigDecimal("80.00"));
+        order.setCouponCode("SAVE10");
+        order.setCouponDiscount(new BigDecimal("240.00"));
+        order.setTotal(new BigDecimal("2360.00"));
+        order.setCreatedAt(LocalDateTime.of(2026, 3, 9, 14, 30));
+        OrderItem first = new OrderItem();
+        first.setQuantity(2);
+        OrderItem second = new OrderItem();
+        second.setQuantity(3);
+        order.setItems(List.of(first, second));
+
+        user = new User();
+        user.setFirstName("Asha");
+        user.setLastName("Verma");
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return LegacyMessageTemplates.replaceVariables(TEMPLATE, order, user, "Thank you for shopping with us!");
+    }
+
+    @Benchmark
+    public String compiledFromText() {
+        return whatsApp.replaceVariables(TEMPLATE, order, user, "Thank you for shopping with us!");
+    }
+
+    @Benchmark
+    public String compiledStoredTemplate() {
+        return whatsApp.replaceVariables(storedTemplate, order, user, "Thank you for shopping with us!");
+    }
+}
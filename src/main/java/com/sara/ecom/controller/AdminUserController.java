@@ -1,6 +1,7 @@
 package com.sara.ecom.controller;
 
 import com.sara.ecom.dto.UserDto;
+import com.sara.ecom.security.AuthenticatedUserCache;
 import com.sara.ecom.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +17,9 @@ public class AdminUserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+    
     @GetMapping
     public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(required = false) String status) {
         List<UserDto> users;
@@ -27,6 +31,14 @@ public class AdminUserController {
         return ResponseEntity.ok(users);
     }
     
+    /**
+     * Token parse and cache-hit counters of the JWT authentication cache.
+     */
+    @GetMapping("/auth-cache")
+    public ResponseEntity<Map<String, Object>> getAuthCacheStats() {
+        return ResponseEntity.ok(authenticatedUserCache.getStats());
+    }
+    
     @GetMapping("/{email}")
     public ResponseEntity<UserDto> getUserByEmail(@PathVariable String email) {
         return ResponseEntity.ok(userService.getUserByEmail(email));
@@ -4,7 +4,12 @@ import com.sara.ecom.dto.BlogDto;
 import com.sara.ecom.dto.CMSDto;
 import com.sara.ecom.service.BlogService;
 import com.sara.ecom.service.CMSService;
+import com.sara.ecom.service.HomepageSnapshot;
+import com.sara.ecom.service.HomepageSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,11 +26,30 @@ public class CMSController {
     @Autowired
     private BlogService blogService;
     
+    @Autowired
+    private HomepageSnapshotService homepageSnapshotService;
+    
     // ===== Public Endpoints =====
     
+    /**
+     * Homepage content from the in-memory snapshot. Send the ETag back in If-None-Match to get a 304
+     * when nothing changed; embedProducts=true adds the best-seller/new-arrival cards and featured blogs.
+     */
     @GetMapping("/cms/homepage")
-    public ResponseEntity<CMSDto.HomepageResponse> getHomepage() {
-        return ResponseEntity.ok(cmsService.getHomepageData());
+    public ResponseEntity<CMSDto.HomepageResponse> getHomepage(
+            @RequestParam(defaultValue = "false") boolean embedProducts,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        HomepageSnapshot snapshot = homepageSnapshotService.getSnapshot(embedProducts);
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.getResponse());
     }
     
     @GetMapping("/cms/best-sellers")
@@ -109,6 +133,11 @@ public class CMSController {
     
     // ===== Admin Endpoints =====
     
+    @GetMapping("/admin/cms/homepage-snapshot")
+    public ResponseEntity<Map<String, Object>> getHomepageSnapshotStats() {
+        return ResponseEntity.ok(homepageSnapshotService.getStats());
+    }
+    
     // Best Sellers
     @PutMapping("/admin/cms/best-sellers")
     public ResponseEntity<Void> setBestSellers(@RequestBody CMSDto.HomepageSectionRequest request) {
@@ -6,6 +6,8 @@ import com.sara.ecom.exception.InvalidSessionException;
 import com.sara.ecom.repository.UserRepository;
 import com.sara.ecom.service.CartService;
 import com.sara.ecom.service.JwtService;
+import com.sara.ecom.service.PriceLocalizationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +24,9 @@ public class CartController {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private PriceLocalizationService priceLocalizationService;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -29,9 +34,11 @@ public class CartController {
     public ResponseEntity<CartDto> getCart(
             @RequestHeader("Authorization") String authHeader,
             @RequestParam(required = false) String state,
-            @RequestParam(required = false) String couponCode) {
+            @RequestParam(required = false) String couponCode,
+            HttpServletRequest request) {
         String userEmail = getUserEmailFromToken(authHeader);
-        return ResponseEntity.ok(cartService.getCart(userEmail, state, couponCode));
+        CartDto cart = cartService.getCart(userEmail, state, couponCode);
+        return ResponseEntity.ok(priceLocalizationService.localize(cart, PriceLocalizationService.requestedCurrency(request)));
     }
     
     @PostMapping
@@ -1,5 +1,6 @@
 package com.sara.ecom.controller;
 
+import com.sara.ecom.dto.CurrencyConversionRequest;
 import com.sara.ecom.dto.CurrencyDto;
 import com.sara.ecom.service.CurrencyService;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CurrencyController {
     
+    private static final int MAX_BULK_AMOUNTS = 5000;
+    
     private final CurrencyService currencyService;
     
     /**
@@ -52,4 +55,28 @@ public class CurrencyController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Convert many amounts at once, e.g. every price of a product listing or cart
+     */
+    @PostMapping("/convert/bulk")
+    public ResponseEntity<Map<String, Object>> convertBulk(@RequestBody CurrencyConversionRequest request) {
+        if (request.getTo() == null || request.getTo().isBlank() || request.getAmounts() == null) {
+            throw new RuntimeException("Target currency and amounts are required");
+        }
+        if (request.getAmounts().size() > MAX_BULK_AMOUNTS) {
+            throw new RuntimeException("At most " + MAX_BULK_AMOUNTS + " amounts can be converted at once");
+        }
+        String from = request.getFrom() != null ? request.getFrom() : "INR";
+        List<BigDecimal> converted = currencyService.convertAll(request.getAmounts(), from, request.getTo(),
+                request.isApplyMultipliers());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("amounts", request.getAmounts());
+        response.put("converted", converted);
+        response.put("from", from);
+        response.put("to", request.getTo());
+        
+        return ResponseEntity.ok(response);
+    }
 }
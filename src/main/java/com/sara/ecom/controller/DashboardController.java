@@ -2,10 +2,14 @@ package com.sara.ecom.controller;
 
 import com.sara.ecom.dto.DashboardStatsDto;
 import com.sara.ecom.service.DashboardService;
+import com.sara.ecom.service.NotificationOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin/dashboard")
 public class DashboardController {
@@ -13,8 +17,23 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
     
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+    
     @GetMapping("/stats")
     public ResponseEntity<DashboardStatsDto> getDashboardStats() {
         return ResponseEntity.ok(dashboardService.getDashboardStats());
     }
+    
+    @GetMapping("/revenue")
+    public ResponseEntity<List<DashboardStatsDto.RevenuePointDto>> getRevenueSeries(
+            @RequestParam(defaultValue = "daily") String period,
+            @RequestParam(defaultValue = "30") int buckets) {
+        return ResponseEntity.ok(dashboardService.getRevenueSeries(period, buckets));
+    }
+    
+    @GetMapping("/notification-outbox")
+    public ResponseEntity<Map<String, Object>> getNotificationOutboxStats() {
+        return ResponseEntity.ok(notificationOutboxService.getStats());
+    }
 }
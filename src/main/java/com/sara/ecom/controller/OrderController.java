@@ -1,19 +1,28 @@
 package com.sara.ecom.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sara.ecom.dto.BulkOrderStatusRequest;
 import com.sara.ecom.dto.CreateOrderRequest;
 import com.sara.ecom.dto.OrderDto;
+import com.sara.ecom.dto.OrderPageDto;
 import com.sara.ecom.exception.InvalidSessionException;
 import com.sara.ecom.repository.UserRepository;
 import com.sara.ecom.service.JwtService;
 import com.sara.ecom.service.OrderService;
+import com.sara.ecom.service.PriceLocalizationService;
 import com.sara.ecom.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,6 +40,12 @@ public class OrderController {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PriceLocalizationService priceLocalizationService;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -52,29 +67,33 @@ public class OrderController {
     
     @GetMapping("/orders")
     public ResponseEntity<List<OrderDto>> getUserOrders(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            HttpServletRequest request) {
         if (authHeader == null || authHeader.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         String userEmail = getUserEmailFromToken(authHeader);
-        return ResponseEntity.ok(orderService.getUserOrders(userEmail));
+        return ResponseEntity.ok(priceLocalizationService.localizeOrders(orderService.getUserOrders(userEmail),
+                PriceLocalizationService.requestedCurrency(request)));
     }
     
     @GetMapping("/orders/{id}")
     public ResponseEntity<OrderDto> getOrderById(
             @RequestHeader(value = "Authorization", required = false) String authHeader,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            HttpServletRequest request) {
+        String currency = PriceLocalizationService.requestedCurrency(request);
         // If authenticated, verify user owns the order
         if (authHeader != null && !authHeader.isEmpty()) {
             try {
                 String userEmail = getUserEmailFromToken(authHeader);
-                return ResponseEntity.ok(orderService.getOrderById(id, userEmail));
+                return ResponseEntity.ok(priceLocalizationService.localize(orderService.getOrderById(id, userEmail), currency));
             } catch (Exception e) {
                 // If token is invalid, fall through to public access
             }
         }
         // Public access for order confirmation page (no auth required)
-        return ResponseEntity.ok(orderService.getOrderByIdPublic(id));
+        return ResponseEntity.ok(priceLocalizationService.localize(orderService.getOrderByIdPublic(id), currency));
     }
 
     /**
@@ -82,8 +101,9 @@ public class OrderController {
      * Uses same access rules as getOrderById (auth user must own order, or public by id for confirmation).
      */
     @GetMapping("/orders/{id}/digital-download/{productId}")
-    public ResponseEntity<Resource> downloadDigitalForOrder(
+    public ResponseEntity<StreamingResponseBody> downloadDigitalForOrder(
             @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestHeader HttpHeaders requestHeaders,
             @PathVariable Long id,
             @PathVariable Long productId) {
         OrderDto order;
@@ -117,7 +137,7 @@ public class OrderController {
                     ? item.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_files.zip"
                     : "product_" + productId + "_files.zip";
             try {
-                return orderService.streamDigitalDownloadUrl(url, filename);
+                return orderService.streamDigitalDownloadUrl(url, filename, requestHeaders);
             } catch (IOException e) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
             }
@@ -131,6 +151,23 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders(status));
     }
     
+    /**
+     * Keyset-paginated admin order list (newest first) with filters; follow nextCursor for the next page.
+     * from/to are ISO dates (yyyy-MM-dd), both inclusive.
+     */
+    @GetMapping("/admin/orders/page")
+    public ResponseEntity<OrderPageDto> getOrdersPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String orderNumber,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(orderService.getOrdersPage(status, paymentStatus, from, to, email, orderNumber, size, cursor));
+    }
+    
     @GetMapping("/admin/orders/{id}")
     public ResponseEntity<OrderDto> getOrderByIdAdmin(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderByIdAdmin(id));
@@ -163,6 +200,37 @@ public class OrderController {
         }
     }
     
+    /**
+     * Moves many orders to one status. The response is NDJSON: one line per order as its chunk
+     * completes, then a "summary" line with the totals.
+     */
+    @PostMapping("/admin/orders/status/bulk")
+    public ResponseEntity<StreamingResponseBody> bulkUpdateOrderStatus(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody BulkOrderStatusRequest request) {
+        String changedBy = getAdminEmailFromHeader(authHeader);
+        orderService.validateBulkStatusUpdate(request);
+        StreamingResponseBody body = out -> {
+            // A client that goes away stops receiving progress; the update itself runs to the end
+            boolean[] disconnected = {false};
+            orderService.bulkUpdateOrderStatus(request, changedBy, result -> {
+                if (disconnected[0]) {
+                    return;
+                }
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    disconnected[0] = true;
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
     @PutMapping("/admin/orders/{id}/payment")
     public ResponseEntity<OrderDto> updatePaymentStatus(
             @RequestHeader(value = "Authorization", required = false) String authHeader,
@@ -352,6 +420,11 @@ public class OrderController {
         return null;
     }
     
+    @PostMapping("/admin/orders/{id}/items/{itemId}/retry-digital-zip")
+    public ResponseEntity<OrderDto> retryDigitalZip(@PathVariable Long id, @PathVariable Long itemId) {
+        return ResponseEntity.ok(orderService.retryDigitalZip(id, itemId));
+    }
+    
     @PostMapping("/admin/orders/{id}/retry-swipe-invoice")
     public ResponseEntity<OrderDto> retrySwipeInvoice(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.retrySwipeInvoice(id));
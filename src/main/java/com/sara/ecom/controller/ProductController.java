@@ -2,10 +2,15 @@ package com.sara.ecom.controller;
 
 import com.sara.ecom.dto.OrderDto;
 import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.dto.ProductPageDto;
+import com.sara.ecom.dto.ProductSearchResultDto;
 import com.sara.ecom.dto.ProductRequest;
 import com.sara.ecom.entity.Product;
+import com.sara.ecom.service.CatalogSnapshotService;
 import com.sara.ecom.service.JwtService;
 import com.sara.ecom.service.OrderService;
+import com.sara.ecom.service.PriceLocalizationService;
+import com.sara.ecom.service.ProductSearchService;
 import com.sara.ecom.service.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +39,15 @@ public class ProductController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+    
+    @Autowired
+    private ProductSearchService productSearchService;
+    
+    @Autowired
+    private PriceLocalizationService priceLocalizationService;
+    
     /**
      * Helper method to check if request is from admin
      */
@@ -60,7 +75,59 @@ public class ProductController {
             HttpServletRequest request) {
         boolean isAdmin = isAdminRequest(request);
         List<ProductDto> products = productService.getAllProducts(status, type, categoryId, userEmail, isAdmin);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(priceLocalizationService.localizeProducts(products, PriceLocalizationService.requestedCurrency(request)));
+    }
+    
+    /**
+     * Keyset-paginated product listing with database-side filtering and sorting.
+     * Follow nextCursor from each response to read the next page.
+     */
+    @GetMapping("/products/page")
+    public ResponseEntity<ProductPageDto> getProductsPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String userEmail,
+            HttpServletRequest request) {
+        boolean isAdmin = isAdminRequest(request);
+        ProductPageDto page = productService.getProductsPage(status, type, categoryId, minPrice, maxPrice,
+                sort, direction, size, cursor, userEmail, isAdmin);
+        return ResponseEntity.ok(priceLocalizationService.localize(page, PriceLocalizationService.requestedCurrency(request)));
+    }
+    
+    /**
+     * Ranked full-text search with typo tolerance and facet counts by type and category.
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<ProductSearchResultDto> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) String userEmail,
+            HttpServletRequest request) {
+        boolean isAdmin = isAdminRequest(request);
+        ProductSearchResultDto result = productService.searchProducts(query, type, categoryId, limit, offset, userEmail, isAdmin);
+        return ResponseEntity.ok(priceLocalizationService.localize(result, PriceLocalizationService.requestedCurrency(request)));
+    }
+    
+    /**
+     * Prefix autocomplete for the search box.
+     */
+    @GetMapping("/products/search/suggest")
+    public ResponseEntity<Map<String, List<String>>> suggestProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String userEmail,
+            HttpServletRequest request) {
+        boolean isAdmin = isAdminRequest(request);
+        return ResponseEntity.ok(productService.suggestProducts(query, userEmail, isAdmin));
     }
     
     @GetMapping("/products/{id}")
@@ -70,7 +137,7 @@ public class ProductController {
             HttpServletRequest request) {
         boolean isAdmin = isAdminRequest(request);
         ProductDto product = productService.getProductById(id, userEmail, isAdmin);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(priceLocalizationService.localize(product, PriceLocalizationService.requestedCurrency(request)));
     }
     
     // Slug-based product route - must be after /products/{id} to avoid conflicts
@@ -81,14 +148,15 @@ public class ProductController {
             HttpServletRequest request) {
         boolean isAdmin = isAdminRequest(request);
         ProductDto product = productService.getProductBySlug(slug, userEmail, isAdmin);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(priceLocalizationService.localize(product, PriceLocalizationService.requestedCurrency(request)));
     }
     
     @PostMapping("/products/batch")
-    public ResponseEntity<List<ProductDto>> getProductsByIds(@RequestBody Map<String, List<Long>> request) {
+    public ResponseEntity<List<ProductDto>> getProductsByIds(@RequestBody Map<String, List<Long>> request,
+                                                             HttpServletRequest httpRequest) {
         List<Long> ids = request.get("ids");
         List<ProductDto> products = productService.getProductsByIds(ids);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(priceLocalizationService.localizeProducts(products, PriceLocalizationService.requestedCurrency(httpRequest)));
     }
     
     /**
@@ -102,7 +170,7 @@ public class ProductController {
             HttpServletRequest request) {
         boolean isAdmin = isAdminRequest(request);
         List<ProductDto> products = productService.getProductsByCategoryWithChildren(categoryId, userEmail, isAdmin);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(priceLocalizationService.localizeProducts(products, PriceLocalizationService.requestedCurrency(request)));
     }
     
     // Admin endpoints
@@ -170,6 +238,19 @@ public class ProductController {
         return ResponseEntity.ok(Map.of("message", "Products " + action + "d successfully", "count", ids.size()));
     }
     
+    /**
+     * Version, size and build time of the in-memory catalog snapshot behind the storefront listings.
+     */
+    @GetMapping("/admin/products/catalog-snapshot")
+    public ResponseEntity<Map<String, Object>> getCatalogSnapshotStats() {
+        return ResponseEntity.ok(catalogSnapshotService.getStats());
+    }
+    
+    @GetMapping("/admin/products/search-index")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(productSearchService.getStats());
+    }
+    
     /**
      * Export products to Excel.
      */
@@ -251,7 +332,7 @@ public class ProductController {
      * Admin requests bypass this check.
      */
     @GetMapping("/products/{productId}/download-digital")
-    public ResponseEntity<org.springframework.core.io.Resource> downloadDigitalProductFiles(
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> downloadDigitalProductFiles(
             @PathVariable Long productId,
             HttpServletRequest request) {
         try {
@@ -1,5 +1,6 @@
 package com.sara.ecom.controller;
 
+import com.sara.ecom.dto.ShippingQuoteDto;
 import com.sara.ecom.dto.ShippingRuleDto;
 import com.sara.ecom.dto.ShippingRuleRequest;
 import com.sara.ecom.service.ShippingService;
@@ -33,6 +34,12 @@ public class ShippingController {
         ));
     }
     
+    // Public endpoint for quoting many cart values / states at once
+    @PostMapping("/shipping/quotes")
+    public ResponseEntity<List<ShippingQuoteDto>> quoteShipping(@RequestBody List<ShippingQuoteDto> requests) {
+        return ResponseEntity.ok(shippingService.quoteShipping(requests));
+    }
+    
     // Admin endpoints
     @GetMapping("/admin/shipping-rules")
     public ResponseEntity<List<ShippingRuleDto>> getAllShippingRules() {
@@ -2,6 +2,7 @@ package com.sara.ecom.controller.admin;
 
 import com.sara.ecom.entity.CurrencyMultiplier;
 import com.sara.ecom.repository.CurrencyMultiplierRepository;
+import com.sara.ecom.service.CurrencyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,7 @@ import java.util.List;
 public class AdminCurrencyMultiplierController {
 
     private final CurrencyMultiplierRepository currencyMultiplierRepository;
+    private final CurrencyService currencyService;
 
     @GetMapping
     public ResponseEntity<List<CurrencyMultiplier>> getAll() {
@@ -42,6 +44,7 @@ public class AdminCurrencyMultiplierController {
         entity.setMultiplier(multiplier);
 
         CurrencyMultiplier saved = currencyMultiplierRepository.save(entity);
+        currencyService.refreshMultipliers();
         return ResponseEntity.ok(saved);
     }
 
@@ -62,6 +65,7 @@ public class AdminCurrencyMultiplierController {
                         existing.setMultiplier(request.getMultiplier());
                     }
                     CurrencyMultiplier saved = currencyMultiplierRepository.save(existing);
+                    currencyService.refreshMultipliers();
                     return ResponseEntity.ok(saved);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -73,6 +77,7 @@ public class AdminCurrencyMultiplierController {
             return ResponseEntity.notFound().build();
         }
         currencyMultiplierRepository.deleteById(id);
+        currencyService.refreshMultipliers();
         return ResponseEntity.noContent().build();
     }
 }
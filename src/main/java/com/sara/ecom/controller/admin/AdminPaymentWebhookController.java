@@ -0,0 +1,55 @@
+package com.sara.ecom.controller.admin;
+
+import com.sara.ecom.dto.PaymentWebhookEventDto;
+import com.sara.ecom.service.PaymentWebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inspection and replay of stored payment webhooks.
+ */
+@RestController
+@RequestMapping("/api/admin/payment-webhooks")
+@RequiredArgsConstructor
+public class AdminPaymentWebhookController {
+
+    private final PaymentWebhookService paymentWebhookService;
+
+    /**
+     * Newest events first, optionally by status; with orderKey (order id for Stripe, order number
+     * for Razorpay) all events of that order in arrival order.
+     */
+    @GetMapping
+    public ResponseEntity<List<PaymentWebhookEventDto>> getEvents(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String orderKey,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(paymentWebhookService.getEvents(status, orderKey, limit));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(paymentWebhookService.getStats());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PaymentWebhookEventDto> getEvent(@PathVariable Long id) {
+        return ResponseEntity.ok(paymentWebhookService.getEvent(id));
+    }
+
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<PaymentWebhookEventDto> replay(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean force) {
+        return ResponseEntity.ok(paymentWebhookService.replay(id, force));
+    }
+
+    @PostMapping("/replay-failed")
+    public ResponseEntity<Map<String, Object>> replayFailed() {
+        return ResponseEntity.ok(Map.of("requeued", paymentWebhookService.replayFailed()));
+    }
+}
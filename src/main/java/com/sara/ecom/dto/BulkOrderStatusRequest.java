@@ -0,0 +1,17 @@
+package com.sara.ecom.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Moves many orders to one status; same fields as the single-order status update.
+ */
+@Data
+public class BulkOrderStatusRequest {
+    private List<Long> orderIds;
+    private String status;
+    private String customStatus;
+    private String customMessage;
+    private Boolean skipWhatsApp;
+}
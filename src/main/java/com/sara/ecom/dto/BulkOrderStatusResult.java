@@ -0,0 +1,30 @@
+package com.sara.ecom.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the bulk status update progress stream: the outcome for one order, or with
+ * type "summary" the totals once every order was processed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOrderStatusResult {
+    private String type; // "order" or "summary"
+    private Long orderId;
+    private String orderNumber;
+    private Boolean success;
+    private String oldStatus;
+    private String newStatus;
+    private String error;
+    // Summary only
+    private Integer processed;
+    private Integer succeeded;
+    private Integer failed;
+}
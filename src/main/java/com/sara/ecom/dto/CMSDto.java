@@ -1,5 +1,7 @@
 package com.sara.ecom.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +18,13 @@ public class CMSDto {
         private List<BannerDto> banners;
         private Map<String, String> landingContent;
         private Map<String, String> contactInfo;
+        // Hydrated cards and featured blogs, only when requested with embedProducts
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<ProductDto> bestSellers;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<ProductDto> newArrivals;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<BlogDto> blogs;
         
         // Getters and Setters
         public List<Long> getBestSellerIds() { return bestSellerIds; }
@@ -34,6 +43,12 @@ public class CMSDto {
         public void setLandingContent(Map<String, String> landingContent) { this.landingContent = landingContent; }
         public Map<String, String> getContactInfo() { return contactInfo; }
         public void setContactInfo(Map<String, String> contactInfo) { this.contactInfo = contactInfo; }
+        public List<ProductDto> getBestSellers() { return bestSellers; }
+        public void setBestSellers(List<ProductDto> bestSellers) { this.bestSellers = bestSellers; }
+        public List<ProductDto> getNewArrivals() { return newArrivals; }
+        public void setNewArrivals(List<ProductDto> newArrivals) { this.newArrivals = newArrivals; }
+        public List<BlogDto> getBlogs() { return blogs; }
+        public void setBlogs(List<BlogDto> blogs) { this.blogs = blogs; }
     }
     
     public static class TestimonialDto {
@@ -1,5 +1,7 @@
 package com.sara.ecom.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +15,9 @@ public class CartDto {
     private String appliedCouponCode;
     private BigDecimal total;
     private Integer itemCount;
+    // Set when prices were converted on request; null means INR
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String currency;
     
     public static class CartItemDto {
         private Long id;
@@ -92,4 +97,6 @@ public class CartDto {
     public void setTotal(BigDecimal total) { this.total = total; }
     public Integer getItemCount() { return itemCount; }
     public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
 }
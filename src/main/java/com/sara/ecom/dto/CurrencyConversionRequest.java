@@ -0,0 +1,15 @@
+package com.sara.ecom.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class CurrencyConversionRequest {
+    private List<BigDecimal> amounts;
+    private String from = "INR";
+    private String to;
+    // Apply the admin-configured currency multipliers (display prices)
+    private boolean applyMultipliers;
+}
@@ -2,6 +2,7 @@ package com.sara.ecom.dto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public class DashboardStatsDto {
     private long totalUsers;
@@ -12,6 +13,8 @@ public class DashboardStatsDto {
     private long totalProducts;
     private long totalCategories;
     private List<RecentOrderDto> recentOrders;
+    private Map<String, Long> ordersByStatus;
+    private Map<String, Long> ordersByPaymentStatus;
     
     public static class RecentOrderDto {
         private Long id;
@@ -39,6 +42,19 @@ public class DashboardStatsDto {
         public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
     }
     
+    public static class RevenuePointDto {
+        private String periodStart;
+        private long orders;
+        private BigDecimal revenue;
+        
+        public String getPeriodStart() { return periodStart; }
+        public void setPeriodStart(String periodStart) { this.periodStart = periodStart; }
+        public long getOrders() { return orders; }
+        public void setOrders(long orders) { this.orders = orders; }
+        public BigDecimal getRevenue() { return revenue; }
+        public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+    }
+    
     // Getters and Setters
     public long getTotalUsers() { return totalUsers; }
     public void setTotalUsers(long totalUsers) { this.totalUsers = totalUsers; }
@@ -56,4 +72,8 @@ public class DashboardStatsDto {
     public void setTotalCategories(long totalCategories) { this.totalCategories = totalCategories; }
     public List<RecentOrderDto> getRecentOrders() { return recentOrders; }
     public void setRecentOrders(List<RecentOrderDto> recentOrders) { this.recentOrders = recentOrders; }
+    public Map<String, Long> getOrdersByStatus() { return ordersByStatus; }
+    public void setOrdersByStatus(Map<String, Long> ordersByStatus) { this.ordersByStatus = ordersByStatus; }
+    public Map<String, Long> getOrdersByPaymentStatus() { return ordersByPaymentStatus; }
+    public void setOrdersByPaymentStatus(Map<String, Long> ordersByPaymentStatus) { this.ordersByPaymentStatus = ordersByPaymentStatus; }
 }
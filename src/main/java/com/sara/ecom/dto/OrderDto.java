@@ -1,5 +1,7 @@
 package com.sara.ecom.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -52,6 +54,9 @@ public class OrderDto {
     private String lastInvoiceErrorSource;
     private String lastInvoiceErrorMessage;
     private String lastInvoiceErrorHint;
+    // Set when prices were converted on request; null means INR
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String currency;
     
     public static class OrderItemDto {
         private Long id;
@@ -78,6 +83,8 @@ public class OrderDto {
         private String fabricName;
         private String digitalDownloadUrl;
         private String zipPassword;
+        /** PENDING, BUILDING, READY or FAILED while the download ZIP of a DIGITAL item is built; poll until READY */
+        private String digitalZipStatus;
         private String uploadedDesignUrl;
 
         public Long getId() { return id; }
@@ -122,6 +129,8 @@ public class OrderDto {
         public void setDigitalDownloadUrl(String digitalDownloadUrl) { this.digitalDownloadUrl = digitalDownloadUrl; }
         public String getZipPassword() { return zipPassword; }
         public void setZipPassword(String zipPassword) { this.zipPassword = zipPassword; }
+        public String getDigitalZipStatus() { return digitalZipStatus; }
+        public void setDigitalZipStatus(String digitalZipStatus) { this.digitalZipStatus = digitalZipStatus; }
         public String getUploadedDesignUrl() { return uploadedDesignUrl; }
         public void setUploadedDesignUrl(String uploadedDesignUrl) { this.uploadedDesignUrl = uploadedDesignUrl; }
     }
@@ -213,4 +222,6 @@ public class OrderDto {
     public void setLastInvoiceErrorMessage(String lastInvoiceErrorMessage) { this.lastInvoiceErrorMessage = lastInvoiceErrorMessage; }
     public String getLastInvoiceErrorHint() { return lastInvoiceErrorHint; }
     public void setLastInvoiceErrorHint(String lastInvoiceErrorHint) { this.lastInvoiceErrorHint = lastInvoiceErrorHint; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
 }
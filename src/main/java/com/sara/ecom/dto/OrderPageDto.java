@@ -0,0 +1,23 @@
+package com.sara.ecom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated admin order list, newest first.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPageDto {
+    private List<OrderSummaryDto> items;
+    private String nextCursor; // null when there are no more results
+    private boolean hasMore;
+    private int size;
+}
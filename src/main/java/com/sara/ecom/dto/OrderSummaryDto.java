@@ -0,0 +1,31 @@
+package com.sara.ecom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the admin order list; open the order by id for items, addresses and invoice details.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryDto {
+    private Long id;
+    private String orderNumber;
+    private String userEmail;
+    private String userName;
+    private BigDecimal total;
+    private String status;
+    private String customStatus;
+    private String paymentStatus;
+    private String paymentMethod;
+    private String paymentCurrency;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package com.sara.ecom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentWebhookEventDto {
+    private Long id;
+    private String provider;
+    private String eventId;
+    private String eventType;
+    private String orderKey;
+    private String paymentStatus;
+    private String paymentReference;
+    private String currency;
+    private Long amountMinor;
+    private String status;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+    private String payload; // Only in single-event responses
+}
@@ -14,12 +14,40 @@ public class PlainProductDto {
     private String status;
     private List<VariantDto> variants;
     
+    public PlainProductDto() {
+    }
+    
+    /**
+     * Deep copy: variants and their options are copied too.
+     */
+    public PlainProductDto(PlainProductDto source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.description = source.description;
+        this.image = source.image;
+        this.pricePerMeter = source.pricePerMeter;
+        this.unitExtension = source.unitExtension;
+        this.categoryId = source.categoryId;
+        this.status = source.status;
+        this.variants = ProductDto.copyList(source.variants, VariantDto::new);
+    }
+    
     public static class VariantDto {
         private Long id;
         private String type;
         private String name;
         private List<OptionDto> options;
         
+        public VariantDto() {
+        }
+        
+        public VariantDto(VariantDto source) {
+            this.id = source.id;
+            this.type = source.type;
+            this.name = source.name;
+            this.options = ProductDto.copyList(source.options, OptionDto::new);
+        }
+        
         public Long getId() {
             return id;
         }
@@ -59,6 +87,16 @@ public class PlainProductDto {
         private BigDecimal priceModifier;
         private Integer displayOrder;
         
+        public OptionDto() {
+        }
+        
+        public OptionDto(OptionDto source) {
+            this.id = source.id;
+            this.value = source.value;
+            this.priceModifier = source.priceModifier;
+            this.displayOrder = source.displayOrder;
+        }
+        
         public Long getId() {
             return id;
         }
@@ -1,9 +1,13 @@
 package com.sara.ecom.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class ProductDto {
     private Long id;
@@ -45,6 +49,61 @@ public class ProductDto {
     private BigDecimal gstRate;
     private String hsnCode;
     private LocalDateTime createdAt;
+    // Set when prices were converted on request; null means INR
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String currency;
+    
+    public ProductDto() {
+    }
+    
+    /**
+     * Deep copy: nested DTOs and lists are copied too, so the copy can be changed freely.
+     */
+    public ProductDto(ProductDto source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.slug = source.slug;
+        this.type = source.type;
+        this.categoryId = source.categoryId;
+        this.categoryName = source.categoryName;
+        this.description = source.description;
+        this.status = source.status;
+        this.images = copyList(source.images, Function.identity());
+        this.media = copyList(source.media, MediaDto::new);
+        this.detailSections = copyList(source.detailSections, DetailSectionDto::new);
+        this.customFields = copyList(source.customFields, CustomFieldDto::new);
+        this.variants = copyList(source.variants, VariantDto::new);
+        this.designPrice = source.designPrice;
+        this.designId = source.designId;
+        this.recommendedFabricIds = copyList(source.recommendedFabricIds, Function.identity());
+        this.recommendedFabrics = copyList(source.recommendedFabrics, PlainProductDto::new);
+        this.pricingSlabs = copyList(source.pricingSlabs, PricingSlabDto::new);
+        this.plainProductId = source.plainProductId;
+        this.plainProduct = source.plainProduct != null ? new PlainProductDto(source.plainProduct) : null;
+        this.price = source.price;
+        this.pricePerMeter = source.pricePerMeter;
+        this.fileUrl = source.fileUrl;
+        this.sourceDesignProductId = source.sourceDesignProductId;
+        this.unitExtension = source.unitExtension;
+        this.isNew = source.isNew;
+        this.isSale = source.isSale;
+        this.originalPrice = source.originalPrice;
+        this.gstRate = source.gstRate;
+        this.hsnCode = source.hsnCode;
+        this.createdAt = source.createdAt;
+        this.currency = source.currency;
+    }
+    
+    static <T> List<T> copyList(List<T> source, Function<T, T> copier) {
+        if (source == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(source.size());
+        for (T element : source) {
+            copy.add(element != null ? copier.apply(element) : null);
+        }
+        return copy;
+    }
     
     public static class DetailSectionDto {
         private Long id;
@@ -52,6 +111,16 @@ public class ProductDto {
         private String content;
         private Integer displayOrder;
         
+        public DetailSectionDto() {
+        }
+        
+        public DetailSectionDto(DetailSectionDto source) {
+            this.id = source.id;
+            this.title = source.title;
+            this.content = source.content;
+            this.displayOrder = source.displayOrder;
+        }
+        
         public Long getId() {
             return id;
         }
@@ -90,6 +159,15 @@ public class ProductDto {
         private String type; // "image" or "video"
         private Integer displayOrder;
         
+        public MediaDto() {
+        }
+        
+        public MediaDto(MediaDto source) {
+            this.url = source.url;
+            this.type = source.type;
+            this.displayOrder = source.displayOrder;
+        }
+        
         public String getUrl() {
             return url;
         }
@@ -122,6 +200,17 @@ public class ProductDto {
         private String placeholder;
         private boolean isRequired;
 
+        public CustomFieldDto() {
+        }
+
+        public CustomFieldDto(CustomFieldDto source) {
+            this.id = source.id;
+            this.label = source.label;
+            this.fieldType = source.fieldType;
+            this.placeholder = source.placeholder;
+            this.isRequired = source.isRequired;
+        }
+
         public Long getId() {
             return id;
         }
@@ -171,6 +260,18 @@ public class ProductDto {
         private Integer displayOrder;
         private List<VariantOptionDto> options;
 
+        public VariantDto() {
+        }
+
+        public VariantDto(VariantDto source) {
+            this.id = source.id;
+            this.name = source.name;
+            this.type = source.type;
+            this.unit = source.unit;
+            this.displayOrder = source.displayOrder;
+            this.options = copyList(source.options, VariantOptionDto::new);
+        }
+
         public Long getId() {
             return id;
         }
@@ -226,6 +327,16 @@ public class ProductDto {
         private BigDecimal priceModifier;
         private Integer displayOrder;
 
+        public VariantOptionDto() {
+        }
+
+        public VariantOptionDto(VariantOptionDto source) {
+            this.id = source.id;
+            this.value = source.value;
+            this.priceModifier = source.priceModifier;
+            this.displayOrder = source.displayOrder;
+        }
+
         public Long getId() {
             return id;
         }
@@ -520,6 +631,19 @@ public class ProductDto {
         // Legacy field - kept for backward compatibility
         private BigDecimal pricePerMeter;
         
+        public PricingSlabDto() {
+        }
+        
+        public PricingSlabDto(PricingSlabDto source) {
+            this.id = source.id;
+            this.minQuantity = source.minQuantity;
+            this.maxQuantity = source.maxQuantity;
+            this.discountType = source.discountType;
+            this.discountValue = source.discountValue;
+            this.displayOrder = source.displayOrder;
+            this.pricePerMeter = source.pricePerMeter;
+        }
+        
         public Long getId() {
             return id;
         }
@@ -577,4 +701,12 @@ public class ProductDto {
             this.pricePerMeter = pricePerMeter;
         }
     }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
 }
@@ -0,0 +1,25 @@
+package com.sara.ecom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated product search.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPageDto {
+    private List<ProductDto> items;
+    private String nextCursor; // null when there are no more results
+    private boolean hasMore;
+    private int size;
+    private String sort;
+    private String direction;
+}
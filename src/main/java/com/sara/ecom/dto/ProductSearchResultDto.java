@@ -0,0 +1,36 @@
+package com.sara.ecom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked full-text search results. Facet counts cover every match the caller can see,
+ * before the type/category filters and paging are applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchResultDto {
+    private String query;
+    private int total; // matches after filters, across all pages
+    private int offset;
+    private int limit;
+    private List<ProductDto> items;
+    private Map<String, Long> typeCounts;
+    private List<CategoryFacet> categories;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryFacet {
+        private Long id;
+        private String name;
+        private long count;
+    }
+}
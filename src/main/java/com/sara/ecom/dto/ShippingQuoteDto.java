@@ -0,0 +1,26 @@
+package com.sara.ecom.dto;
+
+import java.math.BigDecimal;
+
+public class ShippingQuoteDto {
+    private BigDecimal cartValue;
+    private String state;
+    private BigDecimal shipping; // Filled in by the quote
+    
+    public ShippingQuoteDto() {
+    }
+    
+    public ShippingQuoteDto(BigDecimal cartValue, String state, BigDecimal shipping) {
+        this.cartValue = cartValue;
+        this.state = state;
+        this.shipping = shipping;
+    }
+    
+    // Getters and Setters
+    public BigDecimal getCartValue() { return cartValue; }
+    public void setCartValue(BigDecimal cartValue) { this.cartValue = cartValue; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public BigDecimal getShipping() { return shipping; }
+    public void setShipping(BigDecimal shipping) { this.shipping = shipping; }
+}
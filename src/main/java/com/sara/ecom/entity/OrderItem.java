@@ -2,6 +2,7 @@ package com.sara.ecom.entity;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -60,11 +61,27 @@ public class OrderItem {
     // For DIGITAL products - ZIP password
     @Column(name = "zip_password", columnDefinition = "TEXT")
     private String zipPassword;
+    
+    // For DIGITAL products - background ZIP build state (null for other products and older orders)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "digital_zip_status")
+    private DigitalZipStatus digitalZipStatus;
+    
+    @Column(name = "digital_zip_updated_at")
+    private LocalDateTime digitalZipUpdatedAt;
+    
+    // Builds started for the current ZIP; failed builds are retried until this reaches the limit
+    @Column(name = "digital_zip_attempts")
+    private Integer digitalZipAttempts;
 
     // For CUSTOM products - user-uploaded design URL
     @Column(name = "uploaded_design_url", columnDefinition = "TEXT")
     private String uploadedDesignUrl;
 
+    public enum DigitalZipStatus {
+        PENDING, BUILDING, READY, FAILED
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -209,4 +226,28 @@ public class OrderItem {
     public void setUploadedDesignUrl(String uploadedDesignUrl) {
         this.uploadedDesignUrl = uploadedDesignUrl;
     }
+
+    public DigitalZipStatus getDigitalZipStatus() {
+        return digitalZipStatus;
+    }
+
+    public void setDigitalZipStatus(DigitalZipStatus digitalZipStatus) {
+        this.digitalZipStatus = digitalZipStatus;
+    }
+
+    public LocalDateTime getDigitalZipUpdatedAt() {
+        return digitalZipUpdatedAt;
+    }
+
+    public void setDigitalZipUpdatedAt(LocalDateTime digitalZipUpdatedAt) {
+        this.digitalZipUpdatedAt = digitalZipUpdatedAt;
+    }
+
+    public Integer getDigitalZipAttempts() {
+        return digitalZipAttempts;
+    }
+
+    public void setDigitalZipAttempts(Integer digitalZipAttempts) {
+        this.digitalZipAttempts = digitalZipAttempts;
+    }
 }
@@ -0,0 +1,107 @@
+package com.sara.ecom.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of the orders table with just the columns the admin order list shows.
+ * Loading it skips the address JSON, invoice fields and items that {@link Order} carries.
+ */
+@Entity
+@Immutable
+@Table(name = "orders")
+public class OrderSummary {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "order_number", insertable = false, updatable = false)
+    private String orderNumber;
+    
+    @Column(name = "user_email", insertable = false, updatable = false)
+    private String userEmail;
+    
+    @Column(name = "user_name", insertable = false, updatable = false)
+    private String userName;
+    
+    @Column(precision = 10, scale = 2, insertable = false, updatable = false)
+    private BigDecimal total;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(insertable = false, updatable = false)
+    private Order.OrderStatus status;
+    
+    @Column(name = "custom_status", length = 100, insertable = false, updatable = false)
+    private String customStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", insertable = false, updatable = false)
+    private Order.PaymentStatus paymentStatus;
+    
+    @Column(name = "payment_method", insertable = false, updatable = false)
+    private String paymentMethod;
+    
+    @Column(name = "payment_currency", length = 10, insertable = false, updatable = false)
+    private String paymentCurrency;
+    
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Formula("(SELECT COUNT(*) FROM order_items i WHERE i.order_id = id)")
+    private Integer itemCount;
+    
+    protected OrderSummary() {
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+    
+    public String getUserEmail() {
+        return userEmail;
+    }
+    
+    public String getUserName() {
+        return userName;
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public String getCustomStatus() {
+        return customStatus;
+    }
+    
+    public Order.PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+    
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+    
+    public String getPaymentCurrency() {
+        return paymentCurrency;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Integer getItemCount() {
+        return itemCount;
+    }
+}
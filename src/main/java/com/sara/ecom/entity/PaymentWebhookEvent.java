@@ -0,0 +1,231 @@
+package com.sara.ecom.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Payment gateway webhook as received, stored before any order change so the gateway gets its
+ * acknowledgement right away. The (provider, event_id) key makes gateway retries no-ops.
+ */
+@Entity
+@Table(name = "payment_webhook_events",
+    uniqueConstraints = @UniqueConstraint(name = "uk_payment_webhook_events_event", columnNames = {"provider", "event_id"}),
+    indexes = {
+        @Index(name = "idx_payment_webhook_events_due", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_payment_webhook_events_order_key", columnList = "order_key, id")
+    })
+public class PaymentWebhookEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider", nullable = false, length = 20)
+    private Provider provider;
+    
+    @Column(name = "event_id", nullable = false, length = 255)
+    private String eventId;
+    
+    @Column(name = "event_type", length = 100)
+    private String eventType; // payment_intent.succeeded, payment.captured, etc.
+    
+    @Column(name = "order_key", length = 100)
+    private String orderKey; // Order id (Stripe metadata) or order number (Razorpay notes); events of one order run in order
+    
+    @Column(name = "payment_status", length = 20)
+    private String paymentStatus; // PAID or FAILED to apply; null when the event type needs no action
+    
+    @Column(name = "payment_reference", length = 255)
+    private String paymentReference; // Gateway payment id
+    
+    @Column(name = "currency", length = 10)
+    private String currency;
+    
+    @Column(name = "amount_minor")
+    private Long amountMinor; // Amount charged in the currency's smallest unit
+    
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+    
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(name = "received_at")
+    private LocalDateTime receivedAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        receivedAt = LocalDateTime.now();
+        updatedAt = receivedAt;
+        if (nextAttemptAt == null) {
+            nextAttemptAt = receivedAt;
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum Provider {
+        STRIPE, RAZORPAY
+    }
+    
+    public enum Status {
+        PENDING, PROCESSING, PROCESSED, FAILED, IGNORED
+    }
+    
+    // Getters and Setters    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Provider getProvider() {
+        return provider;
+    }
+    
+    public void setProvider(Provider provider) {
+        this.provider = provider;
+    }
+    
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public String getOrderKey() {
+        return orderKey;
+    }
+    
+    public void setOrderKey(String orderKey) {
+        this.orderKey = orderKey;
+    }
+    
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+    
+    public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+    
+    public String getPaymentReference() {
+        return paymentReference;
+    }
+    
+    public void setPaymentReference(String paymentReference) {
+        this.paymentReference = paymentReference;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public Long getAmountMinor() {
+        return amountMinor;
+    }
+    
+    public void setAmountMinor(Long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public Integer getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+    
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.sara.ecom.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -36,6 +37,7 @@ public class PlainProduct {
     private Status status = Status.ACTIVE;
     
     @OneToMany(mappedBy = "plainProduct", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<PlainProductVariant> variants = new ArrayList<>();
     
     @Column(name = "created_at")
@@ -1,6 +1,7 @@
 package com.sara.ecom.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -101,17 +102,21 @@ public class Product {
     }
     
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @OrderBy("displayOrder ASC")
     private List<ProductImage> images = new ArrayList<>();
     
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @OrderBy("displayOrder ASC")
     private List<ProductDetailSection> detailSections = new ArrayList<>();
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<ProductCustomField> customFields = new ArrayList<>();
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @OrderBy("displayOrder ASC")
     private List<ProductVariant> variants = new ArrayList<>();
 
@@ -120,12 +125,14 @@ public class Product {
     
     // For DESIGNED products - recommended fabrics
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "product_recommended_fabrics", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "plain_product_id")
     private List<Long> recommendedFabricIds = new ArrayList<>();
     
     // For DESIGNED products - quantity-based pricing slabs
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @OrderBy("displayOrder ASC, minQuantity ASC")
     private List<ProductPricingSlab> pricingSlabs = new ArrayList<>();
     
@@ -2,8 +2,12 @@ package com.sara.ecom.repository;
 
 import com.sara.ecom.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +21,13 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
     List<Coupon> findAllByOrderByCreatedAtDesc();
     
     List<Coupon> findByIsActiveTrueOrderByCreatedAtDesc();
+    
+    // Takes one use only while the coupon is active, in its validity window and under its limit.
+    // The row lock held until commit serialises concurrent redemptions; 0 means nothing was taken.
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = COALESCE(c.usedCount, 0) + 1 " +
+           "WHERE c.id = :id AND c.isActive = true " +
+           "AND (c.validFrom IS NULL OR c.validFrom <= :now) AND (c.validUntil IS NULL OR c.validUntil >= :now) " +
+           "AND (c.usageLimit IS NULL OR COALESCE(c.usedCount, 0) < c.usageLimit)")
+    int claimUse(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
@@ -3,8 +3,14 @@ package com.sara.ecom.repository;
 import com.sara.ecom.entity.Coupon;
 import com.sara.ecom.entity.CouponUsage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +19,20 @@ public interface CouponUsageRepository extends JpaRepository<CouponUsage, Long>
     Optional<CouponUsage> findByCouponAndUserEmail(Coupon coupon, String userEmail);
     
     Integer countByCoupon(Coupon coupon);
+    
+    // (couponId, usageCount) for one user's usages of the given coupons
+    @Query("SELECT u.coupon.id, u.usageCount FROM CouponUsage u WHERE u.userEmail = :userEmail AND u.coupon.id IN :couponIds")
+    List<Object[]> findUsageCountsByUserEmailAndCouponIdIn(@Param("userEmail") String userEmail,
+                                                           @Param("couponIds") Collection<Long> couponIds);
+    
+    // Inserts the user's first use or increments an existing row while it is below :perUserLimit.
+    // Returns 0 when the user has used up the coupon; relies on the (coupon_id, user_email) unique index.
+    @Modifying
+    @Query(value = "INSERT INTO coupon_usages (coupon_id, user_email, usage_count, last_used_at) " +
+           "VALUES (:couponId, :userEmail, 1, :now) " +
+           "ON CONFLICT (coupon_id, user_email) DO UPDATE " +
+           "SET usage_count = COALESCE(coupon_usages.usage_count, 0) + 1, last_used_at = EXCLUDED.last_used_at " +
+           "WHERE COALESCE(coupon_usages.usage_count, 0) < :perUserLimit", nativeQuery = true)
+    int claimUserUse(@Param("couponId") Long couponId, @Param("userEmail") String userEmail,
+                     @Param("perUserLimit") int perUserLimit, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,30 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    
+    // Rows locked here are skipped by concurrent dispatchers (e.g. a second instance)
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = :pending, n.updatedAt = :now " +
+           "WHERE n.status = :sending AND n.updatedAt < :cutoff")
+    int releaseStale(@Param("pending") NotificationOutbox.Status pending,
+                     @Param("sending") NotificationOutbox.Status sending,
+                     @Param("cutoff") LocalDateTime cutoff,
+                     @Param("now") LocalDateTime now);
+    
+    long countByStatus(NotificationOutbox.Status status);
+}
@@ -0,0 +1,79 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.order WHERE i.id = :id")
+    Optional<OrderItem> findByIdWithOrder(@Param("id") Long id);
+
+    @Query("SELECT i.id FROM OrderItem i WHERE i.digitalZipStatus = :status ORDER BY i.id")
+    List<Long> findIdsByDigitalZipStatus(@Param("status") OrderItem.DigitalZipStatus status, Pageable pageable);
+
+    // Moves one item between ZIP build states; 0 when another worker got there first
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.digitalZipStatus = :to, i.digitalZipUpdatedAt = :now " +
+           "WHERE i.id = :id AND i.digitalZipStatus = :from")
+    int transitionDigitalZip(@Param("id") Long id,
+                             @Param("from") OrderItem.DigitalZipStatus from,
+                             @Param("to") OrderItem.DigitalZipStatus to,
+                             @Param("now") LocalDateTime now);
+
+    // Like transitionDigitalZip, and counts the build attempt
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.digitalZipStatus = :to, i.digitalZipUpdatedAt = :now, " +
+           "i.digitalZipAttempts = COALESCE(i.digitalZipAttempts, 0) + 1 " +
+           "WHERE i.id = :id AND i.digitalZipStatus = :from")
+    int claimDigitalZip(@Param("id") Long id,
+                        @Param("from") OrderItem.DigitalZipStatus from,
+                        @Param("to") OrderItem.DigitalZipStatus to,
+                        @Param("now") LocalDateTime now);
+
+    // Puts a failed build back in the queue while it has attempts left; 0 when they are used up
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.digitalZipStatus = :pending, i.digitalZipUpdatedAt = :now " +
+           "WHERE i.id = :id AND i.digitalZipStatus = :building AND COALESCE(i.digitalZipAttempts, 0) < :maxAttempts")
+    int retryDigitalZip(@Param("id") Long id,
+                        @Param("building") OrderItem.DigitalZipStatus building,
+                        @Param("pending") OrderItem.DigitalZipStatus pending,
+                        @Param("maxAttempts") int maxAttempts,
+                        @Param("now") LocalDateTime now);
+
+    // Admin retry of a FAILED build with a fresh set of attempts
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderItem i SET i.digitalZipStatus = :pending, i.digitalZipAttempts = 0, i.digitalZipUpdatedAt = :now " +
+           "WHERE i.id = :id AND i.order.id = :orderId AND i.digitalZipStatus = :failed")
+    int requeueFailedDigitalZip(@Param("id") Long id,
+                                @Param("orderId") Long orderId,
+                                @Param("failed") OrderItem.DigitalZipStatus failed,
+                                @Param("pending") OrderItem.DigitalZipStatus pending,
+                                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.digitalZipStatus = :ready, i.digitalDownloadUrl = :url, i.digitalZipUpdatedAt = :now " +
+           "WHERE i.id = :id AND i.digitalZipStatus = :building")
+    int completeDigitalZip(@Param("id") Long id,
+                           @Param("url") String url,
+                           @Param("building") OrderItem.DigitalZipStatus building,
+                           @Param("ready") OrderItem.DigitalZipStatus ready,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.digitalZipStatus = :pending, i.digitalZipUpdatedAt = :now " +
+           "WHERE i.digitalZipStatus = :building AND i.digitalZipUpdatedAt < :cutoff")
+    int releaseStaleDigitalZips(@Param("pending") OrderItem.DigitalZipStatus pending,
+                                @Param("building") OrderItem.DigitalZipStatus building,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                @Param("now") LocalDateTime now);
+}
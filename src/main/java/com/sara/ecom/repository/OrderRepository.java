@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +19,35 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@Param("id") Long id);
     
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<Order> findAllByIdWithItems(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id AND o.userEmail = :userEmail")
     Optional<Order> findByIdAndUserEmailWithItems(@Param("id") Long id, @Param("userEmail") String userEmail);
     
     Optional<Order> findByOrderNumber(String orderNumber);
     
+    // Start of the next block of order ID counters (order_id_seq increments by the block size)
+    @Query(value = "SELECT nextval('order_id_seq')", nativeQuery = true)
+    Long nextOrderIdBlock();
+    
+    @Query("SELECT o.id FROM Order o WHERE o.id BETWEEN :min AND :max")
+    List<Long> findIdsBetween(@Param("min") Long min, @Param("max") Long max);
+    
     List<Order> findByStatusOrderByCreatedAtDesc(Order.OrderStatus status);
     
     List<Order> findAllByOrderByCreatedAtDesc();
+    
+    // Most recent orders only (LIMIT in SQL); items stay lazy
+    List<Order> findTop10ByOrderByCreatedAtDesc();
+    
+    // (status, paymentStatus, orderCount, sum of totals) for every combination present
+    @Query("SELECT o.status, o.paymentStatus, COUNT(o), COALESCE(SUM(o.total), 0) FROM Order o GROUP BY o.status, o.paymentStatus")
+    List<Object[]> aggregateByStatusAndPaymentStatus();
+    
+    // (bucket start, orderCount, revenue) of PAID orders per day/week since :from, by creation time
+    @Query(value = "SELECT date_trunc(:unit, created_at) AS bucket, COUNT(*), COALESCE(SUM(total), 0) " +
+            "FROM orders WHERE payment_status = 'PAID' AND created_at >= :from " +
+            "GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+    List<Object[]> sumPaidRevenueByPeriod(@Param("unit") String unit, @Param("from") LocalDateTime from);
 }
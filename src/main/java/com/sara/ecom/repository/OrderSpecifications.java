@@ -0,0 +1,87 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.OrderSummary;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specifications for the paged admin order list, newest first. All filtering and ordering happens in SQL.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<OrderSummary> hasStatus(Order.OrderStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<OrderSummary> hasPaymentStatus(Order.PaymentStatus paymentStatus) {
+        return (root, query, cb) -> paymentStatus == null ? null : cb.equal(root.get("paymentStatus"), paymentStatus);
+    }
+
+    /**
+     * Created at or after {@code from} and before {@code to}; either bound may be null.
+     */
+    public static Specification<OrderSummary> createdBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            Expression<LocalDateTime> createdAt = root.get("createdAt");
+            if (from != null && to != null) {
+                return cb.and(cb.greaterThanOrEqualTo(createdAt, from), cb.lessThan(createdAt, to));
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(createdAt, from);
+            }
+            if (to != null) {
+                return cb.lessThan(createdAt, to);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<OrderSummary> emailContains(String email) {
+        return (root, query, cb) -> email == null || email.isBlank() ? null
+                : cb.like(cb.lower(root.get("userEmail")), "%" + escapeLike(email.trim().toLowerCase()) + "%", '\\');
+    }
+
+    public static Specification<OrderSummary> orderNumberContains(String orderNumber) {
+        return (root, query, cb) -> orderNumber == null || orderNumber.isBlank() ? null
+                : cb.like(cb.upper(root.get("orderNumber")), "%" + escapeLike(orderNumber.trim().toUpperCase()) + "%", '\\');
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Newest first with id as tie-breaker, so an index on (created_at, id) serves the page.
+     * Every order gets createdAt on insert. Skipped for count queries.
+     */
+    public static Specification<OrderSummary> newestFirst() {
+        return (root, query, cb) -> {
+            Class<?> resultType = query.getResultType();
+            if (resultType != Long.class && resultType != long.class) {
+                query.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Rows strictly after (lastCreatedAt, lastId) in the order produced by {@link #newestFirst}.
+     */
+    public static Specification<OrderSummary> after(LocalDateTime lastCreatedAt, Long lastId) {
+        return (root, query, cb) -> {
+            if (lastCreatedAt == null || lastId == null) {
+                return null;
+            }
+            Expression<LocalDateTime> createdAt = root.get("createdAt");
+            Predicate older = cb.lessThan(createdAt, lastCreatedAt);
+            return cb.or(older, cb.and(cb.equal(createdAt, lastCreatedAt), cb.lessThan(root.get("id"), lastId)));
+        };
+    }
+}
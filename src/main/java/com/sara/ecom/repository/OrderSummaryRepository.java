@@ -0,0 +1,10 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.entity.OrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long>, JpaSpecificationExecutor<OrderSummary> {
+}
@@ -0,0 +1,57 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.entity.PaymentWebhookEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+    
+    boolean existsByProviderAndEventId(PaymentWebhookEvent.Provider provider, String eventId);
+    
+    // Due events whose order has no earlier event still pending or processing, so each order's events
+    // are applied one at a time in arrival order. Rows locked here are skipped by concurrent workers.
+    @Query(value = "SELECT * FROM payment_webhook_events e WHERE e.status = 'PENDING' AND e.next_attempt_at <= :now " +
+           "AND NOT EXISTS (SELECT 1 FROM payment_webhook_events p WHERE p.order_key = e.order_key AND p.id < e.id " +
+           "AND p.status IN ('PENDING', 'PROCESSING')) " +
+           "ORDER BY e.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PaymentWebhookEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    // Held for the whole processing transaction, so a re-queued copy cannot apply the event twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM PaymentWebhookEvent e WHERE e.id = :id")
+    Optional<PaymentWebhookEvent> findByIdForUpdate(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :pending, e.updatedAt = :now " +
+           "WHERE e.status = :processing AND e.updatedAt < :cutoff")
+    int releaseStale(@Param("pending") PaymentWebhookEvent.Status pending,
+                     @Param("processing") PaymentWebhookEvent.Status processing,
+                     @Param("cutoff") LocalDateTime cutoff,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :pending, e.attempts = 0, e.nextAttemptAt = :now, " +
+           "e.lastError = NULL, e.updatedAt = :now WHERE e.status = :failed")
+    int requeueAll(@Param("failed") PaymentWebhookEvent.Status failed,
+                   @Param("pending") PaymentWebhookEvent.Status pending,
+                   @Param("now") LocalDateTime now);
+    
+    List<PaymentWebhookEvent> findByStatusOrderByIdDesc(PaymentWebhookEvent.Status status, Pageable pageable);
+    
+    List<PaymentWebhookEvent> findAllByOrderByIdDesc(Pageable pageable);
+    
+    List<PaymentWebhookEvent> findByOrderKeyOrderByIdAsc(String orderKey);
+    
+    long countByStatus(PaymentWebhookEvent.Status status);
+}
@@ -2,15 +2,17 @@ package com.sara.ecom.repository;
 
 import com.sara.ecom.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     
     List<Product> findByStatus(Product.Status status);
     
@@ -71,9 +73,24 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.categoryId = :categoryId AND p.status = :status")
     long countActiveProductsByCategoryId(@Param("categoryId") Long categoryId, @Param("status") Product.Status status);
     
+    // (categoryId, count) rows for every category that has products with the given status
+    @Query("SELECT p.categoryId, COUNT(p) FROM Product p WHERE p.status = :status AND p.categoryId IS NOT NULL GROUP BY p.categoryId")
+    List<Object[]> countProductsByCategoryId(@Param("status") Product.Status status);
+    
     @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.images WHERE p.categoryId IN :categoryIds AND p.status = :status")
     List<Product> findByCategoryIdsAndStatus(@Param("categoryIds") List<Long> categoryIds, @Param("status") Product.Status status);
     
+    // Variant names and option values as (productId, variantName, optionValue) rows, for the search index
+    @Query("SELECT v.product.id, v.name, o.value FROM ProductVariant v LEFT JOIN v.options o WHERE v.product.status = :status")
+    List<Object[]> findVariantSearchTermsByStatus(@Param("status") Product.Status status);
+    
+    @Query("SELECT v.product.id, v.name, o.value FROM ProductVariant v LEFT JOIN v.options o WHERE v.product.id IN :productIds")
+    List<Object[]> findVariantSearchTermsByProductIds(@Param("productIds") Collection<Long> productIds);
+    
+    // (id, slug, gstRate, categoryId) rows for the products referenced by a cart, for pricing in one query
+    @Query("SELECT p.id, p.slug, p.gstRate, p.categoryId FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findPricingInfoByIdIn(@Param("ids") Collection<Long> ids);
+    
     // Find Digital Product created from a Design Product
     Optional<Product> findBySourceDesignProductId(Long sourceDesignProductId);
 }
@@ -0,0 +1,162 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.entity.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Specifications for the paged product search. All filtering and ordering happens in SQL.
+ */
+public final class ProductSpecifications {
+
+    // Products saved before createdAt existed sort as the oldest
+    private static final LocalDateTime MIN_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Sort keys supported by keyset pagination. Nullable columns are coalesced so that
+     * ordering and the "after cursor" comparison agree.
+     */
+    public enum SortField {
+        PRICE, CREATED_AT, NAME;
+
+        public Expression<? extends Comparable<?>> key(Root<Product> root, CriteriaBuilder cb) {
+            switch (this) {
+                case PRICE:
+                    return cb.coalesce(root.<BigDecimal>get("price"), BigDecimal.ZERO);
+                case CREATED_AT:
+                    return cb.coalesce(root.<LocalDateTime>get("createdAt"), MIN_CREATED_AT);
+                default:
+                    return root.<String>get("name");
+            }
+        }
+
+        /**
+         * The product's value for this key, matching what {@link #key} evaluates to in SQL.
+         */
+        public Comparable<?> valueOf(Product product) {
+            switch (this) {
+                case PRICE:
+                    return product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
+                case CREATED_AT:
+                    return product.getCreatedAt() != null ? product.getCreatedAt() : MIN_CREATED_AT;
+                default:
+                    return product.getName();
+            }
+        }
+
+        /**
+         * Parses a value previously rendered with toString() back into the key's type.
+         */
+        public Comparable<?> parse(String raw) {
+            switch (this) {
+                case PRICE:
+                    return new BigDecimal(raw);
+                case CREATED_AT:
+                    return LocalDateTime.parse(raw);
+                default:
+                    return raw;
+            }
+        }
+
+        public static SortField from(String value) {
+            if (value == null || value.isBlank()) {
+                return CREATED_AT;
+            }
+            switch (value.trim().toLowerCase()) {
+                case "price":
+                    return PRICE;
+                case "name":
+                    return NAME;
+                case "createdat":
+                case "created_at":
+                    return CREATED_AT;
+                default:
+                    throw new RuntimeException("Unsupported sort field: " + value);
+            }
+        }
+    }
+
+    public static Specification<Product> hasStatus(Product.Status status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Product> hasType(Product.ProductType type) {
+        return (root, query, cb) -> type == null ? null : cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Product> inCategories(Collection<Long> categoryIds) {
+        return (root, query, cb) -> categoryIds == null ? null : root.get("categoryId").in(categoryIds);
+    }
+
+    /**
+     * Products without a category, or in one of the given (accessible) categories.
+     */
+    public static Specification<Product> uncategorizedOrInCategories(Collection<Long> categoryIds) {
+        return (root, query, cb) -> {
+            if (categoryIds == null) {
+                return null;
+            }
+            Predicate uncategorized = cb.isNull(root.get("categoryId"));
+            return categoryIds.isEmpty() ? uncategorized : cb.or(uncategorized, root.get("categoryId").in(categoryIds));
+        };
+    }
+
+    public static Specification<Product> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (root, query, cb) -> {
+            Expression<BigDecimal> price = cb.coalesce(root.<BigDecimal>get("price"), BigDecimal.ZERO);
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(price, minPrice, maxPrice);
+            }
+            if (minPrice != null) {
+                return cb.greaterThanOrEqualTo(price, minPrice);
+            }
+            if (maxPrice != null) {
+                return cb.lessThanOrEqualTo(price, maxPrice);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Orders by the sort key with id as tie-breaker. Skipped for count queries.
+     */
+    public static Specification<Product> orderedBy(SortField field, boolean ascending) {
+        return (root, query, cb) -> {
+            Class<?> resultType = query.getResultType();
+            if (resultType != Long.class && resultType != long.class) {
+                Expression<?> key = field.key(root, cb);
+                query.orderBy(
+                        ascending ? cb.asc(key) : cb.desc(key),
+                        ascending ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Rows strictly after (lastValue, lastId) in the order produced by {@link #orderedBy}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(SortField field, boolean ascending, Comparable lastValue, Long lastId) {
+        return (root, query, cb) -> {
+            if (lastValue == null || lastId == null) {
+                return null;
+            }
+            Expression key = field.key(root, cb);
+            Expression<Long> id = root.get("id");
+            Predicate beyondKey = ascending ? cb.greaterThan(key, lastValue) : cb.lessThan(key, lastValue);
+            Predicate beyondId = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+            return cb.or(beyondKey, cb.and(cb.equal(key, lastValue), beyondId));
+        };
+    }
+}
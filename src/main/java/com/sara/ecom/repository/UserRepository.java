@@ -4,6 +4,7 @@ import com.sara.ecom.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +15,7 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByOauthProviderId(String oauthProviderId);
     
     List<User> findAllByOrderByCreatedAtDesc();
+    List<User> findByEmailIn(Collection<String> emails);
     List<User> findByStatusOrderByCreatedAtDesc(User.UserStatus status);
     long countByStatus(User.UserStatus status);
 }
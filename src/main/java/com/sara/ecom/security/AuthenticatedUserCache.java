@@ -0,0 +1,157 @@
+package com.sara.ecom.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, least-recently-used cache of already verified bearer tokens, so repeat requests skip
+ * signature verification and the users table lookup. Keys are SHA-256 digests, never raw tokens.
+ * An entry lives for the configured TTL but never past the token's own expiry.
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong tokenParses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthenticatedUserCache(
+            @Value("${jwt.auth-cache.ttl-ms:300000}") long ttlMillis,
+            @Value("${jwt.auth-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > AuthenticatedUserCache.this.maxEntries;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * A cached, still valid entry for the token, or null.
+     */
+    public Entry get(String token) {
+        String key = digest(token);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry;
+    }
+
+    public void putUser(String token, String email, UserDetails userDetails, long tokenExpiresAt) {
+        put(token, new Entry(email, false, userDetails, expiry(tokenExpiresAt)));
+    }
+
+    public void putAdmin(String token, long tokenExpiresAt) {
+        put(token, new Entry(null, true, null, expiry(tokenExpiresAt)));
+    }
+
+    /**
+     * Counts a full token verification (signature check and claims parsing).
+     */
+    public void recordTokenParse() {
+        tokenParses.incrementAndGet();
+    }
+
+    /**
+     * Drops every cached token of the user, e.g. after an admin changed the account.
+     */
+    public void invalidateUser(String email) {
+        if (email == null) {
+            return;
+        }
+        String normalizedEmail = email.toLowerCase().trim();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> normalizedEmail.equals(entry.email));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMillis);
+        stats.put("hits", hitCount);
+        stats.put("misses", lookups - hitCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("tokenParses", tokenParses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void put(String token, Entry entry) {
+        if (maxEntries <= 0 || entry.expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        String key = digest(token);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private long expiry(long tokenExpiresAt) {
+        return Math.min(System.currentTimeMillis() + ttlMillis, tokenExpiresAt);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Entry {
+        private final String email;
+        private final boolean admin;
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        private Entry(String email, boolean admin, UserDetails userDetails, long expiresAt) {
+            this.email = email;
+            this.admin = admin;
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+
+        public boolean isAdmin() {
+            return admin;
+        }
+
+        public UserDetails getUserDetails() {
+            return userDetails;
+        }
+    }
+}
@@ -23,6 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
     
     @Override
     protected void doFilterInternal(
@@ -40,40 +41,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             final String jwt = authHeader.substring(7);
             
+            AuthenticatedUserCache.Entry cached = authenticatedUserCache.get(jwt);
+            if (cached != null) {
+                // Verified recently and not expired: no signature check or user lookup needed
+                if (!cached.isAdmin()) {
+                    setAuthentication(cached.getUserDetails(), request);
+                }
+                filterChain.doFilter(request, response);
+                return;
+            }
+            
+            // Single parse: signature, expiry, subject and token type in one pass
+            authenticatedUserCache.recordTokenParse();
+            JwtService.VerifiedToken token = jwtService.verify(jwt);
+            
             // Check if this is an admin token - if so, skip regular user authentication
             // Admin tokens are handled separately by AdminAuthController
-            if (jwtService.isAdminToken(jwt)) {
+            if (token.isAdmin()) {
                 // Admin token - skip regular user authentication
                 // Admin endpoints handle their own authentication
+                authenticatedUserCache.putAdmin(jwt, token.getExpiration().getTime());
                 filterChain.doFilter(request, response);
                 return;
             }
             
-            final String userEmail = jwtService.extractEmail(jwt);
+            final String userEmail = token.getEmail();
             
             // Always try to set authentication if we have a valid email and token
             // Don't check if authentication is already set - Spring Security will handle that
             if (userEmail != null) {
                 try {
-                    // Validate token first before loading user details
-                    if (!jwtService.validateToken(jwt, userEmail)) {
-                        logger.error("JWT Filter: Token validation failed for email: " + userEmail);
-                        filterChain.doFilter(request, response);
-                        return;
-                    }
-                    
                     // Load user details - if user doesn't exist, this will throw UsernameNotFoundException
                     UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-                    
-                    // Create authentication token and set it in SecurityContext
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("JWT Filter: Authentication set successfully for: " + userEmail);
+                    setAuthentication(userDetails, request);
+                    authenticatedUserCache.putUser(jwt, userEmail, userDetails, token.getExpiration().getTime());
                 } catch (org.springframework.security.core.userdetails.UsernameNotFoundException e) {
                     logger.error("JWT Filter: User not found for email: " + userEmail + ". Token is valid but user doesn't exist in database.", e);
                     // Don't set authentication - Spring Security will return 401
@@ -93,4 +94,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    private void setAuthentication(UserDetails userDetails, HttpServletRequest request) {
+        // Create authentication token and set it in SecurityContext
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
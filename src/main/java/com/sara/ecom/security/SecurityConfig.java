@@ -46,7 +46,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/admin/auth/**").permitAll()
                 // Public shipping endpoint (for guest checkout)
-                .requestMatchers("/api/shipping/calculate").permitAll()
+                .requestMatchers("/api/shipping/calculate", "/api/shipping/quotes").permitAll()
                 // Payment endpoints (for checkout: methods, create-order, verify – guest and logged-in)
                 .requestMatchers("/api/payment/methods").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/payment/create-order").permitAll()
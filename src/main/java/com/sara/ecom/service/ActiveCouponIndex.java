@@ -0,0 +1,75 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Coupon;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable snapshot of active coupons, partitioned by time. Every validFrom and validUntil is a
+ * boundary; between two boundaries the set of coupons inside their validity window cannot change,
+ * so each window keeps that set precomputed and a lookup is a single floor search on the clock.
+ */
+final class ActiveCouponIndex {
+
+    // Coupons valid for the whole window, keyed by the window's inclusive start.
+    // Instants before the first key fall in the head window.
+    private final NavigableMap<LocalDateTime, List<Coupon>> windows = new TreeMap<>();
+    private final List<Coupon> headWindow;
+
+    /**
+     * @param activeCoupons active coupons, newest first; each window keeps that order
+     */
+    ActiveCouponIndex(List<Coupon> activeCoupons) {
+        TreeSet<LocalDateTime> bounds = new TreeSet<>();
+        for (Coupon coupon : activeCoupons) {
+            if (coupon.getValidFrom() != null) {
+                bounds.add(coupon.getValidFrom());
+            }
+            if (coupon.getValidUntil() != null) {
+                bounds.add(expiresAt(coupon));
+            }
+        }
+        this.headWindow = validThroughout(activeCoupons, null, bounds.isEmpty() ? null : bounds.first());
+        List<LocalDateTime> points = new ArrayList<>(bounds);
+        for (int i = 0; i < points.size(); i++) {
+            LocalDateTime end = i + 1 < points.size() ? points.get(i + 1) : null;
+            windows.put(points.get(i), validThroughout(activeCoupons, points.get(i), end));
+        }
+    }
+
+    /**
+     * validUntil is inclusive, so the coupon stops being valid just after it.
+     */
+    private static LocalDateTime expiresAt(Coupon coupon) {
+        return coupon.getValidUntil().plusNanos(1);
+    }
+
+    /**
+     * Coupons valid over all of [start, end); null bounds are open-ended.
+     */
+    private static List<Coupon> validThroughout(List<Coupon> coupons, LocalDateTime start, LocalDateTime end) {
+        List<Coupon> valid = new ArrayList<>();
+        for (Coupon coupon : coupons) {
+            boolean startedBy = coupon.getValidFrom() == null || (start != null && !coupon.getValidFrom().isAfter(start));
+            boolean lastsUntil = coupon.getValidUntil() == null || (end != null && !expiresAt(coupon).isBefore(end));
+            if (startedBy && lastsUntil) {
+                valid.add(coupon);
+            }
+        }
+        return List.copyOf(valid);
+    }
+
+    /**
+     * Active coupons inside their validity window at the given time, newest first.
+     */
+    List<Coupon> validAt(LocalDateTime now) {
+        Entry<LocalDateTime, List<Coupon>> window = windows.floorEntry(now);
+        return window != null ? window.getValue() : headWindow;
+    }
+}
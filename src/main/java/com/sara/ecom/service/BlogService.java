@@ -18,6 +18,9 @@ public class BlogService {
     @Autowired
     private BlogRepository blogRepository;
     
+    @Autowired
+    private HomepageSnapshotService homepageSnapshotService;
+    
     public List<BlogDto> getAllBlogs(String status, String category) {
         List<Blog> blogs;
         
@@ -63,6 +66,7 @@ public class BlogService {
     
     @Transactional
     public BlogDto createBlog(BlogRequest request) {
+        homepageSnapshotService.invalidate();
         Blog blog = new Blog();
         mapRequestToBlog(request, blog);
         return toDto(blogRepository.save(blog));
@@ -70,6 +74,7 @@ public class BlogService {
     
     @Transactional
     public BlogDto updateBlog(Long id, BlogRequest request) {
+        homepageSnapshotService.invalidate();
         Blog blog = blogRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Blog not found with id: " + id));
         mapRequestToBlog(request, blog);
@@ -78,6 +83,7 @@ public class BlogService {
     
     @Transactional
     public void deleteBlog(Long id) {
+        homepageSnapshotService.invalidate();
         if (!blogRepository.existsById(id)) {
             throw new RuntimeException("Blog not found with id: " + id);
         }
@@ -130,6 +136,7 @@ public class BlogService {
     
     @Transactional
     public void setHomepageBlogs(List<Long> blogIds) {
+        homepageSnapshotService.invalidate();
         if (blogIds == null || blogIds.size() != 4) {
             throw new IllegalArgumentException("Exactly 4 blog IDs are required for homepage");
         }
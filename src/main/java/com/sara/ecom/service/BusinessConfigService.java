@@ -3,9 +3,16 @@ package com.sara.ecom.service;
 import com.sara.ecom.dto.BusinessConfigDto;
 import com.sara.ecom.entity.BusinessConfig;
 import com.sara.ecom.repository.BusinessConfigRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BiConsumer;
 
 @Service
 public class BusinessConfigService {
@@ -13,9 +20,26 @@ public class BusinessConfigService {
     @Autowired
     private BusinessConfigRepository businessConfigRepository;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${config.cache.ttl-ms:60000}")
+    private long cacheTtlMillis;
+    
+    private ConfigCache<BusinessConfig> cache;
+    
+    @PostConstruct
+    void initCache() {
+        // Loaded in its own read-only transaction so the cached entity is detached from the caller's session
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+        cache = new ConfigCache<>("business config", () -> readOnly.execute(status ->
+                businessConfigRepository.findFirstByOrderByIdAsc().orElse(new BusinessConfig())), cacheTtlMillis);
+    }
+    
     public BusinessConfigDto getConfig() {
-        BusinessConfig config = businessConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new BusinessConfig());
+        BusinessConfig config = cache.get();
         
         BusinessConfigDto dto = new BusinessConfigDto();
         dto.setId(config.getId());
@@ -54,8 +78,7 @@ public class BusinessConfigService {
     }
     
     public BusinessConfigDto getConfigWithApiKey() {
-        BusinessConfig config = businessConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new BusinessConfig());
+        BusinessConfig config = cache.get();
         
         BusinessConfigDto dto = new BusinessConfigDto();
         dto.setId(config.getId());
@@ -133,6 +156,7 @@ public class BusinessConfigService {
         }
         
         BusinessConfig saved = businessConfigRepository.save(config);
+        cache.invalidate();
         
         BusinessConfigDto response = new BusinessConfigDto();
         response.setId(saved.getId());
@@ -162,19 +186,26 @@ public class BusinessConfigService {
     }
     
     public boolean isSwipeEnabled() {
-        BusinessConfig config = businessConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new BusinessConfig());
+        BusinessConfig config = cache.get();
         return config.getSwipeEnabled() != null && config.getSwipeEnabled();
     }
     
     public String getApiKey() {
-        BusinessConfig config = businessConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new BusinessConfig());
-        return config.getSwipeApiKey();
+        return cache.get().getSwipeApiKey();
     }
     
+    /**
+     * Cached business config, shared by all callers; read-only. Use {@link #saveConfig} to change it.
+     */
     public BusinessConfig getConfigEntity() {
-        return businessConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new BusinessConfig());
+        return cache.get();
+    }
+    
+    /**
+     * Calls the listener with the previous and new config whenever a new version is loaded,
+     * and right away with the current config if one is loaded.
+     */
+    public void addChangeListener(BiConsumer<BusinessConfig, BusinessConfig> listener) {
+        cache.addListener(listener);
     }
 }
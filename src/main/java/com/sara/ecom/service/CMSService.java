@@ -49,6 +49,9 @@ public class CMSService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private HomepageSnapshotService homepageSnapshotService;
+    
     // Homepage data
     public CMSDto.HomepageResponse getHomepageData() {
         CMSDto.HomepageResponse response = new CMSDto.HomepageResponse();
@@ -73,6 +76,7 @@ public class CMSService {
     
     @Transactional
     public void setBestSellers(List<Long> productIds) {
+        homepageSnapshotService.invalidate();
         homepageSectionRepository.deleteBySectionType(HomepageSection.SectionType.BEST_SELLERS);
         int order = 0;
         for (Long productId : productIds) {
@@ -92,6 +96,7 @@ public class CMSService {
     
     @Transactional
     public void setNewArrivals(List<Long> productIds) {
+        homepageSnapshotService.invalidate();
         homepageSectionRepository.deleteBySectionType(HomepageSection.SectionType.NEW_ARRIVALS);
         int order = 0;
         for (Long productId : productIds) {
@@ -119,6 +124,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.TestimonialDto createTestimonial(CMSDto.TestimonialRequest request) {
+        homepageSnapshotService.invalidate();
         Testimonial testimonial = new Testimonial();
         testimonial.setName(request.getName());
         testimonial.setText(request.getText());
@@ -130,6 +136,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.TestimonialDto updateTestimonial(Long id, CMSDto.TestimonialRequest request) {
+        homepageSnapshotService.invalidate();
         Testimonial testimonial = testimonialRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Testimonial not found"));
         testimonial.setName(request.getName());
@@ -142,6 +149,7 @@ public class CMSService {
     
     @Transactional
     public void deleteTestimonial(Long id) {
+        homepageSnapshotService.invalidate();
         testimonialRepository.deleteById(id);
     }
     
@@ -163,6 +171,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.TestimonialDto submitTestimonial(String linkId, CMSDto.TestimonialSubmitRequest request) {
+        homepageSnapshotService.invalidate();
         TestimonialLink link = testimonialLinkRepository.findByLinkId(linkId)
                 .orElseThrow(() -> new RuntimeException("Invalid testimonial link"));
         
@@ -198,6 +207,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.OfferDto createOffer(CMSDto.OfferRequest request) {
+        homepageSnapshotService.invalidate();
         Offer offer = new Offer();
         offer.setTitle(request.getTitle());
         offer.setDescription(request.getDescription());
@@ -207,6 +217,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.OfferDto updateOffer(Long id, CMSDto.OfferRequest request) {
+        homepageSnapshotService.invalidate();
         Offer offer = offerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Offer not found"));
         offer.setTitle(request.getTitle());
@@ -217,6 +228,7 @@ public class CMSService {
     
     @Transactional
     public void deleteOffer(Long id) {
+        homepageSnapshotService.invalidate();
         offerRepository.deleteById(id);
     }
     
@@ -234,6 +246,7 @@ public class CMSService {
     
     @Transactional
     public void setInstagramPosts(List<CMSDto.InstagramPostItem> posts) {
+        homepageSnapshotService.invalidate();
         instagramPostRepository.deleteAll();
         int order = 0;
         for (CMSDto.InstagramPostItem item : posts) {
@@ -260,6 +273,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.BannerDto createBanner(CMSDto.BannerRequest request) {
+        homepageSnapshotService.invalidate();
         Banner banner = new Banner();
         mapBannerRequest(request, banner);
         return toBannerDto(bannerRepository.save(banner));
@@ -267,6 +281,7 @@ public class CMSService {
     
     @Transactional
     public CMSDto.BannerDto updateBanner(Long id, CMSDto.BannerRequest request) {
+        homepageSnapshotService.invalidate();
         Banner banner = bannerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Banner not found"));
         mapBannerRequest(request, banner);
@@ -275,6 +290,7 @@ public class CMSService {
     
     @Transactional
     public void deleteBanner(Long id) {
+        homepageSnapshotService.invalidate();
         bannerRepository.deleteById(id);
     }
     
@@ -289,6 +305,7 @@ public class CMSService {
     
     @Transactional
     public void setLandingContent(Map<String, String> content) {
+        homepageSnapshotService.invalidate();
         for (Map.Entry<String, String> entry : content.entrySet()) {
             String key = "landing." + entry.getKey();
             CMSContent cmsContent = cmsContentRepository.findByKey(key)
@@ -310,6 +327,7 @@ public class CMSService {
     
     @Transactional
     public void setContactInfo(Map<String, String> content) {
+        homepageSnapshotService.invalidate();
         for (Map.Entry<String, String> entry : content.entrySet()) {
             String key = "contact." + entry.getKey();
             CMSContent cmsContent = cmsContentRepository.findByKey(key)
@@ -40,7 +40,7 @@ public class CartService {
     private com.sara.ecom.service.CustomProductService customProductService;
     
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxService notificationOutboxService;
     
     @Autowired
     private com.sara.ecom.repository.UserRepository userRepository;
@@ -48,25 +48,34 @@ public class CartService {
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     public CartDto getCart(String userEmail, String state, String couponCode) {
+        return priceCart(userEmail, state, couponCode).getCart();
+    }
+    
+    /**
+     * Prices the cart in one pass: slug, GST rate and category of every referenced product come
+     * from a single query, then subtotal, GST, shipping and coupon discount are computed together.
+     */
+    public PricedCart priceCart(String userEmail, String state, String couponCode) {
         List<CartItem> items = cartItemRepository.findByUserEmailOrderByCreatedAtDesc(userEmail);
+        Map<Long, ProductPricingInfo> products = loadPricingInfo(items);
         
         CartDto cart = new CartDto();
-        cart.setItems(items.stream().map(item -> toCartItemDto(item)).collect(Collectors.toList()));
-        cart.setItemCount(items.size());
-        
-        BigDecimal subtotal = items.stream()
-                .map(CartItem::getTotalPrice)
-                .filter(p -> p != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        cart.setSubtotal(subtotal);
-        
-        // Calculate GST per item based on category
+        List<CartDto.CartItemDto> itemDtos = new java.util.ArrayList<>(items.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
         BigDecimal totalGst = BigDecimal.ZERO;
-        for (CartDto.CartItemDto item : cart.getItems()) {
-            BigDecimal itemGst = calculateItemGst(item);
-            totalGst = totalGst.add(itemGst);
+        for (CartItem item : items) {
+            ProductPricingInfo product = products.get(item.getProductId());
+            CartDto.CartItemDto dto = toCartItemDto(item, product);
+            if (item.getTotalPrice() != null) {
+                subtotal = subtotal.add(item.getTotalPrice());
+            }
+            // GST per item based on the product's rate
+            totalGst = totalGst.add(applyItemGst(dto, product));
+            itemDtos.add(dto);
         }
+        cart.setItems(itemDtos);
+        cart.setItemCount(items.size());
+        cart.setSubtotal(subtotal);
         cart.setGst(totalGst);
         
         // Calculate shipping based on state
@@ -78,9 +87,10 @@ public class CartService {
         
         // Apply coupon discount if provided
         BigDecimal couponDiscount = BigDecimal.ZERO;
+        CouponDto couponValidation = null;
         if (couponCode != null && !couponCode.trim().isEmpty()) {
-            // Validate coupon against totalBeforeCoupon (subtotal + shipping)
-            CouponDto couponValidation = couponService.validateCoupon(couponCode, totalBeforeCoupon, userEmail);
+            // Validate coupon against totalBeforeCoupon (subtotal + GST + shipping)
+            couponValidation = couponService.validateCoupon(couponCode, totalBeforeCoupon, userEmail);
             if (couponValidation.getValid() != null && couponValidation.getValid()) {
                 couponDiscount = couponValidation.getDiscount() != null ? couponValidation.getDiscount() : BigDecimal.ZERO;
                 cart.setAppliedCouponCode(couponCode);
@@ -96,38 +106,57 @@ public class CartService {
         // Final total: (Subtotal + GST + Shipping) - Coupon Discount
         cart.setTotal(totalBeforeCoupon.subtract(couponDiscount));
         
-        return cart;
+        Map<Long, Long> categoryIdByProductId = new HashMap<>();
+        products.forEach((id, info) -> {
+            if (info.categoryId != null) {
+                categoryIdByProductId.put(id, info.categoryId);
+            }
+        });
+        return new PricedCart(cart, state, couponValidation, categoryIdByProductId);
     }
     
-    private BigDecimal calculateItemGst(CartDto.CartItemDto item) {
-        try {
-            // Get product to find GST rate
-            com.sara.ecom.entity.Product product = productRepository.findById(item.getProductId())
-                    .orElse(null);
-            
-            if (product == null) {
-                return BigDecimal.ZERO;
-            }
-            
-            // Get GST rate from product
-            if (product.getGstRate() == null || product.getGstRate().compareTo(BigDecimal.ZERO) == 0) {
-                return BigDecimal.ZERO;
-            }
-            
-            // Calculate GST: (item total price * GST rate) / 100
-            BigDecimal itemTotal = item.getTotalPrice() != null ? item.getTotalPrice() : BigDecimal.ZERO;
-            BigDecimal gstRate = product.getGstRate();
-            BigDecimal gstAmount = itemTotal.multiply(gstRate).divide(BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
-            
-            // Set GST info on item
-            item.setGstRate(gstRate);
-            item.setGstAmount(gstAmount);
-            
-            return gstAmount;
-        } catch (Exception e) {
-            // If any error occurs, return zero GST
+    private Map<Long, ProductPricingInfo> loadPricingInfo(List<CartItem> items) {
+        java.util.Set<Long> productIds = items.stream()
+                .map(CartItem::getProductId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<Long, ProductPricingInfo> products = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return products;
+        }
+        for (Object[] row : productRepository.findPricingInfoByIdIn(productIds)) {
+            products.put((Long) row[0], new ProductPricingInfo((String) row[1], (BigDecimal) row[2], (Long) row[3]));
+        }
+        return products;
+    }
+    
+    private BigDecimal applyItemGst(CartDto.CartItemDto item, ProductPricingInfo product) {
+        // Get GST rate from product
+        if (product == null || product.gstRate == null || product.gstRate.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
+        
+        // Calculate GST: (item total price * GST rate) / 100
+        BigDecimal itemTotal = item.getTotalPrice() != null ? item.getTotalPrice() : BigDecimal.ZERO;
+        BigDecimal gstAmount = itemTotal.multiply(product.gstRate).divide(BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
+        
+        // Set GST info on item
+        item.setGstRate(product.gstRate);
+        item.setGstAmount(gstAmount);
+        
+        return gstAmount;
+    }
+    
+    private static final class ProductPricingInfo {
+        private final String slug;
+        private final BigDecimal gstRate;
+        private final Long categoryId;
+        
+        private ProductPricingInfo(String slug, BigDecimal gstRate, Long categoryId) {
+            this.slug = slug;
+            this.gstRate = gstRate;
+            this.categoryId = categoryId;
+        }
     }
     
     // Overloaded method for backward compatibility
@@ -243,11 +272,11 @@ public class CartService {
                     emailData.setQuantity(request.getQuantity() != null ? request.getQuantity() : 1);
                     emailData.setProductType(request.getProductType());
                     
-                    emailService.sendItemAddedToCartEmail(emailData);
+                    notificationOutboxService.enqueueEmail(NotificationOutboxService.EmailType.ITEM_ADDED_TO_CART, emailData, null);
                 }
             } catch (Exception e) {
                 // Log error but don't fail cart addition
-                System.err.println("Failed to send cart email: " + e.getMessage());
+                System.err.println("Failed to queue cart email: " + e.getMessage());
                 e.printStackTrace();
             }
         }
@@ -343,19 +372,22 @@ public class CartService {
     }
     
     private CartDto.CartItemDto toCartItemDto(CartItem item) {
+        ProductPricingInfo product = null;
+        if (item.getProductId() != null) {
+            product = loadPricingInfo(List.of(item)).get(item.getProductId());
+        }
+        return toCartItemDto(item, product);
+    }
+    
+    private CartDto.CartItemDto toCartItemDto(CartItem item, ProductPricingInfo product) {
         CartDto.CartItemDto dto = new CartDto.CartItemDto();
         dto.setId(item.getId());
         dto.setProductType(item.getProductType().name());
         dto.setProductId(item.getProductId());
         
-        // Fetch product slug for proper routing (especially for custom products)
-        try {
-            com.sara.ecom.entity.Product product = productRepository.findById(item.getProductId()).orElse(null);
-            if (product != null && product.getSlug() != null && !product.getSlug().trim().isEmpty()) {
-                dto.setProductSlug(product.getSlug());
-            }
-        } catch (Exception e) {
-            // If product not found or error, slug will remain null
+        // Product slug for proper routing (especially for custom products)
+        if (product != null && product.slug != null && !product.slug.trim().isEmpty()) {
+            dto.setProductSlug(product.slug);
         }
         
         dto.setProductName(item.getProductName());
@@ -369,37 +401,8 @@ public class CartService {
         dto.setUnitPrice(item.getUnitPrice());
         dto.setTotalPrice(item.getTotalPrice());
 
-        // #region agent log
-        try {
-            java.util.Map<String, Object> payload = new java.util.HashMap<>();
-            payload.put("sessionId", "debug-session");
-            payload.put("runId", "pre-fix");
-            payload.put("hypothesisId", "H2");
-            payload.put("location", "CartService.java:311");
-            payload.put("message", "toCartItemDto pricing snapshot");
-
-            java.util.Map<String, Object> data = new java.util.HashMap<>();
-            data.put("cartItemId", item.getId());
-            data.put("productType", item.getProductType() != null ? item.getProductType().name() : null);
-            data.put("unitPrice", item.getUnitPrice());
-            data.put("quantity", item.getQuantity());
-            data.put("totalPrice", item.getTotalPrice());
-
-            payload.put("data", data);
-            payload.put("timestamp", System.currentTimeMillis());
-
-            String json = objectMapper.writeValueAsString(payload);
-            java.nio.file.Files.write(
-                java.nio.file.Paths.get("r:\\My Projects\\Quout\\.cursor\\debug.log"),
-                (json + System.lineSeparator()).getBytes(java.nio.charset.StandardCharsets.UTF_8),
-                java.nio.file.StandardOpenOption.CREATE,
-                java.nio.file.StandardOpenOption.APPEND
-            );
-        } catch (Exception ignored) {
-        }
-        // #endregion
 
-        // GST will be calculated in getCart method
+        // GST will be calculated in priceCart
         dto.setGstRate(BigDecimal.ZERO);
         dto.setGstAmount(BigDecimal.ZERO);
         
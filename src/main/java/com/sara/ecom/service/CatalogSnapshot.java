@@ -0,0 +1,264 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.PlainProductDto;
+import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.entity.Category;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned view of the public catalog: every ACTIVE product (as a listing DTO)
+ * plus the category tree; email access rules are evaluated by {@link CategoryTree}.
+ * Instances are never modified; patches produce a new snapshot that shares the unchanged parts.
+ * Products are stored as private copies with read-only lists. They are shared between requests;
+ * callers that need to change one work on {@code new ProductDto(product)}.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    private final Map<Long, ProductDto> productsById;
+    private final Map<Long, CategoryNode> categoriesById;
+    private final CategoryTree categoryTree;
+    private final List<ProductDto> products;
+    private final Map<Long, List<ProductDto>> productsByCategoryId;
+
+    CatalogSnapshot(long version, Collection<ProductDto> products, Collection<Category> categories) {
+        this(version, indexProducts(products), indexCategories(categories), new CategoryTree(categories, Map.of()));
+    }
+
+    private CatalogSnapshot(long version, Map<Long, ProductDto> productsById, Map<Long, CategoryNode> categoriesById,
+                            CategoryTree categoryTree) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+        this.productsById = productsById;
+        this.categoriesById = categoriesById;
+        this.categoryTree = categoryTree;
+
+        this.products = Collections.unmodifiableList(new ArrayList<>(productsById.values()));
+        Map<Long, List<ProductDto>> byCategory = new HashMap<>();
+        for (ProductDto product : this.products) {
+            if (product.getCategoryId() != null) {
+                byCategory.computeIfAbsent(product.getCategoryId(), k -> new ArrayList<>()).add(product);
+            }
+        }
+        byCategory.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        this.productsByCategoryId = Collections.unmodifiableMap(byCategory);
+    }
+
+    private static Map<Long, ProductDto> indexProducts(Collection<ProductDto> products) {
+        Map<Long, ProductDto> byId = new LinkedHashMap<>();
+        products.stream()
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .forEach(p -> byId.put(p.getId(), readOnlyCopy(p)));
+        return Collections.unmodifiableMap(byId);
+    }
+
+    /**
+     * Copy of the DTO whose lists (and nested lists) cannot be modified, so neither the writer that
+     * handed it in nor a reader can change what other requests see.
+     */
+    private static ProductDto readOnlyCopy(ProductDto source) {
+        ProductDto product = new ProductDto(source);
+        product.setImages(readOnly(product.getImages()));
+        product.setMedia(readOnly(product.getMedia()));
+        product.setDetailSections(readOnly(product.getDetailSections()));
+        product.setCustomFields(readOnly(product.getCustomFields()));
+        if (product.getVariants() != null) {
+            product.getVariants().forEach(v -> v.setOptions(readOnly(v.getOptions())));
+        }
+        product.setVariants(readOnly(product.getVariants()));
+        product.setRecommendedFabricIds(readOnly(product.getRecommendedFabricIds()));
+        if (product.getRecommendedFabrics() != null) {
+            product.getRecommendedFabrics().forEach(CatalogSnapshot::makeReadOnly);
+        }
+        product.setRecommendedFabrics(readOnly(product.getRecommendedFabrics()));
+        product.setPricingSlabs(readOnly(product.getPricingSlabs()));
+        if (product.getPlainProduct() != null) {
+            makeReadOnly(product.getPlainProduct());
+        }
+        return product;
+    }
+
+    private static void makeReadOnly(PlainProductDto fabric) {
+        if (fabric == null) {
+            return;
+        }
+        if (fabric.getVariants() != null) {
+            fabric.getVariants().forEach(v -> v.setOptions(readOnly(v.getOptions())));
+        }
+        fabric.setVariants(readOnly(fabric.getVariants()));
+    }
+
+    private static <T> List<T> readOnly(List<T> list) {
+        return list != null ? Collections.unmodifiableList(list) : null;
+    }
+
+    private static Map<Long, CategoryNode> indexCategories(Collection<Category> categories) {
+        Map<Long, CategoryNode> byId = new HashMap<>();
+        for (Category category : categories) {
+            byId.put(category.getId(), new CategoryNode(category));
+        }
+        return Collections.unmodifiableMap(byId);
+    }
+
+    /**
+     * Returns a copy of this snapshot with a batch of product changes applied in one pass.
+     * Replaced products keep their position; new ones are merged in by id, so nothing is re-sorted.
+     * @param saved products to add or replace
+     * @param removedIds products to drop; an id should not also be in {@code saved}
+     */
+    CatalogSnapshot withChanges(Collection<ProductDto> saved, Collection<Long> removedIds, long newVersion) {
+        Map<Long, ProductDto> replaced = new HashMap<>();
+        List<ProductDto> added = new ArrayList<>();
+        for (ProductDto product : saved) {
+            if (productsById.containsKey(product.getId())) {
+                replaced.put(product.getId(), readOnlyCopy(product));
+            } else {
+                added.add(readOnlyCopy(product));
+            }
+        }
+        added.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        Set<Long> removed = new HashSet<>(removedIds);
+
+        Map<Long, ProductDto> byId = new LinkedHashMap<>();
+        int next = 0;
+        for (Map.Entry<Long, ProductDto> entry : productsById.entrySet()) {
+            Long id = entry.getKey();
+            for (; next < added.size() && added.get(next).getId() < id; next++) {
+                byId.put(added.get(next).getId(), added.get(next));
+            }
+            if (!removed.contains(id)) {
+                byId.put(id, replaced.getOrDefault(id, entry.getValue()));
+            }
+        }
+        for (; next < added.size(); next++) {
+            byId.put(added.get(next).getId(), added.get(next));
+        }
+        return new CatalogSnapshot(newVersion, Collections.unmodifiableMap(byId), categoriesById, categoryTree);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * All active products ordered by id.
+     */
+    public List<ProductDto> getProducts() {
+        return products;
+    }
+
+    public ProductDto getProduct(Long id) {
+        return id != null ? productsById.get(id) : null;
+    }
+
+    public List<ProductDto> getProductsByCategoryId(Long categoryId) {
+        return productsByCategoryId.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    public CategoryNode getCategory(Long id) {
+        return id != null ? categoriesById.get(id) : null;
+    }
+
+    public int getCategoryCount() {
+        return categoriesById.size();
+    }
+
+    /**
+     * Gets the category itself and all its descendants (any depth).
+     */
+    public List<Long> getDescendantCategoryIds(Long categoryId) {
+        return categoryTree.getDescendantIds(categoryId);
+    }
+
+    public Set<Long> getActiveFabricCategoryIds() {
+        return categoriesById.values().stream()
+                .filter(c -> c.isFabric() && c.isActive())
+                .map(CategoryNode::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Same answer as CategoryService.isCategoryAccessible(Long, String); both evaluate the rules in
+     * {@link CategoryTree}. Listings hide products whose category row is missing, as they always have.
+     */
+    public boolean isCategoryAccessible(Long categoryId, String userEmail) {
+        return categoryTree.contains(categoryId) && categoryTree.isAccessible(categoryId, userEmail);
+    }
+
+    /**
+     * Ids of every category the user may see (public ones plus those granted to the email).
+     */
+    public Set<Long> getAccessibleCategoryIds(String userEmail) {
+        return categoriesById.keySet().stream()
+                .filter(id -> isCategoryAccessible(id, userEmail))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Products without a category are public; otherwise the category decides.
+     */
+    public boolean isProductAccessible(ProductDto product, String userEmail) {
+        return product.getCategoryId() == null || isCategoryAccessible(product.getCategoryId(), userEmail);
+    }
+
+    /**
+     * Read-only copy of the category fields the catalog needs.
+     */
+    public static final class CategoryNode {
+        private final Long id;
+        private final Long parentId;
+        private final String name;
+        private final boolean active;
+        private final boolean fabric;
+        private final boolean restricted;
+
+        private CategoryNode(Category category) {
+            this.id = category.getId();
+            this.parentId = category.getParentId();
+            this.name = category.getName();
+            this.active = category.getStatus() == Category.Status.ACTIVE;
+            this.fabric = Boolean.TRUE.equals(category.getIsFabric());
+            this.restricted = CategoryTree.parseAllowedEmails(category.getAllowedEmails()) != null;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public boolean isFabric() {
+            return fabric;
+        }
+
+        public boolean isRestricted() {
+            return restricted;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.entity.Category;
+import com.sara.ecom.entity.Product;
+import com.sara.ecom.repository.CategoryRepository;
+import com.sara.ecom.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Owns the in-memory {@link CatalogSnapshot} used by the public product listing endpoints.
+ * The snapshot is built lazily on first read. Product writes patch it incrementally and
+ * category writes invalidate it; both only take effect once the surrounding transaction commits.
+ * All product writes of one transaction are applied together as a single patch.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    // Patches and invalidations skip rebuildLock and bump this instead; a build that overlapped one
+    // still answers its own caller but is not installed, since its products may predate the change
+    private final AtomicLong generation = new AtomicLong();
+    private final Object rebuildLock = new Object();
+    // Key of the pending changes bound to the current transaction
+    private final Object pendingChangesKey = new Object();
+
+    /**
+     * Returns the current snapshot, building it first if it is missing or was invalidated.
+     * @param assembler converts loaded ACTIVE products into listing DTOs
+     */
+    @Transactional(readOnly = true)
+    public CatalogSnapshot getSnapshot(Function<List<Product>, List<ProductDto>> assembler) {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (rebuildLock) {
+            snapshot = current.get();
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long startGeneration = generation.get();
+            long start = System.currentTimeMillis();
+            List<Product> products = productRepository.findAllWithImagesByStatus(Product.Status.ACTIVE);
+            List<Category> categories = categoryRepository.findAll();
+            snapshot = new CatalogSnapshot(versionSequence.incrementAndGet(), assembler.apply(products), categories);
+            if (generation.get() == startGeneration) {
+                current.compareAndSet(null, snapshot);
+            }
+            logger.info("Built catalog snapshot v{} with {} products and {} categories in {} ms",
+                    snapshot.getVersion(), snapshot.getProducts().size(), snapshot.getCategoryCount(),
+                    System.currentTimeMillis() - start);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Adds or replaces a product once the current transaction commits.
+     * Products that are no longer ACTIVE are removed instead.
+     */
+    public void productSaved(ProductDto product) {
+        if (!Product.Status.ACTIVE.name().equals(product.getStatus())) {
+            productsRemoved(List.of(product.getId()));
+            return;
+        }
+        TransactionHooks.collectAfterCommit(pendingChangesKey, PendingChanges::new,
+                changes -> changes.save(product), this::apply);
+    }
+
+    /**
+     * Removes products once the current transaction commits.
+     */
+    public void productsRemoved(Collection<Long> productIds) {
+        TransactionHooks.collectAfterCommit(pendingChangesKey, PendingChanges::new,
+                changes -> changes.remove(productIds), this::apply);
+    }
+
+    /**
+     * Category changes can affect names, access rules and tree shape at once, so rather than being
+     * patched they clear the snapshot when their transaction commits, and the next read rebuilds it.
+     */
+    public void invalidate() {
+        TransactionHooks.afterCommit(() -> {
+            generation.incrementAndGet();
+            current.set(null);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        CatalogSnapshot snapshot = current.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", snapshot != null);
+        if (snapshot != null) {
+            stats.put("version", snapshot.getVersion());
+            stats.put("builtAt", snapshot.getBuiltAt());
+            stats.put("productCount", snapshot.getProducts().size());
+            stats.put("categoryCount", snapshot.getCategoryCount());
+        }
+        return stats;
+    }
+
+    private void apply(PendingChanges changes) {
+        patch(snapshot -> snapshot.withChanges(changes.saved.values(), changes.removed,
+                versionSequence.incrementAndGet()));
+    }
+
+    private void patch(Function<CatalogSnapshot, CatalogSnapshot> change) {
+        generation.incrementAndGet();
+        CatalogSnapshot snapshot;
+        do {
+            snapshot = current.get();
+            if (snapshot == null) {
+                // Nothing loaded yet; the next read builds from the database anyway
+                return;
+            }
+        } while (!current.compareAndSet(snapshot, change.apply(snapshot)));
+    }
+
+    /**
+     * Product changes of one transaction; the last change to a product wins.
+     */
+    private static final class PendingChanges {
+        private final Map<Long, ProductDto> saved = new LinkedHashMap<>();
+        private final Set<Long> removed = new HashSet<>();
+
+        void save(ProductDto product) {
+            removed.remove(product.getId());
+            saved.put(product.getId(), product);
+        }
+
+        void remove(Collection<Long> productIds) {
+            for (Long id : productIds) {
+                saved.remove(id);
+                removed.add(id);
+            }
+        }
+    }
+}
@@ -11,8 +11,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +23,11 @@ public class CategoryService {
     
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchService productSearchService;
+    
+    private final ConfigCache<CategoryTree> categoryTree =
+            new ConfigCache<>("category tree", this::loadCategoryTree, tree -> false);
     
     @Transactional
     public List<CategoryDto> getAllCategories() {
@@ -34,28 +41,11 @@ public class CategoryService {
     
     @Transactional
     public List<CategoryDto> getAllCategories(String userEmail, boolean isAdmin) {
-        List<Category> categories = categoryRepository.findByParentIdIsNull();
-        
-        // Admins can see all categories
-        if (!isAdmin) {
-            // Filter by user email if provided
-            if (userEmail != null && !userEmail.trim().isEmpty()) {
-                categories = categories.stream()
-                        .filter(category -> isCategoryAccessible(category, userEmail, false))
-                        .collect(Collectors.toList());
-            } else {
-                // If no user email (not logged in), only show public categories
-                categories = categories.stream()
-                        .filter(category -> category.getAllowedEmails() == null || category.getAllowedEmails().trim().isEmpty())
-                        .collect(Collectors.toList());
-            }
-        }
-        
-        return categories.stream()
-                .map(this::buildCategoryTree)
-                .map(category -> filterCategoryTreeByEmail(category, userEmail, isAdmin))
-                .filter(category -> category != null)
-                .map(CategoryDto::fromEntity)
+        CategoryTree tree = getCategoryTree();
+        // Admins can see all categories; everyone else only sees accessible branches
+        return tree.getRootIds().stream()
+                .filter(id -> isAdmin || tree.isAccessible(id, userEmail))
+                .map(id -> tree.toDto(id, sub -> isAdmin || tree.isAccessible(sub, userEmail)))
                 .collect(Collectors.toList());
     }
     
@@ -71,28 +61,12 @@ public class CategoryService {
     
     @Transactional
     public List<CategoryDto> getActiveCategories(String userEmail, boolean isAdmin) {
-        List<Category> categories = categoryRepository.findByParentIdIsNullAndStatus(Category.Status.ACTIVE);
-        
-        // Admins can see all categories
-        if (!isAdmin) {
-            // Filter by user email if provided
-            if (userEmail != null && !userEmail.trim().isEmpty()) {
-                categories = categories.stream()
-                        .filter(category -> isCategoryAccessible(category, userEmail, false))
-                        .collect(Collectors.toList());
-            } else {
-                // If no user email (not logged in), only show public categories
-                categories = categories.stream()
-                        .filter(category -> category.getAllowedEmails() == null || category.getAllowedEmails().trim().isEmpty())
-                        .collect(Collectors.toList());
-            }
-        }
-        
-        return categories.stream()
-                .map(this::buildCategoryTree)
-                .map(category -> filterCategoryTreeByEmail(category, userEmail, isAdmin))
-                .filter(category -> category != null)
-                .map(CategoryDto::fromEntity)
+        CategoryTree tree = getCategoryTree();
+        // Only top-level categories are filtered by status; subcategories are returned as-is
+        return tree.getRootIds().stream()
+                .filter(id -> tree.getStatus(id) == Category.Status.ACTIVE)
+                .filter(id -> isAdmin || tree.isAccessible(id, userEmail))
+                .map(id -> tree.toDto(id, sub -> isAdmin || tree.isAccessible(sub, userEmail)))
                 .collect(Collectors.toList());
     }
     
@@ -104,19 +78,7 @@ public class CategoryService {
      */
     @Transactional
     public List<CategoryDto> getActiveCategoriesForUser(String userEmail) {
-        List<Category> allCategories = categoryRepository.findByParentIdIsNullAndStatus(Category.Status.ACTIVE);
-        
-        // Filter categories based on email restrictions
-        List<Category> filteredCategories = allCategories.stream()
-                .filter(category -> isCategoryAccessible(category, userEmail))
-                .collect(Collectors.toList());
-        
-        return filteredCategories.stream()
-                .map(this::buildCategoryTree)
-                .map(category -> filterCategoryTreeByEmail(category, userEmail))
-                .filter(category -> category != null) // Remove null categories
-                .map(CategoryDto::fromEntity)
-                .collect(Collectors.toList());
+        return getActiveCategories(userEmail, false);
     }
     
     /**
@@ -143,136 +105,42 @@ public class CategoryService {
             return true;
         }
         
-        // Check parent category first (recursively)
-        if (category.getParentId() != null) {
-            Category parent = categoryRepository.findById(category.getParentId()).orElse(null);
-            if (parent != null && !isCategoryAccessible(parent, userEmail, false)) {
-                // If parent is not accessible, child is not accessible
-                return false;
-            }
-        }
-        
-        // Check current category's restrictions
-        // If no email restriction, category is accessible (assuming parent is accessible)
-        if (category.getAllowedEmails() == null || category.getAllowedEmails().trim().isEmpty()) {
-            return true;
-        }
-        
-        // If user email is null, only show unrestricted categories
-        if (userEmail == null || userEmail.trim().isEmpty()) {
-            return false;
-        }
-        
-        // Check if user email is in the allowed emails list
-        String[] allowedEmails = category.getAllowedEmails().split(",");
-        for (String email : allowedEmails) {
-            if (email.trim().equalsIgnoreCase(userEmail.trim())) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
-    /**
-     * Recursively filters category tree by email, removing inaccessible subcategories.
-     */
-    private Category filterCategoryTreeByEmail(Category category, String userEmail) {
-        return filterCategoryTreeByEmail(category, userEmail, false);
-    }
-    
-    /**
-     * Recursively filters category tree by email, removing inaccessible subcategories.
-     * @param isAdmin If true, admin can see all categories
-     */
-    private Category filterCategoryTreeByEmail(Category category, String userEmail, boolean isAdmin) {
-        if (category == null) {
-            return null;
+        CategoryTree tree = getCategoryTree();
+        if (tree.contains(category.getId())) {
+            return tree.isAccessible(category.getId(), userEmail);
         }
-        
-        // Admins can see all categories
-        if (isAdmin) {
-            // Still need to build subcategories tree
-            List<Category> subcategories = categoryRepository.findByParentId(category.getId());
-            List<Category> allSubcategories = subcategories.stream()
-                    .map(sub -> filterCategoryTreeByEmail(sub, userEmail, true))
-                    .filter(sub -> sub != null)
-                    .collect(Collectors.toList());
-            category.setSubcategories(allSubcategories);
-            return category;
-        }
-        
-        // Filter subcategories
-        List<Category> subcategories = categoryRepository.findByParentId(category.getId());
-        List<Category> accessibleSubcategories = subcategories.stream()
-                .filter(sub -> isCategoryAccessible(sub, userEmail, false))
-                .map(sub -> filterCategoryTreeByEmail(sub, userEmail, false))
-                .filter(sub -> sub != null)
-                .collect(Collectors.toList());
-        
-        category.setSubcategories(accessibleSubcategories);
-        
-        // If category itself is not accessible, return null
-        if (!isCategoryAccessible(category, userEmail, false)) {
-            return null;
-        }
-        
-        return category;
+        // Not in the tree yet (e.g. created in the current transaction): own rule plus ancestors
+        Set<String> allowed = CategoryTree.parseAllowedEmails(category.getAllowedEmails());
+        String email = CategoryTree.normalizeEmail(userEmail);
+        return (allowed == null || (email != null && allowed.contains(email)))
+                && tree.isAccessible(category.getParentId(), userEmail);
     }
     
     /**
-     * Recursively filters CategoryDto by email, removing inaccessible subcategories.
+     * Checks access by category id using the compiled access rules: a hash lookup, no queries.
+     * Unknown categories are not accessible.
      */
-    private CategoryDto filterCategoryDtoByEmail(CategoryDto dto, String userEmail) {
-        return filterCategoryDtoByEmail(dto, userEmail, false);
+    public boolean isCategoryAccessible(Long categoryId, String userEmail) {
+        CategoryTree tree = getCategoryTree();
+        return tree.contains(categoryId) && tree.isAccessible(categoryId, userEmail);
     }
     
     /**
-     * Recursively filters CategoryDto by email, removing inaccessible subcategories.
-     * @param isAdmin If true, admin can see all categories
+     * Checkout rule: like {@link #isCategoryAccessible(Long, String)}, but a category whose row is
+     * missing places no restriction, so such products can still be bought.
      */
-    private CategoryDto filterCategoryDtoByEmail(CategoryDto dto, String userEmail, boolean isAdmin) {
-        if (dto == null) {
-            return null;
-        }
-        
-        // Admins can see all categories
-        if (isAdmin) {
-            // Still need to filter subcategories recursively
-            if (dto.getSubcategories() != null && !dto.getSubcategories().isEmpty()) {
-                List<CategoryDto> allSubcategories = dto.getSubcategories().stream()
-                        .map(sub -> filterCategoryDtoByEmail(sub, userEmail, true))
-                        .filter(sub -> sub != null)
-                        .collect(Collectors.toList());
-                dto.setSubcategories(allSubcategories);
-            }
-            return dto;
-        }
-        
-        // Check if category itself is accessible
-        Category category = categoryRepository.findById(dto.getId()).orElse(null);
-        if (category != null && !isCategoryAccessible(category, userEmail, false)) {
-            return null;
-        }
-        
-        // Filter subcategories recursively
-        if (dto.getSubcategories() != null && !dto.getSubcategories().isEmpty()) {
-            List<CategoryDto> accessibleSubcategories = dto.getSubcategories().stream()
-                    .map(sub -> filterCategoryDtoByEmail(sub, userEmail, false))
-                    .filter(sub -> sub != null)
-                    .collect(Collectors.toList());
-            dto.setSubcategories(accessibleSubcategories);
-        }
-        
-        return dto;
+    public boolean isCategoryPurchasable(Long categoryId, String userEmail) {
+        return getCategoryTree().isAccessible(categoryId, userEmail);
     }
     
     @Transactional
     public CategoryDto getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", id));
-        CategoryDto dto = CategoryDto.fromEntity(buildCategoryTree(category));
-        enrichCategoryWithProductCount(dto);
+        CategoryTree tree = getCategoryTree();
+        if (!tree.contains(id)) {
+            throw new ResourceNotFoundException("Category", id);
+        }
+        CategoryDto dto = tree.toDto(id, sub -> true);
+        enrichCategoryWithProductCount(dto, tree);
         return dto;
     }
     
@@ -288,18 +156,20 @@ public class CategoryService {
     
     @Transactional
     public CategoryDto getCategoryBySlug(String slug, String userEmail, boolean isAdmin) {
-        Category category = categoryRepository.findBySlugAndStatus(slug, Category.Status.ACTIVE)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", slug));
+        CategoryTree tree = getCategoryTree();
+        Long id = tree.findIdBySlug(slug);
+        if (id == null || tree.getStatus(id) != Category.Status.ACTIVE) {
+            throw new ResourceNotFoundException("Category", slug);
+        }
         
         // Check if category is accessible (admins can access all)
-        if (!isCategoryAccessible(category, userEmail, isAdmin)) {
+        if (!isAdmin && !tree.isAccessible(id, userEmail)) {
             throw new ResourceNotFoundException("Category", slug);
         }
         
-        CategoryDto dto = CategoryDto.fromEntity(buildCategoryTree(category));
         // Filter subcategories by email (admins see all)
-        dto = filterCategoryDtoByEmail(dto, userEmail, isAdmin);
-        enrichCategoryWithProductCount(dto);
+        CategoryDto dto = tree.toDto(id, sub -> isAdmin || tree.isAccessible(sub, userEmail));
+        enrichCategoryWithProductCount(dto, tree);
         return dto;
     }
     
@@ -317,36 +187,34 @@ public class CategoryService {
     public CategoryDto getCategoryBySlugPath(String slugPath, String userEmail, boolean isAdmin) {
         // Parse hierarchical slug path: "men/shirts/formal-shirts"
         // NOTE: This method supports UNLIMITED depth - no 3-layer limit!
-        // It will navigate through as many levels as provided in the path
+        // Each level is one lookup in the materialized tree
         String[] slugs = slugPath.split("/");
         if (slugs.length == 0 || slugPath.trim().isEmpty()) {
             throw new ResourceNotFoundException("Category", "empty path");
         }
+        CategoryTree tree = getCategoryTree();
         
         // Build the full path for error messages
         StringBuilder pathSoFar = new StringBuilder();
         
         // Start with first slug (parent category)
         pathSoFar.append(slugs[0]);
-        Category currentCategory = categoryRepository.findBySlugAndStatus(slugs[0], Category.Status.ACTIVE)
-                .orElse(null);
+        Long currentId = tree.findIdBySlug(slugs[0]);
         
         // If first level not found with ACTIVE status, check if it exists at all (for better error message)
-        if (currentCategory == null) {
-            boolean existsButInactive = categoryRepository.findBySlug(slugs[0]).isPresent();
-            if (existsButInactive) {
+        if (currentId == null || tree.getStatus(currentId) != Category.Status.ACTIVE) {
+            if (currentId != null) {
                 throw new ResourceNotFoundException("Category '" + slugs[0] + "' exists but is not active");
             }
             throw new ResourceNotFoundException("Category", slugs[0]);
         }
         
         // Check if root category is accessible (admins can access all)
-        if (!isCategoryAccessible(currentCategory, userEmail, isAdmin)) {
+        if (!isAdmin && !tree.isAccessible(currentId, userEmail)) {
             throw new ResourceNotFoundException("Category", slugs[0]);
         }
         
         // Navigate through subcategories level by level
-        // This loop supports UNLIMITED depth - no maximum limit!
         for (int i = 1; i < slugs.length; i++) {
             String slug = slugs[i].trim(); // Trim whitespace
             if (slug.isEmpty()) {
@@ -354,33 +222,18 @@ public class CategoryService {
             }
             pathSoFar.append("/").append(slug);
             
-            // Get all subcategories (both active and inactive for checking)
-            List<Category> allSubcategories = categoryRepository.findByParentId(currentCategory.getId());
-            
-            // First try to find in active subcategories
-            List<Category> activeSubcategories = categoryRepository.findByParentIdAndStatus(
-                    currentCategory.getId(), Category.Status.ACTIVE);
-            
-            Category found = activeSubcategories.stream()
-                    .filter(sub -> sub.getSlug() != null && sub.getSlug().equals(slug))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (found == null) {
+            Long found = tree.findChildIdBySlug(currentId, slug);
+            if (found == null || tree.getStatus(found) != Category.Status.ACTIVE) {
                 // Check if subcategory exists but is not active
-                boolean existsButInactive = allSubcategories.stream()
-                        .anyMatch(sub -> sub.getSlug() != null && sub.getSlug().equals(slug));
-                
-                if (existsButInactive) {
+                if (found != null) {
                     throw new ResourceNotFoundException(
                             "Category '" + slug + "' in path '" + pathSoFar + "' exists but is not active");
                 }
                 
                 // Debug: log available subcategories for troubleshooting
-                String availableSlugs = allSubcategories.stream()
-                        .map(Category::getSlug)
+                String availableSlugs = tree.getChildSlugs(currentId).stream()
                         .filter(s -> s != null)
-                        .collect(java.util.stream.Collectors.joining(", "));
+                        .collect(Collectors.joining(", "));
                 
                 throw new ResourceNotFoundException(
                         "Category '" + slug + "' not found in path '" + pathSoFar + "'. " +
@@ -388,88 +241,74 @@ public class CategoryService {
             }
             
             // Check if subcategory is accessible (admins can access all)
-            if (!isCategoryAccessible(found, userEmail, isAdmin)) {
+            if (!isAdmin && !tree.isAccessible(found, userEmail)) {
                 throw new ResourceNotFoundException("Category", slug);
             }
             
-            currentCategory = found;
+            currentId = found;
         }
         
-        CategoryDto dto = CategoryDto.fromEntity(buildCategoryTree(currentCategory));
         // Filter subcategories by email (admins see all)
-        dto = filterCategoryDtoByEmail(dto, userEmail, isAdmin);
-        enrichCategoryWithProductCount(dto);
+        CategoryDto dto = tree.toDto(currentId, sub -> isAdmin || tree.isAccessible(sub, userEmail));
+        enrichCategoryWithProductCount(dto, tree);
         return dto;
     }
     
     /**
      * Enriches CategoryDto with product count information for the category and all its children.
      * This helps frontend distinguish between "category not found" and "category has no products".
+     * Counts come from the tree; the total only covers subcategories present in the DTO.
      */
-    private void enrichCategoryWithProductCount(CategoryDto dto) {
-        try {
-            // Get all category IDs (current + all descendants)
-            List<Long> allCategoryIds = getAllCategoryIds(dto);
-            
-            // Count products in this category and all child categories
-            long totalProductCount = 0;
-            if (!allCategoryIds.isEmpty()) {
-                totalProductCount = productRepository.countActiveProductsByCategoryIds(
-                    allCategoryIds, Product.Status.ACTIVE);
-            }
-            dto.setProductCount(totalProductCount);
-            
-            // Also set direct product count (products directly in this category, not in subcategories)
-            long directProductCount = 0;
-            if (dto.getId() != null) {
-                directProductCount = productRepository.countActiveProductsByCategoryId(
-                    dto.getId(), Product.Status.ACTIVE);
+    private void enrichCategoryWithProductCount(CategoryDto dto, CategoryTree tree) {
+        long directProductCount = tree.getDirectActiveProductCount(dto.getId());
+        long totalProductCount = directProductCount;
+        if (dto.getSubcategories() != null) {
+            for (CategoryDto sub : dto.getSubcategories()) {
+                enrichCategoryWithProductCount(sub, tree);
+                totalProductCount += sub.getProductCount();
             }
-            dto.setDirectProductCount(directProductCount);
-            
-            // Recursively enrich subcategories
-            if (dto.getSubcategories() != null) {
-                for (CategoryDto sub : dto.getSubcategories()) {
-                    enrichCategoryWithProductCount(sub);
-                }
-            }
-        } catch (Exception e) {
-            // If product count fails, set to 0 and continue (don't break category loading)
-            dto.setProductCount(0L);
-            dto.setDirectProductCount(0L);
         }
+        dto.setDirectProductCount(directProductCount);
+        dto.setProductCount(totalProductCount);
     }
     
     /**
-     * Gets all category IDs including the category itself and all its descendants.
+     * Gets all descendant category IDs for a given category ID.
      */
-    private List<Long> getAllCategoryIds(CategoryDto category) {
-        List<Long> ids = new ArrayList<>();
-        ids.add(category.getId());
-        
-        if (category.getSubcategories() != null) {
-            for (CategoryDto sub : category.getSubcategories()) {
-                ids.addAll(getAllCategoryIds(sub));
+    @Transactional(readOnly = true)
+    public List<Long> getAllDescendantCategoryIds(Long categoryId) {
+        return getCategoryTree().getDescendantIds(categoryId);
+    }
+    
+    /**
+     * Returns the materialized category tree, building it first if it is missing or was invalidated.
+     */
+    private CategoryTree getCategoryTree() {
+        return categoryTree.get();
+    }
+    
+    private CategoryTree loadCategoryTree() {
+        List<Category> categories = categoryRepository.findAll();
+        // Ensure slug exists (for existing categories without slugs)
+        for (Category category : categories) {
+            if (category.getSlug() == null || category.getSlug().isEmpty()) {
+                category.setSlug(generateUniqueSlug(category.getName(), category.getParentId()));
+                categoryRepository.save(category);
             }
         }
-        
-        return ids;
+        Map<Long, Long> productCounts = new HashMap<>();
+        for (Object[] row : productRepository.countProductsByCategoryId(Product.Status.ACTIVE)) {
+            productCounts.put((Long) row[0], (Long) row[1]);
+        }
+        return new CategoryTree(categories, productCounts);
     }
     
     /**
-     * Gets all descendant category IDs for a given category ID.
+     * Called for category changes and for product changes (which move the product counts). The tree is
+     * dropped after the caller's transaction commits.
      */
-    @Transactional(readOnly = true)
-    public List<Long> getAllDescendantCategoryIds(Long categoryId) {
-        List<Long> ids = new ArrayList<>();
-        ids.add(categoryId);
-        
-        List<Category> subcategories = categoryRepository.findByParentId(categoryId);
-        for (Category sub : subcategories) {
-            ids.addAll(getAllDescendantCategoryIds(sub.getId()));
-        }
-        
-        return ids;
+    public void invalidateCategoryTree() {
+        categoryTree.invalidate();
     }
     
     private String generateUniqueSlug(String baseName, Long parentId) {
@@ -535,6 +374,8 @@ public class CategoryService {
                 .build();
         
         category = categoryRepository.save(category);
+        catalogSnapshotService.invalidate();
+        invalidateCategoryTree();
         return CategoryDto.fromEntity(buildCategoryTree(category));
     }
     
@@ -594,6 +435,10 @@ public class CategoryService {
         }
         
         category = categoryRepository.save(category);
+        catalogSnapshotService.invalidate();
+        invalidateCategoryTree();
+        // Category names are indexed for search
+        productSearchService.invalidate();
         return CategoryDto.fromEntity(buildCategoryTree(category));
     }
     
@@ -609,23 +454,22 @@ public class CategoryService {
         }
         
         categoryRepository.delete(category);
+        catalogSnapshotService.invalidate();
+        invalidateCategoryTree();
+        productSearchService.invalidate();
     }
     
     @Transactional(readOnly = true)
     public boolean isLeafCategory(Long categoryId) {
-        List<Category> subcategories = categoryRepository.findByParentId(categoryId);
-        return subcategories.isEmpty();
+        return getCategoryTree().getChildIds(categoryId).isEmpty();
     }
     
     @Transactional(readOnly = true)
     public List<CategoryDto> getLeafCategories() {
-        List<Category> allCategories = categoryRepository.findAll();
-        return allCategories.stream()
-                .filter(cat -> {
-                    List<Category> subcategories = categoryRepository.findByParentId(cat.getId());
-                    return subcategories.isEmpty();
-                })
-                .map(CategoryDto::fromEntity)
+        CategoryTree tree = getCategoryTree();
+        return tree.getAllIds().stream()
+                .filter(id -> tree.getChildIds(id).isEmpty())
+                .map(id -> tree.toDto(id, sub -> false))
                 .collect(Collectors.toList());
     }
     
@@ -0,0 +1,290 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.CategoryDto;
+import com.sara.ecom.entity.Category;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, fully materialized category hierarchy: parent pointers, child lists, descendant
+ * bitsets, slug lookups, the number of ACTIVE products directly in each category and the
+ * compiled email access rules.
+ * Holds private copies of the categories; callers only ever receive fresh DTOs.
+ */
+final class CategoryTree {
+
+    private final List<Category> categories;
+    private final Map<Long, Integer> indexById;
+    private final int[] parentIndex; // -1 for roots and dangling parent ids
+    private final List<List<Integer>> childIndexes;
+    private final BitSet[] descendants; // including the category itself
+    private final List<Long> rootIds;
+    private final Map<String, Long> idBySlug;
+    private final Map<Long, Map<String, Long>> childIdBySlug;
+    private final Map<Long, Long> directActiveProductCounts;
+    // Effective access per category: null when no category on the path to the root is restricted,
+    // otherwise the normalized emails allowed by every restricted category on that path
+    private final List<Set<String>> effectiveAllowedEmails;
+
+    CategoryTree(Collection<Category> source, Map<Long, Long> directActiveProductCounts) {
+        List<Category> copies = new ArrayList<>();
+        for (Category category : source) {
+            copies.add(copy(category));
+        }
+        copies.sort(Comparator.comparing(Category::getId));
+        this.categories = Collections.unmodifiableList(copies);
+        this.directActiveProductCounts = Map.copyOf(directActiveProductCounts);
+
+        int size = copies.size();
+        Map<Long, Integer> byId = new HashMap<>();
+        Map<String, Long> bySlug = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Category category = copies.get(i);
+            byId.put(category.getId(), i);
+            if (category.getSlug() != null) {
+                bySlug.put(category.getSlug(), category.getId());
+            }
+        }
+        this.indexById = Collections.unmodifiableMap(byId);
+        this.idBySlug = Collections.unmodifiableMap(bySlug);
+
+        this.parentIndex = new int[size];
+        List<List<Integer>> children = new ArrayList<>();
+        List<Long> roots = new ArrayList<>();
+        Map<Long, Map<String, Long>> childSlugs = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            children.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            Category category = copies.get(i);
+            Integer parent = category.getParentId() != null ? byId.get(category.getParentId()) : null;
+            parentIndex[i] = parent != null ? parent : -1;
+            if (category.getParentId() == null) {
+                roots.add(category.getId());
+            }
+            if (parent != null) {
+                children.get(parent).add(i);
+                if (category.getSlug() != null) {
+                    childSlugs.computeIfAbsent(category.getParentId(), k -> new HashMap<>())
+                            .put(category.getSlug(), category.getId());
+                }
+            }
+        }
+        children.replaceAll(Collections::unmodifiableList);
+        this.childIndexes = Collections.unmodifiableList(children);
+        this.rootIds = Collections.unmodifiableList(roots);
+        this.childIdBySlug = Collections.unmodifiableMap(childSlugs);
+
+        // Mark every category in the descendant set of each of its ancestors.
+        // The walk is bounded by the category count so a corrupted parent cycle cannot loop forever.
+        this.descendants = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            descendants[i] = new BitSet(size);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int node = i, depth = 0; node >= 0 && depth <= size; node = parentIndex[node], depth++) {
+                descendants[node].set(i);
+            }
+        }
+
+        // Ancestors are visited from the category upwards; unknown parents end the chain,
+        // matching the old per-request walk that ignored missing parent rows.
+        List<Set<String>> ownAllowedEmails = new ArrayList<>(size);
+        for (Category category : copies) {
+            ownAllowedEmails.add(parseAllowedEmails(category.getAllowedEmails()));
+        }
+        List<Set<String>> effective = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Set<String> allowed = null;
+            for (int node = i, depth = 0; node >= 0 && depth <= size; node = parentIndex[node], depth++) {
+                Set<String> own = ownAllowedEmails.get(node);
+                if (own != null) {
+                    if (allowed == null) {
+                        allowed = new HashSet<>(own);
+                    } else {
+                        allowed.retainAll(own);
+                    }
+                }
+            }
+            effective.add(allowed != null ? Collections.unmodifiableSet(allowed) : null);
+        }
+        this.effectiveAllowedEmails = Collections.unmodifiableList(effective);
+    }
+
+    /**
+     * Normalized emails from an allowedEmails column value, or null when the value places no restriction.
+     * A non-blank value without any usable email restricts the category to nobody.
+     */
+    static Set<String> parseAllowedEmails(String allowedEmails) {
+        if (allowedEmails == null || allowedEmails.trim().isEmpty()) {
+            return null;
+        }
+        Set<String> emails = new HashSet<>();
+        for (String email : allowedEmails.split(",")) {
+            String normalized = normalizeEmail(email);
+            if (normalized != null) {
+                emails.add(normalized);
+            }
+        }
+        return emails;
+    }
+
+    static String normalizeEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Category copy(Category category) {
+        return Category.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .slug(category.getSlug())
+                .parentId(category.getParentId())
+                .status(category.getStatus())
+                .image(category.getImage())
+                .description(category.getDescription())
+                .displayOrder(category.getDisplayOrder())
+                .isFabric(category.getIsFabric())
+                .allowedEmails(category.getAllowedEmails())
+                .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
+                .build();
+    }
+
+    boolean contains(Long id) {
+        return id != null && indexById.containsKey(id);
+    }
+
+    int size() {
+        return categories.size();
+    }
+
+    Long getParentId(Long id) {
+        Integer index = indexById.get(id);
+        return index != null ? categories.get(index).getParentId() : null;
+    }
+
+    Category.Status getStatus(Long id) {
+        Integer index = indexById.get(id);
+        return index != null ? categories.get(index).getStatus() : null;
+    }
+
+    /**
+     * True when neither the category nor any of its ancestors restricts access by email.
+     */
+    boolean isPublic(Long id) {
+        Integer index = indexById.get(id);
+        return index == null || effectiveAllowedEmails.get(index) == null;
+    }
+
+    /**
+     * Whether the user may see the category, taking every restricted ancestor into account.
+     * Unknown ids are treated as unrestricted; callers check existence where it matters.
+     */
+    boolean isAccessible(Long id, String userEmail) {
+        Integer index = id != null ? indexById.get(id) : null;
+        if (index == null) {
+            return true;
+        }
+        Set<String> allowed = effectiveAllowedEmails.get(index);
+        if (allowed == null) {
+            return true;
+        }
+        String email = normalizeEmail(userEmail);
+        return email != null && allowed.contains(email);
+    }
+
+    List<Long> getRootIds() {
+        return rootIds;
+    }
+
+    List<Long> getAllIds() {
+        List<Long> ids = new ArrayList<>(categories.size());
+        categories.forEach(c -> ids.add(c.getId()));
+        return ids;
+    }
+
+    List<Long> getChildIds(Long id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>();
+        childIndexes.get(index).forEach(child -> ids.add(categories.get(child).getId()));
+        return ids;
+    }
+
+    List<String> getChildSlugs(Long id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        List<String> slugs = new ArrayList<>();
+        childIndexes.get(index).forEach(child -> slugs.add(categories.get(child).getSlug()));
+        return slugs;
+    }
+
+    /**
+     * The category itself and all its descendants (any depth). Unknown ids yield just themselves.
+     */
+    List<Long> getDescendantIds(Long id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            return new ArrayList<>(List.of(id));
+        }
+        List<Long> ids = new ArrayList<>();
+        BitSet set = descendants[index];
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            ids.add(categories.get(i).getId());
+        }
+        return ids;
+    }
+
+    Long findIdBySlug(String slug) {
+        return slug != null ? idBySlug.get(slug) : null;
+    }
+
+    Long findChildIdBySlug(Long parentId, String slug) {
+        return childIdBySlug.getOrDefault(parentId, Collections.emptyMap()).get(slug);
+    }
+
+    long getDirectActiveProductCount(Long id) {
+        return directActiveProductCounts.getOrDefault(id, 0L);
+    }
+
+    /**
+     * Builds a fresh DTO subtree rooted at the category. Children failing the filter are left out
+     * together with everything below them.
+     */
+    CategoryDto toDto(Long id, Predicate<Long> includeChild) {
+        Integer index = indexById.get(id);
+        return index != null ? toDto(index, includeChild, 0) : null;
+    }
+
+    private CategoryDto toDto(int index, Predicate<Long> includeChild, int depth) {
+        CategoryDto dto = CategoryDto.fromEntity(categories.get(index));
+        List<CategoryDto> subcategories = new ArrayList<>();
+        if (depth < categories.size()) {
+            for (int child : childIndexes.get(index)) {
+                if (includeChild.test(categories.get(child).getId())) {
+                    subcategories.add(toDto(child, includeChild, depth + 1));
+                }
+            }
+        }
+        dto.setSubcategories(subcategories);
+        return dto;
+    }
+}
@@ -237,6 +237,21 @@ public class CloudinaryService {
         return (String) uploadResult.get("secure_url");
     }
     
+    /**
+     * Uploads a file from disk; the SDK streams it, so large files are never held in memory.
+     */
+    @SuppressWarnings("unchecked")
+    public String uploadFile(java.io.File file, String fileName, String folder) throws IOException {
+        Map<String, Object> params = ObjectUtils.asMap(
+            "folder", folder != null ? folder : "products/files",
+            "resource_type", "auto", // Auto-detect file type
+            "overwrite", true
+        );
+        
+        Map<String, Object> uploadResult = (Map<String, Object>) cloudinary.uploader().upload(file, params);
+        return (String) uploadResult.get("secure_url");
+    }
+    
     @SuppressWarnings("unchecked")
     public String uploadFile(MultipartFile file, String folder) throws IOException {
         validateFileSize(file);
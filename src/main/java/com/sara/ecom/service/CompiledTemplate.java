@@ -0,0 +1,79 @@
+package com.sara.ecom.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A message template parsed once into literal text and {@code {{variable}}} placeholders.
+ * Rendering is a single pass over the segments; substituted values are never scanned for
+ * placeholders again. Placeholders the resolver does not know (null) are kept as written.
+ */
+final class CompiledTemplate {
+
+    // literals[i] precedes variables[i]; the last literal follows the last variable
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+    private final Object version;
+    private final String source;
+
+    private CompiledTemplate(String[] literals, String[] variables, Object version, String source) {
+        this.literals = literals;
+        this.variables = variables;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.version = version;
+        this.source = source;
+    }
+
+    static CompiledTemplate compile(String source, Object version) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int literalStart = 0;
+        int open = source.indexOf("{{");
+        while (open >= 0) {
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            // "{{a {{b}}": only the innermost "{{" starts the placeholder
+            int nested = source.lastIndexOf("{{", close - 1);
+            if (nested > open) {
+                open = nested;
+            }
+            literals.add(source.substring(literalStart, open));
+            variables.add(source.substring(open + 2, close));
+            literalStart = close + 2;
+            open = source.indexOf("{{", literalStart);
+        }
+        literals.add(source.substring(literalStart));
+        return new CompiledTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]), version, source);
+    }
+
+    /**
+     * Appends the rendered template to {@code out}.
+     * @param resolver variable name -> value, or null to keep the placeholder
+     */
+    void renderTo(StringBuilder out, Function<String, String> resolver) {
+        out.ensureCapacity(out.length() + literalLength + variables.length * 16);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String value = resolver.apply(variables[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("{{").append(variables[i]).append("}}");
+            }
+        }
+        out.append(literals[variables.length]);
+    }
+
+    boolean isCompiledFrom(String source, Object version) {
+        return Objects.equals(this.version, version) && this.source.equals(source);
+    }
+}
@@ -0,0 +1,129 @@
+package com.sara.ecom.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of rarely written data (a configuration row, a compiled rule table, a prebuilt page),
+ * loaded on first read and swapped in whole. Writes drop it once their transaction commits and the next
+ * read loads the new version; it also expires after a TTL or an expiry rule of its own, so writes made
+ * through another instance show up. Change listeners are called in version order with the previous and
+ * the new value, and once on registration if a value is loaded.
+ * The cached value is shared by all callers and must not be modified.
+ */
+final class ConfigCache<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigCache.class);
+
+    record Snapshot<T>(long version, T value, long loadedAtMillis) {
+    }
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final Predicate<Snapshot<T>> expired;
+
+    private final AtomicReference<Snapshot<T>> current = new AtomicReference<>();
+    // Bumped on every invalidation so a load that raced with a write is never published
+    private final AtomicLong generation = new AtomicLong();
+    private final Object loadLock = new Object();
+    private final List<BiConsumer<T, T>> listeners = new CopyOnWriteArrayList<>();
+    // Guarded by loadLock
+    private long versionSequence;
+    private T lastPublished;
+
+    ConfigCache(String name, Supplier<T> loader, long ttlMillis) {
+        this.name = name;
+        this.loader = loader;
+        this.expired = snapshot -> System.currentTimeMillis() - snapshot.loadedAtMillis() >= ttlMillis;
+    }
+
+    /**
+     * @param expired tells whether a loaded value must be loaded again; {@code value -> false} keeps it
+     *                until it is invalidated
+     */
+    ConfigCache(String name, Supplier<T> loader, Predicate<T> expired) {
+        this.name = name;
+        this.loader = loader;
+        this.expired = snapshot -> expired.test(snapshot.value());
+    }
+
+    T get() {
+        return snapshot().value();
+    }
+
+    Snapshot<T> snapshot() {
+        Snapshot<T> snapshot = current.get();
+        if (snapshot != null && !isExpired(snapshot)) {
+            return snapshot;
+        }
+        synchronized (loadLock) {
+            snapshot = current.get();
+            if (snapshot != null && !isExpired(snapshot)) {
+                return snapshot;
+            }
+            long startGeneration = generation.get();
+            snapshot = new Snapshot<>(++versionSequence, loader.get(), System.currentTimeMillis());
+            if (generation.get() == startGeneration) {
+                current.set(snapshot);
+            }
+            T previous = lastPublished;
+            lastPublished = snapshot.value();
+            logger.debug("Loaded {} v{}", name, snapshot.version());
+            notifyListeners(previous, snapshot.value());
+            return snapshot;
+        }
+    }
+
+    /**
+     * The loaded value, expired or not, or null if none is loaded; never loads.
+     */
+    T peek() {
+        Snapshot<T> snapshot = current.get();
+        return snapshot != null ? snapshot.value() : null;
+    }
+
+    /**
+     * Drops the cached value once the current transaction commits; the next read loads it again.
+     */
+    void invalidate() {
+        TransactionHooks.afterCommit(() -> {
+            generation.incrementAndGet();
+            current.set(null);
+        });
+    }
+
+    void addListener(BiConsumer<T, T> listener) {
+        synchronized (loadLock) {
+            listeners.add(listener);
+            if (lastPublished != null) {
+                notify(listener, null, lastPublished);
+            }
+        }
+    }
+
+    private boolean isExpired(Snapshot<T> snapshot) {
+        return expired.test(snapshot);
+    }
+
+    private void notifyListeners(T previous, T value) {
+        for (BiConsumer<T, T> listener : listeners) {
+            notify(listener, previous, value);
+        }
+    }
+
+    private void notify(BiConsumer<T, T> listener, T previous, T value) {
+        try {
+            listener.accept(previous, value);
+        } catch (Exception e) {
+            logger.error("{} change listener failed: {}", name, e.getMessage(), e);
+        }
+    }
+}
@@ -6,14 +6,19 @@ import com.sara.ecom.entity.Coupon;
 import com.sara.ecom.entity.CouponUsage;
 import com.sara.ecom.repository.CouponRepository;
 import com.sara.ecom.repository.CouponUsageRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,6 +31,20 @@ public class CouponService {
     @Autowired
     private CouponUsageRepository couponUsageRepository;
     
+    // Coupon usage counts in the snapshot may trail redemptions by up to this long;
+    // redeemCoupon enforces the real limits at checkout
+    @Value("${coupons.eligible-cache.ttl-ms:60000}")
+    private long activeCouponsTtlMillis;
+    
+    private ConfigCache<ActiveCouponIndex> activeCoupons;
+    
+    @PostConstruct
+    void initActiveCoupons() {
+        activeCoupons = new ConfigCache<>("active coupons",
+                () -> new ActiveCouponIndex(couponRepository.findByIsActiveTrueOrderByCreatedAtDesc()),
+                activeCouponsTtlMillis);
+    }
+    
     public CouponDto validateCoupon(String code, BigDecimal orderTotal, String userEmail) {
         CouponDto response = new CouponDto();
         response.setCode(code);
@@ -113,26 +132,29 @@ public class CouponService {
         return response;
     }
     
+    /**
+     * Redeems one use of a coupon at checkout. The global and per-user limits, the active flag and the
+     * validity window are checked by the same conditional updates that take the use, so concurrent
+     * checkouts can neither lose increments nor go past the limits. Throws when the coupon can no
+     * longer be used; the caller's transaction (and with it the order) is then rolled back.
+     */
     @Transactional
-    public void useCoupon(String code, String userEmail) {
+    public void redeemCoupon(String code, String userEmail) {
         Coupon coupon = couponRepository.findByCodeIgnoreCase(code)
                 .orElseThrow(() -> new RuntimeException("Coupon not found"));
+        LocalDateTime now = LocalDateTime.now();
         
-        // Increment global usage count
-        coupon.incrementUsedCount();
-        couponRepository.save(coupon);
-        
-        // Track per-user usage
+        // Track per-user usage first, so a user over their own limit never takes a global use
         if (userEmail != null) {
-            CouponUsage usage = couponUsageRepository.findByCouponAndUserEmail(coupon, userEmail)
-                    .orElseGet(() -> {
-                        CouponUsage newUsage = new CouponUsage();
-                        newUsage.setCoupon(coupon);
-                        newUsage.setUserEmail(userEmail);
-                        return newUsage;
-                    });
-            usage.incrementUsage();
-            couponUsageRepository.save(usage);
+            int perUserLimit = coupon.getPerUserUsageLimit() != null ? coupon.getPerUserUsageLimit() : Integer.MAX_VALUE;
+            if (couponUsageRepository.claimUserUse(coupon.getId(), userEmail, perUserLimit, now) == 0) {
+                throw new RuntimeException("You have reached the maximum usage limit for this coupon");
+            }
+        }
+        
+        // Increment global usage count
+        if (couponRepository.claimUse(coupon.getId(), now) == 0) {
+            throw new RuntimeException("This coupon has reached its usage limit or is no longer valid");
         }
     }
     
@@ -153,7 +175,9 @@ public class CouponService {
     public CouponDto createCoupon(CouponRequest request) {
         Coupon coupon = new Coupon();
         mapRequestToCoupon(request, coupon);
-        return toCouponDto(couponRepository.save(coupon));
+        Coupon saved = couponRepository.save(coupon);
+        activeCoupons.invalidate();
+        return toCouponDto(saved);
     }
     
     @Transactional
@@ -161,12 +185,15 @@ public class CouponService {
         Coupon coupon = couponRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Coupon not found"));
         mapRequestToCoupon(request, coupon);
-        return toCouponDto(couponRepository.save(coupon));
+        Coupon saved = couponRepository.save(coupon);
+        activeCoupons.invalidate();
+        return toCouponDto(saved);
     }
     
     @Transactional
     public void deleteCoupon(Long id) {
         couponRepository.deleteById(id);
+        activeCoupons.invalidate();
     }
     
     private void mapRequestToCoupon(CouponRequest request, Coupon coupon) {
@@ -208,34 +235,42 @@ public class CouponService {
     }
     
     /**
-     * Returns coupons eligible for the given user and order total.
+     * Returns coupons eligible for the given user and order total, best discount first.
      * Requires userEmail (logged-in user). Returns only coupons that are valid now, active,
      * within usage limits, pass minOrder, and are either GLOBAL or USER_SPECIFIC for this user.
+     * Candidates come from the cached active-coupon snapshot; the user's usages are loaded in one query.
      */
     public List<CouponDto> getEligible(BigDecimal orderTotal, String userEmail) {
         if (userEmail == null || userEmail.isBlank()) {
             return List.of();
         }
-        LocalDateTime now = LocalDateTime.now();
-        return couponRepository.findByIsActiveTrueOrderByCreatedAtDesc().stream()
+        List<Coupon> candidates = activeCoupons.get().validAt(LocalDateTime.now()).stream()
                 .filter(c -> {
                     if (c.getApplicability() == Coupon.Applicability.USER_SPECIFIC) {
                         if (c.getAllowedUserEmail() == null || !userEmail.trim().equalsIgnoreCase(c.getAllowedUserEmail().trim())) {
                             return false;
                         }
                     }
-                    if (c.getValidFrom() != null && now.isBefore(c.getValidFrom())) return false;
-                    if (c.getValidUntil() != null && now.isAfter(c.getValidUntil())) return false;
                     if (c.getUsageLimit() != null && c.getUsedCount() >= c.getUsageLimit()) return false;
-                    if (c.getPerUserUsageLimit() != null) {
-                        Optional<CouponUsage> usage = couponUsageRepository.findByCouponAndUserEmail(c, userEmail);
-                        if (usage.isPresent() && usage.get().getUsageCount() >= c.getPerUserUsageLimit()) {
-                            return false;
-                        }
-                    }
                     if (c.getMinOrder() != null && orderTotal.compareTo(c.getMinOrder()) < 0) return false;
                     return true;
                 })
+                .collect(Collectors.toList());
+        
+        List<Long> perUserLimited = candidates.stream()
+                .filter(c -> c.getPerUserUsageLimit() != null)
+                .map(Coupon::getId)
+                .collect(Collectors.toList());
+        Map<Long, Integer> usageCounts = new HashMap<>();
+        if (!perUserLimited.isEmpty()) {
+            for (Object[] row : couponUsageRepository.findUsageCountsByUserEmailAndCouponIdIn(userEmail, perUserLimited)) {
+                usageCounts.put((Long) row[0], row[1] != null ? (Integer) row[1] : 0);
+            }
+        }
+        
+        return candidates.stream()
+                .filter(c -> c.getPerUserUsageLimit() == null
+                        || usageCounts.getOrDefault(c.getId(), 0) < c.getPerUserUsageLimit())
                 .map(c -> {
                     CouponDto dto = toCouponDto(c);
                     dto.setValid(true);
@@ -253,6 +288,8 @@ public class CouponService {
                     dto.setDiscount(discount);
                     return dto;
                 })
+                // Stable sort: equal discounts keep newest first
+                .sorted(Comparator.comparing(CouponDto::getDiscount).reversed())
                 .collect(Collectors.toList());
     }
 }
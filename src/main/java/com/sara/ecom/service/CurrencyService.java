@@ -16,7 +16,8 @@ import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
@@ -34,9 +35,13 @@ public class CurrencyService {
     @Autowired
     private BusinessConfigService businessConfigService;
     
-    // Cache for exchange rates (currency code -> rate)
-    private final Map<String, Double> exchangeRatesCache = new ConcurrentHashMap<>();
-    private long lastCacheUpdate = 0;
+    @Autowired
+    private CurrencyMultiplierService currencyMultiplierService;
+    
+    // Current rates with all pair rates precomputed; replaced whole on every refresh
+    private final AtomicReference<ExchangeRateSnapshot> snapshot = new AtomicReference<>();
+    // Lets one request thread refetch stale rates while the others keep using the current snapshot
+    private final ReentrantLock refreshLock = new ReentrantLock();
     private static final long CACHE_DURATION_MS = 3600000; // 1 hour
     
     @PostConstruct
@@ -49,24 +54,34 @@ public class CurrencyService {
     private String currencyApiProvider;
     
     /**
-     * Get all exchange rates from API
+     * Get all exchange rates from API (read-only)
      */
     public Map<String, Double> getExchangeRates() {
-        // Check if cache is still valid
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCacheUpdate < CACHE_DURATION_MS && !exchangeRatesCache.isEmpty()) {
-            return new HashMap<>(exchangeRatesCache);
+        return getSnapshot().getRates();
+    }
+    
+    private ExchangeRateSnapshot getSnapshot() {
+        ExchangeRateSnapshot current = snapshot.get();
+        if (current != null && !current.isOlderThan(CACHE_DURATION_MS)) {
+            return current;
         }
-        
-        // Fetch fresh rates
-        try {
-            fetchAndCacheRates();
-            return new HashMap<>(exchangeRatesCache);
-        } catch (Exception e) {
-            logger.error("Failed to fetch exchange rates, using cached values", e);
-            // Return cached values even if stale
-            return new HashMap<>(exchangeRatesCache);
+        if (refreshLock.tryLock()) {
+            try {
+                current = snapshot.get();
+                if (current == null || current.isOlderThan(CACHE_DURATION_MS)) {
+                    fetchAndCacheRates();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        } else if (current != null) {
+            // Another thread is refreshing; stale rates are fine meanwhile
+            return current;
+        } else {
+            refreshLock.lock();
+            refreshLock.unlock();
         }
+        return snapshot.get();
     }
     
     /**
@@ -99,7 +114,7 @@ public class CurrencyService {
             }
             
             JsonNode ratesNode = jsonNode.get("conversion_rates");
-            exchangeRatesCache.clear();
+            Map<String, Double> rates = new HashMap<>();
             
             // Store rates (all rates are relative to INR)
             Iterator<Map.Entry<String, JsonNode>> fields = ratesNode.fields();
@@ -107,14 +122,15 @@ public class CurrencyService {
                 Map.Entry<String, JsonNode> entry = fields.next();
                 String currency = entry.getKey();
                 double rate = entry.getValue().asDouble();
-                exchangeRatesCache.put(currency, rate);
+                rates.put(currency, rate);
             }
             
             // Always include base currency with rate 1.0
-            exchangeRatesCache.put(BASE_CURRENCY, 1.0);
+            rates.put(BASE_CURRENCY, 1.0);
             
-            lastCacheUpdate = System.currentTimeMillis();
-            logger.info("Successfully cached {} exchange rates", exchangeRatesCache.size());
+            ExchangeRateSnapshot fetched = new ExchangeRateSnapshot(rates, currencyMultiplierService.getAllMultipliers(), false);
+            snapshot.set(fetched);
+            logger.info("Successfully cached {} exchange rates", fetched.getRates().size());
             
         } catch (Exception e) {
             logger.error("Error fetching exchange rates from API", e);
@@ -123,23 +139,46 @@ public class CurrencyService {
     }
     
     /**
-     * Load default rates if API fails
+     * Load default rates if API fails. Rates fetched earlier are kept (and retried after the
+     * cache duration) rather than replaced by the defaults.
      */
     private void loadDefaultRates() {
-        exchangeRatesCache.clear();
-        exchangeRatesCache.put("INR", 1.0);
-        exchangeRatesCache.put("USD", 0.012);
-        exchangeRatesCache.put("EUR", 0.011);
-        exchangeRatesCache.put("GBP", 0.0095);
-        exchangeRatesCache.put("JPY", 1.8);
-        exchangeRatesCache.put("AUD", 0.018);
-        exchangeRatesCache.put("CAD", 0.016);
-        exchangeRatesCache.put("CHF", 0.0105);
-        exchangeRatesCache.put("CNY", 0.086);
-        exchangeRatesCache.put("AED", 0.044);
-        exchangeRatesCache.put("SAR", 0.045);
-        exchangeRatesCache.put("SGD", 0.016);
-        lastCacheUpdate = System.currentTimeMillis();
+        ExchangeRateSnapshot current = snapshot.get();
+        Map<String, BigDecimal> multipliers = currencyMultiplierService.getAllMultipliers();
+        if (current != null && !current.isDefaults()) {
+            logger.warn("Keeping previously fetched exchange rates");
+            snapshot.set(current.retry(multipliers));
+            return;
+        }
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("INR", 1.0);
+        rates.put("USD", 0.012);
+        rates.put("EUR", 0.011);
+        rates.put("GBP", 0.0095);
+        rates.put("JPY", 1.8);
+        rates.put("AUD", 0.018);
+        rates.put("CAD", 0.016);
+        rates.put("CHF", 0.0105);
+        rates.put("CNY", 0.086);
+        rates.put("AED", 0.044);
+        rates.put("SAR", 0.045);
+        rates.put("SGD", 0.016);
+        snapshot.set(new ExchangeRateSnapshot(rates, multipliers, true));
+    }
+    
+    /**
+     * Rebuilds the rate snapshot with the current currency multipliers; call after multipliers change.
+     */
+    public void refreshMultipliers() {
+        refreshLock.lock();
+        try {
+            ExchangeRateSnapshot current = snapshot.get();
+            if (current != null) {
+                snapshot.set(current.withMultipliers(currencyMultiplierService.getAllMultipliers()));
+            }
+        } finally {
+            refreshLock.unlock();
+        }
     }
     
     /**
@@ -162,41 +201,43 @@ public class CurrencyService {
         if (fromCurrency.equals(toCurrency)) {
             return amount;
         }
-        
-        Map<String, Double> rates = getExchangeRates();
-        
-        // If converting from base currency (INR)
-        if (BASE_CURRENCY.equals(fromCurrency)) {
-            Double rate = rates.get(toCurrency);
-            if (rate == null) {
-                logger.warn("Exchange rate not found for currency: {}, returning original amount", toCurrency);
-                return amount;
-            }
-            return amount.multiply(BigDecimal.valueOf(rate)).setScale(2, RoundingMode.HALF_UP);
-        }
-        
-        // If converting to base currency (INR)
-        if (BASE_CURRENCY.equals(toCurrency)) {
-            Double rate = rates.get(fromCurrency);
-            if (rate == null) {
-                logger.warn("Exchange rate not found for currency: {}, returning original amount", fromCurrency);
-                return amount;
-            }
-            return amount.divide(BigDecimal.valueOf(rate), 2, RoundingMode.HALF_UP);
-        }
-        
-        // Converting between two non-base currencies
-        // First convert to INR, then to target currency
-        Double fromRate = rates.get(fromCurrency);
-        Double toRate = rates.get(toCurrency);
-        
-        if (fromRate == null || toRate == null) {
+        BigDecimal rate = getSnapshot().rate(fromCurrency, toCurrency, false);
+        if (rate == null) {
             logger.warn("Exchange rate not found for currencies: {} or {}, returning original amount", fromCurrency, toCurrency);
             return amount;
         }
-        
-        BigDecimal inrAmount = amount.divide(BigDecimal.valueOf(fromRate), 4, RoundingMode.HALF_UP);
-        return inrAmount.multiply(BigDecimal.valueOf(toRate)).setScale(2, RoundingMode.HALF_UP);
+        return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * Convert a batch of amounts (e.g. all prices of a product listing or cart) with one rate lookup.
+     * With {@code applyMultipliers} the currency multipliers are applied too, giving display prices.
+     * Null amounts stay null; unknown currencies leave the amounts unchanged, like {@link #convert}.
+     */
+    public List<BigDecimal> convertAll(List<BigDecimal> amounts, String fromCurrency, String toCurrency, boolean applyMultipliers) {
+        BigDecimal rate = fromCurrency.equals(toCurrency) && !applyMultipliers
+                ? BigDecimal.ONE
+                : getSnapshot().rate(fromCurrency, toCurrency, applyMultipliers);
+        if (rate == null) {
+            logger.warn("Exchange rate not found for currencies: {} or {}, returning original amounts", fromCurrency, toCurrency);
+            return new ArrayList<>(amounts);
+        }
+        List<BigDecimal> converted = new ArrayList<>(amounts.size());
+        for (BigDecimal amount : amounts) {
+            if (amount == null || rate.compareTo(BigDecimal.ONE) == 0) {
+                converted.add(amount);
+            } else {
+                converted.add(amount.multiply(rate).setScale(2, RoundingMode.HALF_UP));
+            }
+        }
+        return converted;
+    }
+    
+    /**
+     * Rate from INR to the currency with its multiplier applied (display prices), or null when unknown.
+     */
+    public BigDecimal getDisplayRate(String toCurrency) {
+        return getSnapshot().rate(BASE_CURRENCY, toCurrency, true);
     }
     
     /**
@@ -236,7 +277,12 @@ public class CurrencyService {
     @Scheduled(fixedRate = 3600000) // 1 hour
     public void refreshRates() {
         logger.info("Scheduled refresh of exchange rates");
-        fetchAndCacheRates();
+        refreshLock.lock();
+        try {
+            fetchAndCacheRates();
+        } finally {
+            refreshLock.unlock();
+        }
     }
     
     private Map<String, String> getCurrencyNames() {
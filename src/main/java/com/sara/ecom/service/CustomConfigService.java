@@ -13,9 +13,14 @@ import com.sara.ecom.entity.CustomProductConfig;
 import com.sara.ecom.repository.CustomDesignRequestRepository;
 import com.sara.ecom.repository.CustomFormFieldRepository;
 import com.sara.ecom.repository.CustomProductConfigRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -45,10 +50,33 @@ public class CustomConfigService {
     @Autowired
     private com.sara.ecom.repository.CustomConfigPricingSlabRepository pricingSlabRepository;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${config.cache.ttl-ms:60000}")
+    private long cacheTtlMillis;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    // Get config for public use
+    // Assembled config with form fields, variants and pricing slabs
+    private ConfigCache<CustomConfigDto> cache;
+    
+    @PostConstruct
+    void initCache() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+        cache = new ConfigCache<>("custom product config", () -> readOnly.execute(status -> loadConfig()), cacheTtlMillis);
+    }
+    
+    /**
+     * Config for public use, served from the cache; shared by all callers and must not be modified.
+     */
     public CustomConfigDto getPublicConfig() {
+        return cache.get();
+    }
+    
+    private CustomConfigDto loadConfig() {
         CustomProductConfig config = configRepository.findAll().stream()
                 .findFirst()
                 .orElse(getDefaultConfig());
@@ -132,6 +160,7 @@ public class CustomConfigService {
         if (request.getFormFields() != null) {
             updateFormFields(request.getFormFields());
         }
+        cache.invalidate();
         
         CustomConfigDto dto = toConfigDto(config);
         dto.setFormFields(getAllFormFields());
@@ -244,6 +273,7 @@ public class CustomConfigService {
     public CustomConfigDto.FormFieldDto createFormField(CustomConfigRequest.FormFieldRequest request) {
         CustomFormField field = new CustomFormField();
         mapFormFieldRequest(request, field);
+        cache.invalidate();
         return toFormFieldDto(formFieldRepository.save(field));
     }
     
@@ -252,12 +282,14 @@ public class CustomConfigService {
         CustomFormField field = formFieldRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Form field not found"));
         mapFormFieldRequest(request, field);
+        cache.invalidate();
         return toFormFieldDto(formFieldRepository.save(field));
     }
     
     @Transactional
     public void deleteFormField(Long id) {
         formFieldRepository.deleteById(id);
+        cache.invalidate();
     }
     
     // Custom Design Requests
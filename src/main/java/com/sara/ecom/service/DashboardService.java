@@ -6,9 +6,10 @@ import com.sara.ecom.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +27,9 @@ public class DashboardService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private OrderStatsService orderStatsService;
+    
     public DashboardStatsDto getDashboardStats() {
         DashboardStatsDto stats = new DashboardStatsDto();
         
@@ -33,29 +37,29 @@ public class DashboardService {
         stats.setTotalUsers(userRepository.count());
         stats.setActiveUsers(userRepository.countByStatus(com.sara.ecom.entity.User.UserStatus.ACTIVE));
         
-        // Order stats
-        List<Order> allOrders = orderRepository.findAll();
-        stats.setTotalOrders(allOrders.size());
-        stats.setPendingOrders(allOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.PENDING)
-                .count());
-        
-        // Calculate total revenue from completed orders
-        BigDecimal revenue = allOrders.stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .map(Order::getTotal)
-                .filter(t -> t != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalRevenue(revenue);
+        // Order stats (SQL aggregates, or the incrementally maintained counters)
+        OrderStats orderStats = orderStatsService.getStats();
+        stats.setTotalOrders(orderStats.getTotalOrders());
+        stats.setPendingOrders(orderStats.getCount(Order.OrderStatus.PENDING));
+        stats.setTotalRevenue(orderStats.getPaidRevenue());
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            byStatus.put(status.name(), orderStats.getCount(status));
+        }
+        stats.setOrdersByStatus(byStatus);
+        Map<String, Long> byPaymentStatus = new LinkedHashMap<>();
+        for (Order.PaymentStatus paymentStatus : Order.PaymentStatus.values()) {
+            byPaymentStatus.put(paymentStatus.name(), orderStats.getCount(paymentStatus));
+        }
+        stats.setOrdersByPaymentStatus(byPaymentStatus);
         
         // Product and category counts
         stats.setTotalProducts(productRepository.count());
         stats.setTotalCategories(categoryRepository.count());
         
         // Recent orders (last 10)
-        List<Order> recentOrders = orderRepository.findAllByOrderByCreatedAtDesc();
+        List<Order> recentOrders = orderRepository.findTop10ByOrderByCreatedAtDesc();
         List<DashboardStatsDto.RecentOrderDto> recentOrderDtos = recentOrders.stream()
-                .limit(10)
                 .map(this::toRecentOrderDto)
                 .collect(Collectors.toList());
         stats.setRecentOrders(recentOrderDtos);
@@ -63,6 +67,18 @@ public class DashboardService {
         return stats;
     }
     
+    public List<DashboardStatsDto.RevenuePointDto> getRevenueSeries(String period, int buckets) {
+        return orderStatsService.getRevenueSeries(period, buckets).stream()
+                .map(bucket -> {
+                    DashboardStatsDto.RevenuePointDto dto = new DashboardStatsDto.RevenuePointDto();
+                    dto.setPeriodStart(bucket.getStart().format(DateTimeFormatter.ISO_LOCAL_DATE));
+                    dto.setOrders(bucket.getOrders());
+                    dto.setRevenue(bucket.getRevenue());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+    
     private DashboardStatsDto.RecentOrderDto toRecentOrderDto(Order order) {
         DashboardStatsDto.RecentOrderDto dto = new DashboardStatsDto.RecentOrderDto();
         dto.setId(order.getId());
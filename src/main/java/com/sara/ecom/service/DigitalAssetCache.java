@@ -0,0 +1,167 @@
+package com.sara.ecom.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Local disk cache of digital product source files, shared by all ZIP builds. Files are stored under
+ * the SHA-256 of their content, so the same file behind several URLs is kept once; concurrent requests
+ * for one URL share a single download. Least recently used files are evicted above the size cap.
+ */
+final class DigitalAssetCache {
+
+    private final Path root;
+    private final long maxBytes;
+    private final Executor downloads;
+
+    // URL -> download of its content-addressed file; failed downloads are dropped so they are retried
+    private final Map<String, CompletableFuture<Path>> byUrl = new ConcurrentHashMap<>();
+    // Stored files in access order with their sizes; guarded by this
+    private final LinkedHashMap<String, Long> blobs = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    DigitalAssetCache(Path root, long maxBytes, Executor downloads) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+        this.downloads = downloads;
+    }
+
+    /**
+     * Local copy of the file at the URL, downloading it on the download executor when not cached.
+     */
+    CompletableFuture<Path> fetch(String url) {
+        CompletableFuture<Path> cached = byUrl.get(url);
+        if (cached != null && (!cached.isDone() || isUsable(cached))) {
+            touch(cached);
+            return cached;
+        }
+        if (cached != null) {
+            byUrl.remove(url, cached);
+        }
+        return byUrl.computeIfAbsent(url, u -> {
+            CompletableFuture<Path> download = CompletableFuture.supplyAsync(() -> download(u), downloads);
+            download.whenComplete((path, error) -> {
+                if (error != null) {
+                    byUrl.remove(u, download);
+                }
+            });
+            return download;
+        });
+    }
+
+    private boolean isUsable(CompletableFuture<Path> download) {
+        if (download.isCompletedExceptionally()) {
+            return false;
+        }
+        Path path = download.join();
+        synchronized (this) {
+            return blobs.containsKey(path.getFileName().toString());
+        }
+    }
+
+    private void touch(CompletableFuture<Path> download) {
+        if (download.isDone() && !download.isCompletedExceptionally()) {
+            synchronized (this) {
+                blobs.get(download.join().getFileName().toString());
+            }
+        }
+    }
+
+    private Path download(String url) {
+        HttpURLConnection connection = null;
+        Path temp = null;
+        try {
+            connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(10000);
+            connection.setReadTimeout(30000);
+            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Failed to fetch URL: " + connection.getResponseCode());
+            }
+            temp = Files.createTempFile(root, "download_", ".part");
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(connection.getInputStream(), sha256);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                in.transferTo(out);
+            }
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            Path blob = root.resolve(digest);
+            long size = Files.size(temp);
+            synchronized (this) {
+                if (blobs.containsKey(digest)) {
+                    Files.delete(temp);
+                } else {
+                    Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING);
+                    blobs.put(digest, size);
+                    totalBytes += size;
+                    evict(digest);
+                }
+            }
+            return blob;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(temp);
+            throw new IllegalStateException(e);
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Drops least recently used files until the cache fits its cap, always keeping the one just added.
+     * A ZIP build that already opened an evicted file keeps reading it (POSIX unlink semantics).
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> it = blobs.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            deleteQuietly(root.resolve(entry.getKey()));
+            totalBytes -= entry.getValue();
+            it.remove();
+        }
+    }
+
+    synchronized int size() {
+        return blobs.size();
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort; temp files are also removed with the cache directory
+        }
+    }
+}
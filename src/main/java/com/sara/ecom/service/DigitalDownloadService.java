@@ -0,0 +1,314 @@
+package com.sara.ecom.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams digital product files to the client with a fixed-size buffer, so memory per download is
+ * constant regardless of file size. Remote files are proxied with Range, conditional request and
+ * length headers passed through; multi-file downloads are zipped on the fly.
+ * The number of concurrent downloads is capped; callers over the cap get 503 with Retry-After.
+ * A download slot and its upstream connection are also released when the async request times out
+ * or fails, even if the body never ran or is still blocked.
+ */
+@Service
+public class DigitalDownloadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DigitalDownloadService.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // Request headers forwarded to the origin, and response headers passed back to the client
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(
+            HttpHeaders.RANGE, HttpHeaders.IF_RANGE, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final List<String> PASSED_RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_RANGE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.ACCEPT_RANGES);
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public DigitalDownloadService(
+            @Value("${downloads.max-concurrent:8}") int maxConcurrent,
+            @Value("${downloads.acquire-timeout-ms:2000}") long acquireTimeoutMillis) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * Proxies a single remote file as an attachment. Returns 206 for satisfiable ranges, 304 when the
+     * client's validators still match and 416 for unsatisfiable ranges, as reported by the origin.
+     */
+    public ResponseEntity<StreamingResponseBody> proxy(String url, String filename, HttpHeaders requestHeaders) throws IOException {
+        Permit permit = acquire();
+        if (permit == null) {
+            return busy();
+        }
+        HttpURLConnection connection = null;
+        try {
+            connection = open(url, 60000);
+            for (String name : FORWARDED_REQUEST_HEADERS) {
+                String value = requestHeaders != null ? requestHeaders.getFirst(name) : null;
+                if (value != null) {
+                    connection.setRequestProperty(name, value);
+                }
+            }
+            int status = connection.getResponseCode();
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : PASSED_RESPONSE_HEADERS) {
+                String value = connection.getHeaderField(name);
+                if (value != null) {
+                    headers.set(name, value);
+                }
+            }
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED || status == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                connection.disconnect();
+                permit.release();
+                return ResponseEntity.status(status).headers(headers).build();
+            }
+            if (status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Failed to fetch URL: " + status);
+            }
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            long length = connection.getContentLengthLong();
+            if (length >= 0) {
+                headers.setContentLength(length);
+            }
+            HttpURLConnection upstream = connection;
+            onAsyncCompletion(() -> {
+                upstream.disconnect();
+                permit.release();
+            });
+            StreamingResponseBody body = out -> {
+                try (InputStream in = upstream.getInputStream()) {
+                    in.transferTo(out);
+                } finally {
+                    upstream.disconnect();
+                    permit.release();
+                }
+            };
+            return ResponseEntity.status(status).headers(headers).body(body);
+        } catch (IOException | RuntimeException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Streams a ZIP archive of the given files. Entries are fetched one at a time and copied straight
+     * into the response; files that cannot be fetched are skipped. Failures writing the response
+     * (usually the client going away) end the archive. The archive length is not known up front,
+     * so the response is chunked and does not support ranges.
+     */
+    public ResponseEntity<StreamingResponseBody> zip(List<String> fileUrls, String zipFileName) {
+        Permit permit = acquire();
+        if (permit == null) {
+            return busy();
+        }
+        AtomicReference<HttpURLConnection> current = new AtomicReference<>();
+        onAsyncCompletion(() -> {
+            HttpURLConnection connection = current.get();
+            if (connection != null) {
+                connection.disconnect();
+            }
+            permit.release();
+        });
+        StreamingResponseBody body = out -> {
+            try (ZipOutputStream zos = new ZipOutputStream(new NonClosingOutputStream(out), StandardCharsets.UTF_8)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                // A released permit means the request already timed out or failed
+                for (int i = 0; i < fileUrls.size() && !permit.isReleased(); i++) {
+                    String url = fileUrls.get(i);
+                    HttpURLConnection connection = null;
+                    InputStream in = null;
+                    try {
+                        try {
+                            connection = open(url, 30000);
+                            current.set(connection);
+                            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                                continue; // Skip failed downloads
+                            }
+                            in = connection.getInputStream();
+                        } catch (IOException e) {
+                            // Log error but continue with other files
+                            logger.warn("Failed to download file from URL: {} - {}", url, e.getMessage());
+                            continue;
+                        }
+                        // Only upstream reads are caught; write failures propagate and end the stream
+                        zos.putNextEntry(new ZipEntry(entryName(url, i)));
+                        int read;
+                        while ((read = readUpstream(in, buffer, url)) != -1) {
+                            zos.write(buffer, 0, read);
+                        }
+                        zos.closeEntry();
+                    } finally {
+                        closeQuietly(in);
+                        if (connection != null) {
+                            connection.disconnect();
+                        }
+                        current.set(null);
+                    }
+                }
+            } finally {
+                permit.release();
+            }
+        };
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + zipFileName + "\"");
+        headers.set(HttpHeaders.ACCEPT_RANGES, "none");
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Reads the next chunk of an upstream file, treating a failed read as the end of that file.
+     */
+    private static int readUpstream(InputStream in, byte[] buffer, String url) {
+        try {
+            return in.read(buffer);
+        } catch (IOException e) {
+            logger.warn("Failed to download file from URL: {} - {}", url, e.getMessage());
+            return -1;
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // Upstream is being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * Runs the cleanup when the current request's async processing ends: after the body completes,
+     * on timeout, on error, or when the body was never started. Outside a web request it does nothing;
+     * the body's own finally block still releases.
+     */
+    private static void onAsyncCompletion(Runnable cleanup) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(cleanup,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        cleanup.run();
+                    }
+                });
+    }
+
+    private static HttpURLConnection open(String url, int readTimeoutMillis) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(10000);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setRequestProperty("User-Agent", "Mozilla/5.0");
+        return connection;
+    }
+
+    /**
+     * ZIP entry name: file_N plus the extension of the URL path, defaulting to .png.
+     */
+    static String entryName(String url, int index) {
+        String extension = "";
+        if (url.contains(".")) {
+            String[] parts = url.split("\\.");
+            if (parts.length > 1) {
+                extension = "." + parts[parts.length - 1].split("\\?")[0]; // Remove query params
+            }
+        }
+        if (extension.isEmpty()) {
+            extension = ".png"; // Default extension
+        }
+        return "file_" + (index + 1) + extension;
+    }
+
+    private Permit acquire() {
+        try {
+            if (permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return new Permit();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+    }
+
+    /**
+     * One download slot; releasing twice (error path plus stream completion) frees it only once.
+     */
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        boolean isReleased() {
+            return released.get();
+        }
+    }
+
+    /**
+     * Lets ZipOutputStream write its central directory without closing the servlet stream underneath.
+     */
+    private static final class NonClosingOutputStream extends java.io.FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
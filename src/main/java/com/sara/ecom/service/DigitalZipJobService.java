@@ -0,0 +1,164 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.EmailTemplateData;
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.OrderItem;
+import com.sara.ecom.entity.User;
+import com.sara.ecom.repository.OrderItemRepository;
+import com.sara.ecom.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * State of the per-item ZIP builds for DIGITAL order items. Items are queued in the payment transaction
+ * and moved PENDING -> BUILDING -> READY/FAILED with conditional updates, so each build is claimed by
+ * exactly one worker even with several app instances; {@link DigitalZipWorker} does the building.
+ * Failed builds go back to PENDING until they have used up their attempts; an admin can requeue a
+ * FAILED item. The download link is emailed through the notification outbox once the ZIP is READY.
+ */
+@Service
+@RequiredArgsConstructor
+public class DigitalZipJobService {
+
+    private final OrderItemRepository orderItemRepository;
+    private final UserRepository userRepository;
+    private final NotificationOutboxService notificationOutboxService;
+    
+    @Value("${digital-zips.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Autowired
+    @Lazy
+    private DigitalZipWorker digitalZipWorker;
+
+    /**
+     * Queues a ZIP build for every DIGITAL item of the order. Must run in the transaction that saves
+     * the order; the worker is started after commit. The ZIP password (the user's email) is set right
+     * away so order emails can show it before the ZIP is ready.
+     */
+    public void enqueue(Order order, String zipPassword) {
+        if (order.getItems() == null) {
+            return;
+        }
+        List<Long> itemIds = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            if ("DIGITAL".equals(item.getProductType()) && item.getProductId() != null) {
+                item.setZipPassword(zipPassword);
+                item.setDigitalZipStatus(OrderItem.DigitalZipStatus.PENDING);
+                item.setDigitalZipUpdatedAt(LocalDateTime.now());
+                item.setDigitalZipAttempts(0);
+                if (item.getId() != null) {
+                    itemIds.add(item.getId());
+                }
+            }
+        }
+        if (!itemIds.isEmpty()) {
+            TransactionHooks.afterCommit(() -> itemIds.forEach(digitalZipWorker::submit));
+        }
+    }
+
+    /**
+     * Claims a pending item for building; empty when it is not pending (already claimed or done).
+     */
+    @Transactional
+    public Optional<OrderItem> claim(Long itemId) {
+        int claimed = orderItemRepository.claimDigitalZip(itemId, OrderItem.DigitalZipStatus.PENDING,
+                OrderItem.DigitalZipStatus.BUILDING, LocalDateTime.now());
+        if (claimed == 0) {
+            return Optional.empty();
+        }
+        return orderItemRepository.findByIdWithOrder(itemId);
+    }
+
+    /**
+     * Stores the ZIP URL and queues the download email in the same transaction, so the customer is
+     * emailed exactly when the link is saved.
+     */
+    @Transactional
+    public void markReady(Long itemId, String zipUrl) {
+        int completed = orderItemRepository.completeDigitalZip(itemId, zipUrl, OrderItem.DigitalZipStatus.BUILDING,
+                OrderItem.DigitalZipStatus.READY, LocalDateTime.now());
+        if (completed > 0) {
+            orderItemRepository.findByIdWithOrder(itemId).ifPresent(this::enqueueDownloadEmail);
+        }
+    }
+
+    /**
+     * Records a failed build. Returns true when the item went back to PENDING for another attempt
+     * (picked up by the next sweep), false when it is now FAILED.
+     */
+    @Transactional
+    public boolean markFailed(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (orderItemRepository.retryDigitalZip(itemId, OrderItem.DigitalZipStatus.BUILDING,
+                OrderItem.DigitalZipStatus.PENDING, maxAttempts, now) > 0) {
+            return true;
+        }
+        orderItemRepository.transitionDigitalZip(itemId, OrderItem.DigitalZipStatus.BUILDING,
+                OrderItem.DigitalZipStatus.FAILED, now);
+        return false;
+    }
+
+    /**
+     * Moves a FAILED item of the order back to PENDING with a fresh set of attempts and starts
+     * the build after commit. False when the item is not part of the order or has not failed.
+     */
+    @Transactional
+    public boolean requeueFailed(Long orderId, Long itemId) {
+        int requeued = orderItemRepository.requeueFailedDigitalZip(itemId, orderId, OrderItem.DigitalZipStatus.FAILED,
+                OrderItem.DigitalZipStatus.PENDING, LocalDateTime.now());
+        if (requeued == 0) {
+            return false;
+        }
+        TransactionHooks.afterCommit(() -> digitalZipWorker.submit(itemId));
+        return true;
+    }
+
+    /**
+     * Puts builds left in BUILDING by a crashed or restarted instance back in the queue.
+     */
+    @Transactional
+    public int releaseStale(long staleAfterMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        return orderItemRepository.releaseStaleDigitalZips(OrderItem.DigitalZipStatus.PENDING,
+                OrderItem.DigitalZipStatus.BUILDING, now.minusNanos(staleAfterMillis * 1_000_000), now);
+    }
+
+    public List<Long> findPending(int limit) {
+        return orderItemRepository.findIdsByDigitalZipStatus(OrderItem.DigitalZipStatus.PENDING, PageRequest.of(0, limit));
+    }
+
+    private void enqueueDownloadEmail(OrderItem item) {
+        Order order = item.getOrder();
+        if (order.getUserEmail() == null) {
+            return;
+        }
+        User user = userRepository.findByEmail(order.getUserEmail()).orElse(null);
+        String recipientName = user != null
+                ? ((user.getFirstName() != null ? user.getFirstName() : "") + (user.getLastName() != null ? " " + user.getLastName() : "")).trim()
+                : "";
+        EmailTemplateData.OrderEmailData data = new EmailTemplateData.OrderEmailData();
+        data.setRecipientName(recipientName.isEmpty() ? order.getUserEmail() : recipientName);
+        data.setRecipientEmail(order.getUserEmail());
+        data.setOrderNumber(order.getOrderNumber());
+        data.setItems(List.of(EmailTemplateData.OrderItemData.builder()
+                .productName(item.getName())
+                .productImage(item.getImage())
+                .quantity(item.getQuantity())
+                .productType(item.getProductType())
+                .zipPassword(item.getZipPassword())
+                .digitalDownloadUrl(item.getDigitalDownloadUrl())
+                .build()));
+        notificationOutboxService.enqueueEmail(NotificationOutboxService.EmailType.DIGITAL_DOWNLOAD_READY, data, order.getId());
+    }
+}
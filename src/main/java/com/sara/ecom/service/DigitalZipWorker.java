@@ -0,0 +1,212 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.OrderItem;
+import com.sara.ecom.entity.Product;
+import com.sara.ecom.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import net.lingala.zip4j.io.outputstream.ZipOutputStream;
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the password-protected download ZIPs of DIGITAL order items in the background, outside the
+ * payment transaction. Source files are fetched in parallel through the shared {@link DigitalAssetCache},
+ * written into the encrypted ZIP one entry at a time, and the ZIP file is uploaded to Cloudinary from disk.
+ * Builds that do not fit the queue, or were cut short by a restart, are picked up by the periodic sweep.
+ */
+@Component
+public class DigitalZipWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DigitalZipWorker.class);
+    private static final int SWEEP_BATCH_SIZE = 50;
+
+    private final DigitalZipJobService jobService;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final CloudinaryService cloudinaryService;
+
+    private final long staleAfterMillis;
+    private final Path workDir;
+    private final ThreadPoolExecutor builds;
+    private final ExecutorService downloads;
+    private final DigitalAssetCache assetCache;
+    // Items queued or building on this instance, so the sweep does not queue them twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    public DigitalZipWorker(DigitalZipJobService jobService, ProductRepository productRepository,
+                            ProductService productService, CloudinaryService cloudinaryService,
+                            @Value("${digital-zips.workers:2}") int workerCount,
+                            @Value("${digital-zips.queue-capacity:100}") int queueCapacity,
+                            @Value("${digital-zips.download-threads:4}") int downloadThreads,
+                            @Value("${digital-zips.asset-cache-max-mb:512}") long assetCacheMaxMb,
+                            @Value("${digital-zips.stale-after-ms:1800000}") long staleAfterMillis) throws IOException {
+        this.jobService = jobService;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.cloudinaryService = cloudinaryService;
+        this.staleAfterMillis = staleAfterMillis;
+        this.workDir = Files.createTempDirectory("digital-zips");
+        this.builds = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), daemonThreads("digital-zip-builder-"));
+        this.downloads = Executors.newFixedThreadPool(Math.max(1, downloadThreads), daemonThreads("digital-zip-download-"));
+        this.assetCache = new DigitalAssetCache(Files.createDirectory(workDir.resolve("assets")),
+                assetCacheMaxMb * 1024 * 1024, downloads);
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public void submit(Long itemId) {
+        if (!queued.add(itemId)) {
+            return;
+        }
+        try {
+            builds.execute(() -> build(itemId));
+        } catch (RejectedExecutionException e) {
+            queued.remove(itemId);
+            logger.warn("Digital ZIP queue full; order item {} stays pending for the next sweep", itemId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${digital-zips.sweep-ms:60000}")
+    public void sweep() {
+        try {
+            int released = jobService.releaseStale(staleAfterMillis);
+            if (released > 0) {
+                logger.warn("Re-queued {} digital ZIP build(s) stuck in BUILDING", released);
+            }
+            for (Long itemId : jobService.findPending(SWEEP_BATCH_SIZE)) {
+                submit(itemId);
+            }
+        } catch (Exception e) {
+            logger.error("Digital ZIP sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void build(Long itemId) {
+        try {
+            Optional<OrderItem> claimed = jobService.claim(itemId);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            OrderItem item = claimed.get();
+            try {
+                jobService.markReady(itemId, buildAndUpload(item));
+            } catch (Exception e) {
+                boolean retrying = jobService.markFailed(itemId);
+                logger.error("Failed to generate password-protected ZIP for digital product {} in order {} ({}): {}",
+                        item.getProductId(), item.getOrder().getId(),
+                        retrying ? "will retry" : "giving up", e.getMessage(), e);
+            }
+        } catch (Exception e) {
+            logger.error("Digital ZIP build for order item {} failed: {}", itemId, e.getMessage(), e);
+        } finally {
+            queued.remove(itemId);
+        }
+    }
+
+    private String buildAndUpload(OrderItem item) throws IOException {
+        Product product = productRepository.findByIdWithImages(item.getProductId())
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + item.getProductId()));
+        List<String> fileUrls = productService.getDigitalFileUrls(product);
+        if (fileUrls.isEmpty()) {
+            throw new RuntimeException("No valid file URLs found");
+        }
+        String password = item.getZipPassword();
+        if (password == null || password.trim().isEmpty()) {
+            throw new RuntimeException("ZIP password cannot be null or empty");
+        }
+
+        // Start every download up front; the ZIP is written in file order as they complete
+        List<CompletableFuture<Path>> sources = fileUrls.stream().map(assetCache::fetch).toList();
+
+        Path zipPath = Files.createTempFile(workDir, "digital_product_", ".zip");
+        try {
+            int entries = 0;
+            try (ZipOutputStream zos = new ZipOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(zipPath)), password.trim().toCharArray())) {
+                for (int i = 0; i < fileUrls.size(); i++) {
+                    String url = fileUrls.get(i);
+                    InputStream in = openSource(url, sources.get(i));
+                    if (in == null) {
+                        continue;
+                    }
+                    try (in) {
+                        ZipParameters zipParameters = new ZipParameters();
+                        zipParameters.setEncryptFiles(true);
+                        zipParameters.setEncryptionMethod(EncryptionMethod.ZIP_STANDARD);
+                        zipParameters.setFileNameInZip(DigitalDownloadService.entryName(url, i));
+                        zos.putNextEntry(zipParameters);
+                        in.transferTo(zos);
+                        zos.closeEntry();
+                        entries++;
+                    }
+                }
+            }
+            if (entries == 0) {
+                throw new RuntimeException("Failed to create ZIP file");
+            }
+            String zipFileName = product.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_files.zip";
+            return cloudinaryService.uploadFile(zipPath.toFile(), zipFileName, "digital_product_zips");
+        } finally {
+            Files.deleteIfExists(zipPath);
+        }
+    }
+
+    /**
+     * Opens the cached copy of a source file, fetching it again if it was evicted in the meantime.
+     * Returns null when the file cannot be downloaded; like before, such files are left out of the ZIP.
+     */
+    private InputStream openSource(String url, CompletableFuture<Path> source) {
+        try {
+            try {
+                return Files.newInputStream(source.join());
+            } catch (NoSuchFileException e) {
+                return Files.newInputStream(assetCache.fetch(url).join());
+            }
+        } catch (IOException | CompletionException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.warn("Failed to download file from URL: {} - {}", url, cause.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builds.shutdownNow();
+        downloads.shutdownNow();
+        FileSystemUtils.deleteRecursively(workDir.toFile());
+    }
+}
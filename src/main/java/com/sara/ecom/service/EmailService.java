@@ -167,6 +167,13 @@ public class EmailService {
         sendHtmlEmail(data.getRecipientEmail(), "Payment Refunded - " + data.getOrderNumber(), "payment-refunded", variables);
     }
     
+    public void sendDigitalDownloadReadyEmail(EmailTemplateData.OrderEmailData data) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("data", data);
+        variables.put("recipientName", data.getRecipientName() != null ? data.getRecipientName() : "Customer");
+        sendHtmlEmail(data.getRecipientEmail(), "Your Download Is Ready - " + data.getOrderNumber(), "digital-download-ready", variables);
+    }
+    
     // Cart email
     public void sendItemAddedToCartEmail(EmailTemplateData.CartEmailData data) {
         Map<String, Object> variables = new HashMap<>();
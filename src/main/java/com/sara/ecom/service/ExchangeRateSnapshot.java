@@ -0,0 +1,121 @@
+package com.sara.ecom.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of exchange rates (relative to INR) with every currency pair's rate precomputed,
+ * both as plain exchange rates and with the per-currency display multipliers folded in.
+ * A refresh builds a new snapshot and swaps it in whole, so readers never see a partial rate table.
+ */
+final class ExchangeRateSnapshot {
+
+    private final Map<String, Double> rates;
+    private final Map<String, BigDecimal> multipliers;
+    private final Map<String, Integer> index;
+    // [from][to]: amount in "to" = amount in "from" * rate
+    private final BigDecimal[][] pairRates;
+    private final BigDecimal[][] pricedPairRates;
+    private final long createdAtMillis;
+    private final boolean defaults;
+
+    /**
+     * @param rates currency code -> units per 1 INR; must contain INR
+     * @param multipliers currency code -> display multiplier; missing currencies use 1
+     * @param defaults true when the rates are the built-in fallback rather than fetched
+     */
+    ExchangeRateSnapshot(Map<String, Double> rates, Map<String, BigDecimal> multipliers, boolean defaults) {
+        this(rates, multipliers, defaults, System.currentTimeMillis());
+    }
+
+    private ExchangeRateSnapshot(Map<String, Double> rates, Map<String, BigDecimal> multipliers,
+                                 boolean defaults, long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+        Map<String, Double> validRates = new LinkedHashMap<>();
+        rates.forEach((code, rate) -> {
+            if (code != null && rate != null && rate > 0) {
+                validRates.put(code, rate);
+            }
+        });
+        this.rates = Map.copyOf(validRates);
+        this.multipliers = Map.copyOf(multipliers);
+        this.defaults = defaults;
+
+        int n = validRates.size();
+        String[] codes = validRates.keySet().toArray(new String[0]);
+        BigDecimal[] base = new BigDecimal[n];
+        BigDecimal[] priced = new BigDecimal[n];
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            positions.put(codes[i], i);
+            base[i] = BigDecimal.valueOf(validRates.get(codes[i]));
+            BigDecimal multiplier = multipliers.get(codes[i]);
+            priced[i] = multiplier != null ? base[i].multiply(multiplier) : base[i];
+        }
+        this.index = Map.copyOf(positions);
+        this.pairRates = new BigDecimal[n][n];
+        this.pricedPairRates = new BigDecimal[n][n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                pairRates[from][to] = crossRate(base[from], base[to]);
+                // Share the plain rate when neither side has a multiplier
+                pricedPairRates[from][to] = priced[from] == base[from] && priced[to] == base[to]
+                        ? pairRates[from][to]
+                        : crossRate(priced[from], priced[to]);
+            }
+        }
+    }
+
+    private static BigDecimal crossRate(BigDecimal fromRate, BigDecimal toRate) {
+        if (fromRate.compareTo(BigDecimal.ONE) == 0) {
+            return toRate;
+        }
+        return toRate.divide(fromRate, MathContext.DECIMAL64);
+    }
+
+    /**
+     * Rate to multiply an amount in {@code from} by to get {@code to}, or null when either currency is unknown.
+     * @param withMultipliers fold in the display multipliers of both currencies
+     */
+    BigDecimal rate(String from, String to, boolean withMultipliers) {
+        Integer fromIndex = index.get(from);
+        Integer toIndex = index.get(to);
+        if (fromIndex == null || toIndex == null) {
+            return null;
+        }
+        return (withMultipliers ? pricedPairRates : pairRates)[fromIndex][toIndex];
+    }
+
+    /**
+     * Same rates with other multipliers; the rates keep their age.
+     */
+    ExchangeRateSnapshot withMultipliers(Map<String, BigDecimal> newMultipliers) {
+        return new ExchangeRateSnapshot(rates, newMultipliers, defaults, createdAtMillis);
+    }
+
+    /**
+     * Same rates, treated as fresh again; used to keep serving them after a failed refresh.
+     */
+    ExchangeRateSnapshot retry(Map<String, BigDecimal> newMultipliers) {
+        return new ExchangeRateSnapshot(rates, newMultipliers, defaults);
+    }
+
+    Map<String, Double> getRates() {
+        return rates;
+    }
+
+    Map<String, BigDecimal> getMultipliers() {
+        return multipliers;
+    }
+
+    boolean isDefaults() {
+        return defaults;
+    }
+
+    boolean isOlderThan(long millis) {
+        return System.currentTimeMillis() - createdAtMillis >= millis;
+    }
+}
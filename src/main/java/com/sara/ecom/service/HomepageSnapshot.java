@@ -0,0 +1,71 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.CMSDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed storefront homepage response with a strong ETag derived from its content, so
+ * clients (and every app instance) agree on the tag for the same content. Treat the response
+ * as read-only: it is shared by all requests until the snapshot is replaced.
+ */
+public final class HomepageSnapshot {
+
+    private final long version;
+    private final String etag;
+    private final CMSDto.HomepageResponse response;
+    private final LocalDateTime builtAt;
+    private final LocalDateTime validUntil;
+
+    HomepageSnapshot(long version, String etag, CMSDto.HomepageResponse response,
+                     LocalDateTime builtAt, LocalDateTime validUntil) {
+        this.version = version;
+        this.etag = etag;
+        this.response = response;
+        this.builtAt = builtAt;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * True when an If-None-Match header lists this snapshot's ETag (or is "*").
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        return !now.isBefore(validUntil);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public CMSDto.HomepageResponse getResponse() {
+        return response;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+}
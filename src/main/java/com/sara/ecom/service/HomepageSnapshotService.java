@@ -0,0 +1,158 @@
+package com.sara.ecom.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sara.ecom.dto.CMSDto;
+import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.entity.Banner;
+import com.sara.ecom.repository.BannerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the precomputed storefront homepage ({@link HomepageSnapshot}), optionally with the best-seller
+ * and new-arrival product cards and the featured blogs embedded. Built lazily on first read and dropped
+ * after CMS, blog and product writes commit; it also expires when an active banner's schedule starts or
+ * ends, and after a TTL so changes made through another instance show up.
+ */
+@Service
+public class HomepageSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomepageSnapshotService.class);
+
+    // Lazy: these services invalidate the snapshot themselves
+    @Autowired
+    @Lazy
+    private CMSService cmsService;
+
+    @Autowired
+    @Lazy
+    private ProductService productService;
+
+    @Autowired
+    @Lazy
+    private BlogService blogService;
+
+    @Autowired
+    private BannerRepository bannerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cms.homepage-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final ConfigCache<HomepageSnapshot> plain = new ConfigCache<>("homepage snapshot",
+            () -> build(false), snapshot -> snapshot.isExpired(LocalDateTime.now()));
+    private final ConfigCache<HomepageSnapshot> embedded = new ConfigCache<>("embedded homepage snapshot",
+            () -> build(true), snapshot -> snapshot.isExpired(LocalDateTime.now()));
+
+    public HomepageSnapshot getSnapshot(boolean embedProducts) {
+        return (embedProducts ? embedded : plain).get();
+    }
+
+    /**
+     * Called for CMS, blog and product writes; takes effect when the writing transaction commits.
+     */
+    public void invalidate() {
+        plain.invalidate();
+        embedded.invalidate();
+    }
+
+    private HomepageSnapshot build(boolean embedProducts) {
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        CMSDto.HomepageResponse response = cmsService.getHomepageData();
+        if (embedProducts) {
+            List<Long> ids = new ArrayList<>(response.getBestSellerIds());
+            ids.addAll(response.getNewArrivalIds());
+            Map<Long, ProductDto> products = ids.isEmpty() ? Map.of()
+                    : productService.getProductsByIds(ids).stream()
+                            .collect(Collectors.toMap(ProductDto::getId, Function.identity(), (a, b) -> a));
+            response.setBestSellers(inOrder(response.getBestSellerIds(), products));
+            response.setNewArrivals(inOrder(response.getNewArrivalIds(), products));
+            response.setBlogs(blogService.getHomepageBlogs());
+        }
+        LocalDateTime validUntil = nextBannerChange(now, now.plusNanos(ttlMillis * 1_000_000));
+        HomepageSnapshot snapshot = new HomepageSnapshot(versionSequence.incrementAndGet(), etagOf(response),
+                response, now, validUntil);
+        logger.info("Built homepage snapshot v{}{} in {} ms", snapshot.getVersion(),
+                embedProducts ? " (embedded)" : "", System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    private static List<ProductDto> inOrder(List<Long> ids, Map<Long, ProductDto> products) {
+        List<ProductDto> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductDto product = products.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Earliest time after now at which the set of active banners changes by schedule, capped at the given limit.
+     */
+    private LocalDateTime nextBannerChange(LocalDateTime now, LocalDateTime limit) {
+        LocalDateTime next = limit;
+        for (Banner banner : bannerRepository.findByIsActiveTrueOrderByDisplayOrderAsc()) {
+            if (banner.getStartDate() != null && banner.getStartDate().isAfter(now)
+                    && banner.getStartDate().isBefore(next)) {
+                next = banner.getStartDate();
+            }
+            // Banners stay active through their end date, inclusive
+            if (banner.getEndDate() != null && !banner.getEndDate().isBefore(now)) {
+                LocalDateTime end = banner.getEndDate().plusNanos(1);
+                if (end.isBefore(next)) {
+                    next = end;
+                }
+            }
+        }
+        return next;
+    }
+
+    private String etagOf(CMSDto.HomepageResponse response) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(response));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to compute homepage ETag", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (boolean embedProducts : new boolean[] {false, true}) {
+            HomepageSnapshot snapshot = (embedProducts ? embedded : plain).peek();
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("loaded", snapshot != null);
+            if (snapshot != null) {
+                entry.put("version", snapshot.getVersion());
+                entry.put("etag", snapshot.getEtag());
+                entry.put("builtAt", snapshot.getBuiltAt());
+                entry.put("validUntil", snapshot.getValidUntil());
+            }
+            stats.put(embedProducts ? "embedded" : "plain", entry);
+        }
+        return stats;
+    }
+}
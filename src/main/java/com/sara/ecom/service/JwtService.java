@@ -1,6 +1,7 @@
 package com.sara.ecom.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,8 +26,26 @@ public class JwtService {
     @Value("${jwt.admin.expiration:600000}")
     private Long adminExpiration;
     
+    // Derived once from the secret; the parser is immutable and thread-safe
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            signingKey = key;
+        }
+        return key;
+    }
+    
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser().verifyWith(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
     }
     
     public String generateToken(String email) {
@@ -96,11 +115,20 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return getParser().parseSignedClaims(token).getPayload();
+    }
+    
+    /**
+     * Verifies the signature and expiry once and returns everything the caller needs from the token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        String email = claims.getSubject();
+        return new VerifiedToken(
+                email != null ? email.toLowerCase().trim() : null,
+                "admin".equals(claims.get("type")),
+                claims.getExpiration());
     }
     
     public Boolean isTokenExpired(String token) {
@@ -113,4 +141,31 @@ public class JwtService {
         String normalizedEmail = email != null ? email.toLowerCase().trim() : email;
         return (tokenEmail.equals(normalizedEmail) && !isTokenExpired(token));
     }
+    
+    /**
+     * Result of {@link #verify}: the normalized subject email, whether it is an admin token, and its expiry.
+     */
+    public static final class VerifiedToken {
+        private final String email;
+        private final boolean admin;
+        private final Date expiration;
+        
+        public VerifiedToken(String email, boolean admin, Date expiration) {
+            this.email = email;
+            this.admin = admin;
+            this.expiration = expiration;
+        }
+        
+        public String getEmail() {
+            return email;
+        }
+        
+        public boolean isAdmin() {
+            return admin;
+        }
+        
+        public Date getExpiration() {
+            return expiration;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.sara.ecom.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shared renderer for WhatsApp and admin message templates. Templates are compiled once into
+ * {@link CompiledTemplate}s, cached by template ID and version (or by content for ad-hoc text),
+ * and rendered in one pass into a per-thread buffer, so a broadcast to many customers only pays
+ * for the text it produces.
+ */
+@Component
+public class MessageTemplateEngine {
+
+    private static final int MAX_CONTENT_CACHE_SIZE = 256;
+    // Buffers that grew past this are not kept for reuse
+    private static final int MAX_REUSED_BUFFER = 64 * 1024;
+
+    // "whatsapp:12" / "message:3" -> template compiled from that row's content and version
+    private final Map<String, CompiledTemplate> byId = new ConcurrentHashMap<>();
+    // Template text -> compiled template, for templates that are not stored rows
+    private final Map<String, CompiledTemplate> byContent = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    /**
+     * Compiled form of a stored template, recompiled when its version or content changes.
+     * @param kind template table, e.g. "whatsapp"
+     * @param version the row's last update time
+     */
+    CompiledTemplate compile(String kind, Long id, Object version, String content) {
+        if (id == null) {
+            return compile(content);
+        }
+        String key = kind + ":" + id;
+        CompiledTemplate compiled = byId.get(key);
+        if (compiled == null || !compiled.isCompiledFrom(content, version)) {
+            compiled = CompiledTemplate.compile(content, version);
+            byId.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    CompiledTemplate compile(String content) {
+        CompiledTemplate compiled = byContent.get(content);
+        if (compiled == null) {
+            if (byContent.size() >= MAX_CONTENT_CACHE_SIZE) {
+                byContent.clear();
+            }
+            compiled = CompiledTemplate.compile(content, null);
+            byContent.put(content, compiled);
+        }
+        return compiled;
+    }
+
+    void evict(String kind, Long id) {
+        byId.remove(kind + ":" + id);
+    }
+
+    /**
+     * Renders the template; variables the resolver returns null for are left as {{name}}.
+     */
+    String render(CompiledTemplate template, Function<String, String> resolver) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, resolver);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_REUSED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Renders template text with the given variables; null values render as empty text.
+     */
+    public String render(String content, Map<String, String> variables) {
+        if (content == null) {
+            return null;
+        }
+        if (variables == null || variables.isEmpty()) {
+            return content;
+        }
+        return render(compile(content), name -> variables.containsKey(name) ? valueOrEmpty(variables.get(name)) : null);
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
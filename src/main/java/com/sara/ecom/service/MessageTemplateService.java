@@ -19,6 +19,9 @@ public class MessageTemplateService {
     @Autowired
     private MessageTemplateRepository templateRepository;
     
+    @Autowired
+    private MessageTemplateEngine templateEngine;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     /**
@@ -95,6 +98,7 @@ public class MessageTemplateService {
     @Transactional
     public void deleteTemplate(Long id) {
         templateRepository.deleteById(id);
+        templateEngine.evict("message", id);
     }
     
     /**
@@ -104,34 +108,20 @@ public class MessageTemplateService {
         MessageTemplate template = templateRepository.findById(templateId)
                 .orElseThrow(() -> new RuntimeException("Template not found"));
         
-        String content = template.getContent();
-        
-        // Replace variables
-        if (variables != null) {
-            for (Map.Entry<String, String> entry : variables.entrySet()) {
-                String placeholder = "{{" + entry.getKey() + "}}";
-                content = content.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
-            }
+        if (variables == null || variables.isEmpty()) {
+            return template.getContent();
         }
-        
-        return content;
+        CompiledTemplate compiled = templateEngine.compile("message", template.getId(), template.getUpdatedAt(),
+                template.getContent());
+        return templateEngine.render(compiled,
+                name -> variables.containsKey(name) ? (variables.get(name) != null ? variables.get(name) : "") : null);
     }
     
     /**
      * Render template by content string with variables
      */
     public String renderTemplateContent(String templateContent, Map<String, String> variables) {
-        String content = templateContent;
-        
-        // Replace variables
-        if (variables != null) {
-            for (Map.Entry<String, String> entry : variables.entrySet()) {
-                String placeholder = "{{" + entry.getKey() + "}}";
-                content = content.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
-            }
-        }
-        
-        return content;
+        return templateEngine.render(templateContent, variables);
     }
     
     private MessageTemplateDto toDto(MessageTemplate template) {
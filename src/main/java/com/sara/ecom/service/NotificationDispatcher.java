@@ -0,0 +1,175 @@
+package com.sara.ecom.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sara.ecom.entity.NotificationOutbox;
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.User;
+import com.sara.ecom.entity.WhatsAppNotificationLog;
+import com.sara.ecom.repository.OrderRepository;
+import com.sara.ecom.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers notification outbox rows in the background: claims due rows in batches, sends them on a
+ * bounded worker pool while holding each channel to its configured send rate, and records the outcome
+ * (sent, retry later, or failed for good).
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationOutboxService outboxService;
+    private final EmailService emailService;
+    private final WhatsAppService whatsAppService;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+
+    private final int batchSize;
+    private final long staleAfterMillis;
+    private final ThreadPoolExecutor workers;
+    private final Map<NotificationOutbox.Channel, RateLimiter> rateLimiters = new EnumMap<>(NotificationOutbox.Channel.class);
+
+    public NotificationDispatcher(NotificationOutboxService outboxService, EmailService emailService,
+                                  WhatsAppService whatsAppService, OrderRepository orderRepository,
+                                  UserRepository userRepository,
+                                  @Value("${notifications.outbox.batch-size:50}") int batchSize,
+                                  @Value("${notifications.outbox.workers:4}") int workerCount,
+                                  @Value("${notifications.outbox.stale-after-ms:600000}") long staleAfterMillis,
+                                  @Value("${notifications.outbox.email-per-second:5}") double emailsPerSecond,
+                                  @Value("${notifications.outbox.whatsapp-per-second:2}") double whatsAppPerSecond) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.whatsAppService = whatsAppService;
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.staleAfterMillis = staleAfterMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // The queue holds one batch; the dispatcher waits for a batch before claiming the next
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.batchSize), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        rateLimiters.put(NotificationOutbox.Channel.EMAIL, new RateLimiter(emailsPerSecond));
+        rateLimiters.put(NotificationOutbox.Channel.WHATSAPP, new RateLimiter(whatsAppPerSecond));
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-ms:2000}")
+    public void dispatch() {
+        try {
+            int released = outboxService.releaseStale(staleAfterMillis);
+            if (released > 0) {
+                logger.warn("Re-queued {} notification(s) stuck in SENDING", released);
+            }
+            List<NotificationOutbox> batch;
+            do {
+                batch = outboxService.claimDue(batchSize);
+                List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+                for (NotificationOutbox row : batch) {
+                    futures.add(CompletableFuture.runAsync(() -> deliver(row), workers));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            logger.error("Notification dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void deliver(NotificationOutbox row) {
+        try {
+            rateLimiters.get(row.getChannel()).acquire();
+            if (row.getChannel() == NotificationOutbox.Channel.EMAIL) {
+                NotificationOutboxService.EmailType.valueOf(row.getType())
+                        .send(emailService, outboxService.readEmailData(row));
+            } else {
+                sendWhatsApp(row);
+            }
+            outboxService.markSent(row.getId());
+        } catch (PermanentFailure e) {
+            outboxService.markFailed(row.getId(), e.getMessage(), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outboxService.markFailed(row.getId(), "Interrupted", true);
+        } catch (Exception e) {
+            // SMTP outages and other transport errors surface as exceptions: try again later.
+            // An unknown type or unreadable payload will never succeed.
+            boolean retryable = !(e instanceof IllegalArgumentException || e instanceof JsonProcessingException);
+            logger.warn("Notification {} ({} {}) attempt {} failed: {}", row.getId(), row.getChannel(),
+                    row.getType(), row.getAttempts(), e.getMessage());
+            outboxService.markFailed(row.getId(), e.getClass().getSimpleName() + ": " + e.getMessage(), retryable);
+        }
+    }
+
+    private void sendWhatsApp(NotificationOutbox row) {
+        Order order = orderRepository.findById(row.getOrderId())
+                .orElseThrow(() -> new PermanentFailure("Order not found: " + row.getOrderId()));
+        User user = userRepository.findByEmail(order.getUserEmail()).orElse(null);
+        WhatsAppNotificationLog log = whatsAppService.sendOrderStatusNotification(order, user, row.getPayload());
+        if (log != null && "FAILED".equals(log.getDeliveryStatus())) {
+            String error = log.getErrorMessage() != null ? log.getErrorMessage() : "WhatsApp delivery failed";
+            // WhatsAppService reports 5xx responses and network errors with these prefixes; anything else
+            // (disabled, not configured, bad number, 4xx) will not succeed on a retry
+            if (error.startsWith("HTTP 5") || error.startsWith("Network/Connection Error")) {
+                throw new RuntimeException(error);
+            }
+            throw new PermanentFailure(error);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static final class PermanentFailure extends RuntimeException {
+        PermanentFailure(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Spaces sends of one channel evenly; callers sleep until their slot.
+     */
+    private static final class RateLimiter {
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextSlot);
+                nextSlot = slot + intervalNanos;
+                wait = slot - now;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
@@ -8,6 +8,11 @@ import com.sara.ecom.repository.WhatsAppTemplateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
 /**
  * Handles notification integrations (WhatsApp, SMS, push).
  */
@@ -22,6 +27,9 @@ public class NotificationHooks {
     
     @Autowired
     private WhatsAppTemplateRepository templateRepository;
+    
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
 
     public void onOrderPlaced(Order order) {
         // WhatsApp notification for order placed can be added here if needed
@@ -31,10 +39,28 @@ public class NotificationHooks {
         if (skipWhatsApp) {
             return;
         }
+        User user;
+        try {
+            user = userRepository.findByEmail(order.getUserEmail()).orElse(null);
+        } catch (Exception e) {
+            System.err.println("Failed to queue WhatsApp notification: " + e.getMessage());
+            return;
+        }
+        onOrderStatusChanged(order, user, oldStatus, newStatus, customMessage, false,
+                statusType -> templateRepository.findByStatusType(statusType).orElse(null));
+    }
+
+    /**
+     * Same as {@link #onOrderStatusChanged(Order, String, String, String, boolean)} with the customer
+     * and template lookup supplied by the caller, so bulk updates load them once for many orders.
+     */
+    public void onOrderStatusChanged(Order order, User user, String oldStatus, String newStatus, String customMessage,
+                                     boolean skipWhatsApp, Function<String, WhatsAppTemplate> templates) {
+        if (skipWhatsApp) {
+            return;
+        }
         
         try {
-            User user = userRepository.findByEmail(order.getUserEmail()).orElse(null);
-            
             // Determine message to send
             String message = null;
             
@@ -48,30 +74,38 @@ public class NotificationHooks {
                     statusType = order.getCustomStatus();
                 }
                 
-                WhatsAppTemplate template = templateRepository.findByStatusType(statusType).orElse(null);
+                WhatsAppTemplate template = templates.apply(statusType);
                 if (template != null && template.getIsEnabled() != null && template.getIsEnabled()) {
                     // Use template
-                    message = whatsAppService.replaceVariables(template.getMessageTemplate(), order, user, null);
+                    message = whatsAppService.replaceVariables(template, order, user, null);
                 } else {
                     // Fallback: try standard status template
-                    template = templateRepository.findByStatusType(newStatus).orElse(null);
+                    template = templates.apply(newStatus);
                     if (template != null && template.getIsEnabled() != null && template.getIsEnabled()) {
-                        message = whatsAppService.replaceVariables(template.getMessageTemplate(), order, user, null);
+                        message = whatsAppService.replaceVariables(template, order, user, null);
                     }
                 }
             }
             
-            // If we have a message, send it
+            // If we have a message, queue it; NotificationDispatcher sends it after commit
             if (message != null && !message.trim().isEmpty()) {
-                whatsAppService.sendOrderStatusNotification(order, user, message);
+                notificationOutboxService.enqueueWhatsAppOrderStatus(order.getId(), message);
             }
         } catch (Exception e) {
             // Log error but don't fail order update
-            System.err.println("Failed to send WhatsApp notification: " + e.getMessage());
+            System.err.println("Failed to queue WhatsApp notification: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Template lookup that queries each status type once; for one bulk update, not to be kept.
+     */
+    public Function<String, WhatsAppTemplate> cachedTemplateLookup() {
+        Map<String, Optional<WhatsAppTemplate>> templates = new HashMap<>();
+        return statusType -> templates.computeIfAbsent(statusType, templateRepository::findByStatusType).orElse(null);
+    }
+
     public void onPaymentStatusChanged(Order order) {
         // WhatsApp notification for payment status can be added here if needed
     }
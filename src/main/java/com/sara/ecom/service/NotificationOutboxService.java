@@ -0,0 +1,159 @@
+package com.sara.ecom.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sara.ecom.dto.EmailTemplateData;
+import com.sara.ecom.entity.NotificationOutbox;
+import com.sara.ecom.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Transactional outbox for customer notifications. Callers enqueue inside their own transaction,
+ * so a notification is stored exactly when the business change commits; {@link NotificationDispatcher}
+ * delivers the rows in the background with retries.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    public static final String WHATSAPP_ORDER_STATUS = "ORDER_STATUS";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${notifications.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.backoff-base-ms:30000}")
+    private long backoffBaseMillis;
+
+    @Value("${notifications.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMillis;
+
+    /**
+     * Emails that can be delivered through the outbox, with the payload type and EmailService method for each.
+     */
+    public enum EmailType {
+        ORDER_PLACED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendOrderPlacedEmail((EmailTemplateData.OrderEmailData) d)),
+        ORDER_CONFIRMED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendOrderConfirmedEmail((EmailTemplateData.OrderEmailData) d)),
+        ORDER_PROCESSING(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendOrderProcessingEmail((EmailTemplateData.OrderEmailData) d)),
+        ORDER_SHIPPED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendOrderShippedEmail((EmailTemplateData.OrderEmailData) d)),
+        ORDER_DELIVERED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendOrderDeliveredEmail((EmailTemplateData.OrderEmailData) d)),
+        ORDER_CANCELLED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendOrderCancelledEmail((EmailTemplateData.OrderEmailData) d)),
+        PAYMENT_PENDING(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendPaymentPendingEmail((EmailTemplateData.OrderEmailData) d)),
+        PAYMENT_SUCCESSFUL(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendPaymentSuccessfulEmail((EmailTemplateData.OrderEmailData) d)),
+        PAYMENT_FAILED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendPaymentFailedEmail((EmailTemplateData.OrderEmailData) d)),
+        PAYMENT_REFUNDED(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendPaymentRefundedEmail((EmailTemplateData.OrderEmailData) d)),
+        DIGITAL_DOWNLOAD_READY(EmailTemplateData.OrderEmailData.class, (s, d) -> s.sendDigitalDownloadReadyEmail((EmailTemplateData.OrderEmailData) d)),
+        ITEM_ADDED_TO_CART(EmailTemplateData.CartEmailData.class, (s, d) -> s.sendItemAddedToCartEmail((EmailTemplateData.CartEmailData) d));
+
+        private final Class<?> dataType;
+        private final BiConsumer<EmailService, Object> sender;
+
+        EmailType(Class<?> dataType, BiConsumer<EmailService, Object> sender) {
+            this.dataType = dataType;
+            this.sender = sender;
+        }
+
+        void send(EmailService emailService, Object data) {
+            sender.accept(emailService, data);
+        }
+    }
+
+    public void enqueueEmail(EmailType type, EmailTemplateData.BaseEmailData data, Long orderId) {
+        NotificationOutbox row = new NotificationOutbox();
+        row.setChannel(NotificationOutbox.Channel.EMAIL);
+        row.setType(type.name());
+        row.setOrderId(orderId);
+        row.setRecipient(data.getRecipientEmail());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + type + " email: " + e.getMessage(), e);
+        }
+        outboxRepository.save(row);
+    }
+
+    public void enqueueWhatsAppOrderStatus(Long orderId, String message) {
+        NotificationOutbox row = new NotificationOutbox();
+        row.setChannel(NotificationOutbox.Channel.WHATSAPP);
+        row.setType(WHATSAPP_ORDER_STATUS);
+        row.setOrderId(orderId);
+        row.setPayload(message);
+        outboxRepository.save(row);
+    }
+
+    Object readEmailData(NotificationOutbox row) throws JsonProcessingException {
+        return objectMapper.readValue(row.getPayload(), EmailType.valueOf(row.getType()).dataType);
+    }
+
+    /**
+     * Locks up to {@code limit} due rows, marks them SENDING and counts the attempt.
+     */
+    @Transactional
+    public List<NotificationOutbox> claimDue(int limit) {
+        List<NotificationOutbox> rows = outboxRepository.lockDue(LocalDateTime.now(), limit);
+        for (NotificationOutbox row : rows) {
+            row.setStatus(NotificationOutbox.Status.SENDING);
+            row.setAttempts(row.getAttempts() + 1);
+        }
+        return outboxRepository.saveAll(rows);
+    }
+
+    /**
+     * Puts rows left in SENDING by a crashed or restarted dispatcher back in the queue.
+     */
+    @Transactional
+    public int releaseStale(long staleAfterMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.releaseStale(NotificationOutbox.Status.PENDING, NotificationOutbox.Status.SENDING,
+                now.minusNanos(staleAfterMillis * 1_000_000), now);
+    }
+
+    @Transactional
+    public void markSent(Long id) {
+        outboxRepository.findById(id).ifPresent(row -> {
+            row.setStatus(NotificationOutbox.Status.SENT);
+            row.setSentAt(LocalDateTime.now());
+            row.setLastError(null);
+            outboxRepository.save(row);
+        });
+    }
+
+    /**
+     * Schedules another attempt with exponential backoff, or gives up when the failure is permanent
+     * or the attempts are used up.
+     */
+    @Transactional
+    public void markFailed(Long id, String error, boolean retryable) {
+        outboxRepository.findById(id).ifPresent(row -> {
+            row.setLastError(error);
+            if (retryable && row.getAttempts() < maxAttempts) {
+                long delay = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(row.getAttempts() - 1, 20));
+                row.setStatus(NotificationOutbox.Status.PENDING);
+                row.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+            } else {
+                row.setStatus(NotificationOutbox.Status.FAILED);
+            }
+            outboxRepository.save(row);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (NotificationOutbox.Status status : NotificationOutbox.Status.values()) {
+            stats.put(status.name().toLowerCase(), outboxRepository.countByStatus(status));
+        }
+        stats.put("maxAttempts", maxAttempts);
+        return stats;
+    }
+}
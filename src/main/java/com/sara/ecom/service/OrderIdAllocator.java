@@ -0,0 +1,132 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+
+/**
+ * Allocates 7-digit order IDs (1000000 to 9999999) without existence checks. A counter is taken from
+ * the order_id_seq sequence in blocks, so every instance draws from its own range, and is passed through
+ * a keyed Feistel permutation of the 9M ID space, so consecutive orders get unrelated IDs.
+ * Because the permutation is a bijection, distinct counters always give distinct IDs.
+ *
+ * IDs handed out by the old random generator are loaded once at startup and skipped. The key must
+ * never change once orders exist, or new IDs could repeat old ones.
+ *
+ * The sequence is created at startup if missing (same DDL as V1012), since migrations are not applied
+ * automatically.
+ */
+@Service
+public class OrderIdAllocator {
+
+    static final long MIN_ID = 1_000_000L;
+    static final int ID_SPACE = 9_000_000;
+    // Must match INCREMENT BY of order_id_seq (V1012)
+    static final int BLOCK_SIZE = 50;
+    private static final String CREATE_SEQUENCE =
+            "CREATE SEQUENCE IF NOT EXISTS order_id_seq START WITH 0 MINVALUE 0 INCREMENT BY " + BLOCK_SIZE;
+
+    // 24-bit domain (two 12-bit halves) is the smallest power of two covering the ID space
+    private static final int HALF_BITS = 12;
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int[] roundKeys = new int[ROUNDS];
+
+    private BitSet existingIds;
+    private long nextCounter;
+    private long blockEnd;
+
+    public OrderIdAllocator(OrderRepository orderRepository, JdbcTemplate jdbcTemplate,
+                            @Value("${orders.id-key:7340126519}") long key) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        long state = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = (int) mix64(state);
+        }
+    }
+
+    @PostConstruct
+    synchronized void init() {
+        try {
+            jdbcTemplate.execute(CREATE_SEQUENCE);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it at the same moment (IF NOT EXISTS does not cover that race)
+        }
+        // Loaded here rather than on the first checkout, which would otherwise hold the lock while scanning orders
+        existingIds = loadExistingIds();
+    }
+
+    public synchronized long nextOrderId() {
+        while (true) {
+            if (nextCounter >= blockEnd) {
+                long blockStart = orderRepository.nextOrderIdBlock();
+                nextCounter = blockStart;
+                blockEnd = blockStart + BLOCK_SIZE;
+            }
+            long counter = nextCounter++;
+            if (counter >= ID_SPACE) {
+                throw new RuntimeException("Order ID space exhausted");
+            }
+            int offset = permute((int) counter);
+            // Only IDs from before this allocator (or already taken from our own counters) can be set here
+            if (!existingIds.get(offset)) {
+                return MIN_ID + offset;
+            }
+        }
+    }
+
+    private BitSet loadExistingIds() {
+        BitSet ids = new BitSet(ID_SPACE);
+        for (Long id : orderRepository.findIdsBetween(MIN_ID, MIN_ID + ID_SPACE - 1)) {
+            ids.set((int) (id - MIN_ID));
+        }
+        return ids;
+    }
+
+    /**
+     * Bijection on [0, ID_SPACE): a Feistel network on 24 bits, re-applied while the result falls
+     * outside the space (cycle walking).
+     */
+    int permute(int value) {
+        int x = value;
+        do {
+            x = feistel(x);
+        } while (x >= ID_SPACE);
+        return x;
+    }
+
+    private int feistel(int x) {
+        int left = x >>> HALF_BITS;
+        int right = x & HALF_MASK;
+        for (int roundKey : roundKeys) {
+            int next = left ^ (round(right, roundKey) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static int round(int half, int roundKey) {
+        int h = half * 0x9E3779B1 ^ roundKey;
+        h ^= h >>> 15;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
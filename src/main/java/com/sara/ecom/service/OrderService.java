@@ -5,44 +5,54 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sara.ecom.dto.AddToCartRequest;
 import com.sara.ecom.dto.AddressRequest;
+import com.sara.ecom.dto.BulkOrderStatusRequest;
+import com.sara.ecom.dto.BulkOrderStatusResult;
 import com.sara.ecom.dto.CartDto;
 import com.sara.ecom.dto.CreateOrderRequest;
 import com.sara.ecom.dto.EmailTemplateData;
 import com.sara.ecom.dto.OrderDto;
+import com.sara.ecom.dto.OrderPageDto;
+import com.sara.ecom.dto.OrderSummaryDto;
 import com.sara.ecom.dto.UserAddressDto;
 import com.sara.ecom.dto.VariantSelectionDto;
 import com.sara.ecom.dto.VariantDisplayInfo;
 import com.sara.ecom.entity.Order;
 import com.sara.ecom.entity.OrderItem;
 import com.sara.ecom.entity.OrderPaymentHistory;
+import com.sara.ecom.entity.OrderSummary;
 import com.sara.ecom.entity.PaymentConfig;
 import com.sara.ecom.entity.User;
 import com.sara.ecom.repository.OrderRepository;
+import com.sara.ecom.repository.OrderSpecifications;
+import com.sara.ecom.repository.OrderSummaryRepository;
 import com.sara.ecom.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.transaction.annotation.Propagation;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -73,20 +83,22 @@ public class OrderService {
     private com.sara.ecom.repository.CategoryRepository categoryRepository;
     
     @Autowired
-    private com.sara.ecom.repository.ProductRepository productRepository;
+    private CategoryService categoryService;
+    
+    @Autowired
+    private OrderStatsService orderStatsService;
     
     @Autowired
-    private EmailService emailService;
+    private com.sara.ecom.repository.ProductRepository productRepository;
     
     @Autowired
     private NotificationHooks notificationHooks;
     
     @Autowired
-    private ProductService productService;
+    private NotificationOutboxService notificationOutboxService;
     
     @Autowired
-    @Lazy
-    private OrderService self;
+    private DigitalDownloadService digitalDownloadService;
     
     @Autowired
     private PaymentConfigService paymentConfigService;
@@ -100,6 +112,33 @@ public class OrderService {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private OrderIdAllocator orderIdAllocator;
+    
+    @Autowired
+    private DigitalZipJobService digitalZipJobService;
+    
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${orders.bulk-status.chunk-size:100}")
+    private int bulkStatusChunkSize;
+    
+    @Value("${orders.bulk-status.max-orders:2000}")
+    private int bulkStatusMaxOrders;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}")
+    private String jdbcTimeZone;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     /**
@@ -107,15 +146,24 @@ public class OrderService {
      */
     public void logAuditEntry(Long orderId, String changedBy, String changeType, 
                                String fieldName, String oldValue, String newValue, String changeReason) {
+        saveAuditEntry(newAuditEntry(orderId, changedBy, changeType, fieldName, oldValue, newValue, changeReason));
+    }
+    
+    private static com.sara.ecom.entity.OrderAuditLog newAuditEntry(Long orderId, String changedBy, String changeType,
+                               String fieldName, String oldValue, String newValue, String changeReason) {
+        com.sara.ecom.entity.OrderAuditLog log = new com.sara.ecom.entity.OrderAuditLog();
+        log.setOrderId(orderId);
+        log.setChangedBy(changedBy != null ? changedBy : "system");
+        log.setChangeType(changeType);
+        log.setFieldName(fieldName);
+        log.setOldValue(oldValue);
+        log.setNewValue(newValue);
+        log.setChangeReason(changeReason);
+        return log;
+    }
+    
+    private void saveAuditEntry(com.sara.ecom.entity.OrderAuditLog log) {
         try {
-            com.sara.ecom.entity.OrderAuditLog log = new com.sara.ecom.entity.OrderAuditLog();
-            log.setOrderId(orderId);
-            log.setChangedBy(changedBy != null ? changedBy : "system");
-            log.setChangeType(changeType);
-            log.setFieldName(fieldName);
-            log.setOldValue(oldValue);
-            log.setNewValue(newValue);
-            log.setChangeReason(changeReason);
             auditLogRepository.save(log);
         } catch (Exception e) {
             // Don't fail the operation if audit logging fails
@@ -182,32 +230,6 @@ public class OrderService {
                     .orElseThrow(() -> new RuntimeException("User not found"));
         }
         
-        // Get cart items (without state/coupon for initial calculation)
-        CartDto cart = cartService.getCart(userEmail, null, null);
-        if (cart.getItems().isEmpty()) {
-            throw new RuntimeException("Cart is empty");
-        }
-        
-        // Validate category restrictions for all cart items
-        for (CartDto.CartItemDto item : cart.getItems()) {
-            if (item.getProductId() != null) {
-                // Get product's category
-                com.sara.ecom.entity.Product product = productRepository.findById(item.getProductId())
-                        .orElse(null);
-                if (product != null && product.getCategoryId() != null) {
-                    // Check if user has access to this category
-                    com.sara.ecom.entity.Category category = categoryRepository.findById(product.getCategoryId())
-                            .orElse(null);
-                    if (category != null && !isCategoryAccessible(category, userEmail)) {
-                        throw new RuntimeException(
-                            "You do not have permission to purchase products from category: " + category.getName() + 
-                            ". This category is restricted to specific users only."
-                        );
-                    }
-                }
-            }
-        }
-        
         // Extract state from shipping address
         String state = null;
         if (request.getShippingAddress() != null && request.getShippingAddress().containsKey("state")) {
@@ -217,39 +239,36 @@ public class OrderService {
             // This would require UserAddressService - for now use address from request
         }
         
-        // Recalculate shipping based on address state
-        BigDecimal shipping = shippingService.calculateShipping(cart.getSubtotal(), state);
-        
-        // Generate unique 7-digit random order ID (1000000 to 9999999)
-        Long orderId = 1000000L + (long)(Math.random() * 9000000L);
-        boolean isUnique = false;
-        int attempts = 0;
-        while (!isUnique && attempts < 100) {
-            if (!orderRepository.existsById(orderId)) {
-                isUnique = true;
-            } else {
-                attempts++;
-                orderId = 1000000L + (long)(Math.random() * 9000000L);
-            }
+        // Price the cart once (products, GST, shipping for the address state, coupon);
+        // the totals below come straight from it
+        PricedCart pricedCart = cartService.priceCart(userEmail, state, request.getCouponCode());
+        CartDto cart = pricedCart.getCart();
+        if (pricedCart.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
         }
-        if (!isUnique) {
-            // Fallback: use timestamp-based ID if all random attempts fail
-            orderId = System.currentTimeMillis() % 10000000L;
-            if (orderId < 1000000L) {
-                orderId += 1000000L;
-            }
-            // Ensure it's unique by incrementing if needed
-            while (orderRepository.existsById(orderId)) {
-                orderId = (orderId + 1L) % 10000000L;
-                if (orderId < 1000000L) {
-                    orderId += 1000000L;
-                }
+        
+        // Validate category restrictions for all cart items
+        for (CartDto.CartItemDto item : cart.getItems()) {
+            Long categoryId = item.getProductId() != null ? pricedCart.getCategoryId(item.getProductId()) : null;
+            // Check if user has access to this category (inherited restrictions included)
+            if (categoryId != null && !categoryService.isCategoryPurchasable(categoryId, userEmail)) {
+                String categoryName = categoryRepository.findById(categoryId)
+                        .map(com.sara.ecom.entity.Category::getName)
+                        .orElse(String.valueOf(categoryId));
+                throw new RuntimeException(
+                    "You do not have permission to purchase products from category: " + categoryName + 
+                    ". This category is restricted to specific users only."
+                );
             }
         }
         
+        BigDecimal shipping = pricedCart.getShipping();
+        
+        // Unique 7-digit order ID (1000000 to 9999999)
+        Long orderId = orderIdAllocator.nextOrderId();
+        
         // Validate payment method for digital products
-        boolean hasDigitalProducts = cart.getItems().stream()
-                .anyMatch(item -> "DIGITAL".equals(item.getProductType()));
+        boolean hasDigitalProducts = pricedCart.hasDigitalProducts();
         
         if (hasDigitalProducts) {
             String paymentMethod = request.getPaymentMethod();
@@ -315,25 +334,17 @@ public class OrderService {
             }
         }
         
-        // Apply coupon if provided
+        // Apply coupon validated while pricing the cart
         BigDecimal couponDiscount = BigDecimal.ZERO;
-        if (request.getCouponCode() != null && !request.getCouponCode().isEmpty()) {
-            // Validate against subtotal + GST + shipping
-            BigDecimal totalBeforeCoupon = cart.getSubtotal()
-                    .add(cart.getGst() != null ? cart.getGst() : BigDecimal.ZERO)
-                    .add(shipping);
-            var validation = couponService.validateCoupon(request.getCouponCode(), totalBeforeCoupon, userEmail);
-            if (validation.getValid() != null && validation.getValid()) {
-                couponDiscount = validation.getDiscount() != null ? validation.getDiscount() : BigDecimal.ZERO;
-                order.setCouponCode(request.getCouponCode());
-                order.setCouponDiscount(couponDiscount);
-                couponService.useCoupon(request.getCouponCode(), userEmail);
-            }
+        if (pricedCart.getAppliedCouponCode() != null) {
+            couponDiscount = pricedCart.getCouponDiscount();
+            order.setCouponCode(pricedCart.getAppliedCouponCode());
+            order.setCouponDiscount(couponDiscount);
+            couponService.redeemCoupon(pricedCart.getAppliedCouponCode(), userEmail);
         }
         
-        // Calculate total: (Subtotal + GST + Shipping) - Coupon Discount
-        BigDecimal gst = cart.getGst() != null ? cart.getGst() : BigDecimal.ZERO;
-        BigDecimal orderTotal = cart.getSubtotal().add(gst).add(shipping).subtract(couponDiscount);
+        // Total: (Subtotal + GST + Shipping) - Coupon Discount
+        BigDecimal orderTotal = pricedCart.getTotal();
         order.setTotal(orderTotal);
         
         // Check PaymentConfig for partial COD settings
@@ -402,6 +413,7 @@ public class OrderService {
         }
         
         Order saved = orderRepository.save(order);
+        orderStatsService.orderChanged(null, saved);
         
         // Auto-save shipping address to user profile if not using existing address ID
         // This applies to both logged-in users (without default address) and guest users
@@ -435,13 +447,13 @@ public class OrderService {
         
         OrderDto orderDto = toOrderDto(saved);
         
-        // Send order placed email
+        // Queue order placed email (delivered by NotificationDispatcher after commit)
         try {
             EmailTemplateData.OrderEmailData emailData = buildOrderEmailData(orderDto, user);
-            emailService.sendOrderPlacedEmail(emailData);
+            notificationOutboxService.enqueueEmail(NotificationOutboxService.EmailType.ORDER_PLACED, emailData, saved.getId());
         } catch (Exception e) {
             // Log error but don't fail order creation
-            System.err.println("Failed to send order placed email: " + e.getMessage());
+            System.err.println("Failed to queue order placed email: " + e.getMessage());
             e.printStackTrace();
         }
         
@@ -481,6 +493,87 @@ public class OrderService {
         return orders.stream().map(this::toOrderDto).collect(Collectors.toList());
     }
     
+    private static final int DEFAULT_ORDER_PAGE_SIZE = 50;
+    private static final int MAX_ORDER_PAGE_SIZE = 200;
+    
+    /**
+     * Keyset-paginated admin order list, newest first. Reads only the list columns (no items or
+     * addresses), and filtering happens in SQL, so each page costs the same however many orders exist.
+     * @param from first day included (by creation date), or null
+     * @param to last day included, or null
+     * @param email part of the customer email, case-insensitive
+     * @param orderNumber part of the order number, case-insensitive
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDto getOrdersPage(String status, String paymentStatus, LocalDate from, LocalDate to,
+                                      String email, String orderNumber, Integer size, String cursor) {
+        int pageSize = size == null || size < 1 ? DEFAULT_ORDER_PAGE_SIZE : Math.min(size, MAX_ORDER_PAGE_SIZE);
+        
+        List<Specification<OrderSummary>> specs = new ArrayList<>();
+        specs.add(OrderSpecifications.hasStatus(status != null ? Order.OrderStatus.valueOf(status.toUpperCase()) : null));
+        specs.add(OrderSpecifications.hasPaymentStatus(paymentStatus != null ? Order.PaymentStatus.valueOf(paymentStatus.toUpperCase()) : null));
+        specs.add(OrderSpecifications.createdBetween(from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null));
+        specs.add(OrderSpecifications.emailContains(email));
+        specs.add(OrderSpecifications.orderNumberContains(orderNumber));
+        specs.add(OrderSpecifications.newestFirst());
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeOrderCursor(cursor);
+            specs.add(OrderSpecifications.after(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1])));
+        }
+        
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<OrderSummary> rows = orderSummaryRepository.findBy(Specification.allOf(specs), q -> q.limit(pageSize + 1).all());
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        OrderSummary last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+        
+        return OrderPageDto.builder()
+                .items(pageRows.stream().map(this::toOrderSummaryDto).collect(Collectors.toList()))
+                .hasMore(hasMore)
+                .nextCursor(hasMore && last.getCreatedAt() != null ? encodeOrderCursor(last) : null)
+                .size(pageRows.size())
+                .build();
+    }
+    
+    // Cursor layout: createdAt|id (URL-safe base64)
+    private String encodeOrderCursor(OrderSummary last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeOrderCursor(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length == 2 && parts[1].matches("\\d+")) {
+                LocalDateTime.parse(parts[0]);
+                return parts;
+            }
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            // fall through
+        }
+        throw new RuntimeException("Invalid cursor");
+    }
+    
+    private OrderSummaryDto toOrderSummaryDto(OrderSummary order) {
+        return OrderSummaryDto.builder()
+                .id(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .userEmail(order.getUserEmail())
+                .userName(order.getUserName())
+                .total(order.getTotal())
+                .status(order.getStatus() != null ? order.getStatus().name() : null)
+                .customStatus(order.getCustomStatus())
+                .paymentStatus(order.getPaymentStatus() != null ? order.getPaymentStatus().name() : null)
+                .paymentMethod(order.getPaymentMethod())
+                .paymentCurrency(order.getPaymentCurrency())
+                .itemCount(order.getItemCount())
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+    
     public OrderDto getOrderByIdAdmin(Long orderId) {
         Order order = orderRepository.findByIdWithItems(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -503,16 +596,58 @@ public class OrderService {
     public OrderDto updateOrderStatus(Long orderId, String status, String customStatus, String customMessage, boolean skipWhatsApp, String changedBy) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatsService.OrderState statsBefore = OrderStatsService.OrderState.of(order);
         
         Order.OrderStatus oldStatus = order.getStatus();
         String oldStatusString = oldStatus != null ? oldStatus.name() : null;
         Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+        List<com.sara.ecom.entity.OrderAuditLog> auditEntries = new ArrayList<>();
+        applyStatusChange(order, newStatus, customStatus, customMessage, changedBy, auditEntries);
+        for (com.sara.ecom.entity.OrderAuditLog entry : auditEntries) {
+            saveAuditEntry(entry);
+        }
+        
+        Order savedOrder = orderRepository.save(order);
+        orderStatsService.orderChanged(statsBefore, savedOrder);
+        
+        // If order is being confirmed and Swipe is enabled, create invoice
+        if (oldStatus != Order.OrderStatus.CONFIRMED && newStatus == Order.OrderStatus.CONFIRMED) {
+            savedOrder = createConfirmationInvoice(savedOrder);
+        }
+        
+        OrderDto orderDto = toOrderDto(savedOrder);
+        
+        // Send order status update email
+        try {
+            User user = userRepository.findByEmail(savedOrder.getUserEmail()).orElse(null);
+            enqueueStatusEmail(orderDto, user, newStatus);
+        } catch (Exception e) {
+            // Log error but don't fail order update
+            System.err.println("Failed to queue order status email: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // Trigger notification hook
+        String newStatusString = newStatus.name();
+        notificationHooks.onOrderStatusChanged(savedOrder, oldStatusString, newStatusString, customMessage, skipWhatsApp);
+        
+        return orderDto;
+    }
+    
+    /**
+     * Sets the new status (and custom status) on the order and collects the audit entries for the change.
+     */
+    private void applyStatusChange(Order order, Order.OrderStatus newStatus, String customStatus, String customMessage,
+                                   String changedBy, List<com.sara.ecom.entity.OrderAuditLog> auditEntries) {
+        Long orderId = order.getId();
+        Order.OrderStatus oldStatus = order.getStatus();
+        String oldStatusString = oldStatus != null ? oldStatus.name() : null;
         order.setStatus(newStatus);
         
         // Log audit entry
         if (oldStatus != newStatus) {
-            logAuditEntry(orderId, changedBy, "STATUS_UPDATE", "status", oldStatusString, newStatus.name(), 
-                         customMessage != null ? customMessage : "Status updated");
+            auditEntries.add(newAuditEntry(orderId, changedBy, "STATUS_UPDATE", "status", oldStatusString, newStatus.name(), 
+                         customMessage != null ? customMessage : "Status updated"));
         }
         
         // Handle cancellation - set cancellation fields if status is CANCELLED
@@ -529,112 +664,295 @@ public class OrderService {
             String oldCustomStatus = order.getCustomStatus();
             order.setCustomStatus(customStatus.trim());
             if (!customStatus.trim().equals(oldCustomStatus)) {
-                logAuditEntry(orderId, changedBy, "STATUS_UPDATE", "customStatus", oldCustomStatus, customStatus.trim(), 
-                             customMessage != null ? customMessage : "Custom status updated");
+                auditEntries.add(newAuditEntry(orderId, changedBy, "STATUS_UPDATE", "customStatus", oldCustomStatus, customStatus.trim(), 
+                             customMessage != null ? customMessage : "Custom status updated"));
             }
         } else {
             // Clear custom status when setting standard status
             String oldCustomStatus = order.getCustomStatus();
             if (oldCustomStatus != null) {
                 order.setCustomStatus(null);
-                logAuditEntry(orderId, changedBy, "STATUS_UPDATE", "customStatus", oldCustomStatus, null, 
-                             "Custom status cleared");
+                auditEntries.add(newAuditEntry(orderId, changedBy, "STATUS_UPDATE", "customStatus", oldCustomStatus, null, 
+                             "Custom status cleared"));
             }
         }
-        
-        Order savedOrder = orderRepository.save(order);
-        
-        // If order is being confirmed and Swipe is enabled, create invoice
-        // BUT: Only create if invoice_status is NOT_CREATED (prevent duplicates)
-        if (oldStatus != Order.OrderStatus.CONFIRMED && newStatus == Order.OrderStatus.CONFIRMED) {
-            // Check invoice status - if already CREATED, skip invoice creation
-            if (savedOrder.getInvoiceStatus() == null || 
-                savedOrder.getInvoiceStatus() == Order.InvoiceStatus.NOT_CREATED) {
-                // Invoice not created yet - create it now
-                com.sara.ecom.dto.SwipeDto.SwipeInvoiceResultDto invoiceResult = swipeService.createInvoice(savedOrder);
-                if (invoiceResult != null && Boolean.TRUE.equals(invoiceResult.getSuccess())) {
-                    savedOrder.setInvoiceStatus(Order.InvoiceStatus.CREATED);
+    }
+    
+    /**
+     * Creates the Swipe invoice for a newly confirmed order, unless one was created before.
+     */
+    private Order createConfirmationInvoice(Order savedOrder) {
+        // Check invoice status - if already CREATED, skip invoice creation (prevent duplicates)
+        if (savedOrder.getInvoiceStatus() == null || 
+            savedOrder.getInvoiceStatus() == Order.InvoiceStatus.NOT_CREATED) {
+            // Invoice not created yet - create it now
+            com.sara.ecom.dto.SwipeDto.SwipeInvoiceResultDto invoiceResult = swipeService.createInvoice(savedOrder);
+            if (invoiceResult != null && Boolean.TRUE.equals(invoiceResult.getSuccess())) {
+                savedOrder.setInvoiceStatus(Order.InvoiceStatus.CREATED);
+                savedOrder.setInvoiceCreatedAt(java.time.LocalDateTime.now());
+                if (invoiceResult.getData() != null) {
+                    savedOrder.setSwipeInvoiceId(invoiceResult.getData().getHashId());
+                    savedOrder.setSwipeInvoiceNumber(invoiceResult.getData().getSerialNumber());
+                    savedOrder.setSwipeIrn(invoiceResult.getData().getIrn());
+                    savedOrder.setSwipeQrCode(invoiceResult.getData().getQrCode());
+                    savedOrder.setSwipeInvoiceUrl(invoiceResult.getData().getPdfUrl());
+                }
+                savedOrder.setLastInvoiceErrorSource(null);
+                savedOrder.setLastInvoiceErrorMessage(null);
+                savedOrder.setLastInvoiceErrorHint(null);
+                savedOrder = orderRepository.save(savedOrder);
+            } else if (invoiceResult != null) {
+                savedOrder.setLastInvoiceErrorSource(invoiceResult.getErrorSource());
+                savedOrder.setLastInvoiceErrorMessage(invoiceResult.getMessage());
+                savedOrder.setLastInvoiceErrorHint(invoiceResult.getHint());
+                savedOrder = orderRepository.save(savedOrder);
+            }
+        } else {
+            // Invoice already CREATED - skip creation, just proceed with order confirmation
+            // This handles the fail-safe recovery scenario:
+            // Invoice was created earlier, but order confirmation failed (e.g., WhatsApp failed)
+            // Now on retry, we skip duplicate invoice creation and proceed with confirmation
+            System.out.println("Invoice already created for order " + savedOrder.getId() + 
+                ", skipping duplicate creation. Proceeding with order confirmation.");
+            
+            // Also handle legacy orders: if swipeInvoiceId exists but status is NOT_CREATED,
+            // update status to CREATED (migration for old orders)
+            if (savedOrder.getSwipeInvoiceId() != null && !savedOrder.getSwipeInvoiceId().trim().isEmpty() &&
+                (savedOrder.getInvoiceStatus() == null || 
+                 savedOrder.getInvoiceStatus() == Order.InvoiceStatus.NOT_CREATED)) {
+                savedOrder.setInvoiceStatus(Order.InvoiceStatus.CREATED);
+                if (savedOrder.getInvoiceCreatedAt() == null) {
                     savedOrder.setInvoiceCreatedAt(java.time.LocalDateTime.now());
-                    if (invoiceResult.getData() != null) {
-                        savedOrder.setSwipeInvoiceId(invoiceResult.getData().getHashId());
-                        savedOrder.setSwipeInvoiceNumber(invoiceResult.getData().getSerialNumber());
-                        savedOrder.setSwipeIrn(invoiceResult.getData().getIrn());
-                        savedOrder.setSwipeQrCode(invoiceResult.getData().getQrCode());
-                        savedOrder.setSwipeInvoiceUrl(invoiceResult.getData().getPdfUrl());
-                    }
-                    savedOrder.setLastInvoiceErrorSource(null);
-                    savedOrder.setLastInvoiceErrorMessage(null);
-                    savedOrder.setLastInvoiceErrorHint(null);
-                    savedOrder = orderRepository.save(savedOrder);
-                } else if (invoiceResult != null) {
-                    savedOrder.setLastInvoiceErrorSource(invoiceResult.getErrorSource());
-                    savedOrder.setLastInvoiceErrorMessage(invoiceResult.getMessage());
-                    savedOrder.setLastInvoiceErrorHint(invoiceResult.getHint());
-                    savedOrder = orderRepository.save(savedOrder);
                 }
-            } else {
-                // Invoice already CREATED - skip creation, just proceed with order confirmation
-                // This handles the fail-safe recovery scenario:
-                // Invoice was created earlier, but order confirmation failed (e.g., WhatsApp failed)
-                // Now on retry, we skip duplicate invoice creation and proceed with confirmation
-                System.out.println("Invoice already created for order " + savedOrder.getId() + 
-                    ", skipping duplicate creation. Proceeding with order confirmation.");
-                
-                // Also handle legacy orders: if swipeInvoiceId exists but status is NOT_CREATED,
-                // update status to CREATED (migration for old orders)
-                if (savedOrder.getSwipeInvoiceId() != null && !savedOrder.getSwipeInvoiceId().trim().isEmpty() &&
-                    (savedOrder.getInvoiceStatus() == null || 
-                     savedOrder.getInvoiceStatus() == Order.InvoiceStatus.NOT_CREATED)) {
-                    savedOrder.setInvoiceStatus(Order.InvoiceStatus.CREATED);
-                    if (savedOrder.getInvoiceCreatedAt() == null) {
-                        savedOrder.setInvoiceCreatedAt(java.time.LocalDateTime.now());
-                    }
-                    savedOrder = orderRepository.save(savedOrder);
-                    System.out.println("Updated invoice status to CREATED for legacy order " + savedOrder.getId());
+                savedOrder = orderRepository.save(savedOrder);
+                System.out.println("Updated invoice status to CREATED for legacy order " + savedOrder.getId());
+            }
+        }
+        return savedOrder;
+    }
+    
+    private static NotificationOutboxService.EmailType statusEmailType(Order.OrderStatus status) {
+        switch (status) {
+            case CONFIRMED:
+                return NotificationOutboxService.EmailType.ORDER_CONFIRMED;
+            case PROCESSING:
+                return NotificationOutboxService.EmailType.ORDER_PROCESSING;
+            case SHIPPED:
+                return NotificationOutboxService.EmailType.ORDER_SHIPPED;
+            case DELIVERED:
+                return NotificationOutboxService.EmailType.ORDER_DELIVERED;
+            case CANCELLED:
+                return NotificationOutboxService.EmailType.ORDER_CANCELLED;
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Queues the status update email for a registered customer, if the status has one.
+     */
+    private void enqueueStatusEmail(OrderDto orderDto, User user, Order.OrderStatus newStatus) {
+        NotificationOutboxService.EmailType emailType = statusEmailType(newStatus);
+        if (user == null || emailType == null) {
+            return;
+        }
+        EmailTemplateData.OrderEmailData emailData = buildOrderEmailData(orderDto, user);
+        emailData.setOrderStatus(newStatus.name());
+        notificationOutboxService.enqueueEmail(emailType, emailData, orderDto.getId());
+    }
+    
+    /**
+     * Checks a bulk status update before it starts, so bad input is rejected before any progress is streamed.
+     */
+    public void validateBulkStatusUpdate(BulkOrderStatusRequest request) {
+        if (request.getOrderIds() == null || request.getOrderIds().isEmpty()) {
+            throw new RuntimeException("orderIds is required");
+        }
+        if (request.getOrderIds().size() > bulkStatusMaxOrders) {
+            throw new RuntimeException("At most " + bulkStatusMaxOrders + " orders can be updated at once");
+        }
+        if (request.getStatus() == null || request.getStatus().trim().isEmpty()) {
+            throw new RuntimeException("status is required");
+        }
+        try {
+            Order.OrderStatus.valueOf(request.getStatus().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status: " + request.getStatus());
+        }
+    }
+    
+    /**
+     * Moves many orders to one status, with the same effects as {@link #updateOrderStatus} per order.
+     * Orders are updated in chunks, one transaction each: the order rows are written as one JDBC batch,
+     * the audit entries with one batch insert, and the emails and WhatsApp messages are queued in the
+     * notification outbox, which sends them in parallel at the configured rate. Confirmations go through
+     * the single-order path, since each one creates its Swipe invoice before the confirmation email.
+     * A chunk that fails to commit reports all its orders as failed; the other chunks are unaffected.
+     * The controller runs this on the async response thread, where open-in-view keeps one EntityManager for
+     * the whole request and each chunk's transaction joins it, so it is cleared after every chunk.
+     * @param onResult called with each order's outcome as soon as its chunk is done, then with the summary
+     */
+    public void bulkUpdateOrderStatus(BulkOrderStatusRequest request, String changedBy,
+                                      Consumer<BulkOrderStatusResult> onResult) {
+        validateBulkStatusUpdate(request);
+        Order.OrderStatus newStatus = Order.OrderStatus.valueOf(request.getStatus().trim().toUpperCase());
+        boolean skipWhatsApp = Boolean.TRUE.equals(request.getSkipWhatsApp());
+        List<Long> orderIds = request.getOrderIds().stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        
+        int succeeded = 0;
+        int chunkSize = Math.max(1, bulkStatusChunkSize);
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            List<BulkOrderStatusResult> results = newStatus == Order.OrderStatus.CONFIRMED
+                    ? updateStatusOneByOne(chunk, request, changedBy, skipWhatsApp)
+                    : updateStatusChunk(chunk, newStatus, request, changedBy, skipWhatsApp);
+            // Otherwise every order loaded so far stays managed until the response ends
+            entityManager.clear();
+            for (BulkOrderStatusResult result : results) {
+                if (Boolean.TRUE.equals(result.getSuccess())) {
+                    succeeded++;
                 }
+                onResult.accept(result);
             }
         }
-        
-        OrderDto orderDto = toOrderDto(savedOrder);
-        
-        // Send order status update email
+        onResult.accept(BulkOrderStatusResult.builder()
+                .type("summary")
+                .newStatus(newStatus.name())
+                .processed(orderIds.size())
+                .succeeded(succeeded)
+                .failed(orderIds.size() - succeeded)
+                .build());
+    }
+    
+    private List<BulkOrderStatusResult> updateStatusChunk(List<Long> chunk, Order.OrderStatus newStatus,
+                                                          BulkOrderStatusRequest request, String changedBy,
+                                                          boolean skipWhatsApp) {
+        List<BulkOrderStatusResult> results = new ArrayList<>(chunk.size());
         try {
-            User user = userRepository.findByEmail(savedOrder.getUserEmail()).orElse(null);
-            if (user != null) {
-                EmailTemplateData.OrderEmailData emailData = buildOrderEmailData(orderDto, user);
-                emailData.setOrderStatus(newStatus.name());
+            new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                Map<Long, Order> orders = orderRepository.findAllByIdWithItems(chunk).stream()
+                        .collect(Collectors.toMap(Order::getId, o -> o));
+                Map<String, User> users = userRepository.findByEmailIn(orders.values().stream()
+                                .map(Order::getUserEmail).filter(Objects::nonNull).collect(Collectors.toSet()))
+                        .stream().collect(Collectors.toMap(User::getEmail, u -> u, (a, b) -> a));
                 
-                switch (newStatus) {
-                    case CONFIRMED:
-                        emailService.sendOrderConfirmedEmail(emailData);
-                        break;
-                    case PROCESSING:
-                        emailService.sendOrderProcessingEmail(emailData);
-                        break;
-                    case SHIPPED:
-                        emailService.sendOrderShippedEmail(emailData);
-                        break;
-                    case DELIVERED:
-                        emailService.sendOrderDeliveredEmail(emailData);
-                        break;
-                    case CANCELLED:
-                        emailService.sendOrderCancelledEmail(emailData);
-                        break;
-                    default:
-                        break;
+                List<com.sara.ecom.entity.OrderAuditLog> auditEntries = new ArrayList<>();
+                List<OrderStatsService.OrderState> statsBefore = new ArrayList<>();
+                List<String> oldStatuses = new ArrayList<>();
+                List<Order> updated = new ArrayList<>();
+                for (Long orderId : chunk) {
+                    Order order = orders.get(orderId);
+                    if (order == null) {
+                        results.add(failedResult(orderId, "Order not found"));
+                        continue;
+                    }
+                    statsBefore.add(OrderStatsService.OrderState.of(order));
+                    oldStatuses.add(order.getStatus() != null ? order.getStatus().name() : null);
+                    applyStatusChange(order, newStatus, request.getCustomStatus(), request.getCustomMessage(),
+                            changedBy, auditEntries);
+                    updated.add(order);
                 }
-            }
+                orderRepository.saveAll(updated);
+                orderRepository.flush();
+                insertAuditEntries(auditEntries);
+                
+                java.util.function.Function<String, com.sara.ecom.entity.WhatsAppTemplate> templates =
+                        notificationHooks.cachedTemplateLookup();
+                for (int i = 0; i < updated.size(); i++) {
+                    Order order = updated.get(i);
+                    orderStatsService.orderChanged(statsBefore.get(i), order);
+                    User user = users.get(order.getUserEmail());
+                    if (user != null && statusEmailType(newStatus) != null) {
+                        enqueueStatusEmail(toOrderDto(order), user, newStatus);
+                    }
+                    notificationHooks.onOrderStatusChanged(order, user, oldStatuses.get(i), newStatus.name(),
+                            request.getCustomMessage(), skipWhatsApp, templates);
+                    results.add(BulkOrderStatusResult.builder()
+                            .type("order")
+                            .orderId(order.getId())
+                            .orderNumber(order.getOrderNumber())
+                            .success(true)
+                            .oldStatus(oldStatuses.get(i))
+                            .newStatus(newStatus.name())
+                            .build());
+                }
+            });
         } catch (Exception e) {
-            // Log error but don't fail order update
-            System.err.println("Failed to send order status email: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Bulk status update chunk failed: " + e.getMessage());
+            results.clear();
+            for (Long orderId : chunk) {
+                results.add(failedResult(orderId, e.getMessage()));
+            }
         }
-        
-        // Trigger notification hook
-        String newStatusString = newStatus.name();
-        notificationHooks.onOrderStatusChanged(savedOrder, oldStatusString, newStatusString, customMessage, skipWhatsApp);
-        
-        return orderDto;
+        // Not-found results were added first; report in request order
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            position.put(chunk.get(i), i);
+        }
+        results.sort(java.util.Comparator.comparing(r -> position.getOrDefault(r.getOrderId(), 0)));
+        return results;
+    }
+    
+    private List<BulkOrderStatusResult> updateStatusOneByOne(List<Long> chunk, BulkOrderStatusRequest request,
+                                                             String changedBy, boolean skipWhatsApp) {
+        List<BulkOrderStatusResult> results = new ArrayList<>(chunk.size());
+        for (Long orderId : chunk) {
+            try {
+                String oldStatus = orderRepository.findById(orderId)
+                        .map(o -> o.getStatus() != null ? o.getStatus().name() : null)
+                        .orElseThrow(() -> new RuntimeException("Order not found"));
+                OrderDto order = updateOrderStatus(orderId, request.getStatus().trim(), request.getCustomStatus(),
+                        request.getCustomMessage(), skipWhatsApp, changedBy);
+                results.add(BulkOrderStatusResult.builder()
+                        .type("order")
+                        .orderId(orderId)
+                        .orderNumber(order.getOrderNumber())
+                        .success(true)
+                        .oldStatus(oldStatus)
+                        .newStatus(order.getStatus())
+                        .build());
+            } catch (Exception e) {
+                results.add(failedResult(orderId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    private static BulkOrderStatusResult failedResult(Long orderId, String error) {
+        return BulkOrderStatusResult.builder()
+                .type("order")
+                .orderId(orderId)
+                .success(false)
+                .error(error)
+                .build();
+    }
+    
+    /**
+     * Writes the audit entries of a bulk update with one JDBC batch insert. Timestamps are bound the way
+     * Hibernate binds them, in the configured JDBC time zone, so they line up with single-order entries.
+     */
+    private void insertAuditEntries(List<com.sara.ecom.entity.OrderAuditLog> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        java.sql.Timestamp now = java.sql.Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO order_audit_log (order_id, changed_by, change_type, field_name, old_value, new_value, " +
+                "change_reason, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                entries, entries.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.getOrderId());
+                    ps.setString(2, entry.getChangedBy());
+                    ps.setString(3, entry.getChangeType());
+                    ps.setString(4, entry.getFieldName());
+                    ps.setString(5, entry.getOldValue());
+                    ps.setString(6, entry.getNewValue());
+                    ps.setString(7, entry.getChangeReason());
+                    if (jdbcTimeZone.isEmpty()) {
+                        ps.setTimestamp(8, now);
+                    } else {
+                        ps.setTimestamp(8, now, java.util.Calendar.getInstance(java.util.TimeZone.getTimeZone(jdbcTimeZone)));
+                    }
+                });
     }
     
     /**
@@ -684,31 +1002,6 @@ public class OrderService {
         return orderDto;
     }
     
-    /**
-     * Checks if a category is accessible to a user based on email restrictions.
-     */
-    private boolean isCategoryAccessible(com.sara.ecom.entity.Category category, String userEmail) {
-        // If no email restriction, category is accessible
-        if (category.getAllowedEmails() == null || category.getAllowedEmails().trim().isEmpty()) {
-            return true;
-        }
-        
-        // If user email is null, category is not accessible
-        if (userEmail == null || userEmail.trim().isEmpty()) {
-            return false;
-        }
-        
-        // Check if user email is in the allowed emails list
-        String[] allowedEmails = category.getAllowedEmails().split(",");
-        for (String email : allowedEmails) {
-            if (email.trim().equalsIgnoreCase(userEmail.trim())) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
     @Transactional
     public OrderDto updatePaymentStatus(Long orderId, String paymentStatus, String paymentId) {
         return updatePaymentStatus(orderId, paymentStatus, paymentId, null, "system");
@@ -723,6 +1016,7 @@ public class OrderService {
     public OrderDto updatePaymentStatus(Long orderId, String paymentStatus, String paymentId, BigDecimal paymentAmount, String changedBy) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatsService.OrderState statsBefore = OrderStatsService.OrderState.of(order);
         Order.PaymentStatus oldPaymentStatus = order.getPaymentStatus();
         String oldPaymentId = order.getPaymentId();
         BigDecimal oldPaymentAmount = order.getPaymentAmount();
@@ -811,15 +1105,18 @@ public class OrderService {
         }
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsService.orderChanged(statsBefore, savedOrder);
         
-        // Generate password-protected ZIP for digital products when payment is completed.
-        // Run in separate transaction so failure does not roll back the payment status update.
+        // Queue password-protected ZIP builds for digital products when payment is completed.
+        // They run in the background after commit, so a slow or failing build never holds up the payment update.
         if (order.getPaymentStatus() == Order.PaymentStatus.PAID && oldPaymentStatus != Order.PaymentStatus.PAID) {
-            try {
-                self.generateDigitalProductZip(savedOrder);
-            } catch (Exception e) {
+            // ZIP password = user's registered email
+            User zipUser = userRepository.findByEmail(savedOrder.getUserEmail()).orElse(null);
+            if (zipUser != null) {
+                digitalZipJobService.enqueue(savedOrder, zipUser.getEmail());
+            } else {
                 org.slf4j.LoggerFactory.getLogger(OrderService.class)
-                    .warn("Digital ZIP generation failed for order {}: {}", savedOrder.getId(), e.getMessage());
+                    .warn("User not found for order {}; digital ZIPs not queued", savedOrder.getId());
             }
         }
         
@@ -833,26 +1130,30 @@ public class OrderService {
                     EmailTemplateData.OrderEmailData emailData = buildOrderEmailData(orderDto, user);
                     emailData.setPaymentStatus(paymentStatus);
                     
+                    NotificationOutboxService.EmailType emailType = null;
                     switch (order.getPaymentStatus()) {
                         case PENDING:
-                            emailService.sendPaymentPendingEmail(emailData);
+                            emailType = NotificationOutboxService.EmailType.PAYMENT_PENDING;
                             break;
                         case PAID:
-                            emailService.sendPaymentSuccessfulEmail(emailData);
+                            emailType = NotificationOutboxService.EmailType.PAYMENT_SUCCESSFUL;
                             break;
                         case FAILED:
-                            emailService.sendPaymentFailedEmail(emailData);
+                            emailType = NotificationOutboxService.EmailType.PAYMENT_FAILED;
                             break;
                         case REFUNDED:
-                            emailService.sendPaymentRefundedEmail(emailData);
+                            emailType = NotificationOutboxService.EmailType.PAYMENT_REFUNDED;
                             break;
                         default:
                             break;
                     }
+                    if (emailType != null) {
+                        notificationOutboxService.enqueueEmail(emailType, emailData, savedOrder.getId());
+                    }
                 }
             } catch (Exception e) {
                 // Log error but don't fail payment status update
-                System.err.println("Failed to send payment status email: " + e.getMessage());
+                System.err.println("Failed to queue payment status email: " + e.getMessage());
                 e.printStackTrace();
             }
             
@@ -876,77 +1177,25 @@ public class OrderService {
     }
     
     /**
-     * Generates password-protected ZIP files for digital products in an order.
-     * Only called when payment status changes to PAID.
-     * Uses REQUIRES_NEW so failures do not roll back the payment status update.
+     * Streams the resource at the given URL with Content-Disposition so the browser saves it with
+     * the correct filename (e.g. .zip). Range and conditional request headers are forwarded so
+     * downloads can resume. Used when the order item already has a stored digitalDownloadUrl (e.g. Cloudinary).
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void generateDigitalProductZip(Order order) {
-        if (order.getItems() == null || order.getItems().isEmpty()) {
-            return;
-        }
-        
-        // ZIP password = user's registered email
-        String userEmail = order.getUserEmail();
-        User user = userRepository.findByEmail(userEmail).orElse(null);
-        if (user == null) {
-            System.err.println("User not found for order: " + order.getId());
-            return;
-        }
-        String zipPassword = user.getEmail();
-        
-        // Process each order item
-        for (OrderItem item : order.getItems()) {
-            if ("DIGITAL".equals(item.getProductType()) && item.getProductId() != null) {
-                try {
-                    // Generate password-protected ZIP
-                    String zipUrl = productService.generatePasswordProtectedZip(item.getProductId(), zipPassword);
-                    
-                    // Store ZIP URL and password in order item
-                    item.setDigitalDownloadUrl(zipUrl);
-                    item.setZipPassword(zipPassword);
-                    
-                    // Save order item
-                    orderRepository.save(order);
-                } catch (Exception e) {
-                    System.err.println("Failed to generate password-protected ZIP for digital product " + item.getProductId() + " in order " + order.getId() + ": " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-        }
+    public ResponseEntity<StreamingResponseBody> streamDigitalDownloadUrl(String url, String filename, HttpHeaders requestHeaders) throws IOException {
+        return digitalDownloadService.proxy(url, filename, requestHeaders);
     }
-
+    
     /**
-     * Fetches the resource at the given URL and returns it as a response with
-     * Content-Disposition so the browser saves it with the correct filename (e.g. .zip).
-     * Used when the order item already has a stored digitalDownloadUrl (e.g. Cloudinary).
+     * Puts the failed ZIP build of a DIGITAL order item back in the queue.
      */
-    public ResponseEntity<Resource> streamDigitalDownloadUrl(String url, String filename) throws IOException {
-        URL urlObj = URI.create(url).toURL();
-        HttpURLConnection connection = (HttpURLConnection) urlObj.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setConnectTimeout(10000);
-        connection.setReadTimeout(60000);
-        connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            throw new IOException("Failed to fetch URL: " + connection.getResponseCode());
-        }
-        try (InputStream in = connection.getInputStream(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            byte[] buffer = new byte[8192];
-            int read;
-            while ((read = in.read(buffer)) != -1) {
-                out.write(buffer, 0, read);
-            }
-            byte[] bytes = out.toByteArray();
-            Resource resource = new ByteArrayResource(bytes);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .contentLength(bytes.length)
-                    .body(resource);
-        } finally {
-            connection.disconnect();
+    @Transactional
+    public OrderDto retryDigitalZip(Long orderId, Long itemId) {
+        if (!digitalZipJobService.requeueFailed(orderId, itemId)) {
+            throw new RuntimeException("No failed digital ZIP build found for this order item");
         }
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return toOrderDto(order);
     }
     
     @Transactional
@@ -1101,6 +1350,7 @@ public class OrderService {
             java.util.Map<String, Object> variants, java.util.Map<String, Object> customData, String changedBy) {
         Order order = orderRepository.findByIdWithItems(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatsService.OrderState statsBefore = OrderStatsService.OrderState.of(order);
         
         OrderItem item = order.getItems().stream()
                 .filter(i -> i.getId().equals(itemId))
@@ -1195,6 +1445,7 @@ public class OrderService {
         }
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsService.orderChanged(statsBefore, savedOrder);
         return toOrderDto(savedOrder);
     }
     
@@ -1207,6 +1458,7 @@ public class OrderService {
     public OrderDto updateOrderPricing(Long orderId, BigDecimal subtotal, BigDecimal gst, BigDecimal shipping, BigDecimal total, String changedBy) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatsService.OrderState statsBefore = OrderStatsService.OrderState.of(order);
         
         BigDecimal oldSubtotal = order.getSubtotal();
         BigDecimal oldGst = order.getGst();
@@ -1257,6 +1509,7 @@ public class OrderService {
         }
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsService.orderChanged(statsBefore, savedOrder);
         return toOrderDto(savedOrder);
     }
     
@@ -1269,6 +1522,7 @@ public class OrderService {
     public OrderDto recalculateOrderTotals(Long orderId, String changedBy) {
         Order order = orderRepository.findByIdWithItems(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatsService.OrderState statsBefore = OrderStatsService.OrderState.of(order);
         
         BigDecimal oldSubtotal = order.getSubtotal();
         BigDecimal oldTotal = order.getTotal();
@@ -1302,6 +1556,7 @@ public class OrderService {
                      "Order totals recalculated");
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsService.orderChanged(statsBefore, savedOrder);
         return toOrderDto(savedOrder);
     }
     
@@ -1455,6 +1710,7 @@ public class OrderService {
                                      String refundTransactionId, String refundReason, String changedBy) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatsService.OrderState statsBefore = OrderStatsService.OrderState.of(order);
         BigDecimal oldRefundAmount = order.getRefundAmount();
         String oldRefundTransactionId = order.getRefundTransactionId();
         String oldRefundReason = order.getRefundReason();
@@ -1495,6 +1751,7 @@ public class OrderService {
         }
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsService.orderChanged(statsBefore, savedOrder);
         return toOrderDto(savedOrder);
     }
     
@@ -1582,6 +1839,7 @@ public class OrderService {
         }
         dto.setDigitalDownloadUrl(item.getDigitalDownloadUrl());
         dto.setZipPassword(item.getZipPassword());
+        dto.setDigitalZipStatus(item.getDigitalZipStatus() != null ? item.getDigitalZipStatus().name() : null);
         dto.setUploadedDesignUrl(item.getUploadedDesignUrl());
 
         // Parse variants - try structured format first, fallback to legacy format
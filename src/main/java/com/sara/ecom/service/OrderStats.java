@@ -0,0 +1,102 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable order counters for the admin dashboard: orders per status and per payment status,
+ * and the revenue of PAID orders. Changes produce a new instance.
+ */
+public final class OrderStats {
+
+    private final long totalOrders;
+    private final Map<Order.OrderStatus, Long> countsByStatus;
+    private final Map<Order.PaymentStatus, Long> countsByPaymentStatus;
+    private final BigDecimal paidRevenue;
+
+    private OrderStats(long totalOrders, Map<Order.OrderStatus, Long> countsByStatus,
+                       Map<Order.PaymentStatus, Long> countsByPaymentStatus, BigDecimal paidRevenue) {
+        this.totalOrders = totalOrders;
+        this.countsByStatus = Collections.unmodifiableMap(countsByStatus);
+        this.countsByPaymentStatus = Collections.unmodifiableMap(countsByPaymentStatus);
+        this.paidRevenue = paidRevenue;
+    }
+
+    /**
+     * Builds the counters from (status, paymentStatus, orderCount, totalSum) aggregate rows.
+     */
+    static OrderStats fromAggregateRows(List<Object[]> rows) {
+        long total = 0;
+        Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.PaymentStatus, Long> byPayment = new EnumMap<>(Order.PaymentStatus.class);
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Object[] row : rows) {
+            Order.OrderStatus status = (Order.OrderStatus) row[0];
+            Order.PaymentStatus paymentStatus = (Order.PaymentStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            total += count;
+            byStatus.merge(status, count, Long::sum);
+            byPayment.merge(paymentStatus, count, Long::sum);
+            if (paymentStatus == Order.PaymentStatus.PAID && row[3] != null) {
+                revenue = revenue.add(toBigDecimal(row[3]));
+            }
+        }
+        return new OrderStats(total, byStatus, byPayment, revenue);
+    }
+
+    /**
+     * Applies one order change. {@code before} is null for a new order.
+     */
+    OrderStats apply(OrderStatsService.OrderState before, OrderStatsService.OrderState after) {
+        Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        byStatus.putAll(countsByStatus);
+        Map<Order.PaymentStatus, Long> byPayment = new EnumMap<>(Order.PaymentStatus.class);
+        byPayment.putAll(countsByPaymentStatus);
+        BigDecimal revenue = paidRevenue;
+        long total = totalOrders;
+        if (before != null) {
+            byStatus.merge(before.getStatus(), -1L, Long::sum);
+            byPayment.merge(before.getPaymentStatus(), -1L, Long::sum);
+            revenue = revenue.subtract(before.getPaidRevenue());
+            total--;
+        }
+        byStatus.merge(after.getStatus(), 1L, Long::sum);
+        byPayment.merge(after.getPaymentStatus(), 1L, Long::sum);
+        revenue = revenue.add(after.getPaidRevenue());
+        total++;
+        return new OrderStats(total, byStatus, byPayment, revenue);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public long getCount(Order.OrderStatus status) {
+        return countsByStatus.getOrDefault(status, 0L);
+    }
+
+    public long getCount(Order.PaymentStatus paymentStatus) {
+        return countsByPaymentStatus.getOrDefault(paymentStatus, 0L);
+    }
+
+    public Map<Order.OrderStatus, Long> getCountsByStatus() {
+        return countsByStatus;
+    }
+
+    public Map<Order.PaymentStatus, Long> getCountsByPaymentStatus() {
+        return countsByPaymentStatus;
+    }
+
+    public BigDecimal getPaidRevenue() {
+        return paidRevenue;
+    }
+}
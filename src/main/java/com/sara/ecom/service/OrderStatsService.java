@@ -0,0 +1,218 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Order counters for the dashboard. Always computed by SQL aggregation; when the cache is enabled
+ * the result is kept in memory and OrderService reports every status, payment status and total
+ * change so the counters stay current without re-querying. A periodic reconcile re-seeds the
+ * cache from the database to absorb changes made outside the application.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatsService.class);
+
+    private final OrderRepository orderRepository;
+
+    @Value("${dashboard.stats-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    private final AtomicReference<OrderStats> cached = new AtomicReference<>();
+    // Bumped by every applied change so a seed that raced with a change is not published
+    private long generation;
+    private final Object lock = new Object();
+
+    public OrderStats getStats() {
+        if (!cacheEnabled) {
+            return load();
+        }
+        OrderStats stats = cached.get();
+        return stats != null ? stats : seed();
+    }
+
+    /**
+     * Records an order change once the current transaction commits.
+     * @param before the order's state before the change, or null for a new order
+     */
+    public void orderChanged(OrderState before, Order after) {
+        if (!cacheEnabled) {
+            return;
+        }
+        OrderState afterState = OrderState.of(after);
+        if (afterState.equals(before)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (lock) {
+                generation++;
+                OrderStats stats = cached.get();
+                if (stats != null) {
+                    cached.set(stats.apply(before, afterState));
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.stats-cache.reconcile-ms:3600000}")
+    public void reconcile() {
+        if (cacheEnabled && cached.get() != null) {
+            OrderStats before = cached.get();
+            OrderStats fresh = seed();
+            if (before.getTotalOrders() != fresh.getTotalOrders()
+                    || before.getPaidRevenue().compareTo(fresh.getPaidRevenue()) != 0) {
+                logger.warn("Order stats cache drifted (orders {} -> {}, revenue {} -> {}); re-seeded",
+                        before.getTotalOrders(), fresh.getTotalOrders(), before.getPaidRevenue(), fresh.getPaidRevenue());
+            }
+        }
+    }
+
+    /**
+     * PAID revenue per day or ISO week (Monday start) for the last {@code buckets} periods,
+     * oldest first, including the current one. Periods without paid orders are returned as zero.
+     */
+    public List<RevenueBucket> getRevenueSeries(String period, int buckets) {
+        boolean weekly = "weekly".equalsIgnoreCase(period);
+        if (!weekly && !"daily".equalsIgnoreCase(period)) {
+            throw new RuntimeException("Unsupported period: " + period + " (expected daily or weekly)");
+        }
+        if (buckets < 1 || buckets > 366) {
+            throw new RuntimeException("buckets must be between 1 and 366");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate current = weekly ? today.with(DayOfWeek.MONDAY) : today;
+        LocalDate first = weekly ? current.minusWeeks(buckets - 1L) : current.minusDays(buckets - 1L);
+
+        Map<LocalDate, RevenueBucket> found = new HashMap<>();
+        for (Object[] row : orderRepository.sumPaidRevenueByPeriod(weekly ? "week" : "day", first.atStartOfDay())) {
+            LocalDate start = toLocalDate(row[0]);
+            BigDecimal revenue = row[2] instanceof BigDecimal ? (BigDecimal) row[2] : new BigDecimal(row[2].toString());
+            found.put(start, new RevenueBucket(start, ((Number) row[1]).longValue(), revenue));
+        }
+
+        List<RevenueBucket> series = new ArrayList<>(buckets);
+        for (LocalDate start = first; !start.isAfter(current); start = weekly ? start.plusWeeks(1) : start.plusDays(1)) {
+            series.add(found.getOrDefault(start, new RevenueBucket(start, 0, BigDecimal.ZERO)));
+        }
+        return series;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate();
+        }
+        if (value instanceof java.time.OffsetDateTime) {
+            return ((java.time.OffsetDateTime) value).toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private OrderStats seed() {
+        long startGeneration;
+        synchronized (lock) {
+            startGeneration = generation;
+        }
+        OrderStats stats = load();
+        synchronized (lock) {
+            if (generation == startGeneration) {
+                cached.set(stats);
+            }
+        }
+        return stats;
+    }
+
+    private OrderStats load() {
+        return OrderStats.fromAggregateRows(orderRepository.aggregateByStatusAndPaymentStatus());
+    }
+
+    public static final class RevenueBucket {
+        private final LocalDate start;
+        private final long orders;
+        private final BigDecimal revenue;
+
+        RevenueBucket(LocalDate start, long orders, BigDecimal revenue) {
+            this.start = start;
+            this.orders = orders;
+            this.revenue = revenue;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public BigDecimal getRevenue() {
+            return revenue;
+        }
+    }
+
+    /**
+     * The parts of an order the counters depend on, captured at one point in time.
+     */
+    public static final class OrderState {
+        private final Order.OrderStatus status;
+        private final Order.PaymentStatus paymentStatus;
+        private final BigDecimal total;
+
+        private OrderState(Order.OrderStatus status, Order.PaymentStatus paymentStatus, BigDecimal total) {
+            this.status = status;
+            this.paymentStatus = paymentStatus;
+            this.total = total;
+        }
+
+        public static OrderState of(Order order) {
+            return new OrderState(order.getStatus(), order.getPaymentStatus(), order.getTotal());
+        }
+
+        Order.OrderStatus getStatus() {
+            return status;
+        }
+
+        Order.PaymentStatus getPaymentStatus() {
+            return paymentStatus;
+        }
+
+        BigDecimal getPaidRevenue() {
+            return paymentStatus == Order.PaymentStatus.PAID && total != null ? total : BigDecimal.ZERO;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OrderState)) {
+                return false;
+            }
+            OrderState other = (OrderState) o;
+            return status == other.status && paymentStatus == other.paymentStatus
+                    && (total == null ? other.total == null : other.total != null && total.compareTo(other.total) == 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hash(status, paymentStatus);
+        }
+    }
+}
@@ -3,9 +3,16 @@ package com.sara.ecom.service;
 import com.sara.ecom.dto.PaymentConfigDto;
 import com.sara.ecom.entity.PaymentConfig;
 import com.sara.ecom.repository.PaymentConfigRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BiConsumer;
 
 @Service
 public class PaymentConfigService {
@@ -13,9 +20,26 @@ public class PaymentConfigService {
     @Autowired
     private PaymentConfigRepository paymentConfigRepository;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${config.cache.ttl-ms:60000}")
+    private long cacheTtlMillis;
+    
+    private ConfigCache<PaymentConfig> cache;
+    
+    @PostConstruct
+    void initCache() {
+        // Loaded in its own read-only transaction so the cached entity is detached from the caller's session
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+        cache = new ConfigCache<>("payment config", () -> readOnly.execute(status ->
+                paymentConfigRepository.findFirstByOrderByIdAsc().orElse(new PaymentConfig())), cacheTtlMillis);
+    }
+    
     public PaymentConfigDto getConfig() {
-        PaymentConfig config = paymentConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new PaymentConfig());
+        PaymentConfig config = cache.get();
         
         PaymentConfigDto dto = new PaymentConfigDto();
         dto.setId(config.getId());
@@ -39,8 +63,7 @@ public class PaymentConfigService {
     }
     
     public PaymentConfigDto getConfigWithSecrets() {
-        PaymentConfig config = paymentConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new PaymentConfig());
+        PaymentConfig config = cache.get();
         
         PaymentConfigDto dto = new PaymentConfigDto();
         dto.setId(config.getId());
@@ -123,6 +146,7 @@ public class PaymentConfigService {
         }
         
         PaymentConfig saved = paymentConfigRepository.save(config);
+        cache.invalidate();
         
         // Return DTO with masked secrets
         PaymentConfigDto response = new PaymentConfigDto();
@@ -140,8 +164,19 @@ public class PaymentConfigService {
         return response;
     }
     
+    /**
+     * Cached payment config, shared by all callers; read-only. Use {@link #updateConfig} to change it.
+     */
     public PaymentConfig getConfigEntity() {
-        return paymentConfigRepository.findFirstByOrderByIdAsc()
-                .orElse(new PaymentConfig());
+        return cache.get();
+    }
+    
+    /**
+     * Calls the listener with the previous and new config whenever a new version is loaded,
+     * and right away with the current config if one is loaded. Gateway services use it to
+     * rebuild their SDK clients when the keys change.
+     */
+    public void addChangeListener(BiConsumer<PaymentConfig, PaymentConfig> listener) {
+        cache.addListener(listener);
     }
 }
@@ -0,0 +1,369 @@
+package com.sara.ecom.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sara.ecom.dto.PaymentWebhookEventDto;
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.PaymentWebhookEvent;
+import com.sara.ecom.repository.OrderRepository;
+import com.sara.ecom.repository.PaymentWebhookEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.Webhook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Two-stage payment webhook handling. Ingestion verifies a gateway event, stores it under its event id
+ * and returns, so the gateway is acknowledged at once and its retries of the same event are dropped.
+ * {@link PaymentWebhookWorker} then applies stored events to orders: one event per order at a time, in
+ * arrival order, with the order update and the event's PROCESSED mark committed together.
+ */
+@Service
+public class PaymentWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookService.class);
+    private static final int MAX_LIST_LIMIT = 200;
+
+    @Autowired
+    private PaymentWebhookEventRepository eventRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    @Lazy
+    private PaymentWebhookWorker worker;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${payments.webhooks.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payments.webhooks.backoff-base-ms:10000}")
+    private long backoffBaseMillis;
+
+    @Value("${payments.webhooks.backoff-max-ms:1800000}")
+    private long backoffMaxMillis;
+
+    /**
+     * Verifies (when a secret is configured) and stores a Stripe event.
+     * @return false when the event was already received
+     */
+    @Transactional
+    public boolean ingestStripe(String payload, String sigHeader, String webhookSecret) throws SignatureVerificationException {
+        Event event;
+        if (webhookSecret == null || webhookSecret.trim().isEmpty()) {
+            // Parse event without signature verification (not recommended for production)
+            try {
+                event = objectMapper.readValue(payload, Event.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid payload");
+            }
+            logger.warn("Stripe webhook secret not configured - skipping signature verification");
+        } else {
+            event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
+        }
+        if (event == null || event.getId() == null) {
+            throw new IllegalArgumentException("Missing event id");
+        }
+
+        String paymentStatus = switch (event.getType() != null ? event.getType() : "") {
+            case "payment_intent.succeeded" -> "PAID";
+            case "payment_intent.payment_failed", "payment_intent.canceled" -> "FAILED";
+            default -> null;
+        };
+        String orderId = null;
+        String paymentId = null;
+        String currency = null;
+        Long amount = null;
+        if (paymentStatus != null) {
+            PaymentIntent paymentIntent = (PaymentIntent) event.getDataObjectDeserializer().getObject().orElse(null);
+            if (paymentIntent != null && paymentIntent.getMetadata() != null) {
+                orderId = paymentIntent.getMetadata().get("order_id");
+                paymentId = paymentIntent.getId();
+                if ("PAID".equals(paymentStatus)) {
+                    currency = paymentIntent.getCurrency() != null ? paymentIntent.getCurrency().toUpperCase() : null;
+                    amount = paymentIntent.getAmount();
+                }
+            }
+        }
+        return store(PaymentWebhookEvent.Provider.STRIPE, event.getId(), event.getType(), orderId,
+                orderId != null ? paymentStatus : null, paymentId, currency, amount, payload);
+    }
+
+    /**
+     * Stores a Razorpay event. Razorpay's X-Razorpay-Event-Id header is the event id when sent;
+     * otherwise the event name and payment id identify it.
+     * @return false when the event was already received
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public boolean ingestRazorpay(String payload, String eventIdHeader) {
+        Map<String, Object> body;
+        try {
+            body = objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid payload");
+        }
+        String event = (String) body.get("event");
+        Map<String, Object> payloadData = (Map<String, Object>) body.get("payload");
+        if (payloadData == null) {
+            throw new IllegalArgumentException("Invalid payload");
+        }
+        Map<String, Object> paymentEntity = (Map<String, Object>) payloadData.get("payment");
+        Map<String, Object> orderEntity = (Map<String, Object>) payloadData.get("order");
+        if (paymentEntity == null || orderEntity == null) {
+            throw new IllegalArgumentException("Missing payment or order data");
+        }
+
+        String paymentId = (String) paymentEntity.get("id");
+        // Get order number from order notes
+        String orderNumber = null;
+        if (orderEntity.get("notes") instanceof Map<?, ?> notes) {
+            orderNumber = (String) notes.get("order_number");
+        }
+
+        String paymentStatus = null;
+        if ("payment.captured".equals(event) || "payment.authorized".equals(event)) {
+            paymentStatus = "PAID";
+        } else if ("payment.failed".equals(event)) {
+            paymentStatus = "FAILED";
+        }
+        // paymentEntity contains amount (in smallest unit) and currency
+        String currency = null;
+        Long amount = null;
+        Object currencyObj = paymentEntity.get("currency");
+        Object amountObj = paymentEntity.get("amount");
+        if ("PAID".equals(paymentStatus) && currencyObj != null && amountObj != null) {
+            try {
+                amount = Long.parseLong(String.valueOf(amountObj));
+                currency = String.valueOf(currencyObj).toUpperCase();
+            } catch (NumberFormatException e) {
+                logger.error("Invalid Razorpay payment amount {} for order {}", amountObj, orderNumber);
+            }
+        }
+
+        String eventId = eventIdHeader != null && !eventIdHeader.isBlank()
+                ? eventIdHeader.trim()
+                : event + ":" + paymentId;
+        return store(PaymentWebhookEvent.Provider.RAZORPAY, eventId, event, orderNumber,
+                orderNumber != null ? paymentStatus : null, paymentId, currency, amount, payload);
+    }
+
+    /**
+     * Saves the event unless it was received before. Two deliveries racing past the existence check hit
+     * the unique key on flush; the loser's DataIntegrityViolationException is an acknowledged duplicate too.
+     */
+    private boolean store(PaymentWebhookEvent.Provider provider, String eventId, String eventType, String orderKey,
+                          String paymentStatus, String paymentReference, String currency, Long amountMinor,
+                          String payload) {
+        if (eventRepository.existsByProviderAndEventId(provider, eventId)) {
+            logger.info("Duplicate {} webhook {} ignored", provider, eventId);
+            return false;
+        }
+        PaymentWebhookEvent event = new PaymentWebhookEvent();
+        event.setProvider(provider);
+        event.setEventId(eventId);
+        event.setEventType(eventType);
+        event.setOrderKey(orderKey);
+        event.setPaymentStatus(paymentStatus);
+        event.setPaymentReference(paymentReference);
+        event.setCurrency(currency);
+        event.setAmountMinor(amountMinor);
+        event.setPayload(payload);
+        event.setStatus(paymentStatus != null ? PaymentWebhookEvent.Status.PENDING : PaymentWebhookEvent.Status.IGNORED);
+        eventRepository.saveAndFlush(event);
+        if (event.getStatus() == PaymentWebhookEvent.Status.PENDING) {
+            TransactionHooks.afterCommit(() -> worker.wakeUp());
+        }
+        return true;
+    }
+
+    /**
+     * Locks up to {@code limit} due events (at most one per order), marks them PROCESSING and counts the attempt.
+     */
+    @Transactional
+    public List<PaymentWebhookEvent> claimDue(int limit) {
+        List<PaymentWebhookEvent> events = eventRepository.lockDue(LocalDateTime.now(), limit);
+        for (PaymentWebhookEvent event : events) {
+            event.setStatus(PaymentWebhookEvent.Status.PROCESSING);
+            event.setAttempts(event.getAttempts() + 1);
+        }
+        return eventRepository.saveAll(events);
+    }
+
+    /**
+     * Applies a claimed event to its order. The event row stays locked until the order changes and the
+     * PROCESSED mark commit together, so the effects happen exactly once even if the event is re-queued meanwhile.
+     */
+    @Transactional
+    public void process(Long id) {
+        PaymentWebhookEvent event = eventRepository.findByIdForUpdate(id).orElse(null);
+        if (event == null || event.getStatus() != PaymentWebhookEvent.Status.PROCESSING) {
+            return;
+        }
+        Order order;
+        if (event.getProvider() == PaymentWebhookEvent.Provider.STRIPE) {
+            Long orderId = Long.parseLong(event.getOrderKey());
+            orderService.updatePaymentStatus(orderId, event.getPaymentStatus(), event.getPaymentReference());
+            order = orderRepository.findById(orderId).orElse(null);
+        } else {
+            orderService.updatePaymentStatusByOrderNumber(event.getOrderKey(), event.getPaymentStatus(),
+                    event.getPaymentReference());
+            order = orderRepository.findByOrderNumber(event.getOrderKey()).orElse(null);
+        }
+        // Also persist gateway currency and amount actually charged
+        if (order != null && "PAID".equals(event.getPaymentStatus())
+                && (event.getCurrency() != null || event.getAmountMinor() != null)) {
+            if (event.getCurrency() != null) {
+                order.setPaymentCurrency(event.getCurrency());
+            }
+            if (event.getAmountMinor() != null) {
+                // Gateway amounts are in the smallest unit (e.g. paise, cents)
+                order.setPaymentAmount(BigDecimal.valueOf(event.getAmountMinor()).divide(BigDecimal.valueOf(100)));
+            }
+            orderRepository.save(order);
+        }
+        event.setStatus(PaymentWebhookEvent.Status.PROCESSED);
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+        eventRepository.save(event);
+        logger.info("{} {} applied: order {} payment {}", event.getProvider(), event.getEventType(),
+                event.getOrderKey(), event.getPaymentStatus());
+    }
+
+    /**
+     * Schedules another attempt with exponential backoff, or gives up when the failure is permanent
+     * or the attempts are used up. Later events of the same order wait while this one is pending.
+     */
+    @Transactional
+    public void markFailed(Long id, String error, boolean retryable) {
+        eventRepository.findById(id).ifPresent(event -> {
+            event.setLastError(error);
+            if (retryable && event.getAttempts() < maxAttempts) {
+                long delay = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(event.getAttempts() - 1, 20));
+                event.setStatus(PaymentWebhookEvent.Status.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+            } else {
+                event.setStatus(PaymentWebhookEvent.Status.FAILED);
+            }
+            eventRepository.save(event);
+        });
+    }
+
+    /**
+     * Puts events left in PROCESSING by a crashed or restarted worker back in the queue.
+     */
+    @Transactional
+    public int releaseStale(long staleAfterMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        return eventRepository.releaseStale(PaymentWebhookEvent.Status.PENDING, PaymentWebhookEvent.Status.PROCESSING,
+                now.minusNanos(staleAfterMillis * 1_000_000), now);
+    }
+
+    /**
+     * Queues a stored event to be applied again. Events that were already applied need {@code force},
+     * since replaying them repeats their order changes.
+     */
+    @Transactional
+    public PaymentWebhookEventDto replay(Long id, boolean force) {
+        PaymentWebhookEvent event = eventRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Webhook event not found: " + id));
+        if (event.getPaymentStatus() == null || event.getOrderKey() == null) {
+            throw new RuntimeException("Webhook event " + id + " has no payment change to apply");
+        }
+        if (event.getStatus() == PaymentWebhookEvent.Status.PENDING
+                || event.getStatus() == PaymentWebhookEvent.Status.PROCESSING) {
+            throw new RuntimeException("Webhook event " + id + " is already queued");
+        }
+        if (event.getStatus() == PaymentWebhookEvent.Status.PROCESSED && !force) {
+            throw new RuntimeException("Webhook event " + id + " was already applied; pass force=true to apply it again");
+        }
+        event.setStatus(PaymentWebhookEvent.Status.PENDING);
+        event.setAttempts(0);
+        event.setNextAttemptAt(LocalDateTime.now());
+        event.setLastError(null);
+        PaymentWebhookEvent saved = eventRepository.save(event);
+        TransactionHooks.afterCommit(() -> worker.wakeUp());
+        return toDto(saved, true);
+    }
+
+    /**
+     * Queues every FAILED event again, e.g. after fixing the cause of the failures.
+     */
+    @Transactional
+    public int replayFailed() {
+        int requeued = eventRepository.requeueAll(PaymentWebhookEvent.Status.FAILED,
+                PaymentWebhookEvent.Status.PENDING, LocalDateTime.now());
+        if (requeued > 0) {
+            TransactionHooks.afterCommit(() -> worker.wakeUp());
+        }
+        return requeued;
+    }
+
+    public List<PaymentWebhookEventDto> getEvents(String status, String orderKey, Integer limit) {
+        if (orderKey != null && !orderKey.isBlank()) {
+            return eventRepository.findByOrderKeyOrderByIdAsc(orderKey.trim()).stream()
+                    .map(e -> toDto(e, false)).collect(Collectors.toList());
+        }
+        PageRequest page = PageRequest.of(0, limit == null || limit < 1 ? 50 : Math.min(limit, MAX_LIST_LIMIT));
+        List<PaymentWebhookEvent> events = status != null && !status.isBlank()
+                ? eventRepository.findByStatusOrderByIdDesc(PaymentWebhookEvent.Status.valueOf(status.toUpperCase()), page)
+                : eventRepository.findAllByOrderByIdDesc(page);
+        return events.stream().map(e -> toDto(e, false)).collect(Collectors.toList());
+    }
+
+    public PaymentWebhookEventDto getEvent(Long id) {
+        return eventRepository.findById(id).map(e -> toDto(e, true))
+                .orElseThrow(() -> new RuntimeException("Webhook event not found: " + id));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (PaymentWebhookEvent.Status status : PaymentWebhookEvent.Status.values()) {
+            stats.put(status.name().toLowerCase(), eventRepository.countByStatus(status));
+        }
+        stats.put("maxAttempts", maxAttempts);
+        return stats;
+    }
+
+    private PaymentWebhookEventDto toDto(PaymentWebhookEvent event, boolean withPayload) {
+        return PaymentWebhookEventDto.builder()
+                .id(event.getId())
+                .provider(event.getProvider().name())
+                .eventId(event.getEventId())
+                .eventType(event.getEventType())
+                .orderKey(event.getOrderKey())
+                .paymentStatus(event.getPaymentStatus())
+                .paymentReference(event.getPaymentReference())
+                .currency(event.getCurrency())
+                .amountMinor(event.getAmountMinor())
+                .status(event.getStatus().name())
+                .attempts(event.getAttempts())
+                .nextAttemptAt(event.getNextAttemptAt())
+                .lastError(event.getLastError())
+                .receivedAt(event.getReceivedAt())
+                .processedAt(event.getProcessedAt())
+                .payload(withPayload ? event.getPayload() : null)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.PaymentWebhookEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies stored payment webhooks in the background. Woken right after an event is stored (and polled as
+ * a fallback), it claims due events in batches, at most one per order, and applies them on a bounded
+ * worker pool until nothing is due.
+ */
+@Component
+public class PaymentWebhookWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookWorker.class);
+
+    private final PaymentWebhookService webhookService;
+    private final int batchSize;
+    private final long staleAfterMillis;
+    private final ThreadPoolExecutor workers;
+    // Runs drain passes one at a time; at most one more pass is queued behind the running one
+    private final ExecutorService coordinator;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    public PaymentWebhookWorker(PaymentWebhookService webhookService,
+                                @Value("${payments.webhooks.batch-size:50}") int batchSize,
+                                @Value("${payments.webhooks.workers:4}") int workerCount,
+                                @Value("${payments.webhooks.stale-after-ms:300000}") long staleAfterMillis) {
+        this.webhookService = webhookService;
+        this.batchSize = Math.max(1, batchSize);
+        this.staleAfterMillis = staleAfterMillis;
+        // The queue holds one batch; the coordinator waits for a batch before claiming the next
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.batchSize), daemonThreads("payment-webhook-worker-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.coordinator = Executors.newSingleThreadExecutor(daemonThreads("payment-webhook-coordinator-"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Starts a drain pass unless one is already waiting to start.
+     */
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            try {
+                coordinator.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainQueued.set(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payments.webhooks.poll-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    private void drain() {
+        // Cleared first, so events stored during this pass queue another one
+        drainQueued.set(false);
+        try {
+            int released = webhookService.releaseStale(staleAfterMillis);
+            if (released > 0) {
+                logger.warn("Re-queued {} payment webhook(s) stuck in PROCESSING", released);
+            }
+            List<PaymentWebhookEvent> batch;
+            do {
+                batch = webhookService.claimDue(batchSize);
+                List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+                for (PaymentWebhookEvent event : batch) {
+                    futures.add(CompletableFuture.runAsync(() -> apply(event), workers));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                // A batch holds one event per order, so keep going while anything was claimed
+            } while (!batch.isEmpty());
+        } catch (Exception e) {
+            logger.error("Payment webhook drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void apply(PaymentWebhookEvent event) {
+        try {
+            webhookService.process(event.getId());
+        } catch (Exception e) {
+            // Database and lock errors are retried; a malformed order id or unknown status never succeeds
+            boolean retryable = !(e instanceof IllegalArgumentException);
+            logger.warn("Payment webhook {} ({} {}) attempt {} failed: {}", event.getId(), event.getProvider(),
+                    event.getEventType(), event.getAttempts(), e.getMessage());
+            webhookService.markFailed(event.getId(), e.getClass().getSimpleName() + ": " + e.getMessage(), retryable);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdown();
+    }
+}
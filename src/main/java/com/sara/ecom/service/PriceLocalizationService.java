@@ -0,0 +1,236 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.CartDto;
+import com.sara.ecom.dto.OrderDto;
+import com.sara.ecom.dto.PlainProductDto;
+import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.dto.ProductPageDto;
+import com.sara.ecom.dto.ProductSearchResultDto;
+import com.sara.ecom.dto.VariantDisplayInfo;
+import com.sara.ecom.dto.VariantSelectionDto;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Renders the INR prices of product, cart and order responses in the currency the client asked for
+ * (the {@code currency} request parameter or {@code X-Currency} header), with the currency multipliers
+ * applied and amounts rounded to the currency's minor unit (e.g. whole yen). One rate lookup per response;
+ * GST rates and percentage discounts are left as they are.
+ */
+@Service
+@RequiredArgsConstructor
+public class PriceLocalizationService {
+
+    public static final String CURRENCY_PARAM = "currency";
+    public static final String CURRENCY_HEADER = "X-Currency";
+    private static final String BASE_CURRENCY = "INR";
+
+    private final CurrencyService currencyService;
+
+    /**
+     * Currency requested by the client, upper-cased; null for INR or when none was given.
+     */
+    public static String requestedCurrency(HttpServletRequest request) {
+        String currency = request.getParameter(CURRENCY_PARAM);
+        if (currency == null || currency.isBlank()) {
+            currency = request.getHeader(CURRENCY_HEADER);
+        }
+        if (currency == null || currency.isBlank()) {
+            return null;
+        }
+        currency = currency.trim().toUpperCase(Locale.ROOT);
+        return BASE_CURRENCY.equals(currency) ? null : currency;
+    }
+
+    /**
+     * Product DTOs may be shared through the catalog snapshot, so these return converted copies.
+     */
+    public List<ProductDto> localizeProducts(List<ProductDto> products, String currency) {
+        Pricer pricer = pricer(currency);
+        if (pricer == null || products == null) {
+            return products;
+        }
+        return products.stream().map(p -> localize(p, pricer)).toList();
+    }
+
+    public ProductDto localize(ProductDto product, String currency) {
+        Pricer pricer = pricer(currency);
+        return pricer == null || product == null ? product : localize(product, pricer);
+    }
+
+    public ProductPageDto localize(ProductPageDto page, String currency) {
+        if (page != null) {
+            page.setItems(localizeProducts(page.getItems(), currency));
+        }
+        return page;
+    }
+
+    public ProductSearchResultDto localize(ProductSearchResultDto result, String currency) {
+        if (result != null) {
+            result.setItems(localizeProducts(result.getItems(), currency));
+        }
+        return result;
+    }
+
+    /**
+     * Cart DTOs are built per request and converted in place.
+     */
+    public CartDto localize(CartDto cart, String currency) {
+        Pricer pricer = pricer(currency);
+        if (pricer == null || cart == null) {
+            return cart;
+        }
+        cart.setSubtotal(pricer.apply(cart.getSubtotal()));
+        cart.setGst(pricer.apply(cart.getGst()));
+        cart.setShipping(pricer.apply(cart.getShipping()));
+        cart.setCouponDiscount(pricer.apply(cart.getCouponDiscount()));
+        cart.setTotal(pricer.apply(cart.getTotal()));
+        if (cart.getItems() != null) {
+            for (CartDto.CartItemDto item : cart.getItems()) {
+                item.setFabricPrice(pricer.apply(item.getFabricPrice()));
+                item.setDesignPrice(pricer.apply(item.getDesignPrice()));
+                item.setUnitPrice(pricer.apply(item.getUnitPrice()));
+                item.setTotalPrice(pricer.apply(item.getTotalPrice()));
+                item.setGstAmount(pricer.apply(item.getGstAmount()));
+                if (item.getVariantSelections() != null) {
+                    for (VariantSelectionDto selection : item.getVariantSelections().values()) {
+                        selection.setPriceModifier(pricer.apply(selection.getPriceModifier()));
+                    }
+                }
+            }
+        }
+        cart.setCurrency(pricer.currency);
+        return cart;
+    }
+
+    public List<OrderDto> localizeOrders(List<OrderDto> orders, String currency) {
+        if (pricer(currency) != null && orders != null) {
+            orders.forEach(order -> localize(order, currency));
+        }
+        return orders;
+    }
+
+    /**
+     * Order DTOs are built per request and converted in place. The payment amount is already in the
+     * payment currency and is left as it is.
+     */
+    public OrderDto localize(OrderDto order, String currency) {
+        Pricer pricer = pricer(currency);
+        if (pricer == null || order == null) {
+            return order;
+        }
+        order.setSubtotal(pricer.apply(order.getSubtotal()));
+        order.setGst(pricer.apply(order.getGst()));
+        order.setShipping(pricer.apply(order.getShipping()));
+        order.setTotal(pricer.apply(order.getTotal()));
+        order.setCouponDiscount(pricer.apply(order.getCouponDiscount()));
+        order.setRefundAmount(pricer.apply(order.getRefundAmount()));
+        if (order.getItems() != null) {
+            for (OrderDto.OrderItemDto item : order.getItems()) {
+                item.setPrice(pricer.apply(item.getPrice()));
+                item.setTotalPrice(pricer.apply(item.getTotalPrice()));
+                item.setGstAmount(pricer.apply(item.getGstAmount()));
+                if (item.getVariantSelections() != null) {
+                    for (VariantSelectionDto selection : item.getVariantSelections().values()) {
+                        selection.setPriceModifier(pricer.apply(selection.getPriceModifier()));
+                    }
+                }
+                if (item.getVariantDisplay() != null) {
+                    for (VariantDisplayInfo display : item.getVariantDisplay()) {
+                        display.setPriceModifier(pricer.apply(display.getPriceModifier()));
+                    }
+                }
+            }
+        }
+        order.setCurrency(pricer.currency);
+        return order;
+    }
+
+    private Pricer pricer(String currency) {
+        if (currency == null || BASE_CURRENCY.equals(currency)) {
+            return null;
+        }
+        BigDecimal rate = currencyService.getDisplayRate(currency);
+        if (rate == null) {
+            throw new RuntimeException("Unsupported currency: " + currency);
+        }
+        return new Pricer(currency, rate, fractionDigits(currency));
+    }
+
+    private static int fractionDigits(String currency) {
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 ? digits : 2;
+        } catch (IllegalArgumentException e) {
+            return 2;
+        }
+    }
+
+    /**
+     * Deep copy of the product (so no field can be missed) with every price converted on the copy.
+     */
+    private ProductDto localize(ProductDto source, Pricer pricer) {
+        ProductDto product = new ProductDto(source);
+        product.setDesignPrice(pricer.apply(product.getDesignPrice()));
+        product.setPrice(pricer.apply(product.getPrice()));
+        product.setPricePerMeter(pricer.apply(product.getPricePerMeter()));
+        product.setOriginalPrice(pricer.apply(product.getOriginalPrice()));
+        forEach(product.getVariants(), variant -> forEach(variant.getOptions(),
+                option -> option.setPriceModifier(pricer.apply(option.getPriceModifier()))));
+        forEach(product.getPricingSlabs(), slab -> {
+            if (!"PERCENTAGE".equals(slab.getDiscountType())) {
+                slab.setDiscountValue(pricer.apply(slab.getDiscountValue()));
+            }
+            slab.setPricePerMeter(pricer.apply(slab.getPricePerMeter()));
+        });
+        forEach(product.getRecommendedFabrics(), fabric -> convert(fabric, pricer));
+        if (product.getPlainProduct() != null) {
+            convert(product.getPlainProduct(), pricer);
+        }
+        product.setCurrency(pricer.currency);
+        return product;
+    }
+
+    /**
+     * Converts a fabric that is already a private copy in place.
+     */
+    private static void convert(PlainProductDto fabric, Pricer pricer) {
+        fabric.setPricePerMeter(pricer.apply(fabric.getPricePerMeter()));
+        forEach(fabric.getVariants(), variant -> forEach(variant.getOptions(),
+                option -> option.setPriceModifier(pricer.apply(option.getPriceModifier()))));
+    }
+
+    private static <T> void forEach(List<T> items, Consumer<T> action) {
+        if (items != null) {
+            for (T item : items) {
+                if (item != null) {
+                    action.accept(item);
+                }
+            }
+        }
+    }
+
+    private static final class Pricer {
+        private final String currency;
+        private final BigDecimal rate;
+        private final int scale;
+
+        private Pricer(String currency, BigDecimal rate, int scale) {
+            this.currency = currency;
+            this.rate = rate;
+            this.scale = scale;
+        }
+
+        BigDecimal apply(BigDecimal amount) {
+            return amount != null ? amount.multiply(rate).setScale(scale, RoundingMode.HALF_UP) : null;
+        }
+    }
+}
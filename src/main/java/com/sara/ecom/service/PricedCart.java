@@ -0,0 +1,83 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.CartDto;
+import com.sara.ecom.dto.CouponDto;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A cart priced in one pass: the cart DTO with per-line GST, shipping for the given state and the
+ * validated coupon, plus the category of every referenced product. Checkout consumes this directly
+ * instead of reloading products and recomputing the totals.
+ */
+public final class PricedCart {
+
+    private final CartDto cart;
+    private final String state;
+    private final CouponDto couponValidation; // null when no coupon was requested
+    private final Map<Long, Long> categoryIdByProductId;
+
+    PricedCart(CartDto cart, String state, CouponDto couponValidation, Map<Long, Long> categoryIdByProductId) {
+        this.cart = cart;
+        this.state = state;
+        this.couponValidation = couponValidation;
+        this.categoryIdByProductId = Collections.unmodifiableMap(categoryIdByProductId);
+    }
+
+    public CartDto getCart() {
+        return cart;
+    }
+
+    public boolean isEmpty() {
+        return cart.getItems() == null || cart.getItems().isEmpty();
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public BigDecimal getSubtotal() {
+        return cart.getSubtotal();
+    }
+
+    public BigDecimal getGst() {
+        return cart.getGst();
+    }
+
+    public BigDecimal getShipping() {
+        return cart.getShipping();
+    }
+
+    public BigDecimal getCouponDiscount() {
+        return cart.getCouponDiscount();
+    }
+
+    public BigDecimal getTotal() {
+        return cart.getTotal();
+    }
+
+    /**
+     * The applied coupon code, or null when none was requested or it did not validate.
+     */
+    public String getAppliedCouponCode() {
+        return cart.getAppliedCouponCode();
+    }
+
+    public CouponDto getCouponValidation() {
+        return couponValidation;
+    }
+
+    /**
+     * Category of a product in the cart, or null for unknown products and products without a category.
+     */
+    public Long getCategoryId(Long productId) {
+        return categoryIdByProductId.get(productId);
+    }
+
+    public boolean hasDigitalProducts() {
+        return cart.getItems() != null && cart.getItems().stream()
+                .anyMatch(item -> "DIGITAL".equals(item.getProductType()));
+    }
+}
@@ -0,0 +1,385 @@
+package com.sara.ecom.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable inverted index over the searchable text of ACTIVE products.
+ * Each query token matches index terms exactly, by prefix, or within a small edit distance
+ * (candidates are found through shared trigrams, then verified). Every token has to match
+ * for a product to be returned; scores add up the field weight of the best match per token.
+ * Updates produce a new index that copies only the postings and trigram lists they touch;
+ * everything else is shared with the previous index and never modified.
+ */
+final class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3.0f;
+    static final float CATEGORY_WEIGHT = 2.0f;
+    static final float HSN_WEIGHT = 2.0f;
+    static final float VARIANT_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.75f;
+    private static final float FUZZY_MATCH = 0.5f;
+    // Caps the work a one- or two-letter prefix can cause
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<Long, Document> documents;
+    private final Map<String, Map<Long, Float>> postings;
+    private final Map<String, List<String>> termsByTrigram;
+    private final String[] sortedTerms;
+
+    ProductSearchIndex(Collection<Document> documents) {
+        Map<Long, Document> byId = new HashMap<>();
+        documents.forEach(d -> byId.put(d.getProductId(), d));
+        this.documents = Collections.unmodifiableMap(byId);
+
+        Map<String, Map<Long, Float>> termPostings = new HashMap<>();
+        for (Document document : byId.values()) {
+            document.getTermWeights().forEach((term, weight) ->
+                    termPostings.computeIfAbsent(term, k -> new HashMap<>()).put(document.getProductId(), weight));
+        }
+        this.postings = termPostings;
+
+        Map<String, List<String>> trigrams = new HashMap<>();
+        for (String term : termPostings.keySet()) {
+            for (String trigram : trigrams(term)) {
+                trigrams.computeIfAbsent(trigram, k -> new ArrayList<>()).add(term);
+            }
+        }
+        this.termsByTrigram = trigrams;
+
+        this.sortedTerms = sortedTerms(termPostings.keySet());
+    }
+
+    private ProductSearchIndex(Map<Long, Document> documents, Map<String, Map<Long, Float>> postings,
+                               Map<String, List<String>> termsByTrigram, String[] sortedTerms) {
+        this.documents = documents;
+        this.postings = postings;
+        this.termsByTrigram = termsByTrigram;
+        this.sortedTerms = sortedTerms;
+    }
+
+    private static String[] sortedTerms(Collection<String> terms) {
+        String[] sorted = terms.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Returns an index with a batch of documents added or replaced and others removed.
+     * Only the postings of the terms those documents contain are copied and changed; the
+     * trigram lists and the sorted term list are only touched when terms appear or disappear.
+     * When a product is in the batch more than once, its last document wins.
+     */
+    ProductSearchIndex withChanges(Collection<Document> documentsToSave, Collection<Long> removedIds) {
+        Map<Long, Document> saved = new LinkedHashMap<>();
+        documentsToSave.forEach(d -> saved.put(d.getProductId(), d));
+        Map<Long, Document> byId = new HashMap<>(documents);
+        Map<String, Map<Long, Float>> termPostings = new HashMap<>(postings);
+        // Posting maps are shared with this index until copied here
+        Set<String> copiedTerms = new HashSet<>();
+
+        Set<Long> replacedIds = new HashSet<>(removedIds);
+        replacedIds.addAll(saved.keySet());
+        for (Long productId : replacedIds) {
+            Document old = byId.remove(productId);
+            if (old == null) {
+                continue;
+            }
+            for (String term : old.getTermWeights().keySet()) {
+                Map<Long, Float> termDocuments = writablePostings(termPostings, copiedTerms, term);
+                termDocuments.remove(productId);
+                if (termDocuments.isEmpty()) {
+                    termPostings.remove(term);
+                }
+            }
+        }
+        for (Document document : saved.values()) {
+            byId.put(document.getProductId(), document);
+            document.getTermWeights().forEach((term, weight) ->
+                    writablePostings(termPostings, copiedTerms, term).put(document.getProductId(), weight));
+        }
+
+        List<String> addedTerms = new ArrayList<>();
+        List<String> removedTerms = new ArrayList<>();
+        for (String term : copiedTerms) {
+            boolean before = postings.containsKey(term);
+            boolean after = termPostings.containsKey(term);
+            if (after && !before) {
+                addedTerms.add(term);
+            } else if (before && !after) {
+                removedTerms.add(term);
+            }
+        }
+        if (addedTerms.isEmpty() && removedTerms.isEmpty()) {
+            return new ProductSearchIndex(Collections.unmodifiableMap(byId), termPostings, termsByTrigram, sortedTerms);
+        }
+
+        Map<String, List<String>> trigrams = new HashMap<>(termsByTrigram);
+        Set<String> copiedTrigrams = new HashSet<>();
+        for (String term : removedTerms) {
+            for (String trigram : trigrams(term)) {
+                List<String> terms = writableTrigramTerms(trigrams, copiedTrigrams, trigram);
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+        for (String term : addedTerms) {
+            for (String trigram : trigrams(term)) {
+                writableTrigramTerms(trigrams, copiedTrigrams, trigram).add(term);
+            }
+        }
+        return new ProductSearchIndex(Collections.unmodifiableMap(byId), termPostings, trigrams,
+                sortedTerms(termPostings.keySet()));
+    }
+
+    private Map<Long, Float> writablePostings(Map<String, Map<Long, Float>> termPostings, Set<String> copiedTerms,
+                                              String term) {
+        if (copiedTerms.add(term)) {
+            Map<Long, Float> shared = postings.get(term);
+            termPostings.put(term, shared != null ? new HashMap<>(shared) : new HashMap<>());
+        }
+        return termPostings.computeIfAbsent(term, k -> new HashMap<>());
+    }
+
+    private List<String> writableTrigramTerms(Map<String, List<String>> trigrams, Set<String> copiedTrigrams,
+                                              String trigram) {
+        if (copiedTrigrams.add(trigram)) {
+            List<String> shared = termsByTrigram.get(trigram);
+            trigrams.put(trigram, shared != null ? new ArrayList<>(shared) : new ArrayList<>());
+        }
+        return trigrams.computeIfAbsent(trigram, k -> new ArrayList<>());
+    }
+
+    int getDocumentCount() {
+        return documents.size();
+    }
+
+    int getTermCount() {
+        return sortedTerms.length;
+    }
+
+    /**
+     * Scores every product matching all tokens of the query. Returns an empty map for a blank query.
+     */
+    Map<Long, Float> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Float> scores = null;
+        for (String token : tokens) {
+            Map<Long, Float> tokenScores = scoreToken(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Float> combined = new HashMap<>();
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    Float score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        combined.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Index terms starting with the last token of the input, most widely used first.
+     */
+    List<String> completeTerm(String input, int limit) {
+        List<String> tokens = tokenize(input);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String prefix = tokens.get(tokens.size() - 1);
+        List<String> terms = new ArrayList<>(prefixTerms(prefix));
+        terms.sort((a, b) -> Integer.compare(postings.get(b).size(), postings.get(a).size()));
+        return terms.size() > limit ? terms.subList(0, limit) : terms;
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> scores = new HashMap<>();
+        Map<Long, Float> exact = postings.get(token);
+        if (exact != null) {
+            addBest(scores, exact, EXACT_MATCH);
+        }
+        for (String term : prefixTerms(token)) {
+            if (!term.equals(token)) {
+                addBest(scores, postings.get(term), PREFIX_MATCH);
+            }
+        }
+        int maxEdits = maxEdits(token);
+        if (maxEdits > 0) {
+            for (String term : fuzzyCandidates(token)) {
+                if (!term.equals(token) && editDistance(token, term, maxEdits) <= maxEdits) {
+                    addBest(scores, postings.get(term), FUZZY_MATCH);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void addBest(Map<Long, Float> scores, Map<Long, Float> termPostings, float quality) {
+        termPostings.forEach((productId, weight) -> scores.merge(productId, weight * quality, Math::max));
+    }
+
+    private List<String> prefixTerms(String prefix) {
+        List<String> terms = new ArrayList<>();
+        int index = Arrays.binarySearch(sortedTerms, prefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        for (; index < sortedTerms.length && terms.size() < MAX_PREFIX_EXPANSIONS; index++) {
+            if (!sortedTerms[index].startsWith(prefix)) {
+                break;
+            }
+            terms.add(sortedTerms[index]);
+        }
+        return terms;
+    }
+
+    private Set<String> fuzzyCandidates(String token) {
+        List<String> tokenTrigrams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : tokenTrigrams) {
+            for (String term : termsByTrigram.getOrDefault(trigram, Collections.emptyList())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        // One edit touches at most three trigrams, so a close term keeps most of them
+        int required = Math.max(1, tokenTrigrams.size() - 3 * maxEdits(token));
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= required && Math.abs(term.length() - token.length()) <= maxEdits(token)) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() < 4) {
+            return 0;
+        }
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, giving up early once every cell of a row exceeds the limit.
+     */
+    static int editDistance(String a, String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Lower-cased words of at least two characters; single letters carry no signal.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Searchable form of one product: each term keeps the weight of the strongest field it appears in.
+     */
+    static final class Document {
+        private final Long productId;
+        private final Map<String, Float> termWeights;
+
+        private Document(Long productId, Map<String, Float> termWeights) {
+            this.productId = productId;
+            this.termWeights = Collections.unmodifiableMap(termWeights);
+        }
+
+        Long getProductId() {
+            return productId;
+        }
+
+        Map<String, Float> getTermWeights() {
+            return termWeights;
+        }
+
+        static Builder builder(Long productId) {
+            return new Builder(productId);
+        }
+
+        static final class Builder {
+            private final Long productId;
+            private final Map<String, Float> termWeights = new HashMap<>();
+
+            private Builder(Long productId) {
+                this.productId = productId;
+            }
+
+            Builder field(String text, float weight) {
+                for (String token : tokenize(text)) {
+                    termWeights.merge(token, weight, Math::max);
+                }
+                return this;
+            }
+
+            Document build() {
+                return new Document(productId, termWeights);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Category;
+import com.sara.ecom.entity.Product;
+import com.sara.ecom.repository.CategoryRepository;
+import com.sara.ecom.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Owns the in-memory {@link ProductSearchIndex}. The index is built lazily on first search.
+ * Product writes re-index just the affected documents and category writes drop the index
+ * (category names are indexed); both only take effect once the surrounding transaction commits.
+ * All product writes of one transaction are re-indexed together as one batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final AtomicReference<ProductSearchIndex> index = new AtomicReference<>();
+    // Writers do not take buildLock; they count here instead, and a build that overlapped a write
+    // answers its own search but is not installed, since it may predate that write
+    private final AtomicLong generation = new AtomicLong();
+    private final Object buildLock = new Object();
+    // Key of the pending changes bound to the current transaction
+    private final Object pendingChangesKey = new Object();
+
+    /**
+     * Relevance scores of the ACTIVE products matching every word of the query.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Float> search(String query) {
+        return getIndex().search(query);
+    }
+
+    /**
+     * Indexed words that complete the last word of the input, most common first.
+     */
+    @Transactional(readOnly = true)
+    public List<String> completeTerm(String input, int limit) {
+        return getIndex().completeTerm(input, limit);
+    }
+
+    /**
+     * Re-indexes a product once the current transaction commits. Products that are
+     * no longer ACTIVE are removed from the index.
+     */
+    public void productChanged(Long productId) {
+        TransactionHooks.collectAfterCommit(pendingChangesKey, PendingChanges::new,
+                changes -> changes.changed(productId), this::apply);
+    }
+
+    public void productsRemoved(Collection<Long> productIds) {
+        TransactionHooks.collectAfterCommit(pendingChangesKey, PendingChanges::new,
+                changes -> changes.removed(productIds), this::apply);
+    }
+
+    /**
+     * For category writes, which change indexed category names across many products: after commit
+     * the whole index is discarded and the next search builds a fresh one.
+     */
+    public void invalidate() {
+        TransactionHooks.afterCommit(() -> {
+            generation.incrementAndGet();
+            index.set(null);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        ProductSearchIndex current = index.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", current != null);
+        if (current != null) {
+            stats.put("documentCount", current.getDocumentCount());
+            stats.put("termCount", current.getTermCount());
+        }
+        return stats;
+    }
+
+    private ProductSearchIndex getIndex() {
+        ProductSearchIndex current = index.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            current = index.get();
+            if (current != null) {
+                return current;
+            }
+            long startGeneration = generation.get();
+            long start = System.currentTimeMillis();
+            Map<Long, String> categoryNames = new HashMap<>();
+            for (Category category : categoryRepository.findAll()) {
+                categoryNames.put(category.getId(), category.getName());
+            }
+            Map<Long, List<String>> variantTerms = groupVariantTerms(
+                    productRepository.findVariantSearchTermsByStatus(Product.Status.ACTIVE));
+            List<ProductSearchIndex.Document> documents = new ArrayList<>();
+            for (Product product : productRepository.findByStatus(Product.Status.ACTIVE)) {
+                documents.add(toDocument(product, categoryNames.get(product.getCategoryId()),
+                        variantTerms.getOrDefault(product.getId(), Collections.emptyList())));
+            }
+            current = new ProductSearchIndex(documents);
+            if (generation.get() == startGeneration) {
+                index.compareAndSet(null, current);
+            }
+            logger.info("Built product search index with {} products and {} terms in {} ms",
+                    current.getDocumentCount(), current.getTermCount(), System.currentTimeMillis() - start);
+            return current;
+        }
+    }
+
+    /**
+     * Re-reads the changed products with a fixed number of queries and applies them to the index in one step.
+     * Changed products that are no longer ACTIVE are removed.
+     */
+    private void apply(PendingChanges changes) {
+        if (index.get() == null) {
+            return;
+        }
+        List<ProductSearchIndex.Document> documents = new ArrayList<>();
+        Set<Long> removed = new HashSet<>(changes.removed);
+        if (!changes.changed.isEmpty()) {
+            List<Product> products = productRepository.findAllById(changes.changed).stream()
+                    .filter(p -> p.getStatus() == Product.Status.ACTIVE)
+                    .toList();
+            Set<Long> categoryIds = new HashSet<>();
+            products.forEach(p -> {
+                if (p.getCategoryId() != null) {
+                    categoryIds.add(p.getCategoryId());
+                }
+            });
+            Map<Long, String> categoryNames = new HashMap<>();
+            categoryRepository.findAllById(categoryIds).forEach(c -> categoryNames.put(c.getId(), c.getName()));
+            Map<Long, List<String>> variantTerms = products.isEmpty() ? Collections.emptyMap()
+                    : groupVariantTerms(productRepository.findVariantSearchTermsByProductIds(
+                            products.stream().map(Product::getId).toList()));
+            Set<Long> active = new HashSet<>();
+            for (Product product : products) {
+                active.add(product.getId());
+                documents.add(toDocument(product, categoryNames.get(product.getCategoryId()),
+                        variantTerms.getOrDefault(product.getId(), Collections.emptyList())));
+            }
+            changes.changed.stream().filter(id -> !active.contains(id)).forEach(removed::add);
+        }
+        update(current -> current.withChanges(documents, removed));
+    }
+
+    private void update(UnaryOperator<ProductSearchIndex> change) {
+        generation.incrementAndGet();
+        ProductSearchIndex current;
+        do {
+            current = index.get();
+            if (current == null) {
+                // Nothing loaded yet; the next search builds from the database anyway
+                return;
+            }
+        } while (!index.compareAndSet(current, change.apply(current)));
+    }
+
+    private static ProductSearchIndex.Document toDocument(Product product, String categoryName, List<String> variantTerms) {
+        ProductSearchIndex.Document.Builder builder = ProductSearchIndex.Document.builder(product.getId())
+                .field(product.getName(), ProductSearchIndex.NAME_WEIGHT)
+                .field(categoryName, ProductSearchIndex.CATEGORY_WEIGHT)
+                .field(product.getHsnCode(), ProductSearchIndex.HSN_WEIGHT)
+                .field(product.getDescription(), ProductSearchIndex.DESCRIPTION_WEIGHT);
+        variantTerms.forEach(term -> builder.field(term, ProductSearchIndex.VARIANT_WEIGHT));
+        return builder.build();
+    }
+
+    private static Map<Long, List<String>> groupVariantTerms(List<Object[]> rows) {
+        Map<Long, List<String>> terms = new HashMap<>();
+        for (Object[] row : rows) {
+            List<String> productTerms = terms.computeIfAbsent((Long) row[0], k -> new ArrayList<>());
+            for (int i = 1; i < row.length; i++) {
+                if (row[i] != null) {
+                    productTerms.add((String) row[i]);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Product changes of one transaction; the last change to a product wins.
+     */
+    private static final class PendingChanges {
+        private final Set<Long> changed = new LinkedHashSet<>();
+        private final Set<Long> removed = new HashSet<>();
+
+        void changed(Long productId) {
+            removed.remove(productId);
+            changed.add(productId);
+        }
+
+        void removed(Collection<Long> productIds) {
+            for (Long id : productIds) {
+                changed.remove(id);
+                removed.add(id);
+            }
+        }
+    }
+}
@@ -2,25 +2,32 @@ package com.sara.ecom.service;
 
 import com.sara.ecom.dto.PlainProductDto;
 import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.dto.ProductPageDto;
 import com.sara.ecom.dto.ProductRequest;
+import com.sara.ecom.dto.ProductSearchResultDto;
 import com.sara.ecom.dto.CustomConfigDto;
 import com.sara.ecom.entity.*;
 import com.sara.ecom.repository.CategoryRepository;
 import com.sara.ecom.repository.ProductRepository;
+import com.sara.ecom.repository.ProductSpecifications;
+import com.sara.ecom.repository.ProductSpecifications.SortField;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.net.URL;
 import java.net.HttpURLConnection;
@@ -30,6 +37,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,6 +68,18 @@ public class ProductService {
     @Autowired
     private CloudinaryService cloudinaryService;
     
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+    
+    @Autowired
+    private HomepageSnapshotService homepageSnapshotService;
+    
+    @Autowired
+    private ProductSearchService productSearchService;
+    
+    @Autowired
+    private DigitalDownloadService digitalDownloadService;
+    
     /**
      * Get all products matching the given filters.
      * Note: This method only returns Product entities, never CustomProduct entities.
@@ -87,6 +107,11 @@ public class ProductService {
         Product.Status statusEnum = status != null ? Product.Status.valueOf(status.toUpperCase()) : null;
         Product.ProductType typeEnum = type != null ? Product.ProductType.valueOf(type.toUpperCase()) : null;
         
+        // Storefront listings of active products are served from the in-memory catalog snapshot
+        if (!isAdmin && statusEnum == Product.Status.ACTIVE) {
+            return getActiveProductsFromSnapshot(typeEnum, categoryId, userEmail);
+        }
+        
         if (statusEnum != null && typeEnum != null && categoryId != null) {
             products = productRepository.findByStatusAndTypeAndCategoryId(statusEnum, typeEnum, categoryId);
         } else if (statusEnum != null && typeEnum != null) {
@@ -105,13 +130,14 @@ public class ProductService {
             products = productRepository.findAllWithImages();
         }
         
-        List<ProductDto> result = products.stream().map(this::toDto).collect(Collectors.toList());
+        List<ProductDto> result = toDtos(products);
         
         // Filter products by category accessibility (always filter, even if no userEmail - show only public)
         // Admins can see all products regardless of restrictions
         if (!isAdmin) {
             result = result.stream()
-                    .filter(p -> isProductAccessible(p.getId(), userEmail, false))
+                    .filter(p -> p.getCategoryId() == null
+                            || categoryService.isCategoryAccessible(p.getCategoryId(), userEmail))
                     .collect(Collectors.toList());
         }
         // If isAdmin is true, return all products without filtering
@@ -139,6 +165,208 @@ public class ProductService {
         return result;
     }
     
+    /**
+     * Same filters as getAllProducts for ACTIVE products, evaluated against the catalog snapshot.
+     */
+    private List<ProductDto> getActiveProductsFromSnapshot(Product.ProductType typeEnum, Long categoryId, String userEmail) {
+        CatalogSnapshot snapshot = getCatalogSnapshot();
+        String typeName = typeEnum != null ? typeEnum.name() : null;
+        // PLAIN listings without a category only show fabric products (see getAllProducts)
+        java.util.Set<Long> fabricCategoryIds = typeEnum == Product.ProductType.PLAIN && categoryId == null
+                ? snapshot.getActiveFabricCategoryIds() : null;
+        List<ProductDto> candidates = categoryId != null
+                ? snapshot.getProductsByCategoryId(categoryId) : snapshot.getProducts();
+        
+        return candidates.stream()
+                .filter(p -> typeName == null || typeName.equals(p.getType()))
+                .filter(p -> fabricCategoryIds == null
+                        || (p.getCategoryId() != null && fabricCategoryIds.contains(p.getCategoryId())))
+                .filter(p -> snapshot.isProductAccessible(p, userEmail))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Brings the in-memory catalog views (listing snapshot, search index, category tree counts,
+     * homepage product cards) up to date with a saved product once the transaction commits.
+     */
+    private void publishProductSaved(ProductDto dto) {
+        catalogSnapshotService.productSaved(dto);
+        productSearchService.productChanged(dto.getId());
+        categoryService.invalidateCategoryTree();
+        homepageSnapshotService.invalidate();
+    }
+    
+    private void publishProductsRemoved(List<Long> ids) {
+        catalogSnapshotService.productsRemoved(ids);
+        productSearchService.productsRemoved(ids);
+        categoryService.invalidateCategoryTree();
+        homepageSnapshotService.invalidate();
+    }
+    
+    private CatalogSnapshot getCatalogSnapshot() {
+        return catalogSnapshotService.getSnapshot(this::toDtos);
+    }
+    
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_SUGGESTIONS = 10;
+    
+    /**
+     * Full-text search over ACTIVE products: name, category, HSN code, variant options and
+     * description, tolerant to small typos and unfinished last words. Results are ranked by
+     * relevance (ties by id) and restricted to categories the caller can access.
+     * @param categoryId also matches products in sub-categories
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchResultDto searchProducts(String query, String type, Long categoryId,
+                                                 Integer limit, Integer offset,
+                                                 String userEmail, boolean isAdmin) {
+        int pageLimit = limit == null || limit < 1 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+        int pageOffset = offset == null || offset < 0 ? 0 : offset;
+        String typeName = type != null ? Product.ProductType.valueOf(type.toUpperCase()).name() : null;
+        
+        Map<Long, Float> scores = productSearchService.search(query);
+        CatalogSnapshot snapshot = getCatalogSnapshot();
+        List<ProductDto> visible = scores.keySet().stream()
+                .map(snapshot::getProduct)
+                .filter(p -> p != null && (isAdmin || snapshot.isProductAccessible(p, userEmail)))
+                .sorted((a, b) -> {
+                    int byScore = Float.compare(scores.get(b.getId()), scores.get(a.getId()));
+                    return byScore != 0 ? byScore : Long.compare(a.getId(), b.getId());
+                })
+                .collect(Collectors.toList());
+        
+        Map<String, Long> typeCounts = visible.stream()
+                .filter(p -> p.getType() != null)
+                .collect(Collectors.groupingBy(ProductDto::getType, java.util.TreeMap::new, Collectors.counting()));
+        List<ProductSearchResultDto.CategoryFacet> categoryFacets = visible.stream()
+                .filter(p -> p.getCategoryId() != null)
+                .collect(Collectors.groupingBy(ProductDto::getCategoryId, Collectors.counting()))
+                .entrySet().stream()
+                .map(e -> {
+                    CatalogSnapshot.CategoryNode category = snapshot.getCategory(e.getKey());
+                    return new ProductSearchResultDto.CategoryFacet(
+                            e.getKey(), category != null ? category.getName() : null, e.getValue());
+                })
+                .sorted((a, b) -> Long.compare(b.getCount(), a.getCount()))
+                .collect(Collectors.toList());
+        
+        java.util.Set<Long> categoryIds = categoryId != null
+                ? new java.util.HashSet<>(snapshot.getDescendantCategoryIds(categoryId)) : null;
+        List<ProductDto> filtered = visible.stream()
+                .filter(p -> typeName == null || typeName.equals(p.getType()))
+                .filter(p -> categoryIds == null || categoryIds.contains(p.getCategoryId()))
+                .collect(Collectors.toList());
+        
+        return ProductSearchResultDto.builder()
+                .query(query)
+                .total(filtered.size())
+                .offset(pageOffset)
+                .limit(pageLimit)
+                .items(filtered.stream().skip(pageOffset).limit(pageLimit).collect(Collectors.toList()))
+                .typeCounts(typeCounts)
+                .categories(categoryFacets)
+                .build();
+    }
+    
+    /**
+     * Autocomplete for the search box: completions of the last typed word plus the names
+     * of the best matching products the caller can see.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<String>> suggestProducts(String query, String userEmail, boolean isAdmin) {
+        Map<String, List<String>> suggestions = new HashMap<>();
+        suggestions.put("terms", productSearchService.completeTerm(query, MAX_SUGGESTIONS));
+        suggestions.put("products", searchProducts(query, null, null, MAX_SUGGESTIONS, 0, userEmail, isAdmin)
+                .getItems().stream().map(ProductDto::getName).distinct().collect(Collectors.toList()));
+        return suggestions;
+    }
+    
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    /**
+     * Keyset-paginated product search. Filtering, the category subtree, price range and ordering
+     * are all evaluated by the database, so each page costs the same regardless of catalog size.
+     * Non-admin callers only see ACTIVE products in categories they can access.
+     * @param sort price, createdAt or name (default createdAt)
+     * @param direction asc or desc (default desc for createdAt, asc otherwise)
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductsPage(String status, String type, Long categoryId,
+                                          BigDecimal minPrice, BigDecimal maxPrice,
+                                          String sort, String direction, Integer size, String cursor,
+                                          String userEmail, boolean isAdmin) {
+        SortField sortField = SortField.from(sort);
+        boolean ascending = direction != null
+                ? !"desc".equalsIgnoreCase(direction.trim())
+                : sortField != SortField.CREATED_AT;
+        int pageSize = size == null || size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        
+        Product.Status statusEnum = isAdmin
+                ? (status != null ? Product.Status.valueOf(status.toUpperCase()) : null)
+                : Product.Status.ACTIVE;
+        Product.ProductType typeEnum = type != null ? Product.ProductType.valueOf(type.toUpperCase()) : null;
+        
+        List<Specification<Product>> specs = new ArrayList<>();
+        specs.add(ProductSpecifications.hasStatus(statusEnum));
+        specs.add(ProductSpecifications.hasType(typeEnum));
+        specs.add(ProductSpecifications.priceBetween(minPrice, maxPrice));
+        if (categoryId != null || !isAdmin) {
+            // Category tree and access rules come from memory; only the id lists go to SQL
+            CatalogSnapshot snapshot = getCatalogSnapshot();
+            if (categoryId != null) {
+                specs.add(ProductSpecifications.inCategories(snapshot.getDescendantCategoryIds(categoryId)));
+            }
+            if (!isAdmin) {
+                specs.add(ProductSpecifications.uncategorizedOrInCategories(snapshot.getAccessibleCategoryIds(userEmail)));
+            }
+        }
+        specs.add(ProductSpecifications.orderedBy(sortField, ascending));
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor, sortField, ascending);
+            specs.add(ProductSpecifications.after(sortField, ascending, sortField.parse(parts[3]), Long.parseLong(parts[2])));
+        }
+        
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<Product> rows = productRepository.findBy(Specification.allOf(specs), q -> q.limit(pageSize + 1).all());
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        return ProductPageDto.builder()
+                .items(toDtos(pageRows))
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(sortField, ascending, pageRows.get(pageRows.size() - 1)) : null)
+                .size(pageRows.size())
+                .sort(sortField.name())
+                .direction(ascending ? "asc" : "desc")
+                .build();
+    }
+    
+    // Cursor layout: SORT_FIELD|direction|lastId|lastSortValue (URL-safe base64)
+    private String encodeCursor(SortField sortField, boolean ascending, Product last) {
+        String raw = sortField.name() + "|" + (ascending ? "asc" : "desc") + "|" + last.getId() + "|"
+                + sortField.valueOf(last);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor, SortField sortField, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        if (parts.length != 4 || !parts[2].matches("\\d+")) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        if (!parts[0].equals(sortField.name()) || !parts[1].equals(ascending ? "asc" : "desc")) {
+            throw new RuntimeException("Cursor does not match the requested sort; start again without a cursor");
+        }
+        return parts;
+    }
+    
     /**
      * Checks if a product is accessible to a user based on its category's email restrictions.
      */
@@ -166,9 +394,8 @@ public class ProductService {
             return true;
         }
         
-        // Check category accessibility
-        Category category = categoryRepository.findById(product.getCategoryId()).orElse(null);
-        return categoryService.isCategoryAccessible(category, userEmail, false);
+        // Check category accessibility against the compiled access rules
+        return categoryService.isCategoryAccessible(product.getCategoryId(), userEmail);
     }
     
     @Transactional(readOnly = true)
@@ -243,7 +470,7 @@ public class ProductService {
     
     public List<ProductDto> getProductsByIds(List<Long> ids) {
         List<Product> products = productRepository.findByIdIn(ids);
-        return products.stream().map(this::toDto).collect(Collectors.toList());
+        return toDtos(products);
     }
     
     /**
@@ -268,23 +495,21 @@ public class ProductService {
      * @param isAdmin If true, admin can see all products regardless of restrictions
      */
     public List<ProductDto> getProductsByCategoryWithChildren(Long categoryId, String userEmail, boolean isAdmin) {
-        // Get all category IDs including descendants
-        List<Long> allCategoryIds = categoryService.getAllDescendantCategoryIds(categoryId);
+        // Only ACTIVE products are listed here, so the catalog snapshot covers this completely
+        CatalogSnapshot snapshot = getCatalogSnapshot();
         
-        // Fetch all products in these categories
-        List<Product> products = productRepository.findByCategoryIdsAndStatus(
-                allCategoryIds, Product.Status.ACTIVE);
-        
-        List<ProductDto> result = products.stream().map(this::toDto).collect(Collectors.toList());
+        List<ProductDto> result = new ArrayList<>();
+        for (Long id : snapshot.getDescendantCategoryIds(categoryId)) {
+            result.addAll(snapshot.getProductsByCategoryId(id));
+        }
         
         // Filter products by category accessibility (always filter, even if no userEmail - show only public)
         // Admins can see all products regardless of restrictions
         if (!isAdmin) {
             result = result.stream()
-                    .filter(p -> isProductAccessible(p.getId(), userEmail, false))
+                    .filter(p -> snapshot.isProductAccessible(p, userEmail))
                     .collect(Collectors.toList());
         }
-        // If isAdmin is true, return all products without filtering
         
         return result;
     }
@@ -301,6 +526,7 @@ public class ProductService {
         Product product = new Product();
         mapRequestToProduct(request, product);
         Product saved = productRepository.save(product);
+        publishProductSaved(toDto(saved));
         return toDtoWithDetails(saved);
     }
 
@@ -391,6 +617,7 @@ public class ProductService {
         product.setSlug(finalSlug);
         
         Product saved = productRepository.save(product);
+        publishProductSaved(toDto(saved));
         return toDtoWithDetails(saved);
     }
     
@@ -542,6 +769,7 @@ public class ProductService {
         
         mapRequestToProduct(request, product);
         Product saved = productRepository.save(product);
+        publishProductSaved(toDto(saved));
         return toDtoWithDetails(saved);
     }
     
@@ -603,6 +831,7 @@ public class ProductService {
             if (digitalPrice != null && !digitalPrice.equals(existingDigital.getPrice())) {
                 existingDigital.setPrice(digitalPrice);
                 existingDigital = productRepository.save(existingDigital);
+                publishProductSaved(toDto(existingDigital));
             }
             return toDtoWithDetails(existingDigital);
         }
@@ -685,6 +914,7 @@ public class ProductService {
         digitalProduct.setSlug(slug);
         
         Product saved = productRepository.save(digitalProduct);
+        publishProductSaved(toDto(saved));
         return toDtoWithDetails(saved);
     }
     
@@ -747,6 +977,7 @@ public class ProductService {
             throw new RuntimeException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        publishProductsRemoved(List.of(id));
     }
     
     /**
@@ -762,6 +993,7 @@ public class ProductService {
             throw new RuntimeException("Some products were not found");
         }
         productRepository.deleteAll(products);
+        publishProductsRemoved(ids);
     }
     
     /**
@@ -781,6 +1013,7 @@ public class ProductService {
         }
         
         product = productRepository.save(product);
+        publishProductSaved(toDto(product));
         return toDtoWithDetails(product);
     }
     
@@ -798,6 +1031,11 @@ public class ProductService {
         }
         products.forEach(product -> product.setStatus(targetStatus));
         productRepository.saveAll(products);
+        if (targetStatus == Product.Status.ACTIVE) {
+            toDtos(products).forEach(this::publishProductSaved);
+        } else {
+            publishProductsRemoved(ids);
+        }
     }
     
     /**
@@ -806,7 +1044,7 @@ public class ProductService {
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProductsForExport() {
         List<Product> products = productRepository.findAllWithImages();
-        return products.stream().map(this::toDtoWithDetails).collect(Collectors.toList());
+        return toDtosWithDetails(products);
     }
     
     /**
@@ -1344,6 +1582,28 @@ public class ProductService {
     }
     
     private ProductDto toDto(Product product) {
+        return toDtos(List.of(product)).get(0);
+    }
+    
+    /**
+     * Converts products to listing DTOs. Category names are looked up with a single query for the
+     * whole list; child collections are loaded in batches (see @BatchSize on Product), so the
+     * query count does not grow with the number of products.
+     */
+    private List<ProductDto> toDtos(List<Product> products) {
+        List<Long> categoryIds = products.stream()
+                .map(Product::getCategoryId)
+                .filter(id -> id != null)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, String> categoryNames = new HashMap<>();
+        if (!categoryIds.isEmpty()) {
+            categoryRepository.findAllById(categoryIds).forEach(cat -> categoryNames.put(cat.getId(), cat.getName()));
+        }
+        return products.stream().map(p -> toDto(p, categoryNames)).collect(Collectors.toList());
+    }
+    
+    private ProductDto toDto(Product product, Map<Long, String> categoryNames) {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
@@ -1363,8 +1623,7 @@ public class ProductService {
         
         // Get category name
         if (product.getCategoryId() != null) {
-            categoryRepository.findById(product.getCategoryId())
-                    .ifPresent(cat -> dto.setCategoryName(cat.getName()));
+            dto.setCategoryName(categoryNames.get(product.getCategoryId()));
         }
         
         // Images (for backward compatibility)
@@ -1393,7 +1652,9 @@ public class ProductService {
             case DESIGNED:
                 dto.setDesignPrice(product.getDesignPrice());
                 dto.setDesignId(product.getDesignId());
-                dto.setRecommendedFabricIds(product.getRecommendedFabricIds());
+                // Copy so the DTO stays usable outside the session (it may live in the catalog snapshot)
+                dto.setRecommendedFabricIds(product.getRecommendedFabricIds() != null
+                        ? new ArrayList<>(product.getRecommendedFabricIds()) : null);
                 // Map pricing slabs
                 if (product.getPricingSlabs() != null && !product.getPricingSlabs().isEmpty()) {
                     dto.setPricingSlabs(product.getPricingSlabs().stream()
@@ -1432,8 +1693,45 @@ public class ProductService {
     }
     
     private ProductDto toDtoWithDetails(Product product) {
-        ProductDto dto = toDto(product);
+        return toDtosWithDetails(List.of(product)).get(0);
+    }
+    
+    /**
+     * Converts products to full detail DTOs. Recommended fabrics and linked plain products for
+     * the whole list are each fetched with one IN query instead of once per product.
+     */
+    private List<ProductDto> toDtosWithDetails(List<Product> products) {
+        List<ProductDto> dtos = toDtos(products);
+        
+        // recommendedFabricIds now points to Product IDs (type=PLAIN), not PlainProduct IDs
+        List<Long> fabricIds = products.stream()
+                .filter(p -> p.getType() == Product.ProductType.DESIGNED && p.getRecommendedFabricIds() != null)
+                .flatMap(p -> p.getRecommendedFabricIds().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Product> fabricsById = new HashMap<>();
+        if (!fabricIds.isEmpty()) {
+            productRepository.findByIdIn(fabricIds).forEach(p -> fabricsById.put(p.getId(), p));
+        }
+        
+        List<Long> plainProductIds = products.stream()
+                .filter(p -> p.getType() == Product.ProductType.PLAIN && p.getPlainProductId() != null)
+                .map(Product::getPlainProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, PlainProductDto> plainProductsById = new HashMap<>();
+        if (!plainProductIds.isEmpty()) {
+            plainProductService.getPlainProductsByIds(plainProductIds).forEach(pp -> plainProductsById.put(pp.getId(), pp));
+        }
         
+        for (int i = 0; i < products.size(); i++) {
+            addDetails(products.get(i), dtos.get(i), fabricsById, plainProductsById);
+        }
+        return dtos;
+    }
+    
+    private void addDetails(Product product, ProductDto dto,
+                            Map<Long, Product> fabricsById, Map<Long, PlainProductDto> plainProductsById) {
         // Detail sections
         if (product.getDetailSections() != null) {
             dto.setDetailSections(product.getDetailSections().stream()
@@ -1489,10 +1787,12 @@ public class ProductService {
         if (product.getType() == Product.ProductType.DESIGNED && 
             product.getRecommendedFabricIds() != null && 
             !product.getRecommendedFabricIds().isEmpty()) {
-            // Fetch products where type=PLAIN and IDs match recommendedFabricIds
-            List<Product> fabricProducts = productRepository.findByIdIn(product.getRecommendedFabricIds())
-                .stream()
-                .filter(p -> p.getType() == Product.ProductType.PLAIN)
+            // Products where type=PLAIN and IDs match recommendedFabricIds, ordered by id
+            List<Product> fabricProducts = product.getRecommendedFabricIds().stream()
+                .distinct()
+                .map(fabricsById::get)
+                .filter(p -> p != null && p.getType() == Product.ProductType.PLAIN)
+                .sorted(java.util.Comparator.comparing(Product::getId))
                 .collect(Collectors.toList());
             
             // Convert Product entities to PlainProductDto format for frontend compatibility
@@ -1515,15 +1815,16 @@ public class ProductService {
         
         // Load related data for PLAIN products
         if (product.getType() == Product.ProductType.PLAIN && product.getPlainProductId() != null) {
-            PlainProductDto plainProduct = plainProductService.getPlainProductById(product.getPlainProductId());
+            PlainProductDto plainProduct = plainProductsById.get(product.getPlainProductId());
+            if (plainProduct == null) {
+                throw new RuntimeException("Plain product not found with id: " + product.getPlainProductId());
+            }
             dto.setPlainProduct(plainProduct);
             // If unitExtension not explicitly set on product, inherit from plain product
             if (dto.getUnitExtension() == null && plainProduct.getUnitExtension() != null) {
                 dto.setUnitExtension(plainProduct.getUnitExtension());
             }
         }
-        
-        return dto;
     }
     
     private ProductDto.DetailSectionDto toDetailSectionDto(ProductDetailSection section) {
@@ -1648,14 +1949,12 @@ public class ProductService {
     }
     
     /**
-     * Generates password-protected ZIP from digital product files and uploads to Cloudinary.
-     * Returns the Cloudinary URL of the uploaded ZIP.
+     * Source files of a digital product's download ZIP, in ZIP order: the digital file(s) from fileUrl,
+     * then the product's gallery images, then the images of the design product it was created from.
+     * The product must have been loaded with its images.
      */
-    @Transactional
-    public String generatePasswordProtectedZip(Long productId, String password) throws IOException {
-        Product product = productRepository.findByIdWithImages(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        
+    @Transactional(readOnly = true)
+    public List<String> getDigitalFileUrls(Product product) {
         if (product.getType() != Product.ProductType.DIGITAL) {
             throw new RuntimeException("Product is not a Digital Product");
         }
@@ -1729,99 +2028,13 @@ public class ProductService {
             }
         }
         
-        if (fileUrls.isEmpty()) {
-            throw new RuntimeException("No valid file URLs found");
-        }
-        if (password == null || password.trim().isEmpty()) {
-            throw new RuntimeException("ZIP password cannot be null or empty");
-        }
-        char[] passwordChars = password.trim().toCharArray();
-        
-        // Create temporary directory for ZIP creation
-        java.io.File tempDir = new java.io.File(System.getProperty("java.io.tmpdir"));
-        java.io.File tempZipFile = java.io.File.createTempFile("digital_product_", ".zip", tempDir);
-        
-        try {
-            // Use Zip4j to create password-protected ZIP (password must be set at construction)
-            net.lingala.zip4j.ZipFile zipFile = new net.lingala.zip4j.ZipFile(tempZipFile, passwordChars);
-            net.lingala.zip4j.model.ZipParameters zipParameters = new net.lingala.zip4j.model.ZipParameters();
-            zipParameters.setEncryptFiles(true);
-            zipParameters.setEncryptionMethod(net.lingala.zip4j.model.enums.EncryptionMethod.ZIP_STANDARD);
-            
-            // Download and add each file to ZIP
-            for (int i = 0; i < fileUrls.size(); i++) {
-                String url = fileUrls.get(i);
-                try {
-                    URL fileUrlObj = URI.create(url).toURL();
-                    HttpURLConnection connection = (HttpURLConnection) fileUrlObj.openConnection();
-                    connection.setRequestMethod("GET");
-                    connection.setConnectTimeout(10000);
-                    connection.setReadTimeout(30000);
-                    connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-                    
-                    if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-                        continue;
-                    }
-                    
-                    String extension = "";
-                    if (url.contains(".")) {
-                        String[] parts = url.split("\\.");
-                        if (parts.length > 1) {
-                            extension = "." + parts[parts.length - 1].split("\\?")[0];
-                        }
-                    }
-                    if (extension.isEmpty()) {
-                        extension = ".png";
-                    }
-                    
-                    // Download file to temporary location
-                    java.io.File tempFile = java.io.File.createTempFile("download_", extension, tempDir);
-                    try (InputStream inputStream = connection.getInputStream();
-                         java.io.FileOutputStream outputStream = new java.io.FileOutputStream(tempFile)) {
-                        byte[] buffer = new byte[8192];
-                        int bytesRead;
-                        while ((bytesRead = inputStream.read(buffer)) != -1) {
-                            outputStream.write(buffer, 0, bytesRead);
-                        }
-                    }
-                    
-                    // Add file to ZIP with password protection
-                    zipFile.addFile(tempFile, zipParameters);
-                    
-                    // Clean up temp file
-                    tempFile.delete();
-                } catch (Exception e) {
-                    System.err.println("Failed to download file from URL: " + url + " - " + e.getMessage());
-                }
-            }
-            
-            // Close ZIP file before reading bytes
-            zipFile.close();
-            
-            // Read ZIP file bytes
-            byte[] zipBytes = java.nio.file.Files.readAllBytes(tempZipFile.toPath());
-            
-            if (zipBytes.length == 0) {
-                throw new RuntimeException("Failed to create ZIP file");
-            }
-            
-            // Upload ZIP to Cloudinary
-            String zipFileName = product.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_files.zip";
-            String cloudinaryUrl = cloudinaryService.uploadFile(zipBytes, zipFileName, "digital_product_zips");
-            
-            return cloudinaryUrl;
-        } finally {
-            // Clean up temp ZIP file
-            if (tempZipFile.exists()) {
-                tempZipFile.delete();
-            }
-        }
+        return fileUrls;
     }
     
     /**
      * Generates ZIP from digital product files and uploads to Cloudinary (without password).
      * Returns the Cloudinary URL of the uploaded ZIP.
-     * @deprecated Use generatePasswordProtectedZip instead for digital products
+     * @deprecated Digital product ZIPs are built per order by DigitalZipWorker
      */
     @Transactional
     public String generateAndUploadDigitalZip(Long productId) throws IOException {
@@ -1953,12 +2166,12 @@ public class ProductService {
     
     /**
      * Downloads digital product files as a ZIP archive.
-     * Fetches all files from Cloudinary URLs and bundles them into a ZIP.
+     * Fetches all files from Cloudinary URLs and streams them into a ZIP as they arrive.
      * For design products, includes ALL images from the source design product.
      * If orderItemId is provided and has digitalDownloadUrl, returns redirect to that URL.
      */
     @Transactional(readOnly = true)
-    public ResponseEntity<Resource> downloadDigitalProductFiles(Long productId) {
+    public ResponseEntity<StreamingResponseBody> downloadDigitalProductFiles(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
         
@@ -2040,75 +2253,7 @@ public class ProductService {
             throw new RuntimeException("No valid file URLs found");
         }
         
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ZipOutputStream zos = new ZipOutputStream(baos);
-            
-            for (int i = 0; i < fileUrls.size(); i++) {
-                String url = fileUrls.get(i);
-                try {
-                    // Download file from URL
-                    URL fileUrlObj = URI.create(url).toURL();
-                    HttpURLConnection connection = (HttpURLConnection) fileUrlObj.openConnection();
-                    connection.setRequestMethod("GET");
-                    connection.setConnectTimeout(10000);
-                    connection.setReadTimeout(30000);
-                    connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-                    
-                    if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-                        continue; // Skip failed downloads
-                    }
-                    
-                    // Get file extension from URL or use default
-                    String fileName = "file_" + (i + 1);
-                    String extension = "";
-                    if (url.contains(".")) {
-                        String[] parts = url.split("\\.");
-                        if (parts.length > 1) {
-                            extension = "." + parts[parts.length - 1].split("\\?")[0]; // Remove query params
-                        }
-                    }
-                    if (extension.isEmpty()) {
-                        extension = ".png"; // Default extension
-                    }
-                    fileName += extension;
-                    
-                    // Add to ZIP
-                    ZipEntry entry = new ZipEntry(fileName);
-                    zos.putNextEntry(entry);
-                    
-                    InputStream inputStream = connection.getInputStream();
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = inputStream.read(buffer)) != -1) {
-                        zos.write(buffer, 0, bytesRead);
-                    }
-                    inputStream.close();
-                    zos.closeEntry();
-                } catch (Exception e) {
-                    // Log error but continue with other files
-                    System.err.println("Failed to download file from URL: " + url + " - " + e.getMessage());
-                }
-            }
-            
-            zos.close();
-            byte[] zipBytes = baos.toByteArray();
-            
-            if (zipBytes.length == 0) {
-                throw new RuntimeException("Failed to download any files");
-            }
-            
-            ByteArrayResource resource = new ByteArrayResource(zipBytes);
-            
-            String zipFileName = product.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_files.zip";
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + zipFileName + "\"")
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .contentLength(zipBytes.length)
-                    .body(resource);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to create ZIP file: " + e.getMessage(), e);
-        }
+        String zipFileName = product.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_files.zip";
+        return digitalDownloadService.zip(fileUrls, zipFileName);
     }
 }
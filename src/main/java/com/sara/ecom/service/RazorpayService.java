@@ -8,6 +8,7 @@ import com.sara.ecom.dto.PaymentResponse;
 import com.sara.ecom.dto.PaymentVerificationRequest;
 import com.sara.ecom.entity.PaymentConfig;
 import com.sara.ecom.enums.PaymentGateway;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -22,6 +23,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
@@ -32,15 +35,41 @@ public class RazorpayService implements PaymentService {
     @Autowired
     private PaymentConfigService paymentConfigService;
     
-    private RazorpayClient getRazorpayClient() throws RazorpayException {
-        String keyId = getKeyId();
-        String keySecret = getKeySecret();
-        
+    // Client for the configured keys, rebuilt only when the keys change
+    private final AtomicReference<RazorpayClient> client = new AtomicReference<>();
+    
+    @PostConstruct
+    void watchKeys() {
+        paymentConfigService.addChangeListener((previous, current) -> {
+            if (previous != null
+                    && Objects.equals(previous.getRazorpayKeyId(), current.getRazorpayKeyId())
+                    && Objects.equals(previous.getRazorpayKeySecret(), current.getRazorpayKeySecret())) {
+                return;
+            }
+            client.set(buildClient(current.getRazorpayKeyId(), current.getRazorpayKeySecret()));
+        });
+    }
+    
+    private RazorpayClient buildClient(String keyId, String keySecret) {
         if (keyId == null || keySecret == null || keyId.trim().isEmpty() || keySecret.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new RazorpayClient(keyId, keySecret);
+        } catch (RazorpayException e) {
+            logger.error("Failed to create Razorpay client", e);
+            return null;
+        }
+    }
+    
+    private RazorpayClient getRazorpayClient() {
+        // Loads the current config, which swaps in a new client first if the keys changed
+        paymentConfigService.getConfigEntity();
+        RazorpayClient razorpay = client.get();
+        if (razorpay == null) {
             throw new RuntimeException("Razorpay is not configured. Please set API keys in admin panel.");
         }
-        
-        return new RazorpayClient(keyId, keySecret);
+        return razorpay;
     }
     
     private String getKeyId() {
@@ -1,5 +1,6 @@
 package com.sara.ecom.service;
 
+import com.sara.ecom.dto.ShippingQuoteDto;
 import com.sara.ecom.dto.ShippingRuleDto;
 import com.sara.ecom.dto.ShippingRuleRequest;
 import com.sara.ecom.entity.ShippingRange;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,110 +26,41 @@ public class ShippingService {
     @Autowired
     private ShippingRangeRepository shippingRangeRepository;
     
+    private static final int MAX_BULK_QUOTES = 1000;
+    
+    // Compiled rule table, rebuilt on the first quote after a rule change
+    private final ConfigCache<ShippingTable> shippingTable = new ConfigCache<>("shipping table",
+            () -> new ShippingTable(shippingRuleRepository.findAllActiveWithRanges()), table -> false);
+    
     /**
      * Calculate shipping charge based on cart value and state
      * Priority: State+Range > State+Flat > AllIndia+Range > AllIndia+Flat
+     * Served from the compiled rule table; no database access once it is built.
      */
     public BigDecimal calculateShipping(BigDecimal cartValue, String state) {
-        if (cartValue == null || cartValue.compareTo(BigDecimal.ZERO) <= 0) {
-            return BigDecimal.ZERO;
-        }
-        
-        // Get all active rules with ranges loaded
-        List<ShippingRule> allRules = shippingRuleRepository.findAllActiveWithRanges();
-        
-        // Priority 1: State-wise + Range-based
-        if (state != null && !state.trim().isEmpty()) {
-            ShippingRule stateRangeRule = allRules.stream()
-                .filter(r -> r.getScope() == ShippingRule.Scope.STATE_WISE)
-                .filter(r -> state.equalsIgnoreCase(r.getState()))
-                .filter(r -> r.getCalculationType() == ShippingRule.CalculationType.RANGE_BASED)
-                .filter(r -> r.getRanges() != null && !r.getRanges().isEmpty())
-                .max(Comparator.comparing(ShippingRule::getPriority))
-                .orElse(null);
-            
-            if (stateRangeRule != null) {
-                BigDecimal shipping = calculateRangeBasedShipping(stateRangeRule, cartValue);
-                if (shipping != null) {
-                    return shipping;
-                }
-            }
-            
-            // Priority 2: State-wise + Flat
-            ShippingRule stateFlatRule = allRules.stream()
-                .filter(r -> r.getScope() == ShippingRule.Scope.STATE_WISE)
-                .filter(r -> state.equalsIgnoreCase(r.getState()))
-                .filter(r -> r.getCalculationType() == ShippingRule.CalculationType.FLAT)
-                .max(Comparator.comparing(ShippingRule::getPriority))
-                .orElse(null);
-            
-            if (stateFlatRule != null) {
-                // Check free shipping threshold
-                if (stateFlatRule.getFreeShippingAbove() != null && 
-                    cartValue.compareTo(stateFlatRule.getFreeShippingAbove()) >= 0) {
-                    return BigDecimal.ZERO;
-                }
-                return stateFlatRule.getFlatPrice() != null ? stateFlatRule.getFlatPrice() : BigDecimal.ZERO;
-            }
-        }
-        
-        // Priority 3: All India + Range-based
-        ShippingRule allIndiaRangeRule = allRules.stream()
-            .filter(r -> r.getScope() == ShippingRule.Scope.ALL_INDIA)
-            .filter(r -> r.getCalculationType() == ShippingRule.CalculationType.RANGE_BASED)
-            .filter(r -> r.getRanges() != null && !r.getRanges().isEmpty())
-            .max(Comparator.comparing(ShippingRule::getPriority))
-            .orElse(null);
-        
-        if (allIndiaRangeRule != null) {
-            BigDecimal shipping = calculateRangeBasedShipping(allIndiaRangeRule, cartValue);
-            if (shipping != null) {
-                return shipping;
-            }
-        }
-        
-        // Priority 4: All India + Flat
-        ShippingRule allIndiaFlatRule = allRules.stream()
-            .filter(r -> r.getScope() == ShippingRule.Scope.ALL_INDIA)
-            .filter(r -> r.getCalculationType() == ShippingRule.CalculationType.FLAT)
-            .max(Comparator.comparing(ShippingRule::getPriority))
-            .orElse(null);
-        
-        if (allIndiaFlatRule != null) {
-            // Check free shipping threshold
-            if (allIndiaFlatRule.getFreeShippingAbove() != null && 
-                cartValue.compareTo(allIndiaFlatRule.getFreeShippingAbove()) >= 0) {
-                return BigDecimal.ZERO;
-            }
-            return allIndiaFlatRule.getFlatPrice() != null ? allIndiaFlatRule.getFlatPrice() : BigDecimal.ZERO;
-        }
-        
-        // No rule matched - free shipping
-        return BigDecimal.ZERO;
+        return shippingTable.get().quote(cartValue, state);
     }
     
-    private BigDecimal calculateRangeBasedShipping(ShippingRule rule, BigDecimal cartValue) {
-        // Check free shipping threshold first
-        if (rule.getFreeShippingAbove() != null && 
-            cartValue.compareTo(rule.getFreeShippingAbove()) >= 0) {
-            return BigDecimal.ZERO;
+    /**
+     * Quotes many (cart value, state) pairs against one consistent rule table.
+     */
+    public List<ShippingQuoteDto> quoteShipping(List<ShippingQuoteDto> requests) {
+        if (requests == null) {
+            return new ArrayList<>();
         }
-        
-        // Find matching range
-        if (rule.getRanges() != null) {
-            // Sort ranges by display order
-            List<ShippingRange> sortedRanges = rule.getRanges().stream()
-                .sorted(Comparator.comparing(ShippingRange::getDisplayOrder))
-                .collect(Collectors.toList());
-            
-            for (ShippingRange range : sortedRanges) {
-                if (range.matches(cartValue)) {
-                    return range.getShippingPrice();
-                }
+        if (requests.size() > MAX_BULK_QUOTES) {
+            throw new RuntimeException("At most " + MAX_BULK_QUOTES + " shipping quotes per request");
+        }
+        ShippingTable table = shippingTable.get();
+        List<ShippingQuoteDto> quotes = new ArrayList<>(requests.size());
+        for (ShippingQuoteDto request : requests) {
+            if (request == null || request.getCartValue() == null) {
+                throw new RuntimeException("cartValue is required for every shipping quote");
             }
+            quotes.add(new ShippingQuoteDto(request.getCartValue(), request.getState(),
+                    table.quote(request.getCartValue(), request.getState())));
         }
-        
-        return null; // No matching range
+        return quotes;
     }
     
     // Admin methods
@@ -161,6 +94,7 @@ public class ShippingService {
         }
         
         ShippingRule saved = shippingRuleRepository.save(rule);
+        shippingTable.invalidate();
         return toShippingRuleDto(saved);
     }
     
@@ -189,12 +123,14 @@ public class ShippingService {
         }
         
         ShippingRule saved = shippingRuleRepository.save(rule);
+        shippingTable.invalidate();
         return toShippingRuleDto(saved);
     }
     
     @Transactional
     public void deleteShippingRule(Long id) {
         shippingRuleRepository.deleteById(id);
+        shippingTable.invalidate();
     }
     
     private void mapRequestToRule(ShippingRuleRequest request, ShippingRule rule) {
@@ -0,0 +1,202 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.ShippingRange;
+import com.sara.ecom.entity.ShippingRule;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable, precompiled shipping rules. For every state and for All India it keeps only the rule
+ * that would win (highest priority range-based rule with ranges, and highest priority flat rule),
+ * and each range-based rule's ranges are flattened into disjoint segments for a binary search
+ * on cart value. Quotes follow the same priority as before:
+ * State+Range > State+Flat > AllIndia+Range > AllIndia+Flat > free.
+ */
+final class ShippingTable {
+
+    private final Map<String, CompiledRule> stateRangeRules;
+    private final Map<String, CompiledRule> stateFlatRules;
+    private final CompiledRule allIndiaRangeRule;
+    private final CompiledRule allIndiaFlatRule;
+    private final int ruleCount;
+
+    /**
+     * @param activeRules active rules, ordered by priority descending (ties keep their order)
+     */
+    ShippingTable(List<ShippingRule> activeRules) {
+        Map<String, ShippingRule> stateRange = new HashMap<>();
+        Map<String, ShippingRule> stateFlat = new HashMap<>();
+        ShippingRule allIndiaRange = null;
+        ShippingRule allIndiaFlat = null;
+        for (ShippingRule rule : activeRules) {
+            boolean rangeBased = rule.getCalculationType() == ShippingRule.CalculationType.RANGE_BASED;
+            boolean flat = rule.getCalculationType() == ShippingRule.CalculationType.FLAT;
+            boolean hasRanges = rule.getRanges() != null && !rule.getRanges().isEmpty();
+            if (rule.getScope() == ShippingRule.Scope.STATE_WISE && rule.getState() != null) {
+                String key = stateKey(rule.getState());
+                if (rangeBased && hasRanges) {
+                    stateRange.merge(key, rule, ShippingTable::higherPriority);
+                } else if (flat) {
+                    stateFlat.merge(key, rule, ShippingTable::higherPriority);
+                }
+            } else if (rule.getScope() == ShippingRule.Scope.ALL_INDIA) {
+                if (rangeBased && hasRanges) {
+                    allIndiaRange = allIndiaRange == null ? rule : higherPriority(allIndiaRange, rule);
+                } else if (flat) {
+                    allIndiaFlat = allIndiaFlat == null ? rule : higherPriority(allIndiaFlat, rule);
+                }
+            }
+        }
+        this.stateRangeRules = compileAll(stateRange);
+        this.stateFlatRules = compileAll(stateFlat);
+        this.allIndiaRangeRule = allIndiaRange != null ? new CompiledRule(allIndiaRange) : null;
+        this.allIndiaFlatRule = allIndiaFlat != null ? new CompiledRule(allIndiaFlat) : null;
+        this.ruleCount = activeRules.size();
+    }
+
+    /**
+     * Keeps the first rule on equal priority, like Stream.max over the priority-ordered list did.
+     */
+    private static ShippingRule higherPriority(ShippingRule current, ShippingRule candidate) {
+        return priority(candidate) > priority(current) ? candidate : current;
+    }
+
+    private static int priority(ShippingRule rule) {
+        return rule.getPriority() != null ? rule.getPriority() : 0;
+    }
+
+    private static Map<String, CompiledRule> compileAll(Map<String, ShippingRule> rules) {
+        Map<String, CompiledRule> compiled = new HashMap<>();
+        rules.forEach((state, rule) -> compiled.put(state, new CompiledRule(rule)));
+        return Map.copyOf(compiled);
+    }
+
+    private static String stateKey(String state) {
+        return state.toLowerCase(Locale.ROOT);
+    }
+
+    BigDecimal quote(BigDecimal cartValue, String state) {
+        if (cartValue == null || cartValue.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (state != null && !state.trim().isEmpty()) {
+            String key = stateKey(state);
+            CompiledRule rangeRule = stateRangeRules.get(key);
+            if (rangeRule != null) {
+                BigDecimal shipping = rangeRule.rangeShipping(cartValue);
+                if (shipping != null) {
+                    return shipping;
+                }
+            }
+            CompiledRule flatRule = stateFlatRules.get(key);
+            if (flatRule != null) {
+                return flatRule.flatShipping(cartValue);
+            }
+        }
+        if (allIndiaRangeRule != null) {
+            BigDecimal shipping = allIndiaRangeRule.rangeShipping(cartValue);
+            if (shipping != null) {
+                return shipping;
+            }
+        }
+        if (allIndiaFlatRule != null) {
+            return allIndiaFlatRule.flatShipping(cartValue);
+        }
+        // No rule matched - free shipping
+        return BigDecimal.ZERO;
+    }
+
+    int getRuleCount() {
+        return ruleCount;
+    }
+
+    int getStateCount() {
+        TreeSet<String> states = new TreeSet<>(stateRangeRules.keySet());
+        states.addAll(stateFlatRules.keySet());
+        return states.size();
+    }
+
+    private static final class CompiledRule {
+        private final BigDecimal freeShippingAbove;
+        private final BigDecimal flatPrice;
+        // Disjoint segments keyed by inclusive lower bound; a null value means no range covers the segment.
+        // Values below the first key fall in the head segment.
+        private final NavigableMap<BigDecimal, BigDecimal> segments = new TreeMap<>();
+        private final BigDecimal headPrice;
+
+        CompiledRule(ShippingRule rule) {
+            this.freeShippingAbove = rule.getFreeShippingAbove();
+            this.flatPrice = rule.getFlatPrice();
+
+            List<ShippingRange> ranges = new ArrayList<>(rule.getRanges() != null ? rule.getRanges() : List.of());
+            // First range in display order wins where ranges overlap, as in the linear scan
+            ranges.sort(Comparator.comparing(ShippingRange::getDisplayOrder, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            TreeSet<BigDecimal> bounds = new TreeSet<>();
+            for (ShippingRange range : ranges) {
+                if (range.getMinCartValue() != null) {
+                    bounds.add(range.getMinCartValue());
+                }
+                if (range.getMaxCartValue() != null) {
+                    bounds.add(range.getMaxCartValue());
+                }
+            }
+            BigDecimal head = null;
+            if (bounds.isEmpty()) {
+                head = firstCovering(ranges, null, null);
+            } else {
+                head = firstCovering(ranges, null, bounds.first());
+                List<BigDecimal> points = new ArrayList<>(bounds);
+                for (int i = 0; i < points.size(); i++) {
+                    BigDecimal upper = i + 1 < points.size() ? points.get(i + 1) : null;
+                    segments.put(points.get(i), firstCovering(ranges, points.get(i), upper));
+                }
+            }
+            this.headPrice = head;
+        }
+
+        /**
+         * Price of the first range covering the whole segment [lower, upper); null bounds are open-ended.
+         */
+        private static BigDecimal firstCovering(Collection<ShippingRange> ranges, BigDecimal lower, BigDecimal upper) {
+            for (ShippingRange range : ranges) {
+                BigDecimal min = range.getMinCartValue();
+                BigDecimal max = range.getMaxCartValue();
+                boolean coversLower = min == null || (lower != null && min.compareTo(lower) <= 0);
+                boolean coversUpper = max == null || (upper != null && upper.compareTo(max) <= 0);
+                if (coversLower && coversUpper) {
+                    return range.getShippingPrice();
+                }
+            }
+            return null;
+        }
+
+        BigDecimal rangeShipping(BigDecimal cartValue) {
+            // Check free shipping threshold first
+            if (freeShippingAbove != null && cartValue.compareTo(freeShippingAbove) >= 0) {
+                return BigDecimal.ZERO;
+            }
+            Entry<BigDecimal, BigDecimal> segment = segments.floorEntry(cartValue);
+            return segment != null ? segment.getValue() : headPrice; // null: no matching range
+        }
+
+        BigDecimal flatShipping(BigDecimal cartValue) {
+            // Check free shipping threshold
+            if (freeShippingAbove != null && cartValue.compareTo(freeShippingAbove) >= 0) {
+                return BigDecimal.ZERO;
+            }
+            return flatPrice != null ? flatPrice : BigDecimal.ZERO;
+        }
+    }
+}
@@ -5,10 +5,11 @@ import com.sara.ecom.dto.PaymentResponse;
 import com.sara.ecom.dto.PaymentVerificationRequest;
 import com.sara.ecom.entity.PaymentConfig;
 import com.sara.ecom.enums.PaymentGateway;
-import com.stripe.Stripe;
+import com.stripe.StripeClient;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import com.stripe.param.PaymentIntentCreateParams;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +20,8 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +32,32 @@ public class StripeService implements PaymentService {
     @Autowired
     private PaymentConfigService paymentConfigService;
     
-    private String getSecretKey() {
+    // Client for the configured secret key, rebuilt only when the key changes
+    private final AtomicReference<StripeClient> client = new AtomicReference<>();
+    
+    @PostConstruct
+    void watchKeys() {
+        paymentConfigService.addChangeListener((previous, current) -> {
+            if (previous != null && Objects.equals(previous.getStripeSecretKey(), current.getStripeSecretKey())) {
+                return;
+            }
+            String secretKey = current.getStripeSecretKey();
+            client.set(secretKey != null && !secretKey.trim().isEmpty() ? new StripeClient(secretKey) : null);
+        });
+    }
+    
+    /**
+     * Client for the configured secret key, or null when Stripe has no key.
+     */
+    private StripeClient getStripeClient() {
         try {
-            PaymentConfig config = paymentConfigService.getConfigEntity();
-            return config != null ? config.getStripeSecretKey() : null;
+            // Loads the current config, which swaps in a new client first if the key changed
+            paymentConfigService.getConfigEntity();
         } catch (Exception e) {
             logger.error("Error getting Stripe secret key", e);
             return null;
         }
+        return client.get();
     }
     
     public String getPublicKey() {
@@ -68,14 +89,12 @@ public class StripeService implements PaymentService {
     
     @Override
     public PaymentResponse createPayment(PaymentRequest request) {
-        String secretKey = getSecretKey();
-        if (secretKey == null || secretKey.trim().isEmpty()) {
+        StripeClient stripe = getStripeClient();
+        if (stripe == null) {
             throw new RuntimeException("Stripe is not configured. Please set API keys in admin panel.");
         }
         
         try {
-            Stripe.apiKey = secretKey;
-            
             // Convert amount to smallest currency unit (cents for USD, paise for INR)
             long amountInCents = request.getAmount()
                 .multiply(BigDecimal.valueOf(100))
@@ -90,7 +109,7 @@ public class StripeService implements PaymentService {
                 .setReceiptEmail(request.getCustomerEmail())
                 .build();
             
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
+            PaymentIntent paymentIntent = stripe.paymentIntents().create(params);
             
             Map<String, Object> orderData = new HashMap<>();
             orderData.put("client_secret", paymentIntent.getClientSecret());
@@ -112,15 +131,13 @@ public class StripeService implements PaymentService {
     
     @Override
     public PaymentResponse verifyPayment(PaymentVerificationRequest request) {
-        String secretKey = getSecretKey();
-        if (secretKey == null || secretKey.trim().isEmpty()) {
+        StripeClient stripe = getStripeClient();
+        if (stripe == null) {
             throw new RuntimeException("Stripe is not configured");
         }
         
         try {
-            Stripe.apiKey = secretKey;
-            
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(request.getPaymentId());
+            PaymentIntent paymentIntent = stripe.paymentIntents().retrieve(request.getPaymentId());
             
             String status = "FAILED";
             if ("succeeded".equals(paymentIntent.getStatus())) {
@@ -0,0 +1,76 @@
+package com.sara.ecom.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Defers in-memory cache updates until the surrounding transaction has committed,
+ * so a rolled-back write never leaks into a cache. Runs immediately outside a transaction.
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Like {@link #afterCommit}, but collects every change made under {@code key} during one transaction
+     * into a single pending batch and applies it once, so a bulk write costs one cache update.
+     * @param newBatch creates the empty batch for a transaction
+     * @param change adds this call's change to the batch
+     * @param apply applies the batch after commit
+     */
+    static <T> void collectAfterCommit(Object key, Supplier<T> newBatch, Consumer<T> change, Consumer<T> apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            T batch = newBatch.get();
+            change.accept(batch);
+            apply.accept(batch);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        T batch = (T) TransactionSynchronizationManager.getResource(key);
+        if (batch == null) {
+            T created = newBatch.get();
+            batch = created;
+            TransactionSynchronizationManager.bindResource(key, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // Unbound while suspended so an inner REQUIRES_NEW transaction collects its own batch
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(key, created);
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply.accept(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+        }
+        change.accept(batch);
+    }
+}
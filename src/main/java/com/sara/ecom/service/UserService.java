@@ -4,6 +4,7 @@ import com.sara.ecom.dto.UpdateUserRequest;
 import com.sara.ecom.dto.UserDto;
 import com.sara.ecom.entity.User;
 import com.sara.ecom.repository.UserRepository;
+import com.sara.ecom.security.AuthenticatedUserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import java.util.stream.Collectors;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final AuthenticatedUserCache authenticatedUserCache;
     
     public UserDto getUserProfile(String email) {
         // Normalize email to lowercase
@@ -107,6 +109,9 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setStatus(User.UserStatus.valueOf(status.toUpperCase()));
         user = userRepository.save(user);
+        // Cached logins must pick up the change on their next request. Evicting after commit means a
+        // request that re-caches the user while this transaction is open cannot keep the old status.
+        TransactionHooks.afterCommit(() -> authenticatedUserCache.invalidateUser(normalizedEmail));
         return UserDto.fromEntity(user);
     }
     
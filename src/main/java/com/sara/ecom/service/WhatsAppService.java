@@ -5,6 +5,7 @@ import com.sara.ecom.entity.BusinessConfig;
 import com.sara.ecom.entity.Order;
 import com.sara.ecom.entity.User;
 import com.sara.ecom.entity.WhatsAppNotificationLog;
+import com.sara.ecom.entity.WhatsAppTemplate;
 import com.sara.ecom.repository.WhatsAppNotificationLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
@@ -15,6 +16,7 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
@@ -26,10 +28,14 @@ public class WhatsAppService {
     @Autowired
     private WhatsAppNotificationLogRepository notificationLogRepository;
     
+    @Autowired
+    private MessageTemplateEngine templateEngine;
+    
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final String DOUBLETICK_TEXT_API_URL = "https://public.doubletick.io/whatsapp/message/text";
     private static final String DOUBLETICK_TEMPLATE_API_URL = "https://public.doubletick.io/whatsapp/message/template";
+    private static final DateTimeFormatter ORDER_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy");
     
     /**
      * Sends a text message via DoubleTick API
@@ -295,41 +301,78 @@ public class WhatsAppService {
         if (template == null) {
             return "";
         }
-        
-        String result = template;
-        
-        // Replace order variables
-        if (order != null) {
-            result = result.replace("{{order_id}}", order.getOrderNumber() != null ? order.getOrderNumber() : "");
-            result = result.replace("{{amount}}", order.getTotal() != null ? "₹" + order.getTotal().toString() : "");
-            result = result.replace("{{status}}", order.getStatus() != null ? order.getStatus().name() : "");
-            result = result.replace("{{custom_status}}", order.getCustomStatus() != null ? order.getCustomStatus() : "");
-            result = result.replace("{{subtotal}}", order.getSubtotal() != null ? "₹" + order.getSubtotal().toString() : "");
-            result = result.replace("{{gst}}", order.getGst() != null ? "₹" + order.getGst().toString() : "");
-            result = result.replace("{{shipping}}", order.getShipping() != null ? "₹" + order.getShipping().toString() : "");
-            result = result.replace("{{coupon_code}}", order.getCouponCode() != null ? order.getCouponCode() : "");
-            result = result.replace("{{coupon_discount}}", order.getCouponDiscount() != null ? "₹" + order.getCouponDiscount().toString() : "");
-            
-            // Format order date
-            if (order.getCreatedAt() != null) {
-                java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("dd MMM yyyy");
-                result = result.replace("{{order_date}}", order.getCreatedAt().format(formatter));
-            } else {
-                result = result.replace("{{order_date}}", "");
-            }
-            
-            // Items count
-            if (order.getItems() != null) {
-                int itemsCount = order.getItems().stream()
+        return templateEngine.render(templateEngine.compile(template),
+                name -> resolveVariable(name, order, user, customMessage));
+    }
+    
+    /**
+     * Same as {@link #replaceVariables(String, Order, User, String)} for a stored template,
+     * whose compiled form is cached by ID and last update.
+     */
+    public String replaceVariables(WhatsAppTemplate template, Order order, User user, String customMessage) {
+        if (template.getMessageTemplate() == null) {
+            return "";
+        }
+        return templateEngine.render(
+                templateEngine.compile("whatsapp", template.getId(), template.getUpdatedAt(), template.getMessageTemplate()),
+                name -> resolveVariable(name, order, user, customMessage));
+    }
+    
+    /**
+     * Value of one template variable; null leaves the placeholder as written (order variables without an order).
+     */
+    private String resolveVariable(String name, Order order, User user, String customMessage) {
+        switch (name) {
+            case "name":
+                return customerName(order, user);
+            case "custom_message":
+                return customMessage != null ? customMessage : "";
+            case "payment_status":
+                return order != null && order.getPaymentStatus() != null ? order.getPaymentStatus().name() : "";
+            default:
+                break;
+        }
+        if (order == null) {
+            return null;
+        }
+        switch (name) {
+            case "order_id":
+                return order.getOrderNumber() != null ? order.getOrderNumber() : "";
+            case "amount":
+                return rupees(order.getTotal());
+            case "status":
+                return order.getStatus() != null ? order.getStatus().name() : "";
+            case "custom_status":
+                return order.getCustomStatus() != null ? order.getCustomStatus() : "";
+            case "subtotal":
+                return rupees(order.getSubtotal());
+            case "gst":
+                return rupees(order.getGst());
+            case "shipping":
+                return rupees(order.getShipping());
+            case "coupon_code":
+                return order.getCouponCode() != null ? order.getCouponCode() : "";
+            case "coupon_discount":
+                return rupees(order.getCouponDiscount());
+            case "order_date":
+                return order.getCreatedAt() != null ? order.getCreatedAt().format(ORDER_DATE_FORMATTER) : "";
+            case "items_count":
+                if (order.getItems() == null) {
+                    return "0";
+                }
+                return String.valueOf(order.getItems().stream()
                     .mapToInt(item -> item.getQuantity() != null ? item.getQuantity() : 0)
-                    .sum();
-                result = result.replace("{{items_count}}", String.valueOf(itemsCount));
-            } else {
-                result = result.replace("{{items_count}}", "0");
-            }
+                    .sum());
+            default:
+                return null;
         }
-        
-        // Replace user variables
+    }
+    
+    private static String rupees(java.math.BigDecimal amount) {
+        return amount != null ? "₹" + amount : "";
+    }
+    
+    private static String customerName(Order order, User user) {
         if (user != null) {
             String name = "";
             if (user.getFirstName() != null) {
@@ -338,24 +381,9 @@ public class WhatsAppService {
             if (user.getLastName() != null && !user.getLastName().trim().isEmpty()) {
                 name += (name.isEmpty() ? "" : " ") + user.getLastName();
             }
-            result = result.replace("{{name}}", name.isEmpty() ? (order != null && order.getUserName() != null ? order.getUserName() : "") : name);
-        } else if (order != null && order.getUserName() != null) {
-            result = result.replace("{{name}}", order.getUserName());
-        } else {
-            result = result.replace("{{name}}", "");
+            return name.isEmpty() ? (order != null && order.getUserName() != null ? order.getUserName() : "") : name;
         }
-        
-        // Replace custom message variable
-        result = result.replace("{{custom_message}}", customMessage != null ? customMessage : "");
-        
-        // Replace payment status
-        if (order != null && order.getPaymentStatus() != null) {
-            result = result.replace("{{payment_status}}", order.getPaymentStatus().name());
-        } else {
-            result = result.replace("{{payment_status}}", "");
-        }
-        
-        return result;
+        return order != null && order.getUserName() != null ? order.getUserName() : "";
     }
     
     /**
@@ -0,0 +1,20 @@
+-- Transactional outbox for customer notifications (email, WhatsApp), written in the same
+-- transaction as the business change and delivered by a background dispatcher
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    channel VARCHAR(20) NOT NULL, -- EMAIL, WHATSAPP
+    type VARCHAR(50) NOT NULL, -- ORDER_PLACED, PAYMENT_SUCCESSFUL, ORDER_STATUS, etc.
+    order_id BIGINT,
+    recipient VARCHAR(255),
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, SENDING, SENT, FAILED
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due ON notification_outbox(status, next_attempt_at, id);
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_order_id ON notification_outbox(order_id);
@@ -0,0 +1,3 @@
+-- Per-user coupon redemption upserts on (coupon_id, user_email); make sure the unique index exists
+-- on databases where coupon_usages was created without the entity's unique constraint.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_coupon_usages_coupon_user ON coupon_usages (coupon_id, user_email);
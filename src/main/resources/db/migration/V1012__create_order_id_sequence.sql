@@ -0,0 +1,3 @@
+-- Counters for OrderIdAllocator. Each nextval reserves a block of 50 counters for one app instance;
+-- INCREMENT BY must match OrderIdAllocator.BLOCK_SIZE.
+CREATE SEQUENCE IF NOT EXISTS order_id_seq START WITH 0 MINVALUE 0 INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Background build state of DIGITAL order item ZIPs (see DigitalZipJobService)
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS digital_zip_status VARCHAR(20) NULL;
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS digital_zip_updated_at TIMESTAMP NULL;
+CREATE INDEX IF NOT EXISTS idx_order_items_digital_zip_pending ON order_items (id)
+    WHERE digital_zip_status IN ('PENDING', 'BUILDING');
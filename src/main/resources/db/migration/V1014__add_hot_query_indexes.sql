@@ -0,0 +1,52 @@
+-- Indexes for the hot repository finders. Each index names the query it serves; plans are checked by
+-- HotQueryIndexTest (src/test). On a large live database, create them one at a
+-- time with CREATE INDEX CONCURRENTLY instead (outside a transaction) to avoid blocking writes.
+-- products.slug, categories.slug, orders.order_number and coupons.code are already covered by their
+-- unique constraints.
+
+-- CartItemRepository.findByUserEmailOrderByCreatedAtDesc / countByUserEmail / deleteByUserEmail
+CREATE INDEX IF NOT EXISTS idx_cart_items_user_email_created_at ON cart_items (user_email, created_at DESC);
+
+-- WishlistItemRepository.findByUserEmailOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_wishlist_items_user_email_created_at ON wishlist_items (user_email, created_at DESC);
+
+-- OrderRepository.findByUserEmailOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_orders_user_email_created_at ON orders (user_email, created_at DESC);
+-- Admin order page (newest first, keyset on created_at, id), findAllByOrderByCreatedAtDesc, findTop10
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+-- Admin order page filtered by status, findByStatusOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at_id ON orders (status, created_at DESC, id DESC);
+-- Admin order page filtered by payment status, sumPaidRevenueByPeriod
+CREATE INDEX IF NOT EXISTS idx_orders_payment_status_created_at_id ON orders (payment_status, created_at DESC, id DESC);
+
+-- Order items by order (findByIdWithItems, OrderSummary.itemCount)
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+
+-- ProductRepository category/status finders, counts and the product page category filter
+CREATE INDEX IF NOT EXISTS idx_products_category_id_status ON products (category_id, status);
+-- ProductRepository.findByStatus / findByStatusAndType and the product page status/type filter
+CREATE INDEX IF NOT EXISTS idx_products_status_type ON products (status, type);
+-- ProductRepository.findBySourceDesignProductId
+CREATE INDEX IF NOT EXISTS idx_products_source_design_product_id ON products (source_design_product_id)
+    WHERE source_design_product_id IS NOT NULL;
+
+-- Product child collections fetched by product (findByIdWith*)
+CREATE INDEX IF NOT EXISTS idx_product_images_product_id ON product_images (product_id, display_order);
+CREATE INDEX IF NOT EXISTS idx_product_variants_product_id ON product_variants (product_id);
+CREATE INDEX IF NOT EXISTS idx_product_variant_options_variant_id ON product_variant_options (variant_id);
+CREATE INDEX IF NOT EXISTS idx_product_detail_sections_product_id ON product_detail_sections (product_id);
+CREATE INDEX IF NOT EXISTS idx_product_custom_fields_product_id ON product_custom_fields (product_id);
+CREATE INDEX IF NOT EXISTS idx_product_pricing_slabs_product_id ON product_pricing_slabs (product_id);
+CREATE INDEX IF NOT EXISTS idx_product_variant_combinations_product_id ON product_variant_combinations (product_id);
+
+-- CategoryRepository.findByParentId / findByParentIdAndStatus / findByParentIdIsNullAndStatus
+CREATE INDEX IF NOT EXISTS idx_categories_parent_id_status ON categories (parent_id, status);
+
+-- CouponRepository.findByCodeIgnoreCase (Hibernate compares upper(code) = upper(?))
+CREATE INDEX IF NOT EXISTS idx_coupons_code_upper ON coupons (UPPER(code));
+
+-- CouponUsageRepository.findUsageCountsByUserEmailAndCouponIdIn (one user's usages)
+CREATE INDEX IF NOT EXISTS idx_coupon_usages_user_email_coupon_id ON coupon_usages (user_email, coupon_id);
+
+-- UserAddressRepository finders by user
+CREATE INDEX IF NOT EXISTS idx_user_addresses_user_email ON user_addresses (user_email);
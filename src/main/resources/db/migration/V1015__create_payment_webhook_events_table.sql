@@ -0,0 +1,25 @@
+-- Payment gateway webhooks, stored and acknowledged on receipt and applied to orders by a background worker.
+-- The unique (provider, event_id) key turns gateway retries into no-ops
+CREATE TABLE IF NOT EXISTS payment_webhook_events (
+    id BIGSERIAL PRIMARY KEY,
+    provider VARCHAR(20) NOT NULL, -- STRIPE, RAZORPAY
+    event_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100),
+    order_key VARCHAR(100), -- order id (Stripe) or order number (Razorpay)
+    payment_status VARCHAR(20), -- PAID, FAILED, or NULL when nothing to apply
+    payment_reference VARCHAR(255),
+    currency VARCHAR(10),
+    amount_minor BIGINT,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, PROCESSING, PROCESSED, FAILED, IGNORED
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    received_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    CONSTRAINT uk_payment_webhook_events_event UNIQUE (provider, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_events_due ON payment_webhook_events(status, next_attempt_at, id);
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_events_order_key ON payment_webhook_events(order_key, id);
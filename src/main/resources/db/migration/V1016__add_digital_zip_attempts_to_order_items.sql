@@ -0,0 +1,2 @@
+-- Build attempts of the current DIGITAL order item ZIP; failed builds are retried up to digital-zips.max-attempts
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS digital_zip_attempts INTEGER NULL;
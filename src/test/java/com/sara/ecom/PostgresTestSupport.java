@@ -0,0 +1,61 @@
+package com.sara.ecom;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base class for tests that need a real PostgreSQL database (native queries, locking, query plans).
+ * Starts one disposable Testcontainers PostgreSQL for the whole run. Where Docker is not available,
+ * set TEST_DATABASE_URL (plus TEST_DATABASE_USERNAME / TEST_DATABASE_PASSWORD) to an empty scratch
+ * database instead; the schema is created there and tests write to it. Without either the tests are skipped.
+ */
+@ExtendWith(PostgresTestSupport.DatabaseAvailable.class)
+public abstract class PostgresTestSupport {
+
+    private static final String EXTERNAL_URL = System.getenv("TEST_DATABASE_URL");
+    private static PostgreSQLContainer<?> container;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null && !EXTERNAL_URL.isBlank()) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", ""));
+        } else {
+            PostgreSQLContainer<?> postgres = startContainer();
+            registry.add("spring.datasource.url", postgres::getJdbcUrl);
+            registry.add("spring.datasource.username", postgres::getUsername);
+            registry.add("spring.datasource.password", postgres::getPassword);
+        }
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        // Contexts stay cached between test classes; their webhook pollers must not claim another test's events
+        registry.add("payments.webhooks.poll-ms", () -> "3600000");
+    }
+
+    private static synchronized PostgreSQLContainer<?> startContainer() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    static class DatabaseAvailable implements ExecutionCondition {
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            if (EXTERNAL_URL != null && !EXTERNAL_URL.isBlank()) {
+                return ConditionEvaluationResult.enabled("Using TEST_DATABASE_URL");
+            }
+            return DockerClientFactory.instance().isDockerAvailable()
+                    ? ConditionEvaluationResult.enabled("Docker available")
+                    : ConditionEvaluationResult.disabled("Needs Docker or TEST_DATABASE_URL");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sara.ecom.repository;
+
+import com.sara.ecom.PostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-plan regression check for the hot repository finders. V1014 is applied to the schema Hibernate
+ * created, sequential scans are disabled for the transaction, and every query must then plan without a
+ * Seq Scan on its table, i.e. an index can serve it. Add a row whenever a new hot finder or index is introduced.
+ */
+@SpringBootTest
+class HotQueryIndexTest extends PostgresTestSupport {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("cart_items", "CartItemRepository.findByUserEmailOrderByCreatedAtDesc",
+                        "SELECT * FROM cart_items WHERE user_email = 'a@b.c' ORDER BY created_at DESC"),
+                Arguments.of("wishlist_items", "WishlistItemRepository.findByUserEmailOrderByCreatedAtDesc",
+                        "SELECT * FROM wishlist_items WHERE user_email = 'a@b.c' ORDER BY created_at DESC"),
+                Arguments.of("orders", "OrderRepository.findByUserEmailOrderByCreatedAtDesc",
+                        "SELECT * FROM orders WHERE user_email = 'a@b.c' ORDER BY created_at DESC"),
+                Arguments.of("orders", "OrderRepository.findByStatusOrderByCreatedAtDesc",
+                        "SELECT * FROM orders WHERE status = 'PENDING' ORDER BY created_at DESC"),
+                Arguments.of("orders", "OrderService.getOrdersPage (first page)",
+                        "SELECT id FROM orders ORDER BY created_at DESC, id DESC LIMIT 51"),
+                Arguments.of("orders", "OrderService.getOrdersPage (payment status, next page)",
+                        "SELECT id FROM orders WHERE payment_status = 'PAID' "
+                                + "AND (created_at < '2026-01-01' OR (created_at = '2026-01-01' AND id < 5000000)) "
+                                + "ORDER BY created_at DESC, id DESC LIMIT 51"),
+                Arguments.of("orders", "OrderRepository.sumPaidRevenueByPeriod",
+                        "SELECT date_trunc('day', created_at), COUNT(*), SUM(total) FROM orders "
+                                + "WHERE payment_status = 'PAID' AND created_at >= '2026-01-01' GROUP BY 1"),
+                Arguments.of("order_items", "OrderRepository.findByIdWithItems (items)",
+                        "SELECT * FROM order_items WHERE order_id = 1234567"),
+                Arguments.of("products", "ProductRepository.findByStatusAndCategoryId",
+                        "SELECT * FROM products WHERE status = 'ACTIVE' AND category_id = 1"),
+                Arguments.of("products", "ProductRepository.findByCategoryIdsAndStatus",
+                        "SELECT * FROM products WHERE category_id IN (1, 2, 3) AND status = 'ACTIVE'"),
+                Arguments.of("products", "ProductRepository.findBySlug",
+                        "SELECT * FROM products WHERE slug = 'some-product'"),
+                Arguments.of("products", "ProductRepository.findBySourceDesignProductId",
+                        "SELECT * FROM products WHERE source_design_product_id = 1"),
+                Arguments.of("product_images", "ProductRepository.findByIdWithImages (images)",
+                        "SELECT * FROM product_images WHERE product_id = 1"),
+                Arguments.of("product_variants", "ProductRepository.findByIdWithVariants (variants)",
+                        "SELECT * FROM product_variants WHERE product_id = 1"),
+                Arguments.of("categories", "CategoryRepository.findByParentIdAndStatus",
+                        "SELECT * FROM categories WHERE parent_id = 1 AND status = 'ACTIVE'"),
+                Arguments.of("categories", "CategoryRepository.findBySlug",
+                        "SELECT * FROM categories WHERE slug = 'some-category'"),
+                Arguments.of("coupons", "CouponRepository.findByCodeIgnoreCase",
+                        "SELECT * FROM coupons WHERE upper(code) = upper('save10')"),
+                Arguments.of("coupon_usages", "CouponUsageRepository.findUsageCountsByUserEmailAndCouponIdIn",
+                        "SELECT coupon_id, usage_count FROM coupon_usages WHERE user_email = 'a@b.c' AND coupon_id IN (1, 2)"),
+                Arguments.of("coupon_usages", "CouponUsageRepository.findByCouponAndUserEmail",
+                        "SELECT * FROM coupon_usages WHERE coupon_id = 1 AND user_email = 'a@b.c'"),
+                Arguments.of("user_addresses", "UserAddressRepository.findByUserEmailOrderByIsDefaultDescCreatedAtDesc",
+                        "SELECT * FROM user_addresses WHERE user_email = 'a@b.c'"));
+    }
+
+    @BeforeEach
+    void applyIndexes() {
+        // Idempotent (CREATE INDEX IF NOT EXISTS)
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1014__add_hot_query_indexes.sql"))
+                .execute(dataSource);
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesAnIndex(String table, String finder, String query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        String plan = transaction.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class);
+            status.setRollbackOnly();
+            return json;
+        });
+
+        Boolean seqScan = jdbcTemplate.queryForObject(
+                "SELECT jsonb_path_exists(CAST(? AS jsonb), "
+                        + "'$.** ? (@.\"Node Type\" == \"Seq Scan\" && @.\"Relation Name\" == $t)', "
+                        + "jsonb_build_object('t', CAST(? AS text)))",
+                Boolean.class, plan, table);
+        assertThat(seqScan).as("%s plans a Seq Scan on %s:%n%s", finder, table, plan).isFalse();
+    }
+}
@@ -0,0 +1,181 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import com.sara.ecom.dto.BulkOrderStatusRequest;
+import com.sara.ecom.dto.BulkOrderStatusResult;
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Bulk status updates against Postgres, in chunks of two: per-order results in request order, a failed
+ * chunk rolled back and reported without affecting the others, and no orders left in the request's
+ * open-in-view EntityManager. Order stats are mocked so a chunk can be made to fail mid-transaction.
+ */
+@SpringBootTest(properties = {
+        "orders.bulk-status.chunk-size=2",
+        "notifications.outbox.poll-ms=3600000"
+})
+class BulkOrderStatusUpdateTest extends PostgresTestSupport {
+
+    private static final long MISSING_ID = -42L;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderIdAllocator orderIdAllocator;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoBean
+    private OrderStatsService orderStatsService;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : orderIds) {
+            jdbcTemplate.update("DELETE FROM order_audit_log WHERE order_id = ?", id);
+            orderRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    void foundAndMissingOrdersAreReportedInRequestOrder() {
+        Long first = createOrder();
+        Long second = createOrder();
+        Long third = createOrder();
+
+        List<BulkOrderStatusResult> results = run(first, MISSING_ID, second, third, MISSING_ID - 1, first);
+
+        assertThat(orderResults(results))
+                .extracting(BulkOrderStatusResult::getOrderId, BulkOrderStatusResult::getSuccess,
+                        BulkOrderStatusResult::getOldStatus, BulkOrderStatusResult::getError)
+                .containsExactly(
+                        tuple(first, true, "PENDING", null),
+                        tuple(MISSING_ID, false, null, "Order not found"),
+                        tuple(second, true, "PENDING", null),
+                        tuple(third, true, "PENDING", null),
+                        tuple(MISSING_ID - 1, false, null, "Order not found"));
+        assertSummary(results, 5, 3, 2);
+        for (Long id : List.of(first, second, third)) {
+            assertThat(statusOf(id)).isEqualTo(Order.OrderStatus.SHIPPED);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM order_audit_log WHERE order_id = ? AND field_name = 'status'", Integer.class, id))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void failedChunkIsRolledBackAndReportedForEachOfItsOrders() {
+        Long first = createOrder();
+        Long second = createOrder();
+        Long third = createOrder();
+        doThrow(new IllegalStateException("stats unavailable"))
+                .when(orderStatsService).orderChanged(any(), argThat(order -> second.equals(order.getId())));
+
+        List<BulkOrderStatusResult> results = run(first, second, third);
+
+        assertThat(orderResults(results))
+                .extracting(BulkOrderStatusResult::getOrderId, BulkOrderStatusResult::getSuccess,
+                        BulkOrderStatusResult::getError)
+                .containsExactly(
+                        tuple(first, false, "stats unavailable"),
+                        tuple(second, false, "stats unavailable"),
+                        tuple(third, true, null));
+        assertSummary(results, 3, 1, 2);
+        assertThat(statusOf(first)).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(statusOf(second)).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(statusOf(third)).isEqualTo(Order.OrderStatus.SHIPPED);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_audit_log WHERE order_id IN (?, ?)", Integer.class, first, second))
+                .isZero();
+    }
+
+    @Test
+    void chunksDoNotAccumulateInTheOpenInViewEntityManager() {
+        Long first = createOrder();
+        Long second = createOrder();
+        Long third = createOrder();
+        // Bound the way OpenEntityManagerInViewInterceptor binds it for the async response thread
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        List<Integer> managedAfterEachResult = new ArrayList<>();
+        try {
+            BulkOrderStatusRequest request = request(first, second, third);
+            orderService.bulkUpdateOrderStatus(request, "admin@example.com",
+                    result -> managedAfterEachResult.add(entityManager.unwrap(Session.class).getStatistics().getEntityCount()));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+
+        assertThat(managedAfterEachResult).hasSize(4).containsOnly(0);
+        assertThat(statusOf(third)).isEqualTo(Order.OrderStatus.SHIPPED);
+    }
+
+    private List<BulkOrderStatusResult> run(Long... ids) {
+        List<BulkOrderStatusResult> results = new ArrayList<>();
+        orderService.bulkUpdateOrderStatus(request(ids), "admin@example.com", results::add);
+        return results;
+    }
+
+    private static BulkOrderStatusRequest request(Long... ids) {
+        BulkOrderStatusRequest request = new BulkOrderStatusRequest();
+        request.setOrderIds(List.of(ids));
+        request.setStatus("shipped");
+        request.setSkipWhatsApp(true);
+        return request;
+    }
+
+    private static List<BulkOrderStatusResult> orderResults(List<BulkOrderStatusResult> results) {
+        return results.stream().filter(r -> "order".equals(r.getType())).toList();
+    }
+
+    private static void assertSummary(List<BulkOrderStatusResult> results, int processed, int succeeded, int failed) {
+        BulkOrderStatusResult summary = results.get(results.size() - 1);
+        assertThat(summary.getType()).isEqualTo("summary");
+        assertThat(summary.getNewStatus()).isEqualTo("SHIPPED");
+        assertThat(summary.getProcessed()).isEqualTo(processed);
+        assertThat(summary.getSucceeded()).isEqualTo(succeeded);
+        assertThat(summary.getFailed()).isEqualTo(failed);
+    }
+
+    private Order.OrderStatus statusOf(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+
+    private Long createOrder() {
+        Order order = new Order();
+        order.setId(orderIdAllocator.nextOrderId());
+        order.setUserEmail("nobody-" + order.getId() + "@example.com");
+        order.setTotal(new BigDecimal("499.00"));
+        order.setStatus(Order.OrderStatus.PENDING);
+        orderRepository.save(order);
+        orderIds.add(order.getId());
+        return order.getId();
+    }
+}
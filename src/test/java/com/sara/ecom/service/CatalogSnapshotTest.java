@@ -0,0 +1,89 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.ProductDto;
+import com.sara.ecom.entity.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    @Test
+    void changesAreMergedInIdOrder() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(1, List.of(product(2L, "b"), product(4L, "d"), product(6L, "f")), List.of());
+
+        CatalogSnapshot patched = snapshot.withChanges(
+                List.of(product(5L, "e"), product(4L, "d2"), product(1L, "a"), product(9L, "i")), List.of(6L), 2);
+
+        assertThat(patched.getProducts()).extracting(ProductDto::getId).containsExactly(1L, 2L, 4L, 5L, 9L);
+        assertThat(patched.getProduct(4L).getName()).isEqualTo("d2");
+        assertThat(snapshot.getProducts()).extracting(ProductDto::getId).containsExactly(2L, 4L, 6L);
+        assertThat(snapshot.getProduct(4L).getName()).isEqualTo("d");
+    }
+
+    @Test
+    void storesReadOnlyCopies() {
+        ProductDto source = product(1L, "a");
+        source.setImages(new ArrayList<>(List.of("one.jpg")));
+        CatalogSnapshot snapshot = new CatalogSnapshot(1, List.of(source), List.of());
+
+        source.setName("changed");
+        source.getImages().add("two.jpg");
+
+        ProductDto stored = snapshot.getProduct(1L);
+        assertThat(stored).isNotSameAs(source);
+        assertThat(stored.getName()).isEqualTo("a");
+        assertThat(stored.getImages()).containsExactly("one.jpg");
+        assertThatThrownBy(() -> stored.getImages().add("three.jpg")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(new ProductDto(stored).getImages()).isNotSameAs(stored.getImages());
+    }
+
+    @Test
+    void categoryAccessMatchesCategoryTree() {
+        List<Category> categories = List.of(
+                category(1L, null, " Vip@Example.com, other@example.com"),
+                category(2L, 1L, "vip@example.com"),
+                category(3L, null, null),
+                category(4L, 99L, null));
+        CatalogSnapshot snapshot = new CatalogSnapshot(1, List.of(), categories);
+        CategoryTree tree = new CategoryTree(categories, Map.of());
+
+        for (String email : new String[] {null, "", "vip@example.com", "OTHER@example.com", "nobody@example.com"}) {
+            for (Category category : categories) {
+                assertThat(snapshot.isCategoryAccessible(category.getId(), email))
+                        .as("category %d for %s", category.getId(), email)
+                        .isEqualTo(tree.isAccessible(category.getId(), email));
+            }
+        }
+        assertThat(snapshot.isCategoryAccessible(2L, "other@example.com")).isFalse();
+        assertThat(snapshot.getCategory(1L).isRestricted()).isTrue();
+        assertThat(snapshot.getCategory(4L).isRestricted()).isFalse();
+        // Listings keep hiding products whose category row is missing
+        assertThat(snapshot.isCategoryAccessible(42L, "vip@example.com")).isFalse();
+        assertThat(snapshot.getDescendantCategoryIds(1L)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private static Category category(Long id, Long parentId, String allowedEmails) {
+        return Category.builder()
+                .id(id)
+                .name("Category " + id)
+                .slug("category-" + id)
+                .parentId(parentId)
+                .status(Category.Status.ACTIVE)
+                .allowedEmails(allowedEmails)
+                .build();
+    }
+
+    private static ProductDto product(Long id, String name) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName(name);
+        product.setStatus("ACTIVE");
+        return product;
+    }
+}
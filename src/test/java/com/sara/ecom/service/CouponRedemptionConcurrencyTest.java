@@ -0,0 +1,139 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import com.sara.ecom.entity.Coupon;
+import com.sara.ecom.repository.CouponRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redeems one coupon from many threads at once against Postgres; the conditional updates must
+ * never let the global or the per-user limit be exceeded, and must not lose increments.
+ */
+@SpringBootTest
+class CouponRedemptionConcurrencyTest extends PostgresTestSupport {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 64;
+
+    @Autowired
+    private CouponService couponService;
+    @Autowired
+    private CouponRepository couponRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> couponIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : couponIds) {
+            jdbcTemplate.update("DELETE FROM coupon_usages WHERE coupon_id = ?", id);
+            jdbcTemplate.update("DELETE FROM coupons WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void globalLimitHoldsUnderConcurrentRedemptions() throws Exception {
+        Coupon coupon = createCoupon(5, null);
+
+        int redeemed = redeemConcurrently(coupon.getCode(), i -> "buyer" + i + "@example.com");
+
+        assertThat(redeemed).isEqualTo(5);
+        assertThat(usedCount(coupon)).isEqualTo(5);
+        // Per-user uses taken by checkouts that then failed the global limit were rolled back
+        assertThat(totalUserUses(coupon)).isEqualTo(5);
+    }
+
+    @Test
+    void perUserLimitHoldsUnderConcurrentRedemptions() throws Exception {
+        Coupon coupon = createCoupon(null, 3);
+
+        int redeemed = redeemConcurrently(coupon.getCode(), i -> i % 2 == 0 ? "alice@example.com" : "bob@example.com");
+
+        assertThat(redeemed).isEqualTo(6);
+        assertThat(usedCount(coupon)).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT usage_count FROM coupon_usages WHERE coupon_id = ?", Integer.class, coupon.getId()))
+                .containsExactlyInAnyOrder(3, 3);
+    }
+
+    @Test
+    void everySuccessfulRedemptionIsCounted() throws Exception {
+        Coupon coupon = createCoupon(null, null);
+
+        int redeemed = redeemConcurrently(coupon.getCode(), i -> "buyer" + (i % 4) + "@example.com");
+
+        assertThat(redeemed).isEqualTo(ATTEMPTS);
+        assertThat(usedCount(coupon)).isEqualTo(ATTEMPTS);
+        assertThat(totalUserUses(coupon)).isEqualTo(ATTEMPTS);
+    }
+
+    /**
+     * Runs every attempt in its own transaction, released together, and returns how many succeeded.
+     */
+    private int redeemConcurrently(String code, IntFunction<String> userForAttempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                String userEmail = userForAttempt.apply(i);
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        couponService.redeemCoupon(code, userEmail);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int redeemed = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get()) {
+                    redeemed++;
+                }
+            }
+            return redeemed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Coupon createCoupon(Integer usageLimit, Integer perUserUsageLimit) {
+        Coupon coupon = new Coupon();
+        coupon.setCode("RACE" + System.nanoTime());
+        coupon.setType(Coupon.CouponType.FIXED);
+        coupon.setValue(new BigDecimal("50.00"));
+        coupon.setUsageLimit(usageLimit);
+        coupon.setPerUserUsageLimit(perUserUsageLimit);
+        coupon = couponRepository.save(coupon);
+        couponIds.add(coupon.getId());
+        return coupon;
+    }
+
+    private int usedCount(Coupon coupon) {
+        return jdbcTemplate.queryForObject("SELECT used_count FROM coupons WHERE id = ?", Integer.class, coupon.getId());
+    }
+
+    private int totalUserUses(Coupon coupon) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(usage_count), 0) FROM coupon_usages WHERE coupon_id = ?", Integer.class, coupon.getId());
+    }
+}
@@ -0,0 +1,121 @@
+package com.sara.ecom.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DigitalDownloadServiceTest {
+
+    // Random, so the deflated entries are as large as the files
+    private static final byte[] FILE = new byte[256 * 1024];
+
+    static {
+        new Random(42).nextBytes(FILE);
+    }
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final DigitalDownloadService service = new DigitalDownloadService(2, 100);
+
+    @BeforeEach
+    void startOrigin() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/files/", exchange -> {
+            requests.incrementAndGet();
+            if (exchange.getRequestURI().getPath().contains("missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, FILE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(FILE);
+                } catch (IOException ignored) {
+                    // Client stopped reading
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopOrigin() {
+        server.stop(0);
+    }
+
+    @Test
+    void zipSkipsFilesTheOriginCannotServe() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = service.zip(
+                List.of(url("a.pdf"), url("missing.pdf"), url("c.jpg?v=2")), "files.zip");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                entries.add(entry.getName());
+                assertThat(zip.readAllBytes()).hasSize(FILE.length);
+            }
+        }
+        assertThat(entries).containsExactly("file_1.pdf", "file_3.jpg");
+        assertThat(service.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void clientAbortEndsTheZipAndReleasesThePermit() {
+        ResponseEntity<StreamingResponseBody> response = service.zip(
+                List.of(url("a.pdf"), url("b.pdf"), url("c.pdf"), url("d.pdf")), "files.zip");
+        OutputStream abortingClient = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 64 * 1024) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        assertThatThrownBy(() -> response.getBody().writeTo(abortingClient)).isInstanceOf(IOException.class);
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(service.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void callersOverTheCapGetServiceUnavailable() {
+        service.zip(List.of(url("a.pdf")), "a.zip");
+        service.zip(List.of(url("b.pdf")), "b.zip");
+
+        ResponseEntity<StreamingResponseBody> busy = service.zip(List.of(url("c.pdf")), "c.zip");
+
+        assertThat(busy.getStatusCode().value()).isEqualTo(503);
+        assertThat(busy.getHeaders().getFirst("Retry-After")).isEqualTo("5");
+    }
+
+    private String url(String name) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/files/" + name;
+    }
+}
@@ -0,0 +1,128 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.OrderItem;
+import com.sara.ecom.repository.OrderItemRepository;
+import com.sara.ecom.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * ZIP build state transitions against Postgres. The worker is mocked so nothing is built, and the
+ * scheduled sweeps are pushed out so they do not touch the test rows.
+ */
+@SpringBootTest(properties = {
+        "digital-zips.max-attempts=3",
+        "digital-zips.sweep-ms=3600000",
+        "notifications.outbox.poll-ms=3600000"
+})
+class DigitalZipJobServiceTest extends PostgresTestSupport {
+
+    private static final String ZIP_URL = "https://res.example.com/digital_product_zips/files.zip";
+
+    @Autowired
+    private DigitalZipJobService jobService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private OrderIdAllocator orderIdAllocator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoBean
+    private DigitalZipWorker digitalZipWorker;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : orderIds) {
+            jdbcTemplate.update("DELETE FROM notification_outbox WHERE order_id = ?", id);
+            orderRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    void readyZipQueuesTheDownloadEmailOnce() {
+        OrderItem item = createDigitalItem(OrderItem.DigitalZipStatus.BUILDING);
+
+        jobService.markReady(item.getId(), ZIP_URL);
+        jobService.markReady(item.getId(), "https://res.example.com/other.zip");
+
+        OrderItem stored = orderItemRepository.findById(item.getId()).orElseThrow();
+        assertThat(stored.getDigitalZipStatus()).isEqualTo(OrderItem.DigitalZipStatus.READY);
+        assertThat(stored.getDigitalDownloadUrl()).isEqualTo(ZIP_URL);
+        List<Map<String, Object>> emails = jdbcTemplate.queryForList(
+                "SELECT type, recipient, payload FROM notification_outbox WHERE order_id = ?", item.getOrder().getId());
+        assertThat(emails).hasSize(1);
+        assertThat(emails.get(0).get("type")).isEqualTo(NotificationOutboxService.EmailType.DIGITAL_DOWNLOAD_READY.name());
+        assertThat(emails.get(0).get("recipient")).isEqualTo("buyer@example.com");
+        assertThat((String) emails.get(0).get("payload")).contains(ZIP_URL).contains("\"zipPassword\":\"buyer@example.com\"");
+    }
+
+    @Test
+    void failedBuildsAreRetriedUntilTheAttemptsRunOut() {
+        OrderItem item = createDigitalItem(OrderItem.DigitalZipStatus.PENDING);
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            assertThat(jobService.claim(item.getId())).isPresent();
+            assertThat(jobService.markFailed(item.getId())).isEqualTo(attempt < 3);
+        }
+
+        OrderItem stored = orderItemRepository.findById(item.getId()).orElseThrow();
+        assertThat(stored.getDigitalZipStatus()).isEqualTo(OrderItem.DigitalZipStatus.FAILED);
+        assertThat(stored.getDigitalZipAttempts()).isEqualTo(3);
+        assertThat(jobService.claim(item.getId())).isEmpty();
+    }
+
+    @Test
+    void adminRequeueRestartsAFailedBuild() {
+        OrderItem item = createDigitalItem(OrderItem.DigitalZipStatus.FAILED);
+        OrderItem other = createDigitalItem(OrderItem.DigitalZipStatus.FAILED);
+
+        assertThat(jobService.requeueFailed(other.getOrder().getId(), item.getId())).isFalse();
+        assertThat(jobService.requeueFailed(item.getOrder().getId(), item.getId())).isTrue();
+        assertThat(jobService.requeueFailed(item.getOrder().getId(), item.getId())).isFalse();
+
+        OrderItem stored = orderItemRepository.findById(item.getId()).orElseThrow();
+        assertThat(stored.getDigitalZipStatus()).isEqualTo(OrderItem.DigitalZipStatus.PENDING);
+        assertThat(stored.getDigitalZipAttempts()).isZero();
+        verify(digitalZipWorker).submit(item.getId());
+        verify(digitalZipWorker, never()).submit(other.getId());
+    }
+
+    private OrderItem createDigitalItem(OrderItem.DigitalZipStatus status) {
+        Order order = new Order();
+        order.setId(orderIdAllocator.nextOrderId());
+        order.setUserEmail("buyer@example.com");
+        order.setTotal(new BigDecimal("199.00"));
+        OrderItem item = new OrderItem();
+        item.setProductType("DIGITAL");
+        item.setProductId(1L);
+        item.setName("Pattern pack");
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("199.00"));
+        item.setZipPassword("buyer@example.com");
+        item.setDigitalZipStatus(status);
+        item.setDigitalZipAttempts(status == OrderItem.DigitalZipStatus.FAILED ? 3 : 0);
+        order.addItem(item);
+        order = orderRepository.save(order);
+        orderIds.add(order.getId());
+        return order.getItems().get(0);
+    }
+}
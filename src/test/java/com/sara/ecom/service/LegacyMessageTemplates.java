@@ -0,0 +1,103 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.User;
+
+import java.util.Map;
+
+/**
+ * The String.replace chains that rendered message templates before {@link MessageTemplateEngine},
+ * copied verbatim as the reference for equivalence tests and benchmarks.
+ */
+final class LegacyMessageTemplates {
+
+    private LegacyMessageTemplates() {
+    }
+
+    /**
+     * Former MessageTemplateService.renderTemplateContent.
+     */
+    static String renderTemplateContent(String templateContent, Map<String, String> variables) {
+        String content = templateContent;
+        
+        // Replace variables
+        if (variables != null) {
+            for (Map.Entry<String, String> entry : variables.entrySet()) {
+                String placeholder = "{{" + entry.getKey() + "}}";
+                content = content.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
+            }
+        }
+        
+        return content;
+    }
+
+    /**
+     * Former WhatsAppService.replaceVariables.
+     */
+    static String replaceVariables(String template, Order order, User user, String customMessage) {
+        if (template == null) {
+            return "";
+        }
+        
+        String result = template;
+        
+        // Replace order variables
+        if (order != null) {
+            result = result.replace("{{order_id}}", order.getOrderNumber() != null ? order.getOrderNumber() : "");
+            result = result.replace("{{amount}}", order.getTotal() != null ? "₹" + order.getTotal().toString() : "");
+            result = result.replace("{{status}}", order.getStatus() != null ? order.getStatus().name() : "");
+            result = result.replace("{{custom_status}}", order.getCustomStatus() != null ? order.getCustomStatus() : "");
+            result = result.replace("{{subtotal}}", order.getSubtotal() != null ? "₹" + order.getSubtotal().toString() : "");
+            result = result.replace("{{gst}}", order.getGst() != null ? "₹" + order.getGst().toString() : "");
+            result = result.replace("{{shipping}}", order.getShipping() != null ? "₹" + order.getShipping().toString() : "");
+            result = result.replace("{{coupon_code}}", order.getCouponCode() != null ? order.getCouponCode() : "");
+            result = result.replace("{{coupon_discount}}", order.getCouponDiscount() != null ? "₹" + order.getCouponDiscount().toString() : "");
+            
+            // Format order date
+            if (order.getCreatedAt() != null) {
+                java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("dd MMM yyyy");
+                result = result.replace("{{order_date}}", order.getCreatedAt().format(formatter));
+            } else {
+                result = result.replace("{{order_date}}", "");
+            }
+            
+            // Items count
+            if (order.getItems() != null) {
+                int itemsCount = order.getItems().stream()
+                    .mapToInt(item -> item.getQuantity() != null ? item.getQuantity() : 0)
+                    .sum();
+                result = result.replace("{{items_count}}", String.valueOf(itemsCount));
+            } else {
+                result = result.replace("{{items_count}}", "0");
+            }
+        }
+        
+        // Replace user variables
+        if (user != null) {
+            String name = "";
+            if (user.getFirstName() != null) {
+                name = user.getFirstName();
+            }
+            if (user.getLastName() != null && !user.getLastName().trim().isEmpty()) {
+                name += (name.isEmpty() ? "" : " ") + user.getLastName();
+            }
+            result = result.replace("{{name}}", name.isEmpty() ? (order != null && order.getUserName() != null ? order.getUserName() : "") : name);
+        } else if (order != null && order.getUserName() != null) {
+            result = result.replace("{{name}}", order.getUserName());
+        } else {
+            result = result.replace("{{name}}", "");
+        }
+        
+        // Replace custom message variable
+        result = result.replace("{{custom_message}}", customMessage != null ? customMessage : "");
+        
+        // Replace payment status
+        if (order != null && order.getPaymentStatus() != null) {
+            result = result.replace("{{payment_status}}", order.getPaymentStatus().name());
+        } else {
+            result = result.replace("{{payment_status}}", "");
+        }
+        
+        return result;
+    }
+}
@@ -0,0 +1,178 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.entity.Order;
+import com.sara.ecom.entity.OrderItem;
+import com.sara.ecom.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageTemplateEngineTest {
+
+    private static final String[] WHATSAPP_VARIABLES = {"order_id", "amount", "status", "custom_status", "subtotal",
+            "gst", "shipping", "coupon_code", "coupon_discount", "order_date", "items_count", "name",
+            "custom_message", "payment_status", "unknown"};
+    private static final String[] TEXT = {"Hi ", " ", "\n", "₹", ", ", "order"};
+    // Adds unbalanced and nested braces
+    private static final String[] BRACED_TEXT = {"Hi ", " ", "\n", "₹", "{", "}", "{{", "}}", "{{ ", "x}}", "{{{",
+            "}}}", "order", "{{a {{b"};
+
+    private final MessageTemplateEngine engine = new MessageTemplateEngine();
+
+    @Test
+    void nestedOpeningBracesStartThePlaceholderAtTheInnermostPair() {
+        Map<String, String> variables = Map.of("name", "Asha");
+
+        assertThat(engine.render("{{a {{name}}!", variables)).isEqualTo("{{a Asha!");
+        assertThat(engine.render("{{{{name}}}}", variables)).isEqualTo("{{Asha}}");
+        assertThat(engine.render("{{{name}}}", variables)).isEqualTo("{Asha}");
+    }
+
+    @Test
+    void unknownAndUnterminatedPlaceholdersAreKept() {
+        Map<String, String> variables = Map.of("name", "Asha");
+
+        assertThat(engine.render("Hi {{name}}, {{unknown}} {{}} {{name", variables))
+                .isEqualTo("Hi Asha, {{unknown}} {{}} {{name");
+        // Order variables are left as written when there is no order
+        assertThat(whatsApp().replaceVariables("{{order_id}} for {{name}}", null, null, null))
+                .isEqualTo("{{order_id}} for ");
+    }
+
+    @Test
+    void nullValuesRenderAsEmptyText() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("name", null);
+
+        assertThat(engine.render("[{{name}}]", variables)).isEqualTo("[]");
+    }
+
+    @Test
+    void substitutedValuesAreNotScannedForPlaceholders() {
+        Map<String, String> variables = new LinkedHashMap<>();
+        variables.put("name", "{{code}}");
+        variables.put("code", "SAVE10");
+
+        assertThat(engine.render("{{name}} / {{code}}", variables)).isEqualTo("{{code}} / SAVE10");
+        // The replace chain substituted into earlier values
+        assertThat(LegacyMessageTemplates.renderTemplateContent("{{name}} / {{code}}", variables))
+                .isEqualTo("SAVE10 / SAVE10");
+
+        // Nor is text that an empty value joins into a placeholder
+        variables.put("name", "");
+        assertThat(engine.render("{{{{name}}code}}", variables)).isEqualTo("{{code}}");
+        assertThat(LegacyMessageTemplates.renderTemplateContent("{{{{name}}code}}", variables)).isEqualTo("SAVE10");
+
+        Order order = order(new Random(1));
+        order.setCustomStatus("Packed for {{name}}");
+        assertThat(whatsApp().replaceVariables("{{custom_status}}", order, user(), null))
+                .isEqualTo("Packed for {{name}}");
+    }
+
+    @Test
+    void storedTemplateIsRecompiledWhenItChanges() {
+        LocalDateTime v1 = LocalDateTime.of(2026, 1, 1, 10, 0);
+        LocalDateTime v2 = v1.plusMinutes(5);
+
+        CompiledTemplate first = engine.compile("message", 7L, v1, "Hi {{name}}");
+        assertThat(engine.compile("message", 7L, v1, "Hi {{name}}")).isSameAs(first);
+        assertThat(engine.render(engine.compile("message", 7L, v2, "Bye {{name}}"), name -> "Asha"))
+                .isEqualTo("Bye Asha");
+        engine.evict("message", 7L);
+        assertThat(engine.compile("message", 7L, v1, "Hi {{name}}")).isNotSameAs(first);
+    }
+
+    /*
+     * The equivalence checks avoid the one intended difference, rescanning: values never contain braces,
+     * and empty values (from nulls in the WhatsApp case) only occur in templates without stray braces.
+     */
+    @Test
+    void matchesTheReplaceChainForGenericVariables() {
+        Random random = new Random(24);
+        for (int i = 0; i < 20_000; i++) {
+            String template = randomTemplate(random, BRACED_TEXT, new String[] {"a", "b", "name", "code", "missing"});
+            Map<String, String> variables = new LinkedHashMap<>();
+            variables.put("a", "v" + random.nextInt(1000));
+            variables.put("b", "v" + random.nextInt(1000));
+            variables.put("name", "v" + random.nextInt(1000));
+            variables.put("code", "v" + random.nextInt(1000));
+
+            assertThat(engine.render(template, variables)).as(template)
+                    .isEqualTo(LegacyMessageTemplates.renderTemplateContent(template, variables));
+        }
+    }
+
+    @Test
+    void matchesTheReplaceChainForWhatsAppVariables() {
+        WhatsAppService whatsApp = whatsApp();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String template = randomTemplate(random, TEXT, WHATSAPP_VARIABLES);
+            Order order = random.nextInt(4) == 0 ? null : order(random);
+            User user = random.nextInt(3) == 0 ? null : user();
+            String customMessage = random.nextBoolean() ? "v" + random.nextInt(1000) : null;
+
+            assertThat(whatsApp.replaceVariables(template, order, user, customMessage)).as(template)
+                    .isEqualTo(LegacyMessageTemplates.replaceVariables(template, order, user, customMessage));
+        }
+    }
+
+    private WhatsAppService whatsApp() {
+        WhatsAppService service = new WhatsAppService();
+        ReflectionTestUtils.setField(service, "templateEngine", engine);
+        return service;
+    }
+
+    private static String randomTemplate(Random random, String[] text, String[] variables) {
+        StringBuilder template = new StringBuilder();
+        int parts = random.nextInt(12);
+        for (int i = 0; i < parts; i++) {
+            if (random.nextInt(3) == 0) {
+                template.append(text[random.nextInt(text.length)]);
+            } else {
+                template.append("{{").append(variables[random.nextInt(variables.length)]).append("}}");
+            }
+        }
+        return template.toString();
+    }
+
+    private static Order order(Random random) {
+        Order order = new Order();
+        order.setOrderNumber(random.nextBoolean() ? "ORD-" + random.nextInt(10_000) : null);
+        order.setUserName(random.nextBoolean() ? "Ravi Kumar" : null);
+        order.setTotal(random.nextBoolean() ? new BigDecimal("1250.50") : null);
+        order.setSubtotal(new BigDecimal("1100.00"));
+        order.setGst(random.nextBoolean() ? new BigDecimal("99.00") : null);
+        order.setShipping(BigDecimal.ZERO);
+        order.setCouponCode(random.nextBoolean() ? "SAVE10" : null);
+        order.setCouponDiscount(random.nextBoolean() ? new BigDecimal("50") : null);
+        order.setStatus(random.nextBoolean() ? Order.OrderStatus.values()[random.nextInt(Order.OrderStatus.values().length)] : null);
+        order.setPaymentStatus(random.nextBoolean() ? Order.PaymentStatus.PAID : null);
+        order.setCustomStatus(random.nextBoolean() ? "Dyeing" : null);
+        order.setCreatedAt(random.nextBoolean() ? LocalDateTime.of(2026, 3, 9, 14, 30) : null);
+        if (random.nextBoolean()) {
+            OrderItem item = new OrderItem();
+            item.setQuantity(random.nextBoolean() ? 3 : null);
+            order.setItems(List.of(item, new OrderItem()));
+        } else {
+            order.setItems(null);
+        }
+        return order;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setFirstName("Asha");
+        user.setLastName("Verma");
+        return user;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The allocator creates order_id_seq itself at startup, so a fresh database can take orders
+ * without running the migration scripts by hand.
+ */
+@SpringBootTest
+class OrderIdAllocatorTest extends PostgresTestSupport {
+
+    @Autowired
+    private OrderIdAllocator allocator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sequenceExistsAfterStartup() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_class WHERE relkind = 'S' AND relname = 'order_id_seq'", Integer.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = 'order_id_seq'", Integer.class))
+                .isEqualTo(OrderIdAllocator.BLOCK_SIZE);
+    }
+
+    @Test
+    void allocatesDistinctSevenDigitIdsAcrossBlocks() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < OrderIdAllocator.BLOCK_SIZE * 3; i++) {
+            long id = allocator.nextOrderId();
+            assertThat(id).isBetween(OrderIdAllocator.MIN_ID, OrderIdAllocator.MIN_ID + OrderIdAllocator.ID_SPACE - 1);
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(OrderIdAllocator.BLOCK_SIZE * 3);
+    }
+
+    @Test
+    void permutationIsABijectionOnASample() {
+        Set<Integer> seen = new HashSet<>();
+        for (int counter = 0; counter < 100_000; counter++) {
+            int offset = allocator.permute(counter);
+            assertThat(offset).isBetween(0, OrderIdAllocator.ID_SPACE - 1);
+            seen.add(offset);
+        }
+        assertThat(seen).hasSize(100_000);
+    }
+}
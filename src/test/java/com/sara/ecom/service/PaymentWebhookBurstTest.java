@@ -0,0 +1,164 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import com.sara.ecom.entity.PaymentWebhookEvent;
+import com.sara.ecom.repository.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Throughput benchmark for the webhook queue: a burst of Razorpay deliveries, each sent twice as a
+ * gateway retry would, is ingested from many threads and drained by the real worker. Applying an event
+ * is simulated with a short sleep in place of the order update. Logs ingest and apply rates and checks
+ * that every event was applied exactly once, in arrival order per order, with no two events of one order
+ * in flight together.
+ */
+@SpringBootTest(properties = "payments.webhooks.workers=8")
+class PaymentWebhookBurstTest extends PostgresTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookBurstTest.class);
+    private static final int ORDERS = 50;
+    private static final int EVENTS_PER_ORDER = 8;
+    private static final int DELIVERIES_PER_EVENT = 2;
+    private static final int SENDERS = 16;
+    private static final long APPLY_MILLIS = 2;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentWebhookService webhookService;
+    @Autowired
+    private PaymentWebhookEventRepository eventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, List<String>> applied = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger overlaps = new AtomicInteger();
+
+    @BeforeEach
+    @AfterEach
+    void clearQueue() {
+        jdbcTemplate.update("DELETE FROM payment_webhook_events");
+    }
+
+    @BeforeEach
+    void simulateOrderUpdates() {
+        doAnswer(invocation -> {
+            String orderNumber = invocation.getArgument(0);
+            AtomicInteger running = inFlight.computeIfAbsent(orderNumber, k -> new AtomicInteger());
+            if (running.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            try {
+                Thread.sleep(APPLY_MILLIS);
+                applied.computeIfAbsent(orderNumber, k -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(invocation.getArgument(2));
+            } finally {
+                running.decrementAndGet();
+            }
+            return null;
+        }).when(orderService).updatePaymentStatusByOrderNumber(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void burstOfWebhooksIsAppliedOnceInOrderPerOrder() throws Exception {
+        List<String[]> deliveries = new ArrayList<>();
+        for (int seq = 0; seq < EVENTS_PER_ORDER; seq++) {
+            for (int order = 0; order < ORDERS; order++) {
+                String paymentId = "pay_" + order + "_" + seq;
+                String payload = PaymentWebhookQueueTest.razorpayPayload(
+                        seq % 2 == 0 ? "payment.failed" : "payment.captured", paymentId, "BURST-" + order);
+                for (int copy = 0; copy < DELIVERIES_PER_EVENT; copy++) {
+                    deliveries.add(new String[] {payload, "evt_" + paymentId});
+                }
+            }
+        }
+        int events = ORDERS * EVENTS_PER_ORDER;
+
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger stored = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        long started;
+        long ingested;
+        try {
+            for (int i = 0; i < SENDERS; i++) {
+                results.add(senders.submit(() -> {
+                    start.await();
+                    for (int d = next.getAndIncrement(); d < deliveries.size(); d = next.getAndIncrement()) {
+                        try {
+                            if (webhookService.ingestRazorpay(deliveries.get(d)[0], deliveries.get(d)[1])) {
+                                stored.incrementAndGet();
+                            }
+                        } catch (DataIntegrityViolationException e) {
+                            // Concurrent duplicate, acknowledged by the controller
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+            ingested = System.nanoTime();
+        } finally {
+            senders.shutdownNow();
+        }
+        assertThat(stored.get()).isEqualTo(events);
+
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (eventRepository.countByStatus(PaymentWebhookEvent.Status.PROCESSED) < events
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        long drained = System.nanoTime();
+
+        logger.info("Webhook burst: {} deliveries acknowledged in {} ms ({} /s); {} events applied {} ms after the "
+                        + "first delivery ({} /s)",
+                deliveries.size(), TimeUnit.NANOSECONDS.toMillis(ingested - started),
+                perSecond(deliveries.size(), ingested - started), events,
+                TimeUnit.NANOSECONDS.toMillis(drained - started), perSecond(events, drained - started));
+
+        assertThat(eventRepository.countByStatus(PaymentWebhookEvent.Status.PROCESSED)).isEqualTo(events);
+        assertThat(overlaps.get()).isZero();
+        for (int order = 0; order < ORDERS; order++) {
+            String orderKey = "BURST-" + order;
+            List<String> arrivalOrder = eventRepository.findByOrderKeyOrderByIdAsc(orderKey).stream()
+                    .map(PaymentWebhookEvent::getPaymentReference).toList();
+            assertThat(applied.get(orderKey)).as(orderKey).containsExactlyElementsOf(arrivalOrder);
+        }
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return nanos == 0 ? count : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+}
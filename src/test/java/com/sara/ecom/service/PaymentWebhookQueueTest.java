@@ -0,0 +1,200 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import com.sara.ecom.entity.PaymentWebhookEvent;
+import com.sara.ecom.repository.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Webhook ingestion and claiming against Postgres: a redelivered event is stored once, and
+ * {@code lockDue} hands out only the oldest open event of each order, skipping rows another worker holds.
+ * The worker is mocked so nothing is applied behind the test's back; queue rows are scheduled a day
+ * ahead and claimed with a matching clock, so pollers of other cached contexts never see them.
+ */
+@SpringBootTest
+class PaymentWebhookQueueTest extends PostgresTestSupport {
+
+    private static final LocalDateTime LATER = LocalDateTime.now().plusDays(1);
+    private static final LocalDateTime CLAIM_AT = LATER.plusHours(1);
+
+    @MockitoBean
+    private PaymentWebhookWorker worker;
+
+    @Autowired
+    private PaymentWebhookService webhookService;
+    @Autowired
+    private PaymentWebhookEventRepository eventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    @AfterEach
+    void clearQueue() {
+        jdbcTemplate.update("DELETE FROM payment_webhook_events");
+    }
+
+    @Test
+    void redeliveredEventIsStoredOnce() {
+        String payload = razorpayPayload("payment.captured", "pay_dup", "ORD-DUP");
+
+        assertThat(webhookService.ingestRazorpay(payload, "evt_dup")).isTrue();
+        assertThat(webhookService.ingestRazorpay(payload, "evt_dup")).isFalse();
+        // Without the header the event name and payment id identify the event
+        assertThat(webhookService.ingestRazorpay(payload, null)).isTrue();
+        assertThat(webhookService.ingestRazorpay(payload, " ")).isFalse();
+
+        assertThat(eventRepository.findByOrderKeyOrderByIdAsc("ORD-DUP"))
+                .extracting(PaymentWebhookEvent::getEventId)
+                .containsExactly("evt_dup", "payment.captured:pay_dup");
+    }
+
+    @Test
+    void concurrentDeliveriesOfOneEventStoreOneRow() throws Exception {
+        String payload = razorpayPayload("payment.captured", "pay_race", "ORD-RACE");
+        int deliveries = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(deliveries);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < deliveries; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        return webhookService.ingestRazorpay(payload, "evt_race");
+                    } catch (DataIntegrityViolationException e) {
+                        // Lost the race on the unique key; the controller acknowledges it as a duplicate
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int stored = 0;
+            for (Future<Boolean> result : results) {
+                stored += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertThat(stored).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(eventRepository.findByOrderKeyOrderByIdAsc("ORD-RACE")).hasSize(1);
+    }
+
+    @Test
+    void lockDueHandsOutTheOldestOpenEventOfEachOrder() {
+        PaymentWebhookEvent a1 = queue("A", "a1");
+        PaymentWebhookEvent b1 = queue("B", "b1");
+        PaymentWebhookEvent a2 = queue("A", "a2");
+        PaymentWebhookEvent b2 = queue("B", "b2");
+        PaymentWebhookEvent a3 = queue("A", "a3");
+        queue("C", "c1", CLAIM_AT.plusMinutes(1));
+
+        // C's only event is not due yet
+        assertThat(lockDue(10)).containsExactly(a1.getId(), b1.getId());
+
+        setStatus(a1, PaymentWebhookEvent.Status.PROCESSED);
+        setStatus(b1, PaymentWebhookEvent.Status.PROCESSING);
+        // B waits while its first event is in flight
+        assertThat(lockDue(10)).containsExactly(a2.getId());
+
+        setStatus(a2, PaymentWebhookEvent.Status.FAILED);
+        setStatus(b1, PaymentWebhookEvent.Status.PENDING);
+        // A given-up event no longer holds its order back; a retried one still does
+        assertThat(lockDue(10)).containsExactly(b1.getId(), a3.getId());
+        assertThat(lockDue(1)).containsExactly(b1.getId());
+
+        setStatus(b1, PaymentWebhookEvent.Status.PROCESSED);
+        assertThat(lockDue(10)).containsExactly(b2.getId(), a3.getId());
+    }
+
+    @Test
+    void concurrentClaimsSkipLockedRows() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(queue("ORD-" + i, "e" + i).getId());
+        }
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Long>> first = pool.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                List<Long> claimed = idsOf(eventRepository.lockDue(CLAIM_AT, 3));
+                locked.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return claimed;
+            }));
+            assertThat(locked.await(30, TimeUnit.SECONDS)).isTrue();
+
+            // Returns at once with the rows the open transaction does not hold
+            List<Long> second = lockDue(10);
+            release.countDown();
+
+            assertThat(first.get(30, TimeUnit.SECONDS)).containsExactlyElementsOf(ids.subList(0, 3));
+            assertThat(second).containsExactlyElementsOf(ids.subList(3, 6));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Long> lockDue(int limit) {
+        return new TransactionTemplate(transactionManager).execute(status -> idsOf(eventRepository.lockDue(CLAIM_AT, limit)));
+    }
+
+    private static List<Long> idsOf(List<PaymentWebhookEvent> events) {
+        return events.stream().map(PaymentWebhookEvent::getId).toList();
+    }
+
+    private PaymentWebhookEvent queue(String orderKey, String eventId) {
+        return queue(orderKey, eventId, LATER);
+    }
+
+    private PaymentWebhookEvent queue(String orderKey, String eventId, LocalDateTime nextAttemptAt) {
+        PaymentWebhookEvent event = new PaymentWebhookEvent();
+        event.setProvider(PaymentWebhookEvent.Provider.RAZORPAY);
+        event.setEventId(eventId);
+        event.setEventType("payment.captured");
+        event.setOrderKey(orderKey);
+        event.setPaymentStatus("PAID");
+        event.setPayload("{}");
+        event.setNextAttemptAt(nextAttemptAt);
+        return eventRepository.saveAndFlush(event);
+    }
+
+    private void setStatus(PaymentWebhookEvent event, PaymentWebhookEvent.Status status) {
+        jdbcTemplate.update("UPDATE payment_webhook_events SET status = ? WHERE id = ?", status.name(), event.getId());
+    }
+
+    static String razorpayPayload(String event, String paymentId, String orderNumber) {
+        return """
+                {"event": "%s", "payload": {
+                  "payment": {"id": "%s", "amount": 125000, "currency": "inr"},
+                  "order": {"id": "order_%s", "notes": {"order_number": "%s"}}}}
+                """.formatted(event, paymentId, paymentId, orderNumber);
+    }
+}
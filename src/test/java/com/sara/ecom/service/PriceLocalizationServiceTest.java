@@ -0,0 +1,123 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.dto.PlainProductDto;
+import com.sara.ecom.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceLocalizationServiceTest {
+
+    private final CurrencyService currencyService = mock(CurrencyService.class);
+    private final PriceLocalizationService service = new PriceLocalizationService(currencyService);
+
+    @Test
+    void localizedProductIsACompleteCopyWithConvertedPrices() {
+        when(currencyService.getDisplayRate("USD")).thenReturn(new BigDecimal("0.012"));
+        ProductDto source = product();
+
+        ProductDto localized = service.localize(source, "USD");
+
+        assertThat(localized).isNotSameAs(source);
+        // Every non-price field is carried over, compared through a copy with the prices put back
+        ProductDto withBasePrices = new ProductDto(localized);
+        withBasePrices.setCurrency(null);
+        withBasePrices.setPrice(source.getPrice());
+        withBasePrices.setDesignPrice(source.getDesignPrice());
+        withBasePrices.setOriginalPrice(source.getOriginalPrice());
+        withBasePrices.getVariants().get(0).getOptions().get(0).setPriceModifier(new BigDecimal("100.00"));
+        withBasePrices.getPricingSlabs().get(0).setDiscountValue(new BigDecimal("50.00"));
+        withBasePrices.getPlainProduct().setPricePerMeter(new BigDecimal("300.00"));
+        assertThat(withBasePrices).usingRecursiveComparison().isEqualTo(source);
+
+        assertThat(localized.getCurrency()).isEqualTo("USD");
+        assertThat(localized.getPrice()).isEqualByComparingTo("12.00");
+        assertThat(localized.getDesignPrice()).isEqualByComparingTo("6.00");
+        assertThat(localized.getOriginalPrice()).isEqualByComparingTo("18.00");
+        assertThat(localized.getVariants().get(0).getOptions().get(0).getPriceModifier()).isEqualByComparingTo("1.20");
+        assertThat(localized.getPricingSlabs().get(0).getDiscountValue()).isEqualByComparingTo("0.60");
+        assertThat(localized.getPricingSlabs().get(1).getDiscountValue()).isEqualByComparingTo("10");
+        assertThat(localized.getPlainProduct().getPricePerMeter()).isEqualByComparingTo("3.60");
+        assertThat(localized.getGstRate()).isEqualByComparingTo("5");
+
+        // The shared source is left untouched
+        assertThat(source.getPrice()).isEqualByComparingTo("1000.00");
+        assertThat(source.getVariants().get(0).getOptions().get(0).getPriceModifier()).isEqualByComparingTo("100.00");
+        assertThat(source.getPlainProduct().getPricePerMeter()).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    void roundsToTheMinorUnitOfTheCurrency() {
+        when(currencyService.getDisplayRate("JPY")).thenReturn(new BigDecimal("1.777"));
+
+        ProductDto localized = service.localize(product(), "JPY");
+
+        assertThat(localized.getPrice()).isEqualTo(new BigDecimal("1777"));
+    }
+
+    @Test
+    void baseCurrencyReturnsTheSameInstance() {
+        ProductDto source = product();
+
+        assertThat(service.localize(source, null)).isSameAs(source);
+        assertThat(service.localize(source, "INR")).isSameAs(source);
+    }
+
+    private static ProductDto product() {
+        ProductDto product = new ProductDto();
+        product.setId(7L);
+        product.setName("Block print kurta");
+        product.setSlug("block-print-kurta");
+        product.setType("DESIGNED");
+        product.setStatus("ACTIVE");
+        product.setCategoryId(3L);
+        product.setImages(new ArrayList<>(List.of("a.jpg", "b.jpg")));
+        ProductDto.MediaDto media = new ProductDto.MediaDto();
+        media.setUrl("a.jpg");
+        media.setType("image");
+        product.setMedia(new ArrayList<>(List.of(media)));
+        product.setPrice(new BigDecimal("1000.00"));
+        product.setDesignPrice(new BigDecimal("500.00"));
+        product.setOriginalPrice(new BigDecimal("1500.00"));
+        product.setGstRate(new BigDecimal("5"));
+        product.setHsnCode("6204");
+        product.setIsNew(true);
+        product.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4));
+
+        ProductDto.VariantOptionDto option = new ProductDto.VariantOptionDto();
+        option.setId(11L);
+        option.setValue("XL");
+        option.setPriceModifier(new BigDecimal("100.00"));
+        ProductDto.VariantDto variant = new ProductDto.VariantDto();
+        variant.setId(10L);
+        variant.setName("Size");
+        variant.setType("size");
+        variant.setOptions(new ArrayList<>(List.of(option)));
+        product.setVariants(new ArrayList<>(List.of(variant)));
+
+        ProductDto.PricingSlabDto fixed = new ProductDto.PricingSlabDto();
+        fixed.setMinQuantity(10);
+        fixed.setDiscountType("FIXED_AMOUNT");
+        fixed.setDiscountValue(new BigDecimal("50.00"));
+        ProductDto.PricingSlabDto percentage = new ProductDto.PricingSlabDto();
+        percentage.setMinQuantity(50);
+        percentage.setDiscountType("PERCENTAGE");
+        percentage.setDiscountValue(new BigDecimal("10"));
+        product.setPricingSlabs(new ArrayList<>(List.of(fixed, percentage)));
+
+        PlainProductDto fabric = new PlainProductDto();
+        fabric.setId(20L);
+        fabric.setName("Cotton");
+        fabric.setPricePerMeter(new BigDecimal("300.00"));
+        product.setPlainProductId(20L);
+        product.setPlainProduct(fabric);
+        return product;
+    }
+}
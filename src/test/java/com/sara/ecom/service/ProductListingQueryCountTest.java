@@ -0,0 +1,200 @@
+package com.sara.ecom.service;
+
+import com.sara.ecom.PostgresTestSupport;
+import com.sara.ecom.entity.Category;
+import com.sara.ecom.entity.PlainProduct;
+import com.sara.ecom.entity.Product;
+import com.sara.ecom.entity.ProductCustomField;
+import com.sara.ecom.entity.ProductDetailSection;
+import com.sara.ecom.entity.ProductImage;
+import com.sara.ecom.entity.ProductPricingSlab;
+import com.sara.ecom.entity.ProductVariant;
+import com.sara.ecom.entity.ProductVariantOption;
+import com.sara.ecom.repository.CategoryRepository;
+import com.sara.ecom.repository.PlainProductRepository;
+import com.sara.ecom.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Product DTOs are assembled in bulk, so listing N products costs a fixed number of statements.
+ * Each listing is measured with a few products and again with many more; the counts must match.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductListingQueryCountTest extends PostgresTestSupport {
+
+    private static final int MAX_LISTING_STATEMENTS = 12;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PlainProductRepository plainProductRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> plainProductIds = new ArrayList<>();
+    private Long categoryId;
+    private int sequence;
+
+    @BeforeEach
+    void createCategory() {
+        Category category = new Category();
+        category.setName("Query count test");
+        category.setSlug("query-count-test-" + System.nanoTime());
+        category.setStatus(Category.Status.ACTIVE);
+        categoryId = categoryRepository.save(category).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(productIds);
+        plainProductRepository.deleteAllById(plainProductIds);
+        categoryRepository.deleteById(categoryId);
+    }
+
+    @Test
+    void adminListingQueryCountDoesNotGrowWithProducts() {
+        Supplier<Integer> listing = () -> productService.getAllProducts(null, null, categoryId, null, true).size();
+        assertBoundedStatements(listing);
+    }
+
+    @Test
+    void keysetPageQueryCountDoesNotGrowWithProducts() {
+        Supplier<Integer> page = () -> productService.getProductsPage(null, null, categoryId, null, null,
+                "name", "asc", 100, null, null, true).getItems().size();
+        assertBoundedStatements(page);
+    }
+
+    @Test
+    void detailExportQueryCountDoesNotGrowWithProducts() {
+        // The export covers every product, so compare the statements it adds per seeded batch instead
+        createProducts(2);
+        countStatements(() -> productService.getAllProductsForExport().size());
+        long few = countStatements(() -> productService.getAllProductsForExport().size());
+        createProducts(20);
+        long many = countStatements(() -> productService.getAllProductsForExport().size());
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    private void assertBoundedStatements(Supplier<Integer> listing) {
+        createProducts(2);
+        // First call warms the in-memory config caches the listing reads
+        countStatements(listing);
+        long few = countStatements(listing);
+        createProducts(20);
+        long many = countStatements(listing);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(many).isLessThanOrEqualTo(MAX_LISTING_STATEMENTS);
+    }
+
+    /**
+     * Statements prepared while running the listing in a fresh read-only transaction, as a request would.
+     */
+    private long countStatements(Supplier<Integer> listing) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        statistics.clear();
+        Integer size = readOnly.execute(tx -> listing.get());
+        assertThat(size).isPositive();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Creates one product of each type per round, with every association the DTOs read.
+     */
+    private void createProducts(int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            PlainProduct plainProduct = new PlainProduct();
+            plainProduct.setName("Fabric " + sequence);
+            plainProduct.setPricePerMeter(new BigDecimal("250.00"));
+            plainProduct.setCategoryId(categoryId);
+            plainProductIds.add(plainProductRepository.save(plainProduct).getId());
+
+            Product plain = newProduct(Product.ProductType.PLAIN);
+            plain.setPlainProductId(plainProduct.getId());
+            plain.setPrice(new BigDecimal("250.00"));
+            productIds.add(productRepository.save(plain).getId());
+
+            Product designed = newProduct(Product.ProductType.DESIGNED);
+            designed.setDesignPrice(new BigDecimal("999.00"));
+            designed.setRecommendedFabricIds(new ArrayList<>(List.of(plain.getId())));
+            ProductPricingSlab slab = new ProductPricingSlab();
+            slab.setMinQuantity(10);
+            slab.setDiscountType(ProductPricingSlab.DiscountType.PERCENTAGE);
+            slab.setDiscountValue(new BigDecimal("5"));
+            slab.setDisplayOrder(0);
+            slab.setProduct(designed);
+            designed.getPricingSlabs().add(slab);
+            productIds.add(productRepository.save(designed).getId());
+
+            Product digital = newProduct(Product.ProductType.DIGITAL);
+            digital.setPrice(new BigDecimal("199.00"));
+            digital.setFileUrl("https://example.com/file-" + sequence + ".zip");
+            productIds.add(productRepository.save(digital).getId());
+        }
+    }
+
+    private Product newProduct(Product.ProductType type) {
+        int n = sequence++;
+        Product product = new Product();
+        product.setName("Query count product " + n);
+        product.setSlug("query-count-product-" + n + "-" + System.nanoTime());
+        product.setType(type);
+        product.setStatus(Product.Status.ACTIVE);
+        product.setCategoryId(categoryId);
+        for (int i = 0; i < 2; i++) {
+            ProductImage image = new ProductImage();
+            image.setImageUrl("https://example.com/" + n + "-" + i + ".jpg");
+            image.setDisplayOrder(i);
+            image.setMediaType(ProductImage.MediaType.IMAGE);
+            product.addImage(image);
+        }
+        ProductDetailSection section = new ProductDetailSection();
+        section.setTitle("Care");
+        section.setContent("Dry clean only");
+        section.setDisplayOrder(0);
+        product.addDetailSection(section);
+        ProductCustomField field = new ProductCustomField();
+        field.setLabel("Name on tag");
+        field.setFieldType("text");
+        product.addCustomField(field);
+        ProductVariant variant = new ProductVariant();
+        variant.setName("Size");
+        variant.setType("size");
+        variant.setFrontendId("size");
+        for (String value : List.of("S", "M")) {
+            ProductVariantOption option = new ProductVariantOption();
+            option.setValue(value);
+            option.setFrontendId(value.toLowerCase());
+            option.setPriceModifier(BigDecimal.ZERO);
+            variant.addOption(option);
+        }
+        product.addVariant(variant);
+        return product;
+    }
+}
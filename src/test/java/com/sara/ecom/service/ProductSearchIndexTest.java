@@ -0,0 +1,139 @@
+package com.sara.ecom.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void tokenizeLowerCasesSplitsAndDropsSingleLetters() {
+        assertThat(ProductSearchIndex.tokenize("Cotton-Silk  SAREE, a 100% x-y"))
+                .containsExactly("cotton", "silk", "saree", "100");
+        assertThat(ProductSearchIndex.tokenize("Bandhani bandhani")).containsExactly("bandhani");
+        assertThat(ProductSearchIndex.tokenize("  ")).isEmpty();
+        assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void exactMatchesOutrankPrefixAndFuzzyMatches() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                document(1L, "Silk saree"),
+                document(2L, "Silken stole"),
+                document(3L, "Silq dupatta")));
+
+        Map<Long, Float> scores = index.search("silk");
+
+        assertThat(scores).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(scores.get(1L)).isGreaterThan(scores.get(2L));
+        assertThat(scores.get(2L)).isGreaterThan(scores.get(3L));
+    }
+
+    @Test
+    void typosFallBackToTrigramCandidates() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                document(1L, "Bandhani dupatta"),
+                document(2L, "Kalamkari cushion")));
+
+        assertThat(index.search("bandhni")).containsOnlyKeys(1L);
+        assertThat(index.search("kalamkary cushon")).containsOnlyKeys(2L);
+        // Short words must match exactly or by prefix
+        assertThat(index.search("dupa")).containsOnlyKeys(1L);
+        assertThat(index.search("bnd")).isEmpty();
+    }
+
+    @Test
+    void everyTokenHasToMatch() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                document(1L, "Silk saree"),
+                document(2L, "Cotton saree")));
+
+        assertThat(index.search("cotton saree")).containsOnlyKeys(2L);
+        assertThat(index.search("cotton velvet")).isEmpty();
+    }
+
+    @Test
+    void completeTermPrefersTermsInMoreProducts() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                document(1L, "Silk saree"),
+                document(2L, "Silk stole"),
+                document(3L, "Silver border")));
+
+        assertThat(index.completeTerm("red sil", 10)).containsExactly("silk", "silver");
+    }
+
+    @Test
+    void patchedIndexMatchesARebuiltOne() {
+        String[] words = {"silk", "saree", "cotton", "linen", "stole", "dupatta", "bandhani", "kalamkari",
+                "printed", "handloom", "border", "zari", "indigo", "block", "cushion", "runner"};
+        Random random = new Random(42);
+        Map<Long, ProductSearchIndex.Document> documents = new HashMap<>();
+        for (long id = 1; id <= 60; id++) {
+            documents.put(id, randomDocument(id, words, random));
+        }
+        ProductSearchIndex index = new ProductSearchIndex(documents.values());
+        ProductSearchIndex original = index;
+        Map<String, Map<Long, Float>> originalResults = searchAll(original, words);
+
+        for (int round = 0; round < 20; round++) {
+            List<ProductSearchIndex.Document> saved = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                long id = 1 + random.nextInt(80);
+                if (random.nextInt(3) == 0) {
+                    removed.add(id);
+                    documents.remove(id);
+                } else {
+                    ProductSearchIndex.Document document = randomDocument(id, words, random);
+                    saved.add(document);
+                    documents.put(id, document);
+                }
+            }
+            saved.removeIf(d -> removed.contains(d.getProductId()));
+            index = index.withChanges(saved, removed);
+
+            ProductSearchIndex rebuilt = new ProductSearchIndex(documents.values());
+            assertThat(index.getDocumentCount()).isEqualTo(rebuilt.getDocumentCount());
+            assertThat(index.getTermCount()).isEqualTo(rebuilt.getTermCount());
+            assertThat(searchAll(index, words)).isEqualTo(searchAll(rebuilt, words));
+        }
+        assertThat(searchAll(original, words)).isEqualTo(originalResults);
+    }
+
+    private static Map<String, Map<Long, Float>> searchAll(ProductSearchIndex index, String[] words) {
+        Map<String, Map<Long, Float>> results = new HashMap<>();
+        for (String word : words) {
+            results.put(word, index.search(word));
+            results.put(word.substring(0, 3), index.search(word.substring(0, 3)));
+            // One typo
+            results.put(word + "x", index.search(word + "x"));
+            results.put("complete:" + word.substring(0, 2), Map.of(0L, (float) index.completeTerm(word.substring(0, 2), 100).size()));
+        }
+        return results;
+    }
+
+    private static ProductSearchIndex.Document randomDocument(long id, String[] words, Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 1 + random.nextInt(3); i++) {
+            name.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        if (random.nextInt(4) == 0) {
+            // A term only this product has, so terms come and go
+            name.append("unique").append(id);
+        }
+        return ProductSearchIndex.Document.builder(id)
+                .field(name.toString(), ProductSearchIndex.NAME_WEIGHT)
+                .field(words[random.nextInt(words.length)], ProductSearchIndex.DESCRIPTION_WEIGHT)
+                .build();
+    }
+
+    private static ProductSearchIndex.Document document(Long id, String name) {
+        return ProductSearchIndex.Document.builder(id).field(name, ProductSearchIndex.NAME_WEIGHT).build();
+    }
+}